@@ -2,7 +2,8 @@
 package com.akwabasystems.asakusa.config;
 
 import com.akwabasystems.asakusa.dao.helper.AddressToMapCodec;
-import com.akwabasystems.asakusa.dao.helper.JSONObjectToTextCodec;
+import com.akwabasystems.asakusa.dao.helper.JsonMapToTextCodec;
+import com.akwabasystems.asakusa.dao.helper.JsonMapToTextMapCodec;
 import com.akwabasystems.asakusa.model.ActivityType;
 import com.akwabasystems.asakusa.model.Address;
 import com.akwabasystems.asakusa.model.Gender;
@@ -11,16 +12,20 @@ import com.akwabasystems.asakusa.model.ItemStatus;
 import com.akwabasystems.asakusa.model.MembershipType;
 import com.akwabasystems.asakusa.model.PhoneNumberType;
 import com.akwabasystems.asakusa.model.Role;
+import com.akwabasystems.asakusa.repository.RepositoryMapper;
 import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.CqlSessionBuilder;
 import com.datastax.oss.driver.api.core.type.codec.ExtraTypeCodecs;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import java.net.InetSocketAddress;
+import java.util.Map;
 import javax.net.ssl.SSLContext;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.cassandra.repository.config.EnableCassandraRepositories;
@@ -73,8 +78,19 @@ public class CassandraConfiguration {
         return CqlIdentifier.fromCql(getKeyspace());
     }
     
+    /**
+     * Counts the null values bound to each statement, which each write a
+     * tombstone. Only enabled where the "cassandra.null-binding-audit" property
+     * is set to true, such as in the test profile.
+     */
     @Bean
-    public CqlSession cqlSession() {
+    @ConditionalOnProperty(name = "cassandra.null-binding-audit", havingValue = "true")
+    public NullBindingAudit nullBindingAudit() {
+        return new NullBindingAudit();
+    }
+    
+    @Bean
+    public CqlSession cqlSession(ObjectProvider<NullBindingAudit> nullBindingAudit) {
         CqlSession session = null;
 
         /** 
@@ -91,11 +107,18 @@ public class CassandraConfiguration {
         TypeCodec<Address> addressCodec = new AddressToMapCodec();
 
         /**
-         * Register the JSONObjectToText codec to encode and decode JSONObject 
-         * fields to their corresponding <code>text</code> representations 
-         * in the Cassandra schema.
+         * Register the JsonMapToText codec to encode and decode the JSON document
+         * fields, exposed as maps, to their corresponding <code>text</code>
+         * representations in the Cassandra schema.
+         */
+        TypeCodec<Map<String,Object>> jsonCodec = new JsonMapToTextCodec();
+
+        /**
+         * Register the JsonMapToTextMap codec to encode and decode the user
+         * settings, which are stored with one <code>map<text,text></code> entry
+         * per setting in the Cassandra schema.
          */
-        TypeCodec<JSONObject> jsonCodec = new JSONObjectToTextCodec();
+        TypeCodec<Map<String,Object>> jsonEntriesCodec = new JsonMapToTextMapCodec();
 
         /** 
          * Register the Role codec to encode and decode the "roles" field 
@@ -130,7 +153,7 @@ public class CassandraConfiguration {
             
         try {
 
-            session = CqlSession.builder()
+            CqlSessionBuilder sessionBuilder = CqlSession.builder()
                     .addContactPoint(new InetSocketAddress(getCassandraHost(), getCassandraPort()))
                     .withSslContext(SSLContext.getDefault())
                     .withLocalDatacenter(getLocalDataCenterName())
@@ -140,14 +163,17 @@ public class CassandraConfiguration {
                         genderCodec, 
                         addressCodec, 
                         jsonCodec, 
+                        jsonEntriesCodec, 
                         roleCodec,
                         statusCodec,
                         priorityCodec,
                         activityTypeCodec,
                         phoneTypeCodec,
                         membershipTypeCodec
-                    )
-                    .build();
+                    );
+            
+            nullBindingAudit.ifAvailable(sessionBuilder::addRequestTracker);
+            session = sessionBuilder.build();
 
             logger.info(String.format("[Cassandra] Session initialized - keyspace: %s, contact-point: %s%n",
                     session.getKeyspace().get(), getCassandraHost()));
@@ -158,7 +184,16 @@ public class CassandraConfiguration {
 
         return session;
     }
-    
+
+    /**
+     * The mapper shared by the whole application. Its DAOs are created once,
+     * by the DAO registry, so that each statement is only prepared once.
+     */
+    @Bean
+    public RepositoryMapper repositoryMapper(CqlSession cqlSession) {
+        return RepositoryMapper.builder(cqlSession).build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests((authorize) -> authorize.anyRequest().permitAll());
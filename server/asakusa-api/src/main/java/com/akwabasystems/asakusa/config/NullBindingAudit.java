@@ -0,0 +1,174 @@
+package com.akwabasystems.asakusa.config;
+
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.java.Log;
+
+
+/**
+ * A request tracker that counts, for each statement, how many times it was
+ * executed and how many null values were bound to it. Each null value bound to
+ * an insert or an update writes a tombstone, so a statement that keeps binding
+ * nulls is one that should leave those columns unset instead. Unset values are
+ * not counted.
+ *
+ * The audit is registered with the session when the "cassandra.null-binding-audit"
+ * property is set to true, which the test profile does. The counts are logged
+ * when the session is closed.
+ */
+@Log
+public class NullBindingAudit implements RequestTracker {
+
+    private final Map<String,StatementBindings> statements = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void onSuccess(Request request,
+                          long latencyNanos,
+                          DriverExecutionProfile executionProfile,
+                          Node node,
+                          String requestLogPrefix) {
+        audit(request);
+    }
+
+
+    @Override
+    public void onError(Request request,
+                        Throwable error,
+                        long latencyNanos,
+                        DriverExecutionProfile executionProfile,
+                        Node node,
+                        String requestLogPrefix) {
+        audit(request);
+    }
+
+
+    /**
+     * Returns the number of null values bound to the specified statement
+     *
+     * @param query     the CQL query of the statement
+     * @return the number of null values bound to the statement since the last reset
+     */
+    public long getNullBindings(String query) {
+        StatementBindings bindings = statements.get(query);
+        return (bindings != null) ? bindings.nullBindings.sum() : 0;
+    }
+
+
+    /**
+     * Returns the number of times the specified statement was executed
+     *
+     * @param query     the CQL query of the statement
+     * @return the number of executions of the statement since the last reset
+     */
+    public long getExecutions(String query) {
+        StatementBindings bindings = statements.get(query);
+        return (bindings != null) ? bindings.executions.sum() : 0;
+    }
+
+
+    /**
+     * Returns the number of null values bound to all the statements
+     *
+     * @return the number of null values bound since the last reset
+     */
+    public long getTotalNullBindings() {
+        return statements.values().stream().mapToLong((bindings) -> bindings.nullBindings.sum()).sum();
+    }
+
+
+    /**
+     * Clears the counts of all the statements
+     */
+    public void reset() {
+        statements.clear();
+    }
+
+
+    /**
+     * Returns the statements to which null values were bound, starting with the
+     * one with the most null values per execution
+     *
+     * @return a report with one line per statement
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("[NullBindingAudit] Null bindings per statement:");
+
+        statements.entrySet().stream()
+                .filter((entry) -> entry.getValue().nullBindings.sum() > 0)
+                .sorted(Comparator.comparingDouble(
+                        (Map.Entry<String,StatementBindings> entry) -> entry.getValue().perExecution()).reversed())
+                .forEach((entry) -> report.append(String.format("%n  %.2f per execution (%d in %d executions) - %s",
+                        entry.getValue().perExecution(),
+                        entry.getValue().nullBindings.sum(),
+                        entry.getValue().executions.sum(),
+                        entry.getKey())));
+
+        return report.toString();
+    }
+
+
+    @Override
+    public void close() {
+        log.info(report());
+    }
+
+
+    private void audit(Request request) {
+
+        if (request instanceof BatchStatement) {
+            for (BatchableStatement<?> statement : (BatchStatement) request) {
+                audit(statement);
+            }
+        } else if (request instanceof BoundStatement) {
+            BoundStatement statement = (BoundStatement) request;
+            int nullBindings = 0;
+
+            for (int index = 0; index < statement.size(); index++) {
+
+                if (statement.isSet(index) && statement.getBytesUnsafe(index) == null) {
+                    nullBindings++;
+                }
+            }
+
+            record(statement.getPreparedStatement().getQuery(), nullBindings);
+        } else if (request instanceof SimpleStatement) {
+            SimpleStatement statement = (SimpleStatement) request;
+            long nullBindings = statement.getPositionalValues().stream().filter((value) -> value == null).count()
+                    + statement.getNamedValues().values().stream().filter((value) -> value == null).count();
+
+            record(statement.getQuery(), nullBindings);
+        }
+    }
+
+
+    private void record(String query, long nullBindings) {
+        StatementBindings bindings = statements.computeIfAbsent(query, (key) -> new StatementBindings());
+        bindings.executions.increment();
+        bindings.nullBindings.add(nullBindings);
+    }
+
+
+    private static class StatementBindings {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder nullBindings = new LongAdder();
+
+        private double perExecution() {
+            long count = executions.sum();
+            return (count > 0) ? (double) nullBindings.sum() / count : 0;
+        }
+
+    }
+
+}
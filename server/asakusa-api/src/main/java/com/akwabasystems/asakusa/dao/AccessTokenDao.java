@@ -9,11 +9,12 @@ import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
 import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface AccessTokenDao {
 
     /**
@@ -56,4 +57,36 @@ public interface AccessTokenDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void delete(AccessToken accessToken);
     
+    
+    /**
+     * Asynchronously creates a new access token
+     * 
+     * @param accessToken   the access token to create
+     * @return a stage that completes once the access token is created
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> createAsync(AccessToken accessToken);
+    
+    
+    /**
+     * Asynchronously updates an access token
+     * 
+     * @param accessToken   the access token to update
+     * @return a stage that completes once the access token is updated
+     */
+    @Update
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> saveAsync(AccessToken accessToken);
+    
+    
+    /**
+     * Asynchronously finds the access token for the specified device ID
+     * 
+     * @param deviceId  the ID of the device for which to retrieve the access token
+     * @return a stage that completes with the access token for the specified device ID
+     */
+    @Select
+    CompletionStage<AccessToken> findByIdAsync(String deviceId);
+    
 }
@@ -9,11 +9,12 @@ import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
 import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface DeviceTokenDao {
 
     /**
@@ -56,4 +57,25 @@ public interface DeviceTokenDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void delete(DeviceToken deviceToken) throws Exception;
     
+    
+    /**
+     * Asynchronously adds a new device token
+     * 
+     * @param deviceToken       the device token to add
+     * @return a stage that completes once the device token is added
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addAsync(DeviceToken deviceToken);
+    
+    
+    /**
+     * Asynchronously finds the token associated with the specified device ID
+     * 
+     * @param deviceId  the ID of the device for which to retrieve the token
+     * @return a stage that completes with the token for the specified device ID
+     */
+    @Select
+    CompletionStage<DeviceToken> findByIdAsync(String deviceId);
+    
 }
@@ -0,0 +1,123 @@
+package com.akwabasystems.asakusa.dao;
+
+import com.akwabasystems.asakusa.dao.impl.CreateDiscussionQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.DeleteDiscussionQueryProvider;
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.DiscussionByAuthor;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Dao;
+import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
+import com.datastax.oss.driver.api.mapper.annotations.Select;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+
+@Dao
+@DefaultNullSavingStrategy(DO_NOT_SET)
+public interface DiscussionDao {
+
+    /**
+     * Creates a new discussion. The discussion and its entry in the 
+     * "discussions_by_author" table are written as one logged batch.
+     * 
+     * @param discussion    the discussion to create
+     */
+    @QueryProvider(
+        providerClass = CreateDiscussionQueryProvider.class,
+        entityHelpers = { Discussion.class, DiscussionByAuthor.class }
+    )
+    void create(Discussion discussion);
+    
+    
+    /**
+     * Finds a discussion by ID
+     * 
+     * @param projectId     the ID of the project for the discussion
+     * @param id            the ID of the discussion to find
+     * @return the discussion with the specified ID
+     */
+    @Select
+    Discussion findById(UUID projectId, UUID id);
+    
+    
+    /**
+     * Returns one page of the discussions for the specified project
+     *
+     * @param projectId         the ID of the project for which to return the discussions
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return one page of the discussions for the specified project
+     */
+    @Select(customWhereClause = "project_id = :projectId")
+    PagingIterable<Discussion> findDiscussionsByProject(@CqlName("projectId") UUID projectId,
+                                                        Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Returns one page of the discussions started by the specified user, 
+     * newest first
+     *
+     * @param authorId          the ID of the user for whom to return the discussions
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return one page of the author entries of the discussions started by the user
+     */
+    @Select
+    PagingIterable<DiscussionByAuthor> findDiscussionsByAuthor(String authorId,
+                                                               Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Deletes the specified discussion along with all its messages
+     * 
+     * @param discussion    the discussion to delete
+     */
+    @QueryProvider(
+        providerClass = DeleteDiscussionQueryProvider.class,
+        entityHelpers = { Discussion.class, DiscussionByAuthor.class }
+    )
+    void delete(Discussion discussion);
+    
+    
+    /**
+     * Asynchronously finds a discussion by ID
+     * 
+     * @param projectId     the ID of the project for the discussion
+     * @param id            the ID of the discussion to find
+     * @return a stage that completes with the discussion with the specified ID
+     */
+    @Select
+    CompletionStage<Discussion> findByIdAsync(UUID projectId, UUID id);
+    
+    
+    /**
+     * Asynchronously returns one page of the discussions for the specified project
+     *
+     * @param projectId         the ID of the project for which to return the discussions
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return a stage that completes with one page of the discussions for the project
+     */
+    @Select(customWhereClause = "project_id = :projectId")
+    CompletionStage<MappedAsyncPagingIterable<Discussion>> findDiscussionsByProjectAsync(
+            @CqlName("projectId") UUID projectId,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously returns one page of the discussions started by the 
+     * specified user, newest first
+     *
+     * @param authorId          the ID of the user for whom to return the discussions
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return a stage that completes with one page of the author entries of the discussions
+     */
+    @Select
+    CompletionStage<MappedAsyncPagingIterable<DiscussionByAuthor>> findDiscussionsByAuthorAsync(
+            String authorId,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+
+}
@@ -9,11 +9,12 @@ import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
 import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface MembershipDao {
 
     /**
@@ -56,4 +57,25 @@ public interface MembershipDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void delete(Membership membership);
     
+    
+    /**
+     * Asynchronously adds a new membership
+     * 
+     * @param membership       the membership to add
+     * @return a stage that completes once the membership is added
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addAsync(Membership membership);
+    
+    
+    /**
+     * Asynchronously finds the membership for the specified user ID
+     * 
+     * @param userId    the user ID for which to find the membership
+     * @return a stage that completes with the membership for the specified user ID
+     */
+    @Select
+    CompletionStage<Membership> findByUserIdAsync(String userId);
+    
 }
@@ -0,0 +1,196 @@
+package com.akwabasystems.asakusa.dao;
+
+import com.akwabasystems.asakusa.dao.impl.CreateMessageQueryProvider;
+import com.akwabasystems.asakusa.model.Message;
+import com.akwabasystems.asakusa.model.MessageBucket;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Dao;
+import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.Delete;
+import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
+import com.datastax.oss.driver.api.mapper.annotations.Select;
+import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * The messages of a discussion are stored in one partition per day, newest 
+ * first. The latest messages are read from the most recent buckets, and older
+ * messages are read with a keyset cursor: the ID of the oldest message already
+ * returned, from which the bucket to resume from is derived.
+ */
+@Dao
+@DefaultNullSavingStrategy(DO_NOT_SET)
+public interface MessageDao {
+
+    /**
+     * Posts a new message on a discussion
+     * 
+     * @param message       the message to post
+     */
+    @QueryProvider(
+        providerClass = CreateMessageQueryProvider.class,
+        entityHelpers = { Message.class, MessageBucket.class }
+    )
+    void create(Message message);
+    
+    
+    /**
+     * Finds a message by ID
+     * 
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for the message
+     * @param bucket            the bucket of the message
+     * @param id                the ID of the message to find
+     * @return the message with the specified ID
+     */
+    @Select
+    Message findById(UUID projectId, UUID discussionId, String bucket, UUID id);
+    
+    
+    /**
+     * Finds a message by ID. The bucket of the message is derived from its ID.
+     * 
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for the message
+     * @param id                the time-based ID of the message to find
+     * @return the message with the specified ID
+     */
+    default Message findById(UUID projectId, UUID discussionId, UUID id) {
+        return findById(projectId, discussionId, Message.bucketOf(id), id);
+    }
+    
+    
+    /**
+     * Returns the days on which messages were posted on the specified 
+     * discussion, newest first
+     *
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for which to return the buckets
+     * @return the message buckets of the specified discussion
+     */
+    @Select(customWhereClause = "project_id = :projectId AND discussion_id = :discussionId")
+    PagingIterable<MessageBucket> findMessageBuckets(@CqlName("projectId") UUID projectId,
+                                                     @CqlName("discussionId") UUID discussionId);
+    
+    
+    /**
+     * Returns the latest messages of a discussion in the specified bucket
+     *
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for which to return the messages
+     * @param bucket            the bucket from which to read the messages
+     * @param maxMessages       the maximum number of messages to return
+     * @return the latest messages of the discussion in the specified bucket
+     */
+    @Select(customWhereClause = "project_id = :projectId AND discussion_id = :discussionId AND bucket = :bucket",
+            limit = ":maxMessages")
+    PagingIterable<Message> findLatestMessages(@CqlName("projectId") UUID projectId,
+                                               @CqlName("discussionId") UUID discussionId,
+                                               @CqlName("bucket") String bucket,
+                                               @CqlName("maxMessages") int maxMessages);
+    
+    
+    /**
+     * Returns the messages of a discussion in the specified bucket that were 
+     * posted before a given message, newest first
+     *
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for which to return the messages
+     * @param bucket            the bucket from which to read the messages
+     * @param before            the ID of the message before which to read
+     * @param maxMessages       the maximum number of messages to return
+     * @return the messages of the discussion posted before the specified message
+     */
+    @Select(customWhereClause = "project_id = :projectId AND discussion_id = :discussionId AND bucket = :bucket " +
+                                "AND id < :before",
+            limit = ":maxMessages")
+    PagingIterable<Message> findMessagesBefore(@CqlName("projectId") UUID projectId,
+                                               @CqlName("discussionId") UUID discussionId,
+                                               @CqlName("bucket") String bucket,
+                                               @CqlName("before") UUID before,
+                                               @CqlName("maxMessages") int maxMessages);
+    
+    
+    /**
+     * Deletes the specified message
+     * 
+     * @param message       the message to delete
+     */
+    @Delete
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    void delete(Message message);
+    
+    
+    /**
+     * Asynchronously posts a new message on a discussion
+     * 
+     * @param message       the message to post
+     * @return a stage that completes once the message is posted
+     */
+    @QueryProvider(
+        providerClass = CreateMessageQueryProvider.class,
+        entityHelpers = { Message.class, MessageBucket.class }
+    )
+    CompletionStage<Void> createAsync(Message message);
+    
+    
+    /**
+     * Asynchronously returns the days on which messages were posted on the 
+     * specified discussion, newest first
+     *
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for which to return the buckets
+     * @return a stage that completes with the message buckets of the discussion
+     */
+    @Select(customWhereClause = "project_id = :projectId AND discussion_id = :discussionId")
+    CompletionStage<MappedAsyncPagingIterable<MessageBucket>> findMessageBucketsAsync(
+            @CqlName("projectId") UUID projectId,
+            @CqlName("discussionId") UUID discussionId);
+    
+    
+    /**
+     * Asynchronously returns the latest messages of a discussion in the 
+     * specified bucket
+     *
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for which to return the messages
+     * @param bucket            the bucket from which to read the messages
+     * @param maxMessages       the maximum number of messages to return
+     * @return a stage that completes with the latest messages in the specified bucket
+     */
+    @Select(customWhereClause = "project_id = :projectId AND discussion_id = :discussionId AND bucket = :bucket",
+            limit = ":maxMessages")
+    CompletionStage<MappedAsyncPagingIterable<Message>> findLatestMessagesAsync(
+            @CqlName("projectId") UUID projectId,
+            @CqlName("discussionId") UUID discussionId,
+            @CqlName("bucket") String bucket,
+            @CqlName("maxMessages") int maxMessages);
+    
+    
+    /**
+     * Asynchronously returns the messages of a discussion in the specified 
+     * bucket that were posted before a given message, newest first
+     *
+     * @param projectId         the ID of the project for the discussion
+     * @param discussionId      the ID of the discussion for which to return the messages
+     * @param bucket            the bucket from which to read the messages
+     * @param before            the ID of the message before which to read
+     * @param maxMessages       the maximum number of messages to return
+     * @return a stage that completes with the messages posted before the specified message
+     */
+    @Select(customWhereClause = "project_id = :projectId AND discussion_id = :discussionId AND bucket = :bucket " +
+                                "AND id < :before",
+            limit = ":maxMessages")
+    CompletionStage<MappedAsyncPagingIterable<Message>> findMessagesBeforeAsync(
+            @CqlName("projectId") UUID projectId,
+            @CqlName("discussionId") UUID discussionId,
+            @CqlName("bucket") String bucket,
+            @CqlName("before") UUID before,
+            @CqlName("maxMessages") int maxMessages);
+
+}
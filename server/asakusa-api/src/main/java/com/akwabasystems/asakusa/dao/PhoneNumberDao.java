@@ -9,11 +9,12 @@ import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
 import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface PhoneNumberDao {
 
     /**
@@ -56,4 +57,25 @@ public interface PhoneNumberDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void delete(PhoneNumber phoneNumber) throws Exception;
     
+    
+    /**
+     * Asynchronously adds a new phone number
+     * 
+     * @param phoneNumber       the phone number to add
+     * @return a stage that completes once the phone number is added
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addAsync(PhoneNumber phoneNumber);
+    
+    
+    /**
+     * Asynchronously finds the phone number associated with the specified user ID
+     * 
+     * @param userId    the user ID associated with the phone number
+     * @return a stage that completes with the phone number for the specified user ID
+     */
+    @Select
+    CompletionStage<PhoneNumber> findByUserIdAsync(String userId);
+    
 }
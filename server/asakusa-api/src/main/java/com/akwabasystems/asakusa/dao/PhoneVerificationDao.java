@@ -9,11 +9,12 @@ import com.datastax.oss.driver.api.mapper.annotations.Delete;
 import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface PhoneVerificationDao {
 
     /**
@@ -45,4 +46,25 @@ public interface PhoneVerificationDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void delete(PhoneNumberVerification verification) throws Exception;
     
+    
+    /**
+     * Asynchronously adds a new phone number verification
+     * 
+     * @param verification       the phone number verification to add
+     * @return a stage that completes once the verification is added
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addVerificationCodeAsync(PhoneNumberVerification verification);
+    
+    
+    /**
+     * Asynchronously finds the verification associated with the specified phone number
+     * 
+     * @param phoneNumber    the phone number for which to return the verification
+     * @return a stage that completes with the verification for the specified phone number
+     */
+    @Select(customWhereClause = "phone_number = :phoneNumber")
+    CompletionStage<PhoneNumberVerification> findByPhoneNumberAsync(@CqlName("phoneNumber") String phoneNumber);
+    
 }
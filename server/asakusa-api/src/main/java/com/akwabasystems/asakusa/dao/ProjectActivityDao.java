@@ -1,29 +1,40 @@
-
 package com.akwabasystems.asakusa.dao;
 
+import com.akwabasystems.asakusa.dao.impl.CreateProjectActivityQueryProvider;
 import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.model.ProjectActivityBucket;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
-import com.datastax.oss.driver.api.mapper.annotations.Insert;
+import com.datastax.oss.driver.api.mapper.annotations.Query;
+import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
-import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface ProjectActivityDao {
 
     /**
-     * Adds a new project activity
+     * Adds a new project activity to the bucket of its creation month. The 
+     * creation date defaults to the current time if it is not set.
      * 
      * @param activity      the project activity to add
      */
-    @Insert
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = CreateProjectActivityQueryProvider.class,
+        entityHelpers = { ProjectActivity.class, ProjectActivityBucket.class }
+    )
     void create(ProjectActivity activity);
     
   
@@ -31,20 +42,129 @@ public interface ProjectActivityDao {
      * Finds a project activity by ID
      * 
      * @param projectId     the ID of the project for which to retrieve the activity
+     * @param bucket        the bucket of the activity
+     * @param createdDate   the creation date of the activity
      * @param id            the ID of the activity to find
      * @return the project activity with the specified ID
      */
     @Select
-    ProjectActivity findById(UUID projectId, UUID id);
+    ProjectActivity findById(UUID projectId, String bucket, Instant createdDate, UUID id);
+    
+    
+    /**
+     * Finds a project activity by ID, given its creation date
+     * 
+     * @param projectId     the ID of the project for which to retrieve the activity
+     * @param createdDate   the creation date of the activity
+     * @param id            the ID of the activity to find
+     * @return the project activity with the specified ID
+     */
+    default ProjectActivity findById(UUID projectId, Instant createdDate, UUID id) {
+        return findById(projectId, ProjectActivity.bucketOf(createdDate), createdDate, id);
+    }
 
     
     /**
-     * Returns the activities for the specified project
+     * Returns the buckets in which the specified project has activities, 
+     * newest first
+     *
+     * @param projectId     the ID of the project for which to return the buckets
+     * @return the activity buckets of the specified project
+     */
+    @Select(customWhereClause = "project_id = :projectId")
+    PagingIterable<ProjectActivityBucket> findBuckets(@CqlName("projectId") UUID projectId);
+    
+    
+    /**
+     * Returns one page of the activities of the specified project in a given
+     * bucket, newest first
+     *
+     * @param projectId         the ID of the project for which to return the activities
+     * @param bucket            the bucket from which to read the activities
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return one page of the activities of the project in the specified bucket
+     */
+    @Select(customWhereClause = "project_id = :projectId AND bucket = :bucket")
+    PagingIterable<ProjectActivity> findActivities(@CqlName("projectId") UUID projectId,
+                                                   @CqlName("bucket") String bucket,
+                                                   Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Returns the rows of the original, unbucketed activity table for the 
+     * specified project. This is only used to migrate the existing activities.
      *
      * @param projectId     the ID of the project for which to return the activities
-     * @return the activities for the specified project
+     * @return the rows of the original activity table for the specified project
+     */
+    @Query("SELECT * FROM project_activity WHERE project_id = :projectId")
+    ResultSet findLegacyActivities(@CqlName("projectId") UUID projectId);
+    
+    
+    /**
+     * Returns the IDs of the projects that have rows in the original, unbucketed
+     * activity table. This is only used to migrate the existing activities.
+     *
+     * @return the distinct project IDs of the original activity table
+     */
+    @Query("SELECT DISTINCT project_id FROM project_activity")
+    ResultSet findLegacyActivityProjects();
+    
+    
+    /**
+     * Asynchronously adds a new project activity to the bucket of its creation
+     * month
+     * 
+     * @param activity      the project activity to add
+     * @return a stage that completes once the activity is added
+     */
+    @QueryProvider(
+        providerClass = CreateProjectActivityQueryProvider.class,
+        entityHelpers = { ProjectActivity.class, ProjectActivityBucket.class }
+    )
+    CompletionStage<Void> createAsync(ProjectActivity activity);
+    
+    
+    /**
+     * Asynchronously adds the specified project activities. The activities are
+     * written with one unlogged batch per partition, which is how the activity
+     * recorder flushes its queue.
+     * 
+     * @param activities    the project activities to add
+     * @return a stage that completes once all the activities are added
+     */
+    @QueryProvider(
+        providerClass = CreateProjectActivityQueryProvider.class,
+        entityHelpers = { ProjectActivity.class, ProjectActivityBucket.class }
+    )
+    CompletionStage<Void> createAllAsync(List<ProjectActivity> activities);
+    
+    
+    /**
+     * Asynchronously returns the buckets in which the specified project has
+     * activities, newest first
+     *
+     * @param projectId     the ID of the project for which to return the buckets
+     * @return a stage that completes with the activity buckets of the specified project
      */
     @Select(customWhereClause = "project_id = :projectId")
-    PagingIterable<ProjectActivity> findAll(@CqlName("projectId") UUID projectId);
+    CompletionStage<MappedAsyncPagingIterable<ProjectActivityBucket>> findBucketsAsync(
+            @CqlName("projectId") UUID projectId);
+    
+    
+    /**
+     * Asynchronously returns one page of the activities of the specified project
+     * in a given bucket, newest first
+     *
+     * @param projectId         the ID of the project for which to return the activities
+     * @param bucket            the bucket from which to read the activities
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return a stage that completes with one page of the activities in the specified bucket
+     */
+    @Select(customWhereClause = "project_id = :projectId AND bucket = :bucket")
+    CompletionStage<MappedAsyncPagingIterable<ProjectActivity>> findActivitiesAsync(
+            @CqlName("projectId") UUID projectId,
+            @CqlName("bucket") String bucket,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
     
 }
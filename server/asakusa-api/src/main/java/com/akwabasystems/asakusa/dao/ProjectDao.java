@@ -1,43 +1,70 @@
 
 package com.akwabasystems.asakusa.dao;
 
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import com.akwabasystems.asakusa.dao.impl.DeleteProjectQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.PatchProjectQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.SaveProjectQueryProvider;
 import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.ProjectByOwner;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
-import com.datastax.oss.driver.api.mapper.annotations.Delete;
 import com.datastax.oss.driver.api.mapper.annotations.Insert;
+import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
-import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
-import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface ProjectDao {
 
     /**
-     * Creates a new Project
+     * Creates a new Project along with its entry in the "projects_by_owner" table
      * 
      * @param project      the project to create
      */
-    @Insert
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = SaveProjectQueryProvider.class,
+        entityHelpers = { Project.class, ProjectByOwner.class }
+    )
     void create(Project project);
     
     
     /**
-     * Updates a project
+     * Updates a project. The owner entry of the project is moved if the owner
+     * of the project has changed.
      * 
      * @param project      the project to update
      * @throws Exception if the project cannot be updated
      */
-    @Update
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = SaveProjectQueryProvider.class,
+        entityHelpers = { Project.class, ProjectByOwner.class }
+    )
     void save(Project project) throws Exception;
+
+    
+    /**
+     * Writes the given columns of the specified project, without reading it
+     * first. Only the columns set on the patch are written, under the optional
+     * condition of the patch. The owner
+     * must be changed with {@link #save} instead.
+     * 
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return true if the patch was applied, or false if its condition failed
+     */
+    @QueryProvider(providerClass = PatchProjectQueryProvider.class)
+    boolean patch(UUID teamId, UUID projectId, ColumnPatch patch);
     
     
     /**
@@ -62,22 +89,162 @@ public interface ProjectDao {
     
     
     /**
-     * Returns the list of all the projects owned by the specified user
+     * Returns one page of the projects for the specified team
+     *
+     * @param teamId           the ID of the team for which to return the projects
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return one page of the projects for the specified team
+     */
+    @Select(customWhereClause = "team_id = :teamId")
+    PagingIterable<Project> findProjectsByTeam(@CqlName("teamId") UUID teamId,
+                                               Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Returns the list of all the projects owned by the specified user, read
+     * from the "projects_by_owner" table
      *
      * @param userId        the ID of the project owner
      * @return the list of all the projects owned by the specified user
      */
-    @Select(customWhereClause = "owner_id = :userId", allowFiltering = true)
-    PagingIterable<Project> findProjectsByOwner(@CqlName("userId") String userId);
+    default PagingIterable<Project> findProjectsByOwner(String userId) {
+        return findProjectEntriesByOwner(userId).map(ProjectByOwner::toProject);
+    }
     
     
     /**
-     * Deletes the specified project
+     * Returns the entries of all the projects owned by the specified user
+     *
+     * @param ownerId       the ID of the project owner
+     * @return the entries of all the projects owned by the specified user
+     */
+    @Select
+    PagingIterable<ProjectByOwner> findProjectEntriesByOwner(String ownerId);
+    
+    
+    /**
+     * Returns one page of the entries of the projects owned by the specified user
+     *
+     * @param ownerId          the ID of the project owner
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return one page of the entries of the projects owned by the specified user
+     */
+    @Select
+    PagingIterable<ProjectByOwner> findProjectEntriesByOwner(String ownerId,
+                                                             Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Adds an owner entry for a project. This is only used to backfill the 
+     * "projects_by_owner" table; the create, save and delete operations keep 
+     * it in sync.
+     * 
+     * @param entry     the owner entry to add
+     */
+    @Insert
+    void addProjectByOwner(ProjectByOwner entry);
+    
+    
+    /**
+     * Deletes the specified project along with its owner entry
      * 
      * @param project      the project to delete
      */
-    @Delete
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = DeleteProjectQueryProvider.class,
+        entityHelpers = { Project.class, ProjectByOwner.class }
+    )
     void delete(Project project) throws Exception;
     
+    
+    /**
+     * Asynchronously creates a new project
+     * 
+     * @param project      the project to create
+     * @return a stage that completes once the project is created
+     */
+    @QueryProvider(
+        providerClass = SaveProjectQueryProvider.class,
+        entityHelpers = { Project.class, ProjectByOwner.class }
+    )
+    CompletionStage<Void> createAsync(Project project);
+    
+    
+    /**
+     * Asynchronously updates a project
+     * 
+     * @param project      the project to update
+     * @return a stage that completes once the project is updated
+     */
+    @QueryProvider(
+        providerClass = SaveProjectQueryProvider.class,
+        entityHelpers = { Project.class, ProjectByOwner.class }
+    )
+    CompletionStage<Void> saveAsync(Project project);
+
+    
+    /**
+     * Asynchronously writes the given columns of the specified project, without
+     * reading it first
+     * 
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return a stage that completes with true if the patch was applied, or false
+     *         if its condition failed
+     */
+    @QueryProvider(providerClass = PatchProjectQueryProvider.class)
+    CompletionStage<Boolean> patchAsync(UUID teamId, UUID projectId, ColumnPatch patch);
+    
+    
+    /**
+     * Asynchronously finds a project by ID
+     * 
+     * @param teamId    the ID of the team for the project
+     * @param id        the ID of the project to find
+     * @return a stage that completes with the project with the specified ID
+     */
+    @Select
+    CompletionStage<Project> findByIdAsync(UUID teamId, UUID id);
+    
+    
+    /**
+     * Asynchronously returns one page of the projects for the specified team
+     *
+     * @param teamId           the ID of the team for which to return the projects
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return a stage that completes with one page of the projects for the specified team
+     */
+    @Select(customWhereClause = "team_id = :teamId")
+    CompletionStage<MappedAsyncPagingIterable<Project>> findProjectsByTeamAsync(
+            @CqlName("teamId") UUID teamId,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously returns one page of the entries of the projects owned by
+     * the specified user
+     *
+     * @param ownerId          the ID of the project owner
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return a stage that completes with one page of the entries of the projects
+     */
+    @Select
+    CompletionStage<MappedAsyncPagingIterable<ProjectByOwner>> findProjectEntriesByOwnerAsync(
+            String ownerId,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously deletes the specified project
+     * 
+     * @param project      the project to delete
+     * @return a stage that completes once the project is deleted
+     */
+    @QueryProvider(
+        providerClass = DeleteProjectQueryProvider.class,
+        entityHelpers = { Project.class, ProjectByOwner.class }
+    )
+    CompletionStage<Void> deleteAsync(Project project);
+    
 }
@@ -0,0 +1,38 @@
+package com.akwabasystems.asakusa.dao;
+
+import com.akwabasystems.asakusa.model.RevokedAccessToken;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.mapper.annotations.Dao;
+import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.Insert;
+import com.datastax.oss.driver.api.mapper.annotations.Select;
+import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+
+
+@Dao
+@DefaultNullSavingStrategy(DO_NOT_SET)
+public interface RevokedAccessTokenDao {
+
+    /**
+     * Adds a token to the revocation list. The row expires with the token, so
+     * the list only ever holds the revoked tokens that are still unexpired.
+     *
+     * @param revokedToken  the revoked token to add
+     * @param ttl           the time to live of the row, in seconds
+     */
+    @Insert(ttl = ":ttl")
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    void revoke(RevokedAccessToken revokedToken, int ttl);
+    
+    
+    /**
+     * Returns the revoked tokens that expire in the specified hour
+     *
+     * @param bucket    the hour in which the tokens expire (e.g. "2023-05-01T14")
+     * @return the revoked tokens that expire in the specified hour
+     */
+    @Select
+    PagingIterable<RevokedAccessToken> findByBucket(String bucket);
+    
+}
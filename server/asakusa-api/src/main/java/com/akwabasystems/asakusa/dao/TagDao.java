@@ -0,0 +1,74 @@
+
+package com.akwabasystems.asakusa.dao;
+
+import com.akwabasystems.asakusa.model.Tag;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.mapper.annotations.Dao;
+import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.Delete;
+import com.datastax.oss.driver.api.mapper.annotations.Insert;
+import com.datastax.oss.driver.api.mapper.annotations.Select;
+import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+
+@Dao
+@DefaultNullSavingStrategy(DO_NOT_SET)
+public interface TagDao {
+    
+    /**
+     * Adds a tag to the catalog of its team. The tag is keyed by its name, so
+     * adding a tag that is already in the catalog rewrites the same row, and a
+     * tag without a color code leaves the stored color code untouched.
+     *
+     * @param tag       the tag to add
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    void add(Tag tag);
+    
+    
+    /**
+     * Returns the tag catalog of the specified team, ordered by tag name
+     *
+     * @param teamId    the ID of the team for which to retrieve the tags
+     * @return the tags of the specified team
+     */
+    @Select
+    PagingIterable<Tag> findByTeam(UUID teamId);
+    
+    
+    /**
+     * Finds a tag by name in the catalog of the specified team
+     *
+     * @param teamId    the ID of the team
+     * @param name      the name of the tag to find
+     * @return the tag with the specified name
+     */
+    @Select
+    Tag findByName(UUID teamId, String name);
+    
+    
+    /**
+     * Removes the specified tag from the catalog of its team
+     *
+     * @param tag       the tag to remove
+     */
+    @Delete
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    void delete(Tag tag);
+    
+    
+    /**
+     * Asynchronously adds a tag to the catalog of its team
+     *
+     * @param tag       the tag to add
+     * @return a stage that completes once the tag is added
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addAsync(Tag tag);
+
+}
@@ -1,46 +1,77 @@
 
 package com.akwabasystems.asakusa.dao;
 
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import com.akwabasystems.asakusa.dao.impl.AssignTaskQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.DeleteTaskQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.PatchTaskQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.SaveTaskQueryProvider;
 import com.akwabasystems.asakusa.model.Task;
-import com.akwabasystems.asakusa.utils.Timeline;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
-import com.datastax.oss.driver.api.mapper.annotations.Delete;
 import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Query;
+import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
-import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface TaskDao {
 
     /**
-     * Creates a new task
+     * Creates a new task. If the task is assigned, its assignee entries are
+     * written in the same logged batch.
      * 
      * @param task      the task to create
      */
-    @Insert
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = SaveTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
     void create(Task task);
     
     
     /**
-     * Updates a task
+     * Updates a task. The assignee entries of the task are rewritten, and moved
+     * if the assignee of the task has changed.
      * 
      * @param task      the task to update
      * @throws Exception if the task cannot be updated
      */
-    @Update
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = SaveTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
     void save(Task task) throws Exception;
+
+    
+    /**
+     * Writes the given columns of the specified task, without reading it
+     * first. Only the columns set on the patch are written, under the optional
+     * condition of the patch. The assignee
+     * must be changed with {@link #assignTask} instead.
+     * 
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return true if the patch was applied, or false if its condition failed
+     */
+    @QueryProvider(providerClass = PatchTaskQueryProvider.class)
+    boolean patch(UUID projectId, UUID taskId, ColumnPatch patch);
     
     
     /**
@@ -64,6 +95,18 @@ public interface TaskDao {
     PagingIterable<Task> findTasksByProject(@CqlName("projectId") UUID projectId);
     
     
+    /**
+     * Returns one page of the tasks for the specified project
+     *
+     * @param projectId        the ID of the project for which to return the tasks
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return one page of the tasks for the specified project
+     */
+    @Select(customWhereClause = "project_id = :projectId")
+    PagingIterable<Task> findTasksByProject(@CqlName("projectId") UUID projectId,
+                                            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
     /**
      * Assigns a task to the specified user
      * 
@@ -104,70 +147,266 @@ public interface TaskDao {
                       @CqlName("userId") String userId);
     
     /**
-     * Assigns a task to the specified user. 
-     * 
-     * This is the default implementation of {@code TaskDao#addTaskAssignee}. It
-     * updates the appropriate properties of the task before saving it and 
-     * invoking {@code TaskDao@addTaskAssignee}.
+     * Assigns a task to the specified user. The assignee and last modified date
+     * of the task and its entry in the "user_tasks" table are written as one
+     * logged batch, which also removes the entry of the previous assignee.
      * 
      * @param task      the task to assign
      * @param userId    the ID of the new assignee
      * @throws an exception if the task cannot be assigned
      */
-    default void assignTask(Task task, String userId) throws Exception {
-        task.setAssigneeId(userId);
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
-        save(task);
-        addTaskAssignee(task.getProjectId(), task.getId(), userId);
-    }
+    @QueryProvider(
+        providerClass = AssignTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    void assignTask(Task task, String userId) throws Exception;
     
     
     /**
-     * Unassigns a task from the specified user
-     * 
-     * This is the default implementation of {@code TaskDao#removeTaskAssignee}. 
-     * It updates the appropriate properties of the task before saving it and 
-     * invoking {@code TaskDao@removeTaskAssignee}.
+     * Unassigns a task from the specified user. The assignee of the task is
+     * cleared and the entry in the "user_tasks" table is removed in one 
+     * logged batch. The stored assignee of the task is read first, and the
+     * task is left untouched if it is no longer assigned to the specified user.
      * 
      * @param task      the task to unassign
      * @param userId    the ID of current task assignee
      * @throws an exception if the task cannot be unassigned
      */
-    default void unassignTask(Task task, String userId) throws Exception {
-        task.setAssigneeId(null);
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
-        save(task);
-        removeTaskAssignee(task.getProjectId(), task.getId(), userId);
-    }
+    @QueryProvider(
+        providerClass = AssignTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    void unassignTask(Task task, String userId) throws Exception;
+    
+    
+    /**
+     * Moves the specified tasks of a project from one user to another, with
+     * one logged batch per task
+     * 
+     * @param projectId     the ID of the project for the tasks
+     * @param taskIds       the IDs of the tasks to move
+     * @param fromUserId    the ID of the current assignee of the tasks
+     * @param toUserId      the ID of the new assignee of the tasks
+     * @return the number of tasks that were moved
+     * @throws an exception if the tasks cannot be reassigned
+     */
+    @QueryProvider(
+        providerClass = AssignTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    long reassignTasks(UUID projectId, Collection<UUID> taskIds, String fromUserId, String toUserId) 
+            throws Exception;
     
     
     /**
-     * Deletes the specified task
+     * Deletes the specified task along with its assignee entries
      * 
      * @param task      the task to delete
      * @throws an exception if the task cannot be deleted
      */
-    @Delete
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = DeleteTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
     void delete(Task task) throws Exception;
     
     
     /**
-     * Deletes the specified task
-     * 
-     * This is the default implementation of {@code TaskDao#delete}. 
-     * If the task is currently assigned to a user, it removes the assignment
-     * before invoking {@code TaskDao@delete}.
+     * Deletes the specified task. The assignment of the task, if any, is 
+     * removed by {@code TaskDao#delete} in the same batch.
      * 
      * @param task      the task to delete
      * @throws an exception if the task cannot be deleted
      */
     default void deleteTask(Task task) throws Exception {
-        if (task.getAssigneeId() != null) {
-            removeTaskAssignee(task.getProjectId(), task.getId(), task.getAssigneeId());
-        }
-        
         delete(task);
     }
     
+    
+    /**
+     * Returns one page of the tasks assigned to the specified user across all
+     * their projects
+     *
+     * @param assigneeId       the ID of the user for whom to find the tasks
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return one page of the entries of the tasks assigned to the user
+     */
+    @Select
+    PagingIterable<TaskByAssignee> findAssignedTasks(String assigneeId,
+                                                     Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Adds an assignee entry for a task. This is only used to backfill the 
+     * "tasks_by_assignee" table; the create, save, assign and delete operations 
+     * keep it in sync.
+     * 
+     * @param entry     the assignee entry to add
+     */
+    @Insert
+    void addTaskByAssignee(TaskByAssignee entry);
+    
+    
+    /**
+     * Asynchronously creates a new task along with its assignee entries
+     * 
+     * @param task      the task to create
+     * @return a stage that completes once the task is created
+     */
+    @QueryProvider(
+        providerClass = SaveTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    CompletionStage<Void> createAsync(Task task);
+    
+    
+    /**
+     * Asynchronously updates a task and its assignee entries
+     * 
+     * @param task      the task to update
+     * @return a stage that completes once the task is updated
+     */
+    @QueryProvider(
+        providerClass = SaveTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    CompletionStage<Void> saveAsync(Task task);
+
+    
+    /**
+     * Asynchronously writes the given columns of the specified task, without
+     * reading it first
+     * 
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return a stage that completes with true if the patch was applied, or false
+     *         if its condition failed
+     */
+    @QueryProvider(providerClass = PatchTaskQueryProvider.class)
+    CompletionStage<Boolean> patchAsync(UUID projectId, UUID taskId, ColumnPatch patch);
+    
+    
+    /**
+     * Asynchronously finds a task by ID
+     * 
+     * @param projectId     the ID of the project for this task
+     * @param id            the ID of the task to find
+     * @return a stage that completes with the task with the specified ID
+     */
+    @Select
+    CompletionStage<Task> findByIdAsync(UUID projectId, UUID id);
+    
+    
+    /**
+     * Asynchronously returns one page of the tasks for the specified project
+     *
+     * @param projectId        the ID of the project for which to return the tasks
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return a stage that completes with one page of the tasks for the specified project
+     */
+    @Select(customWhereClause = "project_id = :projectId")
+    CompletionStage<MappedAsyncPagingIterable<Task>> findTasksByProjectAsync(
+            @CqlName("projectId") UUID projectId,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously assigns a task to the specified user
+     * 
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to assign
+     * @param userId        the ID of the user to assign the task to
+     * @return a stage that completes once the assignment is saved
+     */
+    @Query("INSERT INTO user_tasks (assignee_id, project_id, task_id) VALUES (:userId, :projectId, :taskId)")
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addTaskAssigneeAsync(@CqlName("projectId") UUID projectId, 
+                                               @CqlName("taskId") UUID taskId, 
+                                               @CqlName("userId") String userId);
+    
+    
+    /**
+     * Asynchronously returns the list of all the tasks assigned to the specified user
+     *
+     * @param projectId     the ID of the project in which to look for the tasks
+     * @param userId        the ID of the user for whom to find the tasks
+     * @return a stage that completes with the tasks assigned to the specified user
+     */
+    @Query("SELECT * FROM user_tasks WHERE project_id = :projectId AND assignee_id = :userId")
+    CompletionStage<AsyncResultSet> findTasksByAssigneeAsync(@CqlName("projectId") UUID projectId, 
+                                                             @CqlName("userId") String userId);
+    
+    
+    /**
+     * Asynchronously unassigns a task from the specified user
+     * 
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to unassign
+     * @param userId        the ID of the user from whom to unassign the task
+     * @return a stage that completes once the assignment is removed
+     */
+    @Query("DELETE FROM user_tasks WHERE assignee_id = :userId AND project_id = :projectId AND task_id = :taskId")
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> removeTaskAssigneeAsync(@CqlName("projectId") UUID projectId, 
+                                                  @CqlName("taskId") UUID taskId, 
+                                                  @CqlName("userId") String userId);
+    
+    
+    /**
+     * Asynchronously assigns a task to the specified user, with the same logged
+     * batch as {@link #assignTask}
+     * 
+     * @param task      the task to assign
+     * @param userId    the ID of the new assignee
+     * @return a stage that completes once the task is assigned
+     */
+    @QueryProvider(
+        providerClass = AssignTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    CompletionStage<Void> assignTaskAsync(Task task, String userId);
+    
+    
+    /**
+     * Asynchronously unassigns a task from the specified user, with the same 
+     * logged batch as {@link #unassignTask}
+     * 
+     * @param task      the task to unassign
+     * @param userId    the ID of current task assignee
+     * @return a stage that completes once the task is unassigned
+     */
+    @QueryProvider(
+        providerClass = AssignTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    CompletionStage<Void> unassignTaskAsync(Task task, String userId);
+    
+    
+    /**
+     * Asynchronously returns one page of the tasks assigned to the specified 
+     * user across all their projects
+     *
+     * @param assigneeId       the ID of the user for whom to find the tasks
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return a stage that completes with one page of the entries of the tasks
+     */
+    @Select
+    CompletionStage<MappedAsyncPagingIterable<TaskByAssignee>> findAssignedTasksAsync(
+            String assigneeId,
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously deletes the specified task along with its assignee entries
+     * 
+     * @param task      the task to delete
+     * @return a stage that completes once the task is deleted
+     */
+    @QueryProvider(
+        providerClass = DeleteTaskQueryProvider.class,
+        entityHelpers = { Task.class, TaskByAssignee.class }
+    )
+    CompletionStage<Void> deleteAsync(Task task);
+    
 }
@@ -1,30 +1,40 @@
 
 package com.akwabasystems.asakusa.dao;
 
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
 import com.akwabasystems.asakusa.dao.impl.CreateTeamQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.DeleteTeamQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.PatchTeamQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.RenameTeamQueryProvider;
 import com.akwabasystems.asakusa.model.Team;
+import com.akwabasystems.asakusa.model.TeamByName;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
-import com.datastax.oss.driver.api.mapper.annotations.Delete;
 import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Query;
 import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface TeamDao {
 
     /**
-     * Creates a new team
+     * Creates a new team. The team name is claimed in the "teams_by_name" table
+     * with a conditional insert, so that no two teams can share a name.
      * 
      * @param team      the team to create
      * @return the newly created team
@@ -32,13 +42,30 @@ public interface TeamDao {
      */
     @QueryProvider(
         providerClass = CreateTeamQueryProvider.class,
-        entityHelpers = { Team.class }
+        entityHelpers = { Team.class, TeamByName.class }
     )
     Team create(Team team) throws Exception;
     
     
     /**
-     * Updates a team
+     * Renames a team and saves its other attributes. The new name is claimed
+     * before the team is saved, and the previous name is then released.
+     * 
+     * @param team      the team to rename
+     * @param name      the new name of the team
+     * @return the updated team
+     * @throws Exception if another team already uses the specified name
+     */
+    @QueryProvider(
+        providerClass = RenameTeamQueryProvider.class,
+        entityHelpers = { Team.class, TeamByName.class }
+    )
+    Team rename(Team team, String name) throws Exception;
+    
+    
+    /**
+     * Updates a team. The team name must be changed with {@link #rename} so
+     * that the name lookup entry stays in sync.
      * 
      * @param team      the team to update
      * @throws Exception if the team cannot be updated
@@ -46,6 +73,20 @@ public interface TeamDao {
     @Insert
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void save(Team team) throws Exception;
+
+    
+    /**
+     * Writes the given columns of the specified team, without reading it
+     * first. Only the columns set on the patch are written, under the optional
+     * condition of the patch. The name
+     * must be changed with {@link #rename} instead.
+     * 
+     * @param teamId        the ID of the team to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return true if the patch was applied, or false if its condition failed
+     */
+    @QueryProvider(providerClass = PatchTeamQueryProvider.class)
+    boolean patch(UUID teamId, ColumnPatch patch);
     
     
     /**
@@ -59,13 +100,38 @@ public interface TeamDao {
     
     
     /**
-     * Finds a team by name
+     * Finds a team by name. The team ID is read from the name lookup table,
+     * so that the lookup never scans the "teams" table.
      * 
      * @param name     the name of the team to find
      * @return the team with the specified name, if it exists
      */
-    @Select(customWhereClause = "name = :name", allowFiltering = true)
-    Optional<Team> findByName(@CqlName("name") String name);
+    default Optional<Team> findByName(String name) {
+        TeamByName entry = findTeamByName(name);
+        return (entry != null) ? Optional.ofNullable(findById(entry.getId())) : Optional.empty();
+    }
+    
+    
+    /**
+     * Returns the name lookup entry for the specified team name
+     * 
+     * @param name     the team name to look up
+     * @return the lookup entry for the specified team name
+     */
+    @Select
+    TeamByName findTeamByName(String name);
+    
+    
+    /**
+     * Adds a name lookup entry if the name is not already claimed. This is only 
+     * used to backfill the lookup table; the create, rename and delete 
+     * operations keep it in sync.
+     * 
+     * @param entry     the lookup entry to add
+     * @return true if the entry was added; false if the name is already claimed
+     */
+    @Insert(ifNotExists = true)
+    boolean addTeamByName(TeamByName entry);
     
     
     /**
@@ -78,12 +144,24 @@ public interface TeamDao {
     
     
     /**
-     * Deletes the specified team
+     * Returns one page of the teams
+     *
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return one page of the teams
+     */
+    @Select
+    PagingIterable<Team> findAll(Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Deletes the specified team and releases its name
      * 
      * @param team      the team to delete
      */
-    @Delete
-    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    @QueryProvider(
+        providerClass = DeleteTeamQueryProvider.class,
+        entityHelpers = { Team.class, TeamByName.class }
+    )
     void delete(Team team) throws Exception;
     
     
@@ -118,4 +196,86 @@ public interface TeamDao {
     @Query("SELECT * from team_members WHERE id = :id")
     ResultSet teamMembers(@CqlName("id") UUID id);
     
+    
+    /**
+     * Returns one page of the member IDs for the specified team
+     * 
+     * @param id                the ID of the team for which to retrieve the member IDs
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return one page of the member IDs for the specified team
+     */
+    @Query("SELECT * from team_members WHERE id = :id")
+    ResultSet teamMembers(@CqlName("id") UUID id,
+                          Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously finds a team by ID
+     * 
+     * @param id    the ID of the team to find
+     * @return a stage that completes with the team with the specified ID
+     */
+    @Select
+    CompletionStage<Team> findByIdAsync(UUID id);
+
+    
+    /**
+     * Asynchronously writes the given columns of the specified team, without
+     * reading it first
+     * 
+     * @param teamId        the ID of the team to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return a stage that completes with true if the patch was applied, or false
+     *         if its condition failed
+     */
+    @QueryProvider(providerClass = PatchTeamQueryProvider.class)
+    CompletionStage<Boolean> patchAsync(UUID teamId, ColumnPatch patch);
+    
+    
+    /**
+     * Asynchronously returns one page of the teams
+     *
+     * @param pagingOptions    a function that sets the page size and paging state
+     * @return a stage that completes with one page of the teams
+     */
+    @Select
+    CompletionStage<MappedAsyncPagingIterable<Team>> findAllAsync(
+            Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
+    
+    /**
+     * Asynchronously adds a member to the specified team
+     * 
+     * @param id        the ID of the team to which to add the member
+     * @param userId    the ID of the user to add
+     * @return a stage that completes once the member is added
+     */
+    @Query("INSERT INTO team_members (id, user_id) VALUES (:id, :userId)")
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> addTeamMemberAsync(@CqlName("id") UUID id, @CqlName("userId") String userId);
+    
+    
+    /**
+     * Asynchronously removes a member from the specified team
+     * 
+     * @param id        the ID of the team from which to remove the member
+     * @param userId    the ID of the user to remove
+     * @return a stage that completes once the member is removed
+     */
+    @Query("DELETE FROM team_members WHERE id = :id AND user_id = :userId")
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> removeTeamMemberAsync(@CqlName("id") UUID id, @CqlName("userId") String userId);
+    
+    
+    /**
+     * Asynchronously returns one page of the member IDs for the specified team
+     * 
+     * @param id                the ID of the team for which to retrieve the member IDs
+     * @param pagingOptions     a function that sets the page size and paging state
+     * @return a stage that completes with one page of the member IDs for the specified team
+     */
+    @Query("SELECT * from team_members WHERE id = :id")
+    CompletionStage<AsyncResultSet> teamMembersAsync(@CqlName("id") UUID id,
+                                                     Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions);
+    
 }
@@ -1,48 +1,75 @@
 
 package com.akwabasystems.asakusa.dao;
 
+import com.akwabasystems.asakusa.dao.exception.ConflictException;
+import com.akwabasystems.asakusa.dao.impl.ChangeUserEmailQueryProvider;
 import com.akwabasystems.asakusa.dao.impl.CreateUserQueryProvider;
 import com.akwabasystems.asakusa.dao.impl.DeleteUserQueryProvider;
+import com.akwabasystems.asakusa.dao.impl.UpdatePreferencesQueryProvider;
 import com.akwabasystems.asakusa.model.Role;
 import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
 import com.akwabasystems.asakusa.model.UserCredentials;
 import com.akwabasystems.asakusa.model.UserPreferences;
 import com.datastax.oss.driver.api.core.PagingIterable;
-import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.Insert;
+import com.datastax.oss.driver.api.mapper.annotations.Query;
 import com.datastax.oss.driver.api.mapper.annotations.QueryProvider;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
 import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface UserDao {
 
     /**
-     * Creates a user account. This operation involves the following steps:
-     * First, checking whether a user with the specified ID or email already exist;
-     * second, encrypting the user's password; and finally creating the account.
+     * Creates a user account. The user ID and the email address are claimed with
+     * conditional inserts into the "users" and "users_by_email" tables, and the
+     * account is rolled back if either of them is already taken.
      * 
      * @param user      the user account to create
      * @param password  the user's password
      * @param roles     the user's roles
      * @return the newly created user account
+     * @throws ConflictException if the user ID or the email address is already taken
      * @throws Exception if the account cannot be created
      */
     @QueryProvider(
         providerClass = CreateUserQueryProvider.class,
-        entityHelpers = { User.class, UserCredentials.class }
+        entityHelpers = { User.class, UserCredentials.class, UserByEmail.class }
     )
     User create(User user, char[] password, Set<Role> roles) throws Exception;
     
     
+    /**
+     * Creates a user account whose password has already been hashed, in the
+     * same way as {@link #create}
+     * 
+     * @param user          the user account to create
+     * @param passwordHash  the BCrypt hash of the user's password
+     * @param roles         the user's roles
+     * @return the newly created user account
+     * @throws ConflictException if the user ID or the email address is already taken
+     * @throws Exception if the account cannot be created
+     */
+    @QueryProvider(
+        providerClass = CreateUserQueryProvider.class,
+        entityHelpers = { User.class, UserCredentials.class, UserByEmail.class },
+        providerMethod = "createWithPasswordHash"
+    )
+    User createWithPasswordHash(User user, String passwordHash, Set<Role> roles) throws Exception;
+    
+    
     /**
      * Finds a user by ID
      * 
@@ -54,13 +81,45 @@ public interface UserDao {
     
     
     /**
-     * Finds a user by email address
+     * Finds a user by email address. The user ID is read from the email lookup
+     * table, so that the lookup never scans the "users" table.
      * 
      * @param email     the email address of the user to find
      * @return a user with the specified email
      */
-    @Select(customWhereClause = "email = :email", allowFiltering = true)
-    Optional<User> findByEmail(@CqlName("email") String email);
+    default Optional<User> findByEmail(String email) {
+        UserByEmail entry = findUserByEmail(email);
+        
+        if (entry == null) {
+            return Optional.empty();
+        }
+        
+        User user = findById(entry.getUserId());
+        
+        /** Ignore a lookup entry that no longer matches the user's email */
+        return (user != null && email.equals(user.getEmail())) ? Optional.of(user) : Optional.empty();
+    }
+    
+    
+    /**
+     * Returns the email lookup entry for the specified email address
+     * 
+     * @param email     the email address to look up
+     * @return the lookup entry for the specified email address
+     */
+    @Select
+    UserByEmail findUserByEmail(String email);
+    
+    
+    /**
+     * Adds an email lookup entry. This is only used to backfill the lookup
+     * table; the create, change email and delete operations keep it in sync.
+     * 
+     * @param entry     the lookup entry to add
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    void addUserByEmail(UserByEmail entry);
     
     
     /**
@@ -73,7 +132,8 @@ public interface UserDao {
     
     
     /**
-     * Updates the specified user account
+     * Updates the specified user account. The email address must be changed
+     * with {@link #changeEmail} so that the email lookup entry stays in sync.
      * 
      * @param user      the user account to update
      * @throws Exception if the credentials cannot be updated
@@ -83,6 +143,21 @@ public interface UserDao {
     void update(User user) throws Exception;
     
     
+    /**
+     * Changes the email address of the specified user account
+     * 
+     * @param user      the user account to update
+     * @param email     the new email address
+     * @return the updated user account
+     * @throws Exception if the email address is already in use
+     */
+    @QueryProvider(
+        providerClass = ChangeUserEmailQueryProvider.class,
+        entityHelpers = { User.class, UserByEmail.class }
+    )
+    User changeEmail(User user, String email) throws Exception;
+    
+    
     /**
      * Deletes the specified user
      * 
@@ -91,7 +166,7 @@ public interface UserDao {
      */
     @QueryProvider(
         providerClass = DeleteUserQueryProvider.class,
-        entityHelpers = { User.class, UserCredentials.class }
+        entityHelpers = { User.class, UserCredentials.class, UserByEmail.class }
     )
     boolean delete(User user) throws Exception;
     
@@ -136,4 +211,103 @@ public interface UserDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void savePreferences(UserPreferences preferences);
     
+    
+    /**
+     * Sets the given settings for the user with the specified ID, without 
+     * reading the current settings. A setting with a null value is removed,
+     * and the settings that are not specified are unchanged.
+     * 
+     * @param userId        the ID of the user whose settings to update
+     * @param settings      the settings to set or remove
+     */
+    @QueryProvider(providerClass = UpdatePreferencesQueryProvider.class)
+    void updatePreferences(String userId, Map<String,Object> settings);
+    
+    
+    /**
+     * Returns the rows of the original preferences table, in which the settings
+     * are stored as a single JSON document. This is only used to migrate the 
+     * existing preferences.
+     *
+     * @return the rows of the original preferences table
+     */
+    @Query("SELECT * FROM user_preferences")
+    ResultSet findLegacyPreferences();
+    
+    
+    /**
+     * Asynchronously finds a user by ID
+     * 
+     * @param userId    the ID of the user to find
+     * @return a stage that completes with the user with the specified ID
+     */
+    @Select
+    CompletionStage<User> findByIdAsync(String userId);
+    
+    
+    /**
+     * Asynchronously updates the specified user account
+     * 
+     * @param user      the user account to update
+     * @return a stage that completes once the account is updated
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> updateAsync(User user);
+    
+    
+    /**
+     * Asynchronously returns the credentials of the user with the specified ID
+     * 
+     * @param userId    the ID of the user whose credentials to return
+     * @return a stage that completes with the credentials of the specified user
+     */
+    @Select
+    CompletionStage<UserCredentials> getCredentialsAsync(String userId);
+    
+    
+    /**
+     * Asynchronously updates the given credentials
+     * 
+     * @param credentials       the credentials to update
+     * @return a stage that completes once the credentials are updated
+     */
+    @Update
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> updateCredentialsAsync(UserCredentials credentials);
+    
+    
+    /**
+     * Asynchronously returns the preferences for the user with the specified ID
+     * 
+     * @param userId    the ID of the user whose preferences to return
+     * @return a stage that completes with the preferences of the specified user
+     */
+    @Select
+    CompletionStage<UserPreferences> getPreferencesAsync(String userId);
+    
+    
+    /**
+     * Asynchronously saves the given preferences
+     * 
+     * @param preferences       the preferences to save
+     * @return a stage that completes once the preferences are saved
+     */
+    @Update
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> savePreferencesAsync(UserPreferences preferences);
+    
+    
+    /**
+     * Asynchronously sets the given settings for the user with the specified ID,
+     * without reading the current settings. A setting with a null value is
+     * removed, and the settings that are not specified are unchanged.
+     * 
+     * @param userId        the ID of the user whose settings to update
+     * @param settings      the settings to set or remove
+     * @return a stage that completes once the settings are updated
+     */
+    @QueryProvider(providerClass = UpdatePreferencesQueryProvider.class)
+    CompletionStage<Void> updatePreferencesAsync(String userId, Map<String,Object> settings);
+    
 }
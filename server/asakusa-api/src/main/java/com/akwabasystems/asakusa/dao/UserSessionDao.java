@@ -2,6 +2,7 @@
 package com.akwabasystems.asakusa.dao;
 
 import com.akwabasystems.asakusa.model.UserSession;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.DefaultNullSavingStrategy;
@@ -10,12 +11,13 @@ import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Select;
 import com.datastax.oss.driver.api.mapper.annotations.StatementAttributes;
 import com.datastax.oss.driver.api.mapper.annotations.Update;
-import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.SET_TO_NULL;
+import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 
 @Dao
-@DefaultNullSavingStrategy(SET_TO_NULL)
+@DefaultNullSavingStrategy(DO_NOT_SET)
 public interface UserSessionDao {
 
     /**
@@ -69,4 +71,37 @@ public interface UserSessionDao {
     @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
     void delete(UserSession session);
     
+    
+    /**
+     * Asynchronously creates a new user session
+     * 
+     * @param session       the user session to create
+     * @return a stage that completes once the session is created
+     */
+    @Insert
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> createAsync(UserSession session);
+    
+    
+    /**
+     * Asynchronously updates a user session
+     * 
+     * @param session      the user session to update
+     * @return a stage that completes once the session is updated
+     */
+    @Update
+    @StatementAttributes(consistencyLevel = "LOCAL_QUORUM")
+    CompletionStage<Void> saveAsync(UserSession session);
+    
+    
+    /**
+     * Asynchronously returns the sessions for the specified user, starting with 
+     * the most recent one
+     *
+     * @param userId    the ID of the user for whom to return the sessions
+     * @return a stage that completes with the sessions for the specified user
+     */
+    @Select
+    CompletionStage<MappedAsyncPagingIterable<UserSession>> findAllAsync(String userId);
+    
 }
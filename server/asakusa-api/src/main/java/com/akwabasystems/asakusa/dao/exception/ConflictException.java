@@ -0,0 +1,24 @@
+package com.akwabasystems.asakusa.dao.exception;
+
+
+/**
+ * Thrown when a conditional write is rejected because the key it claims is
+ * already taken. The message is one of the {@link DAOException} errors, and 
+ * the conflicting value is kept so that callers can report it.
+ */
+public class ConflictException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+    
+    private final String value;
+    
+    public ConflictException(String error, String value) {
+        super(error);
+        this.value = value;
+    }
+    
+    public String getValue() {
+        return value;
+    }
+
+}
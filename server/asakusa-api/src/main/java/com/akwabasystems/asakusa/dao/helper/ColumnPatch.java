@@ -0,0 +1,169 @@
+package com.akwabasystems.asakusa.dao.helper;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * The columns to write by a partial update of a row, along with the optional
+ * condition under which the update is applied. Only the columns that are set on
+ * the patch are written, so the other columns of the row are left untouched and
+ * the row does not need to be read first.
+ *
+ * The elements of a collection column can also be added or removed, which does
+ * not require the current value of the collection either. A column is written by
+ * a single operation, so setting, adding to or removing from a column replaces any
+ * operation previously set on it.
+ *
+ * Without a condition, the update is a blind write. The update can instead be
+ * applied only if the row exists, or only if its last modified date is still the
+ * one the caller has seen, which also requires the row to exist.
+ */
+public class ColumnPatch {
+
+    private final Map<CqlIdentifier,Object> columns = new LinkedHashMap<>();
+    private final Map<CqlIdentifier,Set<Object>> addedElements = new LinkedHashMap<>();
+    private final Map<CqlIdentifier,Set<Object>> removedElements = new LinkedHashMap<>();
+    private boolean ifExists;
+    private Instant expectedLastModifiedDate;
+
+
+    /**
+     * Sets the value to write to the specified column. A null value clears
+     * the column, like {@link #clear(CqlIdentifier)}.
+     *
+     * @param column    the column to write
+     * @param value     the value to write to the column
+     * @return this patch
+     */
+    public ColumnPatch set(CqlIdentifier column, Object value) {
+        addedElements.remove(column);
+        removedElements.remove(column);
+        columns.put(column, value);
+        return this;
+    }
+
+
+    /**
+     * Clears the specified column. The DAOs otherwise never write a null value,
+     * so this is the way to remove the value of a column, which writes a tombstone.
+     *
+     * @param column    the column to clear
+     * @return this patch
+     */
+    public ColumnPatch clear(CqlIdentifier column) {
+        return set(column, null);
+    }
+
+
+    /**
+     * Adds the given elements to the specified set column, leaving its other
+     * elements untouched
+     *
+     * @param column        the set column to which to add the elements
+     * @param elements      the elements to add
+     * @return this patch
+     */
+    public ColumnPatch add(CqlIdentifier column, Collection<?> elements) {
+        columns.remove(column);
+        removedElements.remove(column);
+        addedElements.put(column, new LinkedHashSet<>(elements));
+        return this;
+    }
+
+
+    /**
+     * Removes the given elements from the specified set column, leaving its
+     * other elements untouched
+     *
+     * @param column        the set column from which to remove the elements
+     * @param elements      the elements to remove
+     * @return this patch
+     */
+    public ColumnPatch remove(CqlIdentifier column, Collection<?> elements) {
+        columns.remove(column);
+        addedElements.remove(column);
+        removedElements.put(column, new LinkedHashSet<>(elements));
+        return this;
+    }
+
+
+    /**
+     * Only applies the update if the row exists. An update otherwise creates
+     * the row if it is missing, with only the patched columns set. This makes
+     * the update a lightweight transaction, which costs several round trips.
+     *
+     * @return this patch
+     */
+    public ColumnPatch ifExists() {
+        this.ifExists = true;
+        return this;
+    }
+
+
+    /**
+     * Only applies the update if the last modified date of the row is still
+     * the specified one
+     *
+     * @param lastModifiedDate      the last modified date of the row seen by the caller
+     * @return this patch
+     */
+    public ColumnPatch ifLastModifiedDate(Instant lastModifiedDate) {
+        this.expectedLastModifiedDate = lastModifiedDate;
+        return this;
+    }
+
+    public boolean contains(CqlIdentifier column) {
+        return columns.containsKey(column) || addedElements.containsKey(column) || removedElements.containsKey(column);
+    }
+
+    public boolean containsAny(Collection<CqlIdentifier> columnNames) {
+        return columnNames.stream().anyMatch(this::contains);
+    }
+
+    public Object get(CqlIdentifier column) {
+        return columns.get(column);
+    }
+
+    public Map<CqlIdentifier,Object> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public Map<CqlIdentifier,Set<Object>> getAddedElements() {
+        return Collections.unmodifiableMap(addedElements);
+    }
+
+    public Map<CqlIdentifier,Set<Object>> getRemovedElements() {
+        return Collections.unmodifiableMap(removedElements);
+    }
+
+    public boolean isEmpty() {
+        return columns.isEmpty() && addedElements.isEmpty() && removedElements.isEmpty();
+    }
+
+    public boolean isIfExists() {
+        return ifExists;
+    }
+
+    public Instant getExpectedLastModifiedDate() {
+        return expectedLastModifiedDate;
+    }
+
+    public boolean isConditional() {
+        return ifExists || expectedLastModifiedDate != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnPatch { columns: %s, addedElements: %s, removedElements: %s, " +
+                "ifExists: %s, expectedLastModifiedDate: %s }",
+                columns.keySet(), addedElements.keySet(), removedElements.keySet(), ifExists, expectedLastModifiedDate);
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.akwabasystems.asakusa.dao.helper;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+
+/**
+ * A codec that handles the conversion between a JSON document, exposed as a
+ * <code>Map<String,Object></code>, and its corresponding <code>text</code> type
+ * defined in the Cassandra schema.
+ *
+ * The document is streamed by Jackson straight from the UTF-8 bytes of the column
+ * into the map and back, so a read takes a single pass with no intermediate string
+ * or JSONObject, and the decoded map can be serialized as is in the API responses.
+ * Nested objects are decoded as maps and arrays as lists.
+ */
+public class JsonMapToTextCodec implements TypeCodec<Map<String,Object>> {
+
+    public static final GenericType<Map<String,Object>> JAVA_TYPE =
+            GenericType.mapOf(String.class, Object.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader READER =
+            MAPPER.readerFor(new TypeReference<LinkedHashMap<String,Object>>() {});
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    @NonNull
+    @Override
+    public GenericType<Map<String,Object>> getJavaType() {
+        return JAVA_TYPE;
+    }
+
+    @NonNull
+    @Override
+    public DataType getCqlType() {
+        return DataTypes.TEXT;
+    }
+
+    @Nullable
+    @Override
+    public ByteBuffer encode(@Nullable Map<String,Object> value, @NonNull ProtocolVersion protocolVersion) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return ByteBuffer.wrap(WRITER.writeValueAsBytes(value));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot encode the JSON document: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Map<String,Object> decode(@Nullable ByteBuffer bytes, @NonNull ProtocolVersion protocolVersion) {
+        if (bytes == null) {
+            return null;
+        }
+
+        try {
+
+            return bytes.hasArray() ?
+                    READER.readValue(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining()) :
+                    READER.readValue(new ByteBufferBackedInputStream(bytes.duplicate()));
+
+        } catch (IOException exception) {
+            // No need to rethrow the exception since an empty document
+            // will be returned
+            return new LinkedHashMap<>();
+        }
+    }
+
+    @NonNull
+    @Override
+    public String format(@Nullable Map<String,Object> value) {
+        if (value == null) {
+            return "NULL";
+        }
+
+        try {
+            return TypeCodecs.TEXT.format(WRITER.writeValueAsString(value));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot format the JSON document: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Map<String,Object> parse(@Nullable String value) {
+        String json = TypeCodecs.TEXT.parse(value);
+
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return READER.readValue(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot parse the JSON document: " + ex.getMessage(), ex);
+        }
+    }
+
+}
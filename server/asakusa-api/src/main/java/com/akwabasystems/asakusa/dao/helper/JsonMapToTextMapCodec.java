@@ -0,0 +1,104 @@
+package com.akwabasystems.asakusa.dao.helper;
+
+import com.datastax.oss.driver.api.core.type.codec.MappingCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+
+
+/**
+ * A codec that handles the conversion between a JSON document, exposed as a
+ * <code>Map<String,Object></code>, and its corresponding <code>map<text,text></code>
+ * type defined in the Cassandra schema.
+ *
+ * Each top-level key of the document is stored as its own map entry, with the
+ * JSON encoding of its value, so that a single key can be set or removed with a
+ * blind write, without reading and rewriting the whole document.
+ */
+public class JsonMapToTextMapCodec extends MappingCodec<Map<String,String>, Map<String,Object>> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public JsonMapToTextMapCodec() {
+        super(TypeCodecs.mapOf(TypeCodecs.TEXT, TypeCodecs.TEXT),
+                GenericType.mapOf(String.class, Object.class));
+    }
+
+    @Nullable
+    @Override
+    protected Map<String,Object> innerToOuter(@Nullable Map<String,String> value) {
+        if (value == null) {
+            return null;
+        }
+
+        Map<String,Object> document = new LinkedHashMap<>();
+
+        for (Map.Entry<String,String> entry : value.entrySet()) {
+            document.put(entry.getKey(), decodeValue(entry.getValue()));
+        }
+
+        return document;
+    }
+
+    @Nullable
+    @Override
+    protected Map<String,String> outerToInner(@Nullable Map<String,Object> document) {
+        if (document == null) {
+            return null;
+        }
+
+        Map<String,String> value = new LinkedHashMap<>();
+
+        for (Map.Entry<String,Object> entry : document.entrySet()) {
+
+            if (entry.getValue() != null) {
+                value.put(entry.getKey(), encodeValue(entry.getValue()));
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the JSON encoding of a single document value, as stored in its
+     * map entry
+     *
+     * @param value     the value to encode
+     * @return the JSON encoding of the given value
+     */
+    public static String encodeValue(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot encode the document value: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Decodes the JSON encoding of a single document value. A value that is
+     * not valid JSON is returned as is.
+     *
+     * @param value     the value to decode
+     * @return the decoded value
+     */
+    public static Object decodeValue(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+
+            return MAPPER.readValue(value, Object.class);
+
+        } catch (JsonProcessingException exception) {
+            // No need to rethrow the exception since the raw value
+            // will be returned
+            return value;
+        }
+    }
+
+}
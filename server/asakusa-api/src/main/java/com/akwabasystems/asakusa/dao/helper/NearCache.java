@@ -0,0 +1,255 @@
+package com.akwabasystems.asakusa.dao.helper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+
+/**
+ * A bounded in-memory cache of the rows read by a DAO. An entry expires a fixed
+ * time after it was loaded, and the least recently used entry is evicted once
+ * the cache holds its maximum number of entries. Null results are not cached.
+ *
+ * The cache is local to each instance of the application. The writes made
+ * through the DAO invalidate the entries they change, while the writes made by
+ * other instances are only seen once the entries expire.
+ *
+ * A value loaded while its key is being invalidated could be older than the
+ * write that invalidated it, so such a value is returned to the caller but not
+ * cached.
+ */
+public class NearCache<K,V> {
+
+    private final String name;
+    private final long timeToLiveNanos;
+    private final Map<K,Entry<V>> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    /**
+     * Creates a cache
+     *
+     * @param name              the name of the cache, used to tag its metrics
+     * @param maximumSize       the maximum number of entries in the cache
+     * @param timeToLiveNanos   the time after which an entry expires, in nanoseconds
+     */
+    public NearCache(String name, int maximumSize, long timeToLiveNanos) {
+        this.name = name;
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K,Entry<V>> eldest) {
+
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the cached value for the specified key, loading it if it is not
+     * cached or has expired
+     *
+     * @param key       the key of the value
+     * @param loader    the function that reads the value
+     * @return the value for the specified key, or null if there is none
+     */
+    public V get(K key, Function<K,V> loader) {
+        Entry<V> entry = lookup(key);
+
+        if (entry != null) {
+            return entry.value;
+        }
+
+        long invalidationCount = invalidations.get();
+        V value = loader.apply(key);
+        store(key, value, invalidationCount);
+
+        return value;
+    }
+
+
+    /**
+     * Asynchronously returns the cached value for the specified key, loading it
+     * if it is not cached or has expired
+     *
+     * @param key       the key of the value
+     * @param loader    the function that reads the value
+     * @return a stage that completes with the value for the specified key, or
+     *         with null if there is none
+     */
+    public CompletionStage<V> getAsync(K key, Function<K,CompletionStage<V>> loader) {
+        Entry<V> entry = lookup(key);
+
+        if (entry != null) {
+            return CompletableFuture.completedFuture(entry.value);
+        }
+
+        long invalidationCount = invalidations.get();
+
+        return loader.apply(key).thenApply((value) -> {
+            store(key, value, invalidationCount);
+            return value;
+        });
+    }
+
+
+    /**
+     * Loads the value for the specified key, bypassing the cached entry, and
+     * replaces the cached entry with it
+     *
+     * @param key       the key of the value
+     * @param loader    the function that reads the value
+     * @return the value for the specified key, or null if there is none
+     */
+    public V reload(K key, Function<K,V> loader) {
+        invalidate(key);
+        return get(key, loader);
+    }
+
+
+    /**
+     * Removes the entry for the specified key
+     *
+     * @param key       the key of the entry to remove
+     */
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+
+    /**
+     * Removes all the entries
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+
+    /**
+     * Registers the metrics of the cache: the number of hits and misses, the
+     * hit ratio, the number of evictions and the number of entries
+     *
+     * @param registry      the registry with which to register the metrics
+     */
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("asakusa.cache.gets", hits, LongAdder::sum)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("asakusa.cache.gets", misses, LongAdder::sum)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("asakusa.cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", name)
+                .register(registry);
+        Gauge.builder("asakusa.cache.hit.ratio", this, NearCache::hitRatio)
+                .tags("cache", name)
+                .register(registry);
+        Gauge.builder("asakusa.cache.size", this, NearCache::size)
+                .tags("cache", name)
+                .register(registry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long requestCount = hitCount + misses.sum();
+        return (requestCount > 0) ? (double) hitCount / requestCount : 0;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+
+    private Entry<V> lookup(K key) {
+        Entry<V> entry;
+
+        synchronized (entries) {
+            entry = entries.get(key);
+
+            if (entry != null && System.nanoTime() - entry.loadedAt > timeToLiveNanos) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+        }
+
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return entry;
+    }
+
+
+    private void store(K key, V value, long invalidationCount) {
+
+        if (value == null) {
+            return;
+        }
+
+        synchronized (entries) {
+
+            if (invalidations.get() == invalidationCount) {
+                entries.put(key, new Entry<>(value, System.nanoTime()));
+            }
+        }
+    }
+
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.exception.DAOException;
+import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ASSIGNEE_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PROJECT_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_TASKS;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.update;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the task assignment methods of
+ * {@code TaskDao}. Each assignment change is written as one logged batch that
+ * only sets the assignee and the last modified date of the task, and moves 
+ * the assignee entries of the task.
+ */
+public class AssignTaskQueryProvider {
+
+    /** The maximum number of batches sent at once by a bulk reassignment */
+    private static final int MAX_BATCHES_IN_FLIGHT = 32;
+    
+    private CqlSession session;
+    private EntityHelper<Task> taskHelper;
+    private TaskAssigneeEntries assigneeEntries;
+    private PreparedStatement preparedFindTaskById;
+    private PreparedStatement preparedUpdateAssignee;
+    
+    
+    public AssignTaskQueryProvider() {}
+    
+    
+    public AssignTaskQueryProvider(MapperContext context, 
+                                   EntityHelper<Task> taskHelper,
+                                   EntityHelper<TaskByAssignee> taskByAssigneeHelper) {
+        this.session = context.getSession();
+        this.taskHelper = taskHelper;
+        this.assigneeEntries = new TaskAssigneeEntries(session, taskByAssigneeHelper);
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindTaskById = session.prepare(taskHelper.selectByPrimaryKey().asCql());
+        
+        preparedUpdateAssignee = session.prepare(update(TABLE_TASKS)
+                .setColumn(COLUMN_ASSIGNEE_ID, bindMarker(COLUMN_ASSIGNEE_ID))
+                .setColumn(COLUMN_LAST_MODIFIED_DATE, bindMarker(COLUMN_LAST_MODIFIED_DATE))
+                .whereColumn(COLUMN_PROJECT_ID).isEqualTo(bindMarker(COLUMN_PROJECT_ID))
+                .whereColumn(COLUMN_ID).isEqualTo(bindMarker(COLUMN_ID))
+                .build());
+    }
+    
+    
+    /**
+     * Assigns a task to the specified user. If the task is currently assigned
+     * to another user, that assignment is removed in the same batch.
+     * 
+     * @param task      the task to assign
+     * @param userId    the ID of the new assignee
+     * @throws Exception if the task cannot be assigned
+     */
+    public void assignTask(@NonNull Task task, String userId) throws Exception {
+        if (userId == null) {
+            throw new IllegalArgumentException(DAOException.INVALID_PARAMETERS);
+        }
+        
+        session.execute(assignmentBatch(task, task.getAssigneeId(), userId));
+    }
+    
+    
+    /**
+     * Unassigns a task from the specified user. The assignee of the task is
+     * read first, and the task is left untouched if it is no longer assigned
+     * to that user.
+     * 
+     * @param task      the task to unassign
+     * @param userId    the ID of current task assignee
+     * @throws Exception if the task cannot be unassigned
+     */
+    public void unassignTask(@NonNull Task task, String userId) throws Exception {
+        unassignTaskAsync(task, userId).toCompletableFuture().join();
+    }
+    
+    
+    /**
+     * Asynchronously assigns a task to the specified user
+     * 
+     * @param task      the task to assign
+     * @param userId    the ID of the new assignee
+     * @return a stage that completes once the task is assigned
+     */
+    public CompletionStage<Void> assignTaskAsync(@NonNull Task task, String userId) {
+        if (userId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DAOException.INVALID_PARAMETERS));
+        }
+        
+        return session.executeAsync(assignmentBatch(task, task.getAssigneeId(), userId))
+                .thenApply((resultSet) -> null);
+    }
+    
+    
+    /**
+     * Asynchronously unassigns a task from the specified user, if it is still
+     * assigned to that user
+     * 
+     * @param task      the task to unassign
+     * @param userId    the ID of current task assignee
+     * @return a stage that completes once the task is unassigned
+     */
+    public CompletionStage<Void> unassignTaskAsync(@NonNull Task task, String userId) {
+        return moveTask(task.getProjectId(), task.getId(), userId, null).thenAccept((movedTask) -> {
+            
+            if (movedTask != null) {
+                task.setAssigneeId(null);
+                task.setLastModifiedDate(movedTask.getLastModifiedDate());
+            }
+        });
+    }
+    
+    
+    /**
+     * Moves the specified tasks of a project from one user to another. Each task
+     * is read and moved with its own logged batch, since the tasks live in 
+     * different rows; the tasks are processed concurrently, a bounded number at
+     * a time. Tasks that are no longer assigned to the first user are skipped.
+     * 
+     * @param projectId     the ID of the project for the tasks
+     * @param taskIds       the IDs of the tasks to move
+     * @param fromUserId    the ID of the current assignee of the tasks
+     * @param toUserId      the ID of the new assignee of the tasks
+     * @return the number of tasks that were moved
+     * @throws Exception if the tasks cannot be reassigned
+     */
+    public long reassignTasks(@NonNull UUID projectId, 
+                              @NonNull Collection<UUID> taskIds, 
+                              String fromUserId, 
+                              String toUserId) throws Exception {
+        if (toUserId == null) {
+            throw new IllegalArgumentException(DAOException.INVALID_PARAMETERS);
+        }
+        
+        Deque<CompletableFuture<Boolean>> inFlight = new ArrayDeque<>();
+        long reassigned = 0;
+        
+        for (UUID taskId : taskIds) {
+        
+            if (inFlight.size() == MAX_BATCHES_IN_FLIGHT) {
+                reassigned += inFlight.removeFirst().join() ? 1 : 0;
+            }
+            
+            inFlight.addLast(moveTask(projectId, taskId, fromUserId, toUserId).thenApply(Objects::nonNull));
+        }
+        
+        while (!inFlight.isEmpty()) {
+            reassigned += inFlight.removeFirst().join() ? 1 : 0;
+        }
+        
+        return reassigned;
+    }
+    
+    
+    /**
+     * Moves a task from one user to another, or unassigns it if the new user is
+     * null. The task is read first, and only moved if it is still assigned to
+     * the first user.
+     * 
+     * @return a future that completes with the moved task, or with null if the
+     *         task does not exist or is no longer assigned to the first user
+     */
+    private CompletableFuture<Task> moveTask(UUID projectId, 
+                                             UUID taskId, 
+                                             String fromUserId, 
+                                             String toUserId) {
+        return session.executeAsync(preparedFindTaskById.bind(projectId, taskId)
+                        .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM))
+                .thenCompose((resultSet) -> {
+                    Row row = resultSet.one();
+                    
+                    if (row == null || !Objects.equals(row.getString(COLUMN_ASSIGNEE_ID), fromUserId)) {
+                        return CompletableFuture.<Task>completedFuture(null);
+                    }
+                    
+                    Task task = taskHelper.get(row, false);
+                    return session.executeAsync(assignmentBatch(task, fromUserId, toUserId))
+                            .thenApply((batchResult) -> task);
+                })
+                .toCompletableFuture();
+    }
+    
+    
+    private BatchStatement assignmentBatch(Task task, String previousUserId, String userId) {
+        task.setAssigneeId(userId);
+        task.setLastModifiedDate(Timeline.now());
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(preparedUpdateAssignee.bind(userId, task.getLastModifiedDate(), 
+                        task.getProjectId(), task.getId()));
+        
+        assigneeEntries.addMove(batchStart, task, previousUserId, null);
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.AccessTokenDao;
+import com.akwabasystems.asakusa.dao.helper.NearCache;
+import com.akwabasystems.asakusa.model.AccessToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * An access token DAO that keeps the tokens it reads by device ID in a near
+ * cache, in front of the DAO generated by the mapper. The token of a device is
+ * read on every authenticated request, so the absence of a token is cached as
+ * well.
+ *
+ * Each write of a token invalidates the cached entry once the write completes,
+ * whether it succeeds or not, so the tokens created by a login or a renewal and
+ * the tokens expired by a logout are seen at once by this instance. The other
+ * instances only see the write once their entry expires, so a token that does
+ * not match the cached one is checked again with {@link #reloadById(String)},
+ * which reads the current token from Cassandra. Every read returns a copy of the
+ * cached token, so a caller can modify it without other callers seeing the
+ * change before it is written.
+ */
+public class CachingAccessTokenDao implements AccessTokenDao {
+
+    private final AccessTokenDao delegate;
+    private final NearCache<String,Optional<AccessToken>> tokens;
+
+
+    /**
+     * Creates a caching DAO
+     *
+     * @param delegate      the DAO that reads and writes the rows
+     * @param maximumSize   the maximum number of entries in the cache
+     * @param timeToLive    the time after which a cached entry expires
+     */
+    public CachingAccessTokenDao(AccessTokenDao delegate, int maximumSize, Duration timeToLive) {
+        this.delegate = delegate;
+        this.tokens = new NearCache<>("access_tokens", maximumSize, timeToLive.toNanos());
+    }
+
+
+    /**
+     * Registers the metrics of the cache
+     *
+     * @param registry      the registry with which to register the metrics
+     */
+    public void bindTo(MeterRegistry registry) {
+        tokens.bindTo(registry);
+    }
+
+    public NearCache<String,Optional<AccessToken>> tokens() {
+        return tokens;
+    }
+
+
+    @Override
+    public void create(AccessToken accessToken) {
+
+        try {
+            delegate.create(accessToken);
+        } finally {
+            tokens.invalidate(accessToken.getDeviceId());
+        }
+    }
+
+
+    @Override
+    public void save(AccessToken accessToken) throws Exception {
+
+        try {
+            delegate.save(accessToken);
+        } finally {
+            tokens.invalidate(accessToken.getDeviceId());
+        }
+    }
+
+
+    @Override
+    public AccessToken findById(String deviceId) {
+        return copyOf(tokens.get(deviceId, (key) -> Optional.ofNullable(delegate.findById(key))));
+    }
+
+
+    /**
+     * Reads the access token for the specified device ID from Cassandra,
+     * bypassing the cache, and replaces the cached entry with it. This picks
+     * up the tokens written by the other instances before the entry expires.
+     *
+     * @param deviceId  the ID of the device for which to retrieve the access token
+     * @return the access token for the specified device ID
+     */
+    public AccessToken reloadById(String deviceId) {
+        return copyOf(tokens.reload(deviceId, (key) -> Optional.ofNullable(delegate.findById(key))));
+    }
+
+
+    @Override
+    public void delete(AccessToken accessToken) {
+
+        try {
+            delegate.delete(accessToken);
+        } finally {
+            tokens.invalidate(accessToken.getDeviceId());
+        }
+    }
+
+
+    @Override
+    public CompletionStage<Void> createAsync(AccessToken accessToken) {
+        return delegate.createAsync(accessToken)
+                .whenComplete((result, error) -> tokens.invalidate(accessToken.getDeviceId()));
+    }
+
+
+    @Override
+    public CompletionStage<Void> saveAsync(AccessToken accessToken) {
+        return delegate.saveAsync(accessToken)
+                .whenComplete((result, error) -> tokens.invalidate(accessToken.getDeviceId()));
+    }
+
+
+    @Override
+    public CompletionStage<AccessToken> findByIdAsync(String deviceId) {
+        return tokens.getAsync(deviceId, (key) -> delegate.findByIdAsync(key).thenApply(Optional::ofNullable))
+                .thenApply(CachingAccessTokenDao::copyOf);
+    }
+
+
+    private static AccessToken copyOf(Optional<AccessToken> accessToken) {
+        return accessToken.map(AccessToken::new).orElse(null);
+    }
+
+}
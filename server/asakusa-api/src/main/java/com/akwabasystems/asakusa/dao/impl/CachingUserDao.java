@@ -0,0 +1,259 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.UserDao;
+import com.akwabasystems.asakusa.dao.helper.NearCache;
+import com.akwabasystems.asakusa.model.Role;
+import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
+import com.akwabasystems.asakusa.model.UserCredentials;
+import com.akwabasystems.asakusa.model.UserPreferences;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * A user DAO that keeps the users and preferences it reads by user ID in near
+ * caches, in front of the DAO generated by the mapper. These rows are read on
+ * every login, logout and token renewal, and rarely change.
+ *
+ * Each write of a user or of its preferences invalidates the cached entry once
+ * the write completes, whether it succeeds or not. The invalidation only reaches
+ * the cache of this instance, so the other instances may return the previous
+ * values until their entry expires. Every read returns a copy of the cached
+ * entity, so a caller can modify it without other callers seeing the change
+ * before it is written.
+ *
+ * The credentials are not cached, so that a new password takes effect on every
+ * instance at once.
+ */
+public class CachingUserDao implements UserDao {
+
+    private final UserDao delegate;
+    private final NearCache<String,User> users;
+    private final NearCache<String,UserPreferences> preferences;
+
+
+    /**
+     * Creates a caching DAO
+     *
+     * @param delegate      the DAO that reads and writes the rows
+     * @param maximumSize   the maximum number of entries in each cache
+     * @param timeToLive    the time after which a cached entry expires
+     */
+    public CachingUserDao(UserDao delegate, int maximumSize, Duration timeToLive) {
+        this.delegate = delegate;
+        this.users = new NearCache<>("users", maximumSize, timeToLive.toNanos());
+        this.preferences = new NearCache<>("user_settings", maximumSize, timeToLive.toNanos());
+    }
+
+
+    /**
+     * Registers the metrics of the caches
+     *
+     * @param registry      the registry with which to register the metrics
+     */
+    public void bindTo(MeterRegistry registry) {
+        users.bindTo(registry);
+        preferences.bindTo(registry);
+    }
+
+    public NearCache<String,User> users() {
+        return users;
+    }
+
+    public NearCache<String,UserPreferences> preferences() {
+        return preferences;
+    }
+
+
+    @Override
+    public User create(User user, char[] password, Set<Role> roles) throws Exception {
+
+        try {
+            return delegate.create(user, password, roles);
+        } finally {
+            invalidateAll(user.getUserId());
+        }
+    }
+
+
+    @Override
+    public User createWithPasswordHash(User user, String passwordHash, Set<Role> roles) throws Exception {
+
+        try {
+            return delegate.createWithPasswordHash(user, passwordHash, roles);
+        } finally {
+            invalidateAll(user.getUserId());
+        }
+    }
+
+
+    @Override
+    public User findById(String userId) {
+        return copyOf(users.get(userId, delegate::findById));
+    }
+
+
+    @Override
+    public UserByEmail findUserByEmail(String email) {
+        return delegate.findUserByEmail(email);
+    }
+
+
+    @Override
+    public void addUserByEmail(UserByEmail entry) {
+        delegate.addUserByEmail(entry);
+    }
+
+
+    @Override
+    public PagingIterable<User> findAll() {
+        return delegate.findAll();
+    }
+
+
+    @Override
+    public void update(User user) throws Exception {
+
+        try {
+            delegate.update(user);
+        } finally {
+            users.invalidate(user.getUserId());
+        }
+    }
+
+
+    @Override
+    public User changeEmail(User user, String email) throws Exception {
+
+        try {
+            return delegate.changeEmail(user, email);
+        } finally {
+            users.invalidate(user.getUserId());
+        }
+    }
+
+
+    @Override
+    public boolean delete(User user) throws Exception {
+
+        try {
+            return delegate.delete(user);
+        } finally {
+            invalidateAll(user.getUserId());
+        }
+    }
+
+
+    @Override
+    public UserCredentials getCredentials(String userId) {
+        return delegate.getCredentials(userId);
+    }
+
+
+    @Override
+    public void updateCredentials(UserCredentials userCredentials) throws Exception {
+        delegate.updateCredentials(userCredentials);
+    }
+
+
+    @Override
+    public UserPreferences getPreferences(String userId) {
+        return copyOf(preferences.get(userId, delegate::getPreferences));
+    }
+
+
+    @Override
+    public void savePreferences(UserPreferences userPreferences) {
+
+        try {
+            delegate.savePreferences(userPreferences);
+        } finally {
+            preferences.invalidate(userPreferences.getUserId());
+        }
+    }
+
+
+    @Override
+    public void updatePreferences(String userId, Map<String,Object> settings) {
+
+        try {
+            delegate.updatePreferences(userId, settings);
+        } finally {
+            preferences.invalidate(userId);
+        }
+    }
+
+
+    @Override
+    public ResultSet findLegacyPreferences() {
+        return delegate.findLegacyPreferences();
+    }
+
+
+    @Override
+    public CompletionStage<User> findByIdAsync(String userId) {
+        return users.getAsync(userId, delegate::findByIdAsync).thenApply(CachingUserDao::copyOf);
+    }
+
+
+    @Override
+    public CompletionStage<Void> updateAsync(User user) {
+        return delegate.updateAsync(user)
+                .whenComplete((result, error) -> users.invalidate(user.getUserId()));
+    }
+
+
+    @Override
+    public CompletionStage<UserCredentials> getCredentialsAsync(String userId) {
+        return delegate.getCredentialsAsync(userId);
+    }
+
+
+    @Override
+    public CompletionStage<Void> updateCredentialsAsync(UserCredentials userCredentials) {
+        return delegate.updateCredentialsAsync(userCredentials);
+    }
+
+
+    @Override
+    public CompletionStage<UserPreferences> getPreferencesAsync(String userId) {
+        return preferences.getAsync(userId, delegate::getPreferencesAsync).thenApply(CachingUserDao::copyOf);
+    }
+
+
+    @Override
+    public CompletionStage<Void> savePreferencesAsync(UserPreferences userPreferences) {
+        return delegate.savePreferencesAsync(userPreferences)
+                .whenComplete((result, error) -> preferences.invalidate(userPreferences.getUserId()));
+    }
+
+
+    @Override
+    public CompletionStage<Void> updatePreferencesAsync(String userId, Map<String,Object> settings) {
+        return delegate.updatePreferencesAsync(userId, settings)
+                .whenComplete((result, error) -> preferences.invalidate(userId));
+    }
+
+
+    private void invalidateAll(String userId) {
+        users.invalidate(userId);
+        preferences.invalidate(userId);
+    }
+
+
+    private static User copyOf(User user) {
+        return (user != null) ? new User(user) : null;
+    }
+
+
+    private static UserPreferences copyOf(UserPreferences userPreferences) {
+        return (userPreferences != null) ? new UserPreferences(userPreferences) : null;
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.exception.DAOException;
+import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import lombok.extern.java.Log;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code UserDao#changeEmail} method
+ */
+@Log
+public class ChangeUserEmailQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<User> userHelper;
+    private EntityHelper<UserByEmail> userByEmailHelper;
+    private PreparedStatement preparedFindUserById;
+    private PreparedStatement preparedFindUserByEmail;
+    private PreparedStatement preparedInsertUser;
+    private PreparedStatement preparedInsertUserByEmail;
+    private PreparedStatement preparedDeleteUserByEmail;
+    
+    
+    public ChangeUserEmailQueryProvider() {}
+    
+    
+    public ChangeUserEmailQueryProvider(MapperContext context,
+                                        EntityHelper<User> userHelper,
+                                        EntityHelper<UserByEmail> userByEmailHelper) {
+        this.session = context.getSession();
+        this.userHelper = userHelper;
+        this.userByEmailHelper = userByEmailHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindUserById = session.prepare(userHelper.selectByPrimaryKey().asCql());
+        preparedFindUserByEmail = session.prepare(userByEmailHelper.selectByPrimaryKey().asCql());
+        preparedInsertUser = session.prepare(userHelper.insert().asCql());
+        preparedInsertUserByEmail = session.prepare(userByEmailHelper.insert().asCql());
+        preparedDeleteUserByEmail = session.prepare(userByEmailHelper.deleteByPrimaryKey().asCql());
+    }
+    
+    
+    /**
+     * Changes the email address of the specified user. The user account and
+     * the email lookup entries are updated together. As with {@code UserDao#update},
+     * the fields that are null on the user are left unchanged.
+     *
+     * @param user      the user whose email to change
+     * @param email     the new email address
+     * @return the updated user account
+     * @throws Exception if the email cannot be changed
+     */
+    public User changeEmail(@NonNull User user, String email) throws Exception {
+    
+        if (user.getUserId() == null || email == null || email.isBlank()) {
+            throw new IllegalArgumentException(DAOException.INVALID_PARAMETERS);
+        }
+        
+        Row storedUser = findStoredUser(user);
+        
+        if (storedUser == null) {
+            throw new IllegalArgumentException(DAOException.INVALID_USER_ID);
+        }
+        
+        String currentEmail = storedUser.getString("email");
+        
+        if (email.equals(currentEmail)) {
+            return user;
+        }
+        
+        if (emailAlreadyExists(email)) {
+            throw new IllegalArgumentException(DAOException.EMAIL_ALREADY_EXISTS);
+        }
+        
+        user.setEmail(email);
+        user.setLastModifiedDate(Timeline.now());
+        
+        BoundStatementBuilder insertUser = preparedInsertUser.boundStatementBuilder();
+        userHelper.set(user, insertUser, NullSavingStrategy.DO_NOT_SET, false);
+        
+        BoundStatementBuilder insertUserByEmail = preparedInsertUserByEmail.boundStatementBuilder();
+        userByEmailHelper.set(new UserByEmail(email, user.getUserId()), insertUserByEmail,
+                NullSavingStrategy.DO_NOT_SET, false);
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                                                .addStatement(insertUser.build())
+                                                .addStatement(insertUserByEmail.build());
+        
+        if (currentEmail != null) {
+            batchStart.addStatement(preparedDeleteUserByEmail.bind(currentEmail));
+        }
+        
+        BatchStatement batchStatement = batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        ResultSet resultSet = session.execute(batchStatement);
+        
+        if (!resultSet.wasApplied()) {
+            log.severe(String.format("[UserDao#changeEmail]: Couldn't execute statement: %s", batchStart));
+            return null;
+        }
+        
+        return user;
+    }
+    
+    
+    private Row findStoredUser(User user) {
+        BoundStatementBuilder findUserById = preparedFindUserById.boundStatementBuilder();
+        findUserById.setString("user_id", user.getUserId());
+        findUserById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        return session.execute(findUserById.build()).one();
+    }
+    
+    
+    private boolean emailAlreadyExists(String email) {
+        BoundStatementBuilder findUserByEmail = preparedFindUserByEmail.boundStatementBuilder();
+        findUserByEmail.setString("email", email);
+        findUserByEmail.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        int result = session.execute(findUserByEmail.build()).getAvailableWithoutFetching();
+        
+        return result > 0;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+
+/**
+ * Clears the columns that an entity no longer has. The DAOs leave the null
+ * fields of an entity unset, so that saving an entity does not write a tombstone
+ * for every column it has never had. A column is only written as null when the
+ * stored row still has a value for it, which is how a field that was cleared on
+ * the entity is removed from the row.
+ */
+final class ClearedColumns {
+
+    private ClearedColumns() {}
+
+
+    /**
+     * Binds a null value to each unset column of the given statement that has a
+     * value in the stored row
+     *
+     * @param statement     the statement that writes the entity, with its null fields unset
+     * @param storedRow     the row as currently stored, or null if there is none
+     */
+    static void clear(BoundStatementBuilder statement, Row storedRow) {
+
+        if (storedRow == null) {
+            return;
+        }
+
+        ColumnDefinitions variables = statement.getPreparedStatement().getVariableDefinitions();
+        ColumnDefinitions storedColumns = storedRow.getColumnDefinitions();
+
+        for (int index = 0; index < variables.size(); index++) {
+            CqlIdentifier column = variables.get(index).getName();
+
+            if (!statement.isSet(index) && storedColumns.contains(column) && !storedRow.isNull(column)) {
+                statement.setToNull(index);
+            }
+        }
+    }
+
+}
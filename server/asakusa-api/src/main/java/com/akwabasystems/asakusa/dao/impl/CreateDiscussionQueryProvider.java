@@ -0,0 +1,72 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.DiscussionByAuthor;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code DiscussionDao#create}
+ * method. The discussion and its author entry are written as one logged batch.
+ */
+public class CreateDiscussionQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Discussion> discussionHelper;
+    private EntityHelper<DiscussionByAuthor> discussionByAuthorHelper;
+    private PreparedStatement preparedInsertDiscussion;
+    private PreparedStatement preparedInsertDiscussionByAuthor;
+    
+    
+    public CreateDiscussionQueryProvider() {}
+    
+    
+    public CreateDiscussionQueryProvider(MapperContext context,
+                                         EntityHelper<Discussion> discussionHelper,
+                                         EntityHelper<DiscussionByAuthor> discussionByAuthorHelper) {
+        this.session = context.getSession();
+        this.discussionHelper = discussionHelper;
+        this.discussionByAuthorHelper = discussionByAuthorHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedInsertDiscussion = session.prepare(discussionHelper.insert().asCql());
+        preparedInsertDiscussionByAuthor = session.prepare(discussionByAuthorHelper.insert().asCql());
+    }
+    
+    
+    /**
+     * Creates the specified discussion
+     * 
+     * @param discussion    the discussion to create
+     */
+    public void create(@NonNull Discussion discussion) {
+        BoundStatementBuilder insertDiscussion = preparedInsertDiscussion.boundStatementBuilder();
+        discussionHelper.set(discussion, insertDiscussion, NullSavingStrategy.DO_NOT_SET, false);
+        
+        BoundStatementBuilder insertDiscussionByAuthor = preparedInsertDiscussionByAuthor.boundStatementBuilder();
+        discussionByAuthorHelper.set(DiscussionByAuthor.fromDiscussion(discussion), insertDiscussionByAuthor, 
+                NullSavingStrategy.DO_NOT_SET, false);
+        
+        BatchStatement batchStatement = BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(insertDiscussion.build())
+                .addStatement(insertDiscussionByAuthor.build())
+                .build()
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        session.execute(batchStatement);
+    }
+
+}
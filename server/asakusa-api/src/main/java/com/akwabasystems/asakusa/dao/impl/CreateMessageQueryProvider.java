@@ -0,0 +1,110 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Message;
+import com.akwabasystems.asakusa.model.MessageBucket;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code MessageDao#create}
+ * methods. The message is written to the partition of the day on which it 
+ * was posted, and that day is recorded in the list of message buckets of the
+ * discussion. The two writes are sent concurrently rather than as a batch; the
+ * bucket entry is an idempotent upsert into a very small partition.
+ */
+public class CreateMessageQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Message> messageHelper;
+    private EntityHelper<MessageBucket> messageBucketHelper;
+    private PreparedStatement preparedInsertMessage;
+    private PreparedStatement preparedInsertMessageBucket;
+    
+    
+    public CreateMessageQueryProvider() {}
+    
+    
+    public CreateMessageQueryProvider(MapperContext context,
+                                      EntityHelper<Message> messageHelper,
+                                      EntityHelper<MessageBucket> messageBucketHelper) {
+        this.session = context.getSession();
+        this.messageHelper = messageHelper;
+        this.messageBucketHelper = messageBucketHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedInsertMessage = session.prepare(messageHelper.insert().asCql());
+        preparedInsertMessageBucket = session.prepare(messageBucketHelper.insert().asCql());
+    }
+    
+    
+    /**
+     * Posts the specified message. A time-based ID is assigned to the message 
+     * if it does not have one.
+     * 
+     * @param message       the message to post
+     */
+    public void create(@NonNull Message message) {
+        createAsync(message).toCompletableFuture().join();
+    }
+    
+    
+    /**
+     * Asynchronously posts the specified message. A time-based ID is assigned 
+     * to the message if it does not have one.
+     * 
+     * @param message       the message to post
+     * @return a stage that completes once the message is posted
+     */
+    public CompletionStage<Void> createAsync(@NonNull Message message) {
+    
+        if (message.getId() == null) {
+            message.setId(Uuids.timeBased());
+        }
+        
+        if (message.getCreatedDate() == null) {
+            message.setCreatedDate(Timeline.now());
+        }
+        
+        message.setBucket(Message.bucketOf(message.getId()));
+        
+        CompletableFuture<?> insertMessage = session.executeAsync(insertMessage(message)).toCompletableFuture();
+        CompletableFuture<?> insertBucket = session.executeAsync(insertMessageBucket(message)).toCompletableFuture();
+        
+        return CompletableFuture.allOf(insertMessage, insertBucket);
+    }
+    
+    
+    private BoundStatement insertMessage(Message message) {
+        BoundStatementBuilder insertMessage = preparedInsertMessage.boundStatementBuilder();
+        messageHelper.set(message, insertMessage, NullSavingStrategy.DO_NOT_SET, false);
+        
+        return insertMessage.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+    
+    
+    private BoundStatement insertMessageBucket(Message message) {
+        MessageBucket bucket = new MessageBucket(message.getProjectId(), message.getDiscussionId(), 
+                message.getBucket());
+        BoundStatementBuilder insertBucket = preparedInsertMessageBucket.boundStatementBuilder();
+        messageBucketHelper.set(bucket, insertBucket, NullSavingStrategy.DO_NOT_SET, false);
+        
+        return insertBucket.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+}
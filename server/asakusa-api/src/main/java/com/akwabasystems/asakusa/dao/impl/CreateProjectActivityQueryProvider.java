@@ -0,0 +1,155 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.model.ProjectActivityBucket;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code ProjectActivityDao#create}
+ * and {@code ProjectActivityDao#createAll} methods. An activity is written to the 
+ * bucket of its creation month, and the bucket is recorded for the project.
+ */
+public class CreateProjectActivityQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<ProjectActivity> activityHelper;
+    private EntityHelper<ProjectActivityBucket> bucketHelper;
+    private PreparedStatement preparedInsertActivity;
+    private PreparedStatement preparedInsertBucket;
+    
+    
+    public CreateProjectActivityQueryProvider() {}
+    
+    
+    public CreateProjectActivityQueryProvider(MapperContext context,
+                                              EntityHelper<ProjectActivity> activityHelper,
+                                              EntityHelper<ProjectActivityBucket> bucketHelper) {
+        this.session = context.getSession();
+        this.activityHelper = activityHelper;
+        this.bucketHelper = bucketHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedInsertActivity = session.prepare(activityHelper.insert().asCql());
+        preparedInsertBucket = session.prepare(bucketHelper.insert().asCql());
+    }
+    
+    
+    /**
+     * Adds a new project activity
+     * 
+     * @param activity      the project activity to add
+     */
+    public void create(@NonNull ProjectActivity activity) {
+        session.execute(createBatch(activity));
+    }
+    
+    
+    /**
+     * Asynchronously adds a new project activity
+     * 
+     * @param activity      the project activity to add
+     * @return a stage that completes once the activity is added
+     */
+    public CompletionStage<Void> createAsync(@NonNull ProjectActivity activity) {
+        return session.executeAsync(createBatch(activity)).thenApply((resultSet) -> null);
+    }
+    
+    
+    /**
+     * Adds the specified project activities. The activities are grouped by 
+     * partition, and each group is written as one unlogged single-partition 
+     * batch, along with the bucket entry of the group. The groups are written 
+     * concurrently.
+     * 
+     * @param activities    the project activities to add
+     * @return a stage that completes once all the activities are added
+     */
+    public CompletionStage<Void> createAllAsync(@NonNull List<ProjectActivity> activities) {
+        Map<ProjectActivityBucket,List<ProjectActivity>> partitions = new LinkedHashMap<>();
+        
+        for (ProjectActivity activity : activities) {
+            setBucket(activity);
+            partitions.computeIfAbsent(new ProjectActivityBucket(activity.getProjectId(), activity.getBucket()),
+                    (bucket) -> new ArrayList<>()).add(activity);
+        }
+        
+        List<CompletableFuture<AsyncResultSet>> writes = new ArrayList<>();
+        
+        partitions.forEach((bucket, partitionActivities) -> {
+            BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.UNLOGGED);
+            
+            for (ProjectActivity activity : partitionActivities) {
+                batchStart.addStatement(insertActivity(activity));
+            }
+            
+            writes.add(session.executeAsync(batchStart.build()
+                    .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM)).toCompletableFuture());
+            writes.add(session.executeAsync(insertBucket(bucket)
+                    .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM)).toCompletableFuture());
+        });
+        
+        return CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new));
+    }
+    
+    
+    private BatchStatement createBatch(ProjectActivity activity) {
+        setBucket(activity);
+        
+        return BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(insertActivity(activity))
+                .addStatement(insertBucket(new ProjectActivityBucket(activity.getProjectId(), activity.getBucket())))
+                .build()
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+    
+    
+    private void setBucket(ProjectActivity activity) {
+    
+        if (activity.getCreatedDate() == null) {
+            activity.setCreatedDate(Timeline.now());
+        }
+        
+        activity.setBucket(ProjectActivity.bucketOf(activity.getCreatedDate()));
+    }
+    
+    
+    private BoundStatement insertActivity(ProjectActivity activity) {
+        BoundStatementBuilder insertActivity = preparedInsertActivity.boundStatementBuilder();
+        activityHelper.set(activity, insertActivity, NullSavingStrategy.DO_NOT_SET, false);
+        
+        return insertActivity.build();
+    }
+    
+    
+    private BoundStatement insertBucket(ProjectActivityBucket bucket) {
+        BoundStatementBuilder insertBucket = preparedInsertBucket.boundStatementBuilder();
+        bucketHelper.set(bucket, insertBucket, NullSavingStrategy.DO_NOT_SET, false);
+        
+        return insertBucket.build();
+    }
+
+}
@@ -1,9 +1,8 @@
-
 package com.akwabasystems.asakusa.dao.impl;
 
 import com.akwabasystems.asakusa.dao.exception.DAOException;
 import com.akwabasystems.asakusa.model.Team;
-import com.akwabasystems.asakusa.repository.SchemaNames;
+import com.akwabasystems.asakusa.model.TeamByName;
 import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlSession;
@@ -13,7 +12,8 @@ import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.mapper.MapperContext;
 import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
 import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
-import com.datastax.oss.driver.api.querybuilder.QueryBuilder;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import java.time.Instant;
 import lombok.extern.java.Log;
 import org.springframework.lang.NonNull;
 
@@ -26,17 +26,21 @@ public class CreateTeamQueryProvider {
 
     private CqlSession session;
     private EntityHelper<Team> teamHelper;
+    private EntityHelper<TeamByName> teamByNameHelper;
     private PreparedStatement preparedInsertTeam;
-    private PreparedStatement preparedFindTeamByName;    
+    private PreparedStatement preparedClaimTeamName;
+    private PreparedStatement preparedReleaseTeamName;
     
     
     public CreateTeamQueryProvider() {}
     
     
     public CreateTeamQueryProvider(MapperContext context,
-                                   EntityHelper<Team> teamHelper) {
+                                   EntityHelper<Team> teamHelper,
+                                   EntityHelper<TeamByName> teamByNameHelper) {
         this.session = context.getSession();
         this.teamHelper = teamHelper;
+        this.teamByNameHelper = teamByNameHelper;
         
         this.prepareStatements();
     }
@@ -44,18 +48,22 @@ public class CreateTeamQueryProvider {
     
     private void prepareStatements() {
         preparedInsertTeam = session.prepare(teamHelper.insert().asCql());
+        preparedClaimTeamName = session.prepare(teamByNameHelper.insert().ifNotExists().asCql());
         
-        preparedFindTeamByName = session.prepare(
-            teamHelper.selectStart()
-                    .whereColumn(SchemaNames.COLUMN_NAME).isEqualTo(QueryBuilder.bindMarker("name"))
-                    .allowFiltering()
-                    .build()
-        );        
+        /** Only release a name that is still owned by the given team */
+        preparedReleaseTeamName = session.prepare(
+            teamByNameHelper.deleteByPrimaryKey()
+                    .ifColumn("id").isEqualTo(bindMarker("id"))
+                    .asCql()
+        );
     }
     
     
     /**
-     * Creates a new team
+     * Creates a new team. The team name is first claimed with a conditional
+     * insert into the "teams_by_name" table, which fails if another team
+     * already uses that name; the team itself is created once the name is
+     * claimed.
      * 
      * @param team      the team to create
      * @return the newly created team
@@ -72,11 +80,11 @@ public class CreateTeamQueryProvider {
             throw new IllegalArgumentException(DAOException.INVALID_PARAMETERS);
         }
         
-        if (teamAlreadyExists(team)) {
+        if (!claimTeamName(team)) {
             throw new IllegalArgumentException(DAOException.TEAM_ALREADY_EXISTS);
         }
 
-        String currentTimeUTC = Timeline.currentDateTimeUTCString();
+        Instant currentTimeUTC = Timeline.now();
         
         if (team.getCreatedDate() == null) {
             team.setCreatedDate(currentTimeUTC);
@@ -84,17 +92,23 @@ public class CreateTeamQueryProvider {
         
         team.setLastModifiedDate(currentTimeUTC);
        
-        /** Create new user */
+        /** Create new team */
         BoundStatementBuilder insertTeam = preparedInsertTeam.boundStatementBuilder();
         insertTeam.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
-        teamHelper.set(team, insertTeam, NullSavingStrategy.SET_TO_NULL, false);
+        teamHelper.set(team, insertTeam, NullSavingStrategy.DO_NOT_SET, false);
         
-        ResultSet resultSet = session.execute(insertTeam.build());
-        
-        if (!resultSet.wasApplied()) {
-            log.severe(String.format("[TeamDao#create]: Couldn't execute statement: ", 
-                    insertTeam.toString()));
-            return null;
+        try {
+            ResultSet resultSet = session.execute(insertTeam.build());
+
+            if (!resultSet.wasApplied()) {
+                log.severe(String.format("[TeamDao#create]: Couldn't execute statement: %s", 
+                        insertTeam.toString()));
+                releaseTeamName(team);
+                return null;
+            }
+        } catch (RuntimeException ex) {
+            releaseTeamName(team);
+            throw ex;
         }
         
         return team;
@@ -102,14 +116,21 @@ public class CreateTeamQueryProvider {
     }
 
     
-    private boolean teamAlreadyExists(Team team) {
-        BoundStatementBuilder findTeamByName = preparedFindTeamByName.boundStatementBuilder();
-        findTeamByName.setString("name", team.getName());
-        findTeamByName.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    private boolean claimTeamName(Team team) {
+        BoundStatementBuilder claimTeamName = preparedClaimTeamName.boundStatementBuilder();
+        teamByNameHelper.set(new TeamByName(team.getName(), team.getId()), claimTeamName, 
+                NullSavingStrategy.DO_NOT_SET, false);
         
-        int result = session.execute(findTeamByName.build()).getAvailableWithoutFetching();
+        return session.execute(claimTeamName.build()).wasApplied();
+    }
+    
+    
+    private void releaseTeamName(Team team) {
+        BoundStatementBuilder releaseTeamName = preparedReleaseTeamName.boundStatementBuilder();
+        releaseTeamName.setString("name", team.getName());
+        releaseTeamName.setUuid("id", team.getId());
         
-        return result > 0;
+        session.execute(releaseTeamName.build());
     }
 
 }
@@ -1,32 +1,34 @@
 
 package com.akwabasystems.asakusa.dao.impl;
 
+import com.akwabasystems.asakusa.dao.exception.ConflictException;
 import com.akwabasystems.asakusa.dao.exception.DAOException;
 import com.akwabasystems.asakusa.model.Role;
 import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
 import com.akwabasystems.asakusa.model.UserCredentials;
-import com.akwabasystems.asakusa.repository.SchemaNames;
 import com.akwabasystems.asakusa.utils.PasswordUtils;
 import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.api.core.cql.BatchStatement;
-import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
-import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
-import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.mapper.MapperContext;
 import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
 import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
-import com.datastax.oss.driver.api.querybuilder.QueryBuilder;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.extern.java.Log;
 import org.springframework.lang.NonNull;
 
 
 /**
- * A class that provides the implementation of the {@code UserDao#create} method
+ * A class that provides the implementation of the {@code UserDao#create} and
+ * {@code UserDao#createWithPasswordHash} methods
  */
 @Log
 public class CreateUserQueryProvider {
@@ -34,124 +36,165 @@ public class CreateUserQueryProvider {
     private CqlSession session;
     private EntityHelper<User> userHelper;
     private EntityHelper<UserCredentials> credentialsHelper;
-    private PreparedStatement preparedInsertUser;
-    private PreparedStatement preparedFindUserById;
-    private PreparedStatement preparedFindUserByEmail;
+    private EntityHelper<UserByEmail> userByEmailHelper;
+    private PreparedStatement preparedClaimUserId;
+    private PreparedStatement preparedClaimEmail;
     private PreparedStatement preparedInsertCredentials;
+    private PreparedStatement preparedDeleteUser;
+    private PreparedStatement preparedDeleteCredentials;
+    private PreparedStatement preparedReleaseEmail;
     
     
     public CreateUserQueryProvider() {}
     
     
     public CreateUserQueryProvider(MapperContext context,
-                             EntityHelper<User> userHelper,
-                             EntityHelper<UserCredentials> credentialsHelper) {
+                                   EntityHelper<User> userHelper,
+                                   EntityHelper<UserCredentials> credentialsHelper,
+                                   EntityHelper<UserByEmail> userByEmailHelper) {
         this.session = context.getSession();
         this.userHelper = userHelper;
         this.credentialsHelper = credentialsHelper;
+        this.userByEmailHelper = userByEmailHelper;
         
         this.prepareStatements();
     }
     
     
     private void prepareStatements() {
-        preparedInsertUser = session.prepare(userHelper.insert().asCql());
+        preparedClaimUserId = session.prepare(userHelper.insert().ifNotExists().asCql());
         
-        preparedFindUserById = session.prepare(userHelper.selectByPrimaryKey().asCql());
-        
-        preparedFindUserByEmail = session.prepare(
-            userHelper.selectStart()
-                    .whereColumn(SchemaNames.COLUMN_EMAIL).isEqualTo(QueryBuilder.bindMarker("email"))
-                    .allowFiltering()
-                    .build()
-        );
+        preparedClaimEmail = session.prepare(userByEmailHelper.insert().ifNotExists().asCql());
         
         preparedInsertCredentials = session.prepare(credentialsHelper.insert().asCql());
         
+        preparedDeleteUser = session.prepare(userHelper.deleteByPrimaryKey().asCql());
+        
+        preparedDeleteCredentials = session.prepare(credentialsHelper.deleteByPrimaryKey().asCql());
+        
+        preparedReleaseEmail = session.prepare(userByEmailHelper.deleteByPrimaryKey()
+                .ifColumn("user_id").isEqualTo(bindMarker("user_id")).asCql());
+    
     }
     
     
     /**
-     * Creates a user account. This operation involves the following steps:
-     * First, checking whether a user with the specified ID or email already exist;
-     * second, encrypting the user's password; and finally creating the account.
+     * Creates a user account. The user ID is first claimed with a conditional
+     * insert of the user row; the email address is then claimed the same way 
+     * in the "users_by_email" table, while the credentials with the encrypted 
+     * password are written. If the email address is already taken, the user 
+     * row and the credentials are removed again.
+     * 
+     * Both keys are checked by the database itself, so two concurrent sign-ups 
+     * with the same user ID or email cannot both succeed, and no read is 
+     * needed beforehand.
      * 
      * @param user      the user account to create
      * @param password  the user's password
      * @param roles     the user's roles
      * @return the newly created user account
+     * @throws ConflictException if the user ID or the email address is already taken
      * @throws Exception if the account cannot be created
      */
     public User create(@NonNull User user, char[] password, Set<Role> roles) throws Exception {
-
+        String passwordHash = (password != null) ? PasswordUtils.hash(password) : null;
+        return createWithPasswordHash(user, passwordHash, roles);
+    }
+    
+    
+    /**
+     * Creates a user account whose password has already been hashed, in the
+     * same way as {@link #create}. This lets the services hash the password on
+     * the password hashing pool rather than on the request thread.
+     * 
+     * @param user          the user account to create
+     * @param passwordHash  the BCrypt hash of the user's password
+     * @param roles         the user's roles
+     * @return the newly created user account
+     * @throws ConflictException if the user ID or the email address is already taken
+     * @throws Exception if the account cannot be created
+     */
+    public User createWithPasswordHash(@NonNull User user, String passwordHash, Set<Role> roles) throws Exception {
+    
         boolean hasValidParameters = (
             user.getUserId() != null &&
             user.getEmail() != null &&
-            password != null
+            passwordHash != null
         );
-
+        
         if (!hasValidParameters) {
             throw new IllegalArgumentException(DAOException.INVALID_PARAMETERS);
         }
         
-        if (userIdAlreadyExists(user)) {
-            throw new IllegalArgumentException(DAOException.USER_ALREADY_EXISTS);
-        }
+        user.setLastModifiedDate(Timeline.now());
         
-        if (emailAlreadyExists(user)) {
-            throw new IllegalArgumentException(DAOException.EMAIL_ALREADY_EXISTS);
+        /** Claim the user ID */
+        BoundStatementBuilder claimUserId = preparedClaimUserId.boundStatementBuilder();
+        claimUserId.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        userHelper.set(user, claimUserId, NullSavingStrategy.DO_NOT_SET, false);
+        
+        if (!session.execute(claimUserId.build()).wasApplied()) {
+            throw new ConflictException(DAOException.USER_ALREADY_EXISTS, user.getUserId());
         }
         
-        user.setLastModifiedDate(Timeline.currentDateTimeUTCString());
-       
-        /** Create new user */
-        BoundStatementBuilder insertUser = preparedInsertUser.boundStatementBuilder();
-        userHelper.set(user, insertUser, NullSavingStrategy.SET_TO_NULL, false);
+        /** Claim the email address and add the credentials at the same time */
+        BoundStatementBuilder claimEmail = preparedClaimEmail.boundStatementBuilder();
+        claimEmail.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        userByEmailHelper.set(new UserByEmail(user.getEmail(), user.getUserId()), claimEmail, 
+                NullSavingStrategy.DO_NOT_SET, false);
         
-        /** Add user credentials */
-        UserCredentials credentials = new UserCredentials(user.getUserId(), PasswordUtils.hash(password));
+        UserCredentials credentials = new UserCredentials(user.getUserId(), passwordHash);
         credentials.setRoles(roles);
         
         BoundStatementBuilder insertCredentials = preparedInsertCredentials.boundStatementBuilder();
+        insertCredentials.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         credentialsHelper.set(credentials, insertCredentials, 
-                NullSavingStrategy.SET_TO_NULL, false);
-        
-        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.UNLOGGED)
-                                                .addStatement(insertUser.build())
-                                                .addStatement(insertCredentials.build());
-        
-        BatchStatement batchStatement = batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
-        ResultSet resultSet = session.execute(batchStatement);
+                NullSavingStrategy.DO_NOT_SET, false);
+        
+        CompletableFuture<AsyncResultSet> emailClaim = 
+                session.executeAsync(claimEmail.build()).toCompletableFuture();
+        CompletableFuture<AsyncResultSet> credentialsInsert = 
+                session.executeAsync(insertCredentials.build()).toCompletableFuture();
+        
+        boolean emailClaimed;
+        
+        try {
+            emailClaimed = emailClaim.join().wasApplied();
+            credentialsInsert.join();
+        } catch (CompletionException ex) {
+            credentialsInsert.exceptionally((error) -> null).join();
+            rollback(user, true);
+            throw (ex.getCause() instanceof RuntimeException) ? (RuntimeException) ex.getCause() : ex;
+        }
         
-        if (!resultSet.wasApplied()) {
-            log.severe(String.format("[UserDao#create]: Couldn't execute statement: ", batchStart.toString()));
-            return null;
+        if (!emailClaimed) {
+            rollback(user, false);
+            throw new ConflictException(DAOException.EMAIL_ALREADY_EXISTS, user.getEmail());
         }
         
         return user;
-
-    }
-
     
-    private boolean userIdAlreadyExists(User user) {
-        BoundStatementBuilder findUserById = preparedFindUserById.boundStatementBuilder();
-        findUserById.setString("user_id", user.getUserId());
-        findUserById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
-        
-        int result = session.execute(findUserById.build()).getAvailableWithoutFetching();
-        
-        return result > 0;
     }
     
     
-    private boolean emailAlreadyExists(User user) {
-        BoundStatementBuilder findUserByEmail = preparedFindUserByEmail.boundStatementBuilder();
-        findUserByEmail.setString("email", user.getEmail());
-        findUserByEmail.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    private void rollback(User user, boolean releaseEmail) {
+        log.warning(String.format("[UserDao#create]: Rolling back the creation of user %s", user.getUserId()));
+        
+        /** The email entry is only removed if it was claimed by this user */
+        if (releaseEmail) {
+            BoundStatementBuilder releaseEmailEntry = preparedReleaseEmail.boundStatementBuilder();
+            releaseEmailEntry.setString("email", user.getEmail());
+            releaseEmailEntry.setString("user_id", user.getUserId());
+            session.execute(releaseEmailEntry.build());
+        }
         
-        int result = session.execute(findUserByEmail.build()).getAvailableWithoutFetching();
+        BoundStatement deleteCredentials = preparedDeleteCredentials.bind(user.getUserId())
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        BoundStatement deleteUser = preparedDeleteUser.bind(user.getUserId())
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         
-        return result > 0;
+        session.execute(deleteCredentials);
+        session.execute(deleteUser);
     }
 
 }
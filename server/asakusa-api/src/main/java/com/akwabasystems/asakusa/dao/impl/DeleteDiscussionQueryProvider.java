@@ -0,0 +1,129 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.DiscussionByAuthor;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_AUTHOR_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_BUCKET;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_DISCUSSION_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PROJECT_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_DISCUSSION_MESSAGES_BY_DAY;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_DISCUSSION_MESSAGE_BUCKETS;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.deleteFrom;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.selectFrom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code DiscussionDao#delete}
+ * method. The message partitions of the discussion are deleted first, one day
+ * at a time, and the discussion, its author entry and its list of message 
+ * buckets are then deleted as one logged batch. A failed deletion can therefore
+ * be retried, since the discussion is only removed once its messages are gone.
+ */
+public class DeleteDiscussionQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Discussion> discussionHelper;
+    private EntityHelper<DiscussionByAuthor> discussionByAuthorHelper;
+    private PreparedStatement preparedFindDiscussionById;
+    private PreparedStatement preparedFindMessageBuckets;
+    private PreparedStatement preparedDeleteMessageBucket;
+    private PreparedStatement preparedDeleteMessageBuckets;
+    private PreparedStatement preparedDeleteDiscussion;
+    private PreparedStatement preparedDeleteDiscussionByAuthor;
+    
+    
+    public DeleteDiscussionQueryProvider() {}
+    
+    
+    public DeleteDiscussionQueryProvider(MapperContext context,
+                                         EntityHelper<Discussion> discussionHelper,
+                                         EntityHelper<DiscussionByAuthor> discussionByAuthorHelper) {
+        this.session = context.getSession();
+        this.discussionHelper = discussionHelper;
+        this.discussionByAuthorHelper = discussionByAuthorHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindDiscussionById = session.prepare(discussionHelper.selectByPrimaryKey().asCql());
+        preparedDeleteDiscussion = session.prepare(discussionHelper.deleteByPrimaryKey().asCql());
+        preparedDeleteDiscussionByAuthor = session.prepare(discussionByAuthorHelper.deleteByPrimaryKey().asCql());
+        
+        preparedFindMessageBuckets = session.prepare(
+            selectFrom(TABLE_DISCUSSION_MESSAGE_BUCKETS)
+                .column(COLUMN_BUCKET)
+                .whereColumn(COLUMN_PROJECT_ID).isEqualTo(bindMarker())
+                .whereColumn(COLUMN_DISCUSSION_ID).isEqualTo(bindMarker())
+                .build()
+        );
+        
+        preparedDeleteMessageBucket = session.prepare(
+            deleteFrom(TABLE_DISCUSSION_MESSAGES_BY_DAY)
+                .whereColumn(COLUMN_PROJECT_ID).isEqualTo(bindMarker())
+                .whereColumn(COLUMN_DISCUSSION_ID).isEqualTo(bindMarker())
+                .whereColumn(COLUMN_BUCKET).isEqualTo(bindMarker())
+                .build()
+        );
+        
+        preparedDeleteMessageBuckets = session.prepare(
+            deleteFrom(TABLE_DISCUSSION_MESSAGE_BUCKETS)
+                .whereColumn(COLUMN_PROJECT_ID).isEqualTo(bindMarker())
+                .whereColumn(COLUMN_DISCUSSION_ID).isEqualTo(bindMarker())
+                .build()
+        );
+    }
+    
+    
+    /**
+     * Deletes the specified discussion along with all its messages
+     * 
+     * @param discussion    the discussion to delete
+     */
+    public void delete(@NonNull Discussion discussion) {
+        Row storedDiscussion = session.execute(preparedFindDiscussionById
+                .bind(discussion.getProjectId(), discussion.getId())
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM)).one();
+        
+        List<CompletableFuture<?>> messageDeletions = new ArrayList<>();
+        
+        for (Row bucket : session.execute(preparedFindMessageBuckets.bind(discussion.getProjectId(), 
+                discussion.getId()))) {
+            messageDeletions.add(session.executeAsync(preparedDeleteMessageBucket
+                    .bind(discussion.getProjectId(), discussion.getId(), bucket.getString(COLUMN_BUCKET))
+                    .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM)).toCompletableFuture());
+        }
+        
+        CompletableFuture.allOf(messageDeletions.toArray(CompletableFuture[]::new)).join();
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(preparedDeleteMessageBuckets.bind(discussion.getProjectId(), discussion.getId()))
+                .addStatement(preparedDeleteDiscussion.bind(discussion.getProjectId(), discussion.getId()));
+        
+        /** Use the stored author in case the given discussion is stale */
+        String authorId = (storedDiscussion != null) ? 
+                storedDiscussion.getString(COLUMN_AUTHOR_ID) : discussion.getAuthorId();
+        
+        if (authorId != null) {
+            batchStart.addStatement(preparedDeleteDiscussionByAuthor.bind(authorId, discussion.getId()));
+        }
+        
+        session.execute(batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM));
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.ProjectByOwner;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code ProjectDao#delete} method.
+ * The owner entry of the project is deleted along with the project.
+ */
+public class DeleteProjectQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Project> projectHelper;
+    private EntityHelper<ProjectByOwner> projectByOwnerHelper;
+    private PreparedStatement preparedFindProjectById;
+    private PreparedStatement preparedDeleteProject;
+    private PreparedStatement preparedDeleteProjectByOwner;
+    
+    
+    public DeleteProjectQueryProvider() {}
+    
+    
+    public DeleteProjectQueryProvider(MapperContext context,
+                                      EntityHelper<Project> projectHelper,
+                                      EntityHelper<ProjectByOwner> projectByOwnerHelper) {
+        this.session = context.getSession();
+        this.projectHelper = projectHelper;
+        this.projectByOwnerHelper = projectByOwnerHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindProjectById = session.prepare(projectHelper.selectByPrimaryKey().asCql());
+        preparedDeleteProject = session.prepare(projectHelper.deleteByPrimaryKey().asCql());
+        preparedDeleteProjectByOwner = session.prepare(projectByOwnerHelper.deleteByPrimaryKey().asCql());
+    }
+    
+    
+    /**
+     * Deletes the specified project
+     * 
+     * @param project      the project to delete
+     * @throws Exception if the project cannot be deleted
+     */
+    public void delete(@NonNull Project project) throws Exception {
+        Row storedProject = session.execute(findProjectById(project)).one();
+        session.execute(deleteBatch(project, storedProject));
+    }
+    
+    
+    /**
+     * Asynchronously deletes the specified project
+     * 
+     * @param project      the project to delete
+     * @return a stage that completes once the project is deleted
+     */
+    public CompletionStage<Void> deleteAsync(@NonNull Project project) {
+        return session.executeAsync(findProjectById(project))
+                .thenCompose((resultSet) -> session.executeAsync(deleteBatch(project, resultSet.one())))
+                .thenApply((resultSet) -> null);
+    }
+    
+    
+    private BoundStatement findProjectById(Project project) {
+        BoundStatementBuilder findProjectById = preparedFindProjectById.boundStatementBuilder();
+        findProjectById.setUuid("team_id", project.getTeamId());
+        findProjectById.setUuid("id", project.getId());
+        findProjectById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        return findProjectById.build();
+    }
+    
+    
+    private BatchStatement deleteBatch(Project project, Row storedProject) {
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(preparedDeleteProject.bind(project.getTeamId(), project.getId()));
+        
+        /** Use the stored owner in case the given project is stale */
+        String ownerId = (storedProject != null) ? storedProject.getString("owner_id") : project.getOwnerId();
+        
+        if (ownerId != null) {
+            BoundStatementBuilder deleteProjectByOwner = preparedDeleteProjectByOwner.boundStatementBuilder();
+            deleteProjectByOwner.setString("owner_id", ownerId);
+            deleteProjectByOwner.setUuid("team_id", project.getTeamId());
+            deleteProjectByOwner.setUuid("project_id", project.getId());
+            batchStart.addStatement(deleteProjectByOwner.build());
+        }
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+}
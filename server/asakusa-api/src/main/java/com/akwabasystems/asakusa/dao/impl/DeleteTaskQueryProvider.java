@@ -0,0 +1,98 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ASSIGNEE_ID;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code TaskDao#delete} method.
+ * The assignee entries of the task are deleted along with the task.
+ */
+public class DeleteTaskQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Task> taskHelper;
+    private TaskAssigneeEntries assigneeEntries;
+    private PreparedStatement preparedFindTaskById;
+    private PreparedStatement preparedDeleteTask;
+    
+    
+    public DeleteTaskQueryProvider() {}
+    
+    
+    public DeleteTaskQueryProvider(MapperContext context,
+                                   EntityHelper<Task> taskHelper,
+                                   EntityHelper<TaskByAssignee> taskByAssigneeHelper) {
+        this.session = context.getSession();
+        this.taskHelper = taskHelper;
+        this.assigneeEntries = new TaskAssigneeEntries(session, taskByAssigneeHelper);
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindTaskById = session.prepare(taskHelper.selectByPrimaryKey().asCql());
+        preparedDeleteTask = session.prepare(taskHelper.deleteByPrimaryKey().asCql());
+    }
+    
+    
+    /**
+     * Deletes the specified task
+     * 
+     * @param task      the task to delete
+     * @throws Exception if the task cannot be deleted
+     */
+    public void delete(@NonNull Task task) throws Exception {
+        Row storedTask = session.execute(findTaskById(task)).one();
+        session.execute(deleteBatch(task, storedTask));
+    }
+    
+    
+    /**
+     * Asynchronously deletes the specified task
+     * 
+     * @param task      the task to delete
+     * @return a stage that completes once the task is deleted
+     */
+    public CompletionStage<Void> deleteAsync(@NonNull Task task) {
+        return session.executeAsync(findTaskById(task))
+                .thenCompose((resultSet) -> session.executeAsync(deleteBatch(task, resultSet.one())))
+                .thenApply((resultSet) -> null);
+    }
+    
+    
+    private BoundStatement findTaskById(Task task) {
+        return preparedFindTaskById.bind(task.getProjectId(), task.getId())
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+    
+    
+    private BatchStatement deleteBatch(Task task, Row storedTask) {
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(preparedDeleteTask.bind(task.getProjectId(), task.getId()));
+        
+        /** Use the stored assignee in case the given task is stale */
+        String assigneeId = (storedTask != null) ? storedTask.getString(COLUMN_ASSIGNEE_ID) : task.getAssigneeId();
+        
+        if (assigneeId != null) {
+            assigneeEntries.addRemoval(batchStart, task.getProjectId(), task.getId(), assigneeId);
+        }
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Team;
+import com.akwabasystems.asakusa.model.TeamByName;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code TeamDao#delete} method
+ */
+public class DeleteTeamQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Team> teamHelper;
+    private EntityHelper<TeamByName> teamByNameHelper;
+    private PreparedStatement preparedFindTeamById;
+    private PreparedStatement preparedDeleteTeam;
+    private PreparedStatement preparedReleaseTeamName;
+    
+    
+    public DeleteTeamQueryProvider() {}
+    
+    
+    public DeleteTeamQueryProvider(MapperContext context,
+                                   EntityHelper<Team> teamHelper,
+                                   EntityHelper<TeamByName> teamByNameHelper) {
+        this.session = context.getSession();
+        this.teamHelper = teamHelper;
+        this.teamByNameHelper = teamByNameHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindTeamById = session.prepare(teamHelper.selectByPrimaryKey().asCql());
+        preparedDeleteTeam = session.prepare(teamHelper.deleteByPrimaryKey().asCql());
+        
+        /** Only release a name that is still owned by the deleted team */
+        preparedReleaseTeamName = session.prepare(
+            teamByNameHelper.deleteByPrimaryKey()
+                    .ifColumn("id").isEqualTo(bindMarker("id"))
+                    .asCql()
+        );
+    }
+    
+    
+    /**
+     * Deletes the specified team and releases its name
+     * 
+     * @param team      the team to delete
+     * @throws Exception if the team cannot be deleted
+     */
+    public void delete(@NonNull Team team) throws Exception {
+        BoundStatementBuilder findTeamById = preparedFindTeamById.boundStatementBuilder();
+        findTeamById.setUuid("id", team.getId());
+        findTeamById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        Row storedTeam = session.execute(findTeamById.build()).one();
+        
+        BoundStatementBuilder deleteTeam = preparedDeleteTeam.boundStatementBuilder();
+        deleteTeam.setUuid("id", team.getId());
+        deleteTeam.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        session.execute(deleteTeam.build());
+        
+        String name = (storedTeam != null) ? storedTeam.getString("name") : team.getName();
+        
+        if (name != null) {
+            BoundStatementBuilder releaseTeamName = preparedReleaseTeamName.boundStatementBuilder();
+            releaseTeamName.setString("name", name);
+            releaseTeamName.setUuid("id", team.getId());
+            session.execute(releaseTeamName.build());
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package com.akwabasystems.asakusa.dao.impl;
 
 import com.akwabasystems.asakusa.dao.exception.DAOException;
 import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
 import com.akwabasystems.asakusa.model.UserCredentials;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlSession;
@@ -13,6 +14,7 @@ import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.mapper.MapperContext;
 import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
 import lombok.extern.java.Log;
@@ -28,9 +30,11 @@ public class DeleteUserQueryProvider {
     private CqlSession session;
     private EntityHelper<User> userHelper;
     private EntityHelper<UserCredentials> credentialsHelper;
+    private EntityHelper<UserByEmail> userByEmailHelper;
     private PreparedStatement preparedFindUserById;
     private PreparedStatement preparedDeleteUser;
     private PreparedStatement preparedDeleteCredentials;
+    private PreparedStatement preparedDeleteUserByEmail;
     
     
     public DeleteUserQueryProvider() {}
@@ -38,10 +42,12 @@ public class DeleteUserQueryProvider {
     
     public DeleteUserQueryProvider(MapperContext context,
                              EntityHelper<User> userHelper,
-                             EntityHelper<UserCredentials> credentialsHelper) {
+                             EntityHelper<UserCredentials> credentialsHelper,
+                             EntityHelper<UserByEmail> userByEmailHelper) {
         this.session = context.getSession();
         this.userHelper = userHelper;
         this.credentialsHelper = credentialsHelper;
+        this.userByEmailHelper = userByEmailHelper;
         
         this.prepareStatements();
     }
@@ -51,6 +57,7 @@ public class DeleteUserQueryProvider {
         preparedFindUserById = session.prepare(userHelper.selectByPrimaryKey().asCql());
         preparedDeleteUser = session.prepare(userHelper.deleteByPrimaryKey().asCql());
         preparedDeleteCredentials = session.prepare(credentialsHelper.deleteByPrimaryKey().asCql());
+        preparedDeleteUserByEmail = session.prepare(userByEmailHelper.deleteByPrimaryKey().asCql());
     }
     
 
@@ -63,7 +70,9 @@ public class DeleteUserQueryProvider {
      */
     public boolean delete(@NonNull User user) throws Exception {
 
-        if (!userExists(user)) {
+        Row storedUser = findStoredUser(user);
+        
+        if (storedUser == null) {
             throw new IllegalArgumentException(DAOException.INVALID_USER_ID);
         }
         
@@ -71,9 +80,20 @@ public class DeleteUserQueryProvider {
         BoundStatement deleteUser = preparedDeleteUser.bind(user.getUserId());
         BoundStatement deleteCredentials = preparedDeleteCredentials.bind(user.getUserId());
         
-        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.UNLOGGED)
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
                                                 .addStatement(deleteUser)
                                                 .addStatement(deleteCredentials);
+        
+        /** 
+         * Delete the email lookup entry, using the stored email in case the 
+         * given user is stale
+         */
+        String email = storedUser.getString("email");
+        
+        if (email != null) {
+            batchStart.addStatement(preparedDeleteUserByEmail.bind(email));
+        }
+        
         BatchStatement batchStatement = batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         ResultSet resultSet = session.execute(batchStatement);
         
@@ -82,19 +102,17 @@ public class DeleteUserQueryProvider {
    
     
     /**
-     * Returns true if the specified user account already exists; otherwise, returns false
+     * Returns the stored row of the specified user account, if it exists
      * 
-     * @param user      the user account to check
-     * @return true if the specific user account already exists; otherwise, returns false
+     * @param user      the user account to find
+     * @return the stored row of the specified user account, or null if it doesn't exist
      */
-    private boolean userExists(User user) {
+    private Row findStoredUser(User user) {
         BoundStatementBuilder findUserById = preparedFindUserById.boundStatementBuilder();
         findUserById.setString("user_id", user.getUserId());
         findUserById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         
-        int result = session.execute(findUserById.build()).getAvailableWithoutFetching();
-        
-        return result > 0;
+        return session.execute(findUserById.build()).one();
     }
 
 }
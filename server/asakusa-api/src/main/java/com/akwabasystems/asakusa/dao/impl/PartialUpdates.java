@@ -0,0 +1,340 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.exception.DAOException;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.selectFrom;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.update;
+import com.datastax.oss.driver.api.querybuilder.select.Select;
+import com.datastax.oss.driver.api.querybuilder.update.Update;
+import com.datastax.oss.driver.api.querybuilder.update.UpdateStart;
+import com.datastax.oss.driver.api.querybuilder.update.UpdateWithAssignments;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * The statements that write a column patch to a table. An update statement is
+ * prepared for each combination of patched columns, collection operations and
+ * condition the first time it is used, and reused afterwards.
+ *
+ * Some of the columns of a table are also copied to the entries of a lookup
+ * table, such as the title of a task to the entry of its assignee. When one of
+ * these columns is patched, the key of the lookup entry is read first, and the
+ * entry is patched once the row is. The key column itself cannot be patched,
+ * since changing it moves the entry to another partition.
+ *
+ * The entry is only patched if it still exists, so that a row moved to another
+ * key in the meantime does not leave a new entry under its previous key. In that
+ * case the key is read again, and the entry under the new key is patched instead.
+ */
+class PartialUpdates {
+
+    /** The maximum number of keys under which a lookup entry is patched */
+    private static final int MAX_LOOKUP_ATTEMPTS = 3;
+
+    private final CqlSession session;
+    private final CodecRegistry codecRegistry;
+    private final CqlIdentifier table;
+    private final List<CqlIdentifier> primaryKey;
+    private final CqlIdentifier lookupTable;
+    private final List<CqlIdentifier> lookupPrimaryKey;
+    private final Set<CqlIdentifier> lookupColumns;
+    private final PreparedStatement preparedFindLookupKey;
+    private final Map<String,PreparedStatement> preparedUpdates = new ConcurrentHashMap<>();
+
+
+    PartialUpdates(CqlSession session, CqlIdentifier table, List<CqlIdentifier> primaryKey) {
+        this(session, table, primaryKey, null, List.of(), Set.of());
+    }
+
+
+    /**
+     * Creates the statements for a table whose columns are partly copied to a
+     * lookup table
+     *
+     * @param session               the session with which to execute the statements
+     * @param table                 the table to patch
+     * @param primaryKey            the primary key columns of the table
+     * @param lookupTable           the lookup table
+     * @param lookupPrimaryKey      the primary key columns of the lookup table, starting with
+     *                              its partition key, followed by the columns that match the
+     *                              primary key of the table
+     * @param lookupColumns         the columns of the table that are copied to the lookup table
+     */
+    PartialUpdates(CqlSession session,
+                   CqlIdentifier table,
+                   List<CqlIdentifier> primaryKey,
+                   CqlIdentifier lookupTable,
+                   List<CqlIdentifier> lookupPrimaryKey,
+                   Set<CqlIdentifier> lookupColumns) {
+        this.session = session;
+        this.codecRegistry = session.getContext().getCodecRegistry();
+        this.table = table;
+        this.primaryKey = primaryKey;
+        this.lookupTable = lookupTable;
+        this.lookupPrimaryKey = lookupPrimaryKey;
+        this.lookupColumns = lookupColumns;
+
+        if (lookupTable == null) {
+            preparedFindLookupKey = null;
+            return;
+        }
+
+        Select findLookupKey = selectFrom(table).column(lookupPrimaryKey.get(0));
+
+        for (CqlIdentifier column : primaryKey) {
+            findLookupKey = findLookupKey.whereColumn(column).isEqualTo(bindMarker(column));
+        }
+
+        preparedFindLookupKey = session.prepare(findLookupKey.build());
+    }
+
+
+    /**
+     * Asynchronously writes the given patch to the row with the specified key
+     *
+     * @param patch             the columns to write, and the condition of the update
+     * @param keyValues         the values of the primary key of the row
+     * @return a stage that completes with true if the patch was applied, or false if
+     *         its condition failed or the row to patch along with its lookup entry
+     *         does not exist
+     */
+    CompletionStage<Boolean> patchAsync(ColumnPatch patch, Object... keyValues) {
+
+        if (patch.isEmpty() || (lookupTable != null && patch.contains(lookupPrimaryKey.get(0)))) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DAOException.INVALID_PARAMETERS));
+        }
+
+        if (lookupTable == null || !patch.containsAny(lookupColumns)) {
+            return session.executeAsync(updateRow(patch, patch.isConditional(), keyValues))
+                    .thenApply(AsyncResultSet::wasApplied);
+        }
+
+        return session.executeAsync(findLookupKey(keyValues)).thenCompose((resultSet) -> {
+            Row row = resultSet.one();
+
+            if (row == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+
+            Object lookupKey = row.getObject(0);
+
+            /**
+             * The entry is patched under a condition, which cannot be batched
+             * with a write to another partition, so it is only patched once the
+             * row is
+             */
+            return session.executeAsync(updateRow(patch, patch.isConditional(), keyValues))
+                    .thenCompose((result) -> (!result.wasApplied() || lookupKey == null) ?
+                            CompletableFuture.completedFuture(result.wasApplied()) :
+                            patchLookupEntryAsync(patch, lookupKey, keyValues, MAX_LOOKUP_ATTEMPTS)
+                                    .thenApply((entryPatched) -> true));
+        });
+    }
+
+
+    /**
+     * Asynchronously patches the lookup entry with the specified key, if it
+     * exists. If it does not, the row has been moved to another key since the
+     * key was read, so the key is read again and the entry under the new key is
+     * patched instead.
+     *
+     * @return a stage that completes with true if an entry was patched
+     */
+    private CompletionStage<Boolean> patchLookupEntryAsync(ColumnPatch patch,
+                                                           Object lookupKey,
+                                                           Object[] keyValues,
+                                                           int attempts) {
+        return session.executeAsync(updateLookupEntry(patch, lookupKey, keyValues)).thenCompose((result) -> {
+
+            if (result.wasApplied() || attempts <= 1) {
+                return CompletableFuture.completedFuture(result.wasApplied());
+            }
+
+            return session.executeAsync(findLookupKey(keyValues)).thenCompose((resultSet) -> {
+                Row row = resultSet.one();
+                Object currentKey = (row != null) ? row.getObject(0) : null;
+
+                return (currentKey == null || currentKey.equals(lookupKey)) ?
+                        CompletableFuture.completedFuture(false) :
+                        patchLookupEntryAsync(patch, currentKey, keyValues, attempts - 1);
+            });
+        });
+    }
+
+
+    private BoundStatement findLookupKey(Object[] keyValues) {
+        BoundStatementBuilder findLookupKey = preparedFindLookupKey.boundStatementBuilder();
+        bindValues(findLookupKey, preparedFindLookupKey.getVariableDefinitions(), List.of(keyValues));
+
+        return findLookupKey.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+
+    private BoundStatement updateRow(ColumnPatch patch, boolean conditional, Object[] keyValues) {
+        String condition = !conditional ? "" :
+                (patch.getExpectedLastModifiedDate() != null) ? "ifLastModifiedDate" : "ifExists";
+        PreparedStatement preparedUpdate = prepareUpdate(table, primaryKey, patch, condition);
+
+        List<Object> values = assignedValues(patch);
+        values.addAll(List.of(keyValues));
+
+        if (condition.equals("ifLastModifiedDate")) {
+            values.add(patch.getExpectedLastModifiedDate());
+        }
+
+        BoundStatementBuilder updateRow = preparedUpdate.boundStatementBuilder();
+        bindValues(updateRow, preparedUpdate.getVariableDefinitions(), values);
+
+        return updateRow.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+
+    private BoundStatement updateLookupEntry(ColumnPatch patch, Object lookupKey, Object[] keyValues) {
+        ColumnPatch entryPatch = new ColumnPatch();
+
+        for (Map.Entry<CqlIdentifier,Object> column : patch.getColumns().entrySet()) {
+
+            if (isLookupColumn(column.getKey())) {
+                entryPatch.set(column.getKey(), column.getValue());
+            }
+        }
+
+        for (Map.Entry<CqlIdentifier,Set<Object>> column : patch.getAddedElements().entrySet()) {
+
+            if (isLookupColumn(column.getKey())) {
+                entryPatch.add(column.getKey(), column.getValue());
+            }
+        }
+
+        for (Map.Entry<CqlIdentifier,Set<Object>> column : patch.getRemovedElements().entrySet()) {
+
+            if (isLookupColumn(column.getKey())) {
+                entryPatch.remove(column.getKey(), column.getValue());
+            }
+        }
+
+        PreparedStatement preparedUpdate = prepareUpdate(lookupTable, lookupPrimaryKey, entryPatch, "ifExists");
+
+        List<Object> values = assignedValues(entryPatch);
+        values.add(lookupKey);
+        values.addAll(List.of(keyValues));
+
+        BoundStatementBuilder updateEntry = preparedUpdate.boundStatementBuilder();
+        bindValues(updateEntry, preparedUpdate.getVariableDefinitions(), values);
+
+        return updateEntry.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+
+    private boolean isLookupColumn(CqlIdentifier column) {
+        return lookupColumns.contains(column) || COLUMN_LAST_MODIFIED_DATE.equals(column);
+    }
+
+
+    /**
+     * Returns the values assigned by the given patch, in the order of the
+     * assignments of its update statement: the written columns first, then the
+     * elements added to and removed from collection columns
+     */
+    private List<Object> assignedValues(ColumnPatch patch) {
+        List<Object> values = new ArrayList<>(patch.getColumns().values());
+        values.addAll(patch.getAddedElements().values());
+        values.addAll(patch.getRemovedElements().values());
+
+        return values;
+    }
+
+
+    private PreparedStatement prepareUpdate(CqlIdentifier tableName,
+                                            List<CqlIdentifier> keyColumns,
+                                            ColumnPatch patch,
+                                            String condition) {
+        StringBuilder cacheKey = new StringBuilder(tableName.asInternal()).append('|').append(condition);
+
+        for (CqlIdentifier column : patch.getColumns().keySet()) {
+            cacheKey.append("|=").append(column.asInternal());
+        }
+
+        for (CqlIdentifier column : patch.getAddedElements().keySet()) {
+            cacheKey.append("|+").append(column.asInternal());
+        }
+
+        for (CqlIdentifier column : patch.getRemovedElements().keySet()) {
+            cacheKey.append("|-").append(column.asInternal());
+        }
+
+        return preparedUpdates.computeIfAbsent(cacheKey.toString(), (key) -> {
+            UpdateStart updateStart = update(tableName);
+            UpdateWithAssignments assignments = null;
+
+            for (CqlIdentifier column : patch.getColumns().keySet()) {
+                assignments = (assignments == null) ?
+                        updateStart.setColumn(column, bindMarker()) :
+                        assignments.setColumn(column, bindMarker());
+            }
+
+            for (CqlIdentifier column : patch.getAddedElements().keySet()) {
+                assignments = (assignments == null) ?
+                        updateStart.append(column, bindMarker()) :
+                        assignments.append(column, bindMarker());
+            }
+
+            for (CqlIdentifier column : patch.getRemovedElements().keySet()) {
+                assignments = (assignments == null) ?
+                        updateStart.remove(column, bindMarker()) :
+                        assignments.remove(column, bindMarker());
+            }
+
+            Update update = null;
+
+            for (CqlIdentifier column : keyColumns) {
+                update = (update == null) ?
+                        assignments.whereColumn(column).isEqualTo(bindMarker()) :
+                        update.whereColumn(column).isEqualTo(bindMarker());
+            }
+
+            if (condition.equals("ifExists")) {
+                update = update.ifExists();
+            } else if (condition.equals("ifLastModifiedDate")) {
+                update = update.ifColumn(COLUMN_LAST_MODIFIED_DATE).isEqualTo(bindMarker());
+            }
+
+            return session.prepare(update.build());
+        });
+    }
+
+
+    private void bindValues(BoundStatementBuilder statement, ColumnDefinitions variables, List<Object> values) {
+
+        for (int index = 0; index < values.size(); index++) {
+            Object value = values.get(index);
+
+            if (value == null) {
+                statement.setToNull(index);
+            } else {
+                TypeCodec<Object> codec = codecRegistry.codecFor(variables.get(index).getType(), value);
+                statement.set(index, value, codec);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_DEADLINE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_END_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_NAME;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_OWNER_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PRIORITY;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PROJECT_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_START_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_STATUS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TEAM_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_PROJECTS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_PROJECTS_BY_OWNER;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code ProjectDao#patch} methods.
+ * The columns that are listed in the "projects_by_owner" table are patched in
+ * the entry of the current owner as well. The owner itself is changed with the
+ * {@code ProjectDao#save} methods, which move the owner entry of the project.
+ */
+public class PatchProjectQueryProvider {
+
+    private CqlSession session;
+    private PartialUpdates partialUpdates;
+    
+    
+    public PatchProjectQueryProvider() {}
+    
+    
+    public PatchProjectQueryProvider(MapperContext context) {
+        this.session = context.getSession();
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        partialUpdates = new PartialUpdates(session, 
+                TABLE_PROJECTS, List.of(COLUMN_TEAM_ID, COLUMN_ID),
+                TABLE_PROJECTS_BY_OWNER, List.of(COLUMN_OWNER_ID, COLUMN_TEAM_ID, COLUMN_PROJECT_ID),
+                Set.of(COLUMN_NAME, COLUMN_START_DATE, COLUMN_END_DATE, COLUMN_DEADLINE, COLUMN_STATUS, 
+                        COLUMN_PRIORITY));
+    }
+    
+    
+    /**
+     * Writes the given columns of the specified project, without reading it first
+     * 
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return true if the patch was applied; otherwise, false
+     */
+    public boolean patch(UUID teamId, UUID projectId, @NonNull ColumnPatch patch) {
+        return patchAsync(teamId, projectId, patch).toCompletableFuture().join();
+    }
+    
+    
+    /**
+     * Asynchronously writes the given columns of the specified project, without
+     * reading it first
+     * 
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return a stage that completes with true if the patch was applied; otherwise, false
+     */
+    public CompletionStage<Boolean> patchAsync(UUID teamId, UUID projectId, @NonNull ColumnPatch patch) {
+        return partialUpdates.patchAsync(patch, teamId, projectId);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ASSIGNEE_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_END_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PRIORITY;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PROJECT_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_START_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_STATUS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TASK_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TITLE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_TASKS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_TASKS_BY_ASSIGNEE;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code TaskDao#patch} methods.
+ * The columns that are listed in the "tasks_by_assignee" table are patched in
+ * the entry of the current assignee as well. The assignee itself is changed with
+ * the {@code TaskDao#assignTask} methods, which move the entries of the task.
+ */
+public class PatchTaskQueryProvider {
+
+    private CqlSession session;
+    private PartialUpdates partialUpdates;
+    
+    
+    public PatchTaskQueryProvider() {}
+    
+    
+    public PatchTaskQueryProvider(MapperContext context) {
+        this.session = context.getSession();
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        partialUpdates = new PartialUpdates(session, 
+                TABLE_TASKS, List.of(COLUMN_PROJECT_ID, COLUMN_ID),
+                TABLE_TASKS_BY_ASSIGNEE, List.of(COLUMN_ASSIGNEE_ID, COLUMN_PROJECT_ID, COLUMN_TASK_ID),
+                Set.of(COLUMN_TITLE, COLUMN_START_DATE, COLUMN_END_DATE, COLUMN_STATUS, COLUMN_PRIORITY));
+    }
+    
+    
+    /**
+     * Writes the given columns of the specified task, without reading it first
+     * 
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return true if the patch was applied; otherwise, false
+     */
+    public boolean patch(UUID projectId, UUID taskId, @NonNull ColumnPatch patch) {
+        return patchAsync(projectId, taskId, patch).toCompletableFuture().join();
+    }
+    
+    
+    /**
+     * Asynchronously writes the given columns of the specified task, without
+     * reading it first
+     * 
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return a stage that completes with true if the patch was applied; otherwise, false
+     */
+    public CompletionStage<Boolean> patchAsync(UUID projectId, UUID taskId, @NonNull ColumnPatch patch) {
+        return partialUpdates.patchAsync(patch, projectId, taskId);
+    }
+
+}
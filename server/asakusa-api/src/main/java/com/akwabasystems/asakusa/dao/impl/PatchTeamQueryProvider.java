@@ -0,0 +1,71 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.exception.DAOException;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_NAME;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_TEAMS;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code TeamDao#patch} methods.
+ * The name of a team is changed with the {@code TeamDao#rename} method instead,
+ * which claims the new name first.
+ */
+public class PatchTeamQueryProvider {
+
+    private CqlSession session;
+    private PartialUpdates partialUpdates;
+    
+    
+    public PatchTeamQueryProvider() {}
+    
+    
+    public PatchTeamQueryProvider(MapperContext context) {
+        this.session = context.getSession();
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        partialUpdates = new PartialUpdates(session, TABLE_TEAMS, List.of(COLUMN_ID));
+    }
+    
+    
+    /**
+     * Writes the given columns of the specified team, without reading it first
+     * 
+     * @param teamId        the ID of the team to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return true if the patch was applied; otherwise, false
+     */
+    public boolean patch(UUID teamId, @NonNull ColumnPatch patch) {
+        return patchAsync(teamId, patch).toCompletableFuture().join();
+    }
+    
+    
+    /**
+     * Asynchronously writes the given columns of the specified team, without
+     * reading it first
+     * 
+     * @param teamId        the ID of the team to patch
+     * @param patch         the columns to write, and the condition of the update
+     * @return a stage that completes with true if the patch was applied; otherwise, false
+     */
+    public CompletionStage<Boolean> patchAsync(UUID teamId, @NonNull ColumnPatch patch) {
+        if (patch.contains(COLUMN_NAME)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DAOException.INVALID_PARAMETERS));
+        }
+        
+        return partialUpdates.patchAsync(patch, teamId);
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.exception.DAOException;
+import com.akwabasystems.asakusa.model.Team;
+import com.akwabasystems.asakusa.model.TeamByName;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import lombok.extern.java.Log;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code TeamDao#rename} method
+ */
+@Log
+public class RenameTeamQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Team> teamHelper;
+    private EntityHelper<TeamByName> teamByNameHelper;
+    private PreparedStatement preparedFindTeamById;
+    private PreparedStatement preparedInsertTeam;
+    private PreparedStatement preparedClaimTeamName;
+    private PreparedStatement preparedReleaseTeamName;
+    
+    
+    public RenameTeamQueryProvider() {}
+    
+    
+    public RenameTeamQueryProvider(MapperContext context,
+                                   EntityHelper<Team> teamHelper,
+                                   EntityHelper<TeamByName> teamByNameHelper) {
+        this.session = context.getSession();
+        this.teamHelper = teamHelper;
+        this.teamByNameHelper = teamByNameHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindTeamById = session.prepare(teamHelper.selectByPrimaryKey().asCql());
+        preparedInsertTeam = session.prepare(teamHelper.insert().asCql());
+        preparedClaimTeamName = session.prepare(teamByNameHelper.insert().ifNotExists().asCql());
+        
+        /** Only release a name that is still owned by the given team */
+        preparedReleaseTeamName = session.prepare(
+            teamByNameHelper.deleteByPrimaryKey()
+                    .ifColumn("id").isEqualTo(bindMarker("id"))
+                    .asCql()
+        );
+    }
+    
+    
+    /**
+     * Renames the specified team and saves its other attributes. The new name
+     * is claimed first, so that the rename fails if another team already uses
+     * it; the previous name is released once the team is saved.
+     * 
+     * @param team      the team to rename
+     * @param name      the new name of the team
+     * @return the updated team
+     * @throws Exception if the team cannot be renamed
+     */
+    public Team rename(@NonNull Team team, String name) throws Exception {
+        
+        if (team.getId() == null || name == null || name.isBlank()) {
+            throw new IllegalArgumentException(DAOException.INVALID_PARAMETERS);
+        }
+        
+        Row storedTeam = findStoredTeam(team);
+        
+        if (storedTeam == null) {
+            throw new IllegalArgumentException(DAOException.INVALID_TEAM_ID);
+        }
+        
+        String currentName = storedTeam.getString("name");
+        boolean nameChanged = !name.equals(currentName);
+        
+        if (nameChanged && !claimTeamName(name, team)) {
+            throw new IllegalArgumentException(DAOException.TEAM_ALREADY_EXISTS);
+        }
+        
+        team.setName(name);
+        team.setLastModifiedDate(Timeline.now());
+        
+        BoundStatementBuilder insertTeam = preparedInsertTeam.boundStatementBuilder();
+        insertTeam.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        teamHelper.set(team, insertTeam, NullSavingStrategy.DO_NOT_SET, false);
+        
+        try {
+            ResultSet resultSet = session.execute(insertTeam.build());
+
+            if (!resultSet.wasApplied()) {
+                log.severe(String.format("[TeamDao#rename]: Couldn't execute statement: %s", 
+                        insertTeam.toString()));
+                return null;
+            }
+        } catch (RuntimeException ex) {
+            if (nameChanged) {
+                releaseTeamName(name, team);
+            }
+            
+            throw ex;
+        }
+        
+        if (nameChanged && currentName != null) {
+            releaseTeamName(currentName, team);
+        }
+        
+        return team;
+    }
+    
+    
+    private Row findStoredTeam(Team team) {
+        BoundStatementBuilder findTeamById = preparedFindTeamById.boundStatementBuilder();
+        findTeamById.setUuid("id", team.getId());
+        findTeamById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        return session.execute(findTeamById.build()).one();
+    }
+    
+    
+    private boolean claimTeamName(String name, Team team) {
+        BoundStatementBuilder claimTeamName = preparedClaimTeamName.boundStatementBuilder();
+        teamByNameHelper.set(new TeamByName(name, team.getId()), claimTeamName, 
+                NullSavingStrategy.DO_NOT_SET, false);
+        
+        return session.execute(claimTeamName.build()).wasApplied();
+    }
+    
+    
+    private void releaseTeamName(String name, Team team) {
+        BoundStatementBuilder releaseTeamName = preparedReleaseTeamName.boundStatementBuilder();
+        releaseTeamName.setString("name", name);
+        releaseTeamName.setUuid("id", team.getId());
+        
+        session.execute(releaseTeamName.build());
+    }
+
+}
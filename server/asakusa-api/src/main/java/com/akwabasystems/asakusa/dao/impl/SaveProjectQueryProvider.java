@@ -0,0 +1,171 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.ProjectByOwner;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code ProjectDao#create} and
+ * {@code ProjectDao#save} methods. Each project write also writes the owner
+ * entry of the project to the "projects_by_owner" table, and moves that entry
+ * when the owner of the project changes.
+ */
+public class SaveProjectQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Project> projectHelper;
+    private EntityHelper<ProjectByOwner> projectByOwnerHelper;
+    private PreparedStatement preparedFindProjectById;
+    private PreparedStatement preparedInsertProject;
+    private PreparedStatement preparedUpdateProject;
+    private PreparedStatement preparedInsertProjectByOwner;
+    private PreparedStatement preparedDeleteProjectByOwner;
+    
+    
+    public SaveProjectQueryProvider() {}
+    
+    
+    public SaveProjectQueryProvider(MapperContext context,
+                                    EntityHelper<Project> projectHelper,
+                                    EntityHelper<ProjectByOwner> projectByOwnerHelper) {
+        this.session = context.getSession();
+        this.projectHelper = projectHelper;
+        this.projectByOwnerHelper = projectByOwnerHelper;
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindProjectById = session.prepare(projectHelper.selectByPrimaryKey().asCql());
+        preparedInsertProject = session.prepare(projectHelper.insert().asCql());
+        preparedUpdateProject = session.prepare(projectHelper.updateByPrimaryKey().asCql());
+        preparedInsertProjectByOwner = session.prepare(projectByOwnerHelper.insert().asCql());
+        preparedDeleteProjectByOwner = session.prepare(projectByOwnerHelper.deleteByPrimaryKey().asCql());
+    }
+    
+    
+    /**
+     * Creates a new project along with its owner entry
+     * 
+     * @param project      the project to create
+     */
+    public void create(@NonNull Project project) {
+        session.execute(createBatch(project));
+    }
+    
+    
+    /**
+     * Asynchronously creates a new project along with its owner entry
+     * 
+     * @param project      the project to create
+     * @return a stage that completes once the project is created
+     */
+    public CompletionStage<Void> createAsync(@NonNull Project project) {
+        return session.executeAsync(createBatch(project)).thenApply((resultSet) -> null);
+    }
+    
+    
+    /**
+     * Updates a project and its owner entry. If the owner has changed, the
+     * entry of the previous owner is removed.
+     * 
+     * @param project      the project to update
+     * @throws Exception if the project cannot be updated
+     */
+    public void save(@NonNull Project project) throws Exception {
+        Row storedProject = session.execute(findProjectById(project)).one();
+        session.execute(saveBatch(project, storedProject));
+    }
+    
+    
+    /**
+     * Asynchronously updates a project and its owner entry
+     * 
+     * @param project      the project to update
+     * @return a stage that completes once the project is updated
+     */
+    public CompletionStage<Void> saveAsync(@NonNull Project project) {
+        return session.executeAsync(findProjectById(project))
+                .thenCompose((resultSet) -> session.executeAsync(saveBatch(project, resultSet.one())))
+                .thenApply((resultSet) -> null);
+    }
+    
+    
+    private BoundStatement findProjectById(Project project) {
+        BoundStatementBuilder findProjectById = preparedFindProjectById.boundStatementBuilder();
+        findProjectById.setUuid("team_id", project.getTeamId());
+        findProjectById.setUuid("id", project.getId());
+        findProjectById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        return findProjectById.build();
+    }
+    
+    
+    private BatchStatement createBatch(Project project) {
+        BoundStatementBuilder insertProject = preparedInsertProject.boundStatementBuilder();
+        projectHelper.set(project, insertProject, NullSavingStrategy.DO_NOT_SET, false);
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                                                .addStatement(insertProject.build());
+        
+        if (project.getOwnerId() != null) {
+            batchStart.addStatement(insertProjectByOwner(project, null));
+        }
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+    
+    
+    private BatchStatement saveBatch(Project project, Row storedProject) {
+        BoundStatementBuilder updateProject = preparedUpdateProject.boundStatementBuilder();
+        projectHelper.set(project, updateProject, NullSavingStrategy.DO_NOT_SET, false);
+        ClearedColumns.clear(updateProject, storedProject);
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                                                .addStatement(updateProject.build());
+        
+        String previousOwnerId = (storedProject != null) ? storedProject.getString("owner_id") : null;
+        
+        if (previousOwnerId != null && !Objects.equals(previousOwnerId, project.getOwnerId())) {
+            BoundStatementBuilder deleteProjectByOwner = preparedDeleteProjectByOwner.boundStatementBuilder();
+            deleteProjectByOwner.setString("owner_id", previousOwnerId);
+            deleteProjectByOwner.setUuid("team_id", project.getTeamId());
+            deleteProjectByOwner.setUuid("project_id", project.getId());
+            batchStart.addStatement(deleteProjectByOwner.build());
+        }
+        
+        if (project.getOwnerId() != null) {
+            Row storedEntry = Objects.equals(previousOwnerId, project.getOwnerId()) ? storedProject : null;
+            batchStart.addStatement(insertProjectByOwner(project, storedEntry));
+        }
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+    
+    
+    private BoundStatement insertProjectByOwner(Project project, Row storedProject) {
+        BoundStatementBuilder insertProjectByOwner = preparedInsertProjectByOwner.boundStatementBuilder();
+        projectByOwnerHelper.set(ProjectByOwner.fromProject(project), insertProjectByOwner, 
+                NullSavingStrategy.DO_NOT_SET, false);
+        ClearedColumns.clear(insertProjectByOwner, storedProject);
+        
+        return insertProjectByOwner.build();
+    }
+
+}
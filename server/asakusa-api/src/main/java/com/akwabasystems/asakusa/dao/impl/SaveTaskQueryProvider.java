@@ -0,0 +1,141 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ASSIGNEE_ID;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code TaskDao#create} and
+ * {@code TaskDao#save} methods. Each task write also writes the assignee 
+ * entries of the task, and moves them when the assignee of the task changes.
+ */
+public class SaveTaskQueryProvider {
+
+    private CqlSession session;
+    private EntityHelper<Task> taskHelper;
+    private TaskAssigneeEntries assigneeEntries;
+    private PreparedStatement preparedFindTaskById;
+    private PreparedStatement preparedInsertTask;
+    private PreparedStatement preparedUpdateTask;
+    
+    
+    public SaveTaskQueryProvider() {}
+    
+    
+    public SaveTaskQueryProvider(MapperContext context,
+                                 EntityHelper<Task> taskHelper,
+                                 EntityHelper<TaskByAssignee> taskByAssigneeHelper) {
+        this.session = context.getSession();
+        this.taskHelper = taskHelper;
+        this.assigneeEntries = new TaskAssigneeEntries(session, taskByAssigneeHelper);
+        
+        this.prepareStatements();
+    }
+    
+    
+    private void prepareStatements() {
+        preparedFindTaskById = session.prepare(taskHelper.selectByPrimaryKey().asCql());
+        preparedInsertTask = session.prepare(taskHelper.insert().asCql());
+        preparedUpdateTask = session.prepare(taskHelper.updateByPrimaryKey().asCql());
+    }
+    
+    
+    /**
+     * Creates a new task along with its assignee entries
+     * 
+     * @param task      the task to create
+     */
+    public void create(@NonNull Task task) {
+        session.execute(createBatch(task));
+    }
+    
+    
+    /**
+     * Asynchronously creates a new task along with its assignee entries
+     * 
+     * @param task      the task to create
+     * @return a stage that completes once the task is created
+     */
+    public CompletionStage<Void> createAsync(@NonNull Task task) {
+        return session.executeAsync(createBatch(task)).thenApply((resultSet) -> null);
+    }
+    
+    
+    /**
+     * Updates a task and its assignee entries. If the assignee has changed, the
+     * entries of the previous assignee are removed.
+     * 
+     * @param task      the task to update
+     * @throws Exception if the task cannot be updated
+     */
+    public void save(@NonNull Task task) throws Exception {
+        Row storedTask = session.execute(findTaskById(task)).one();
+        session.execute(saveBatch(task, storedTask));
+    }
+    
+    
+    /**
+     * Asynchronously updates a task and its assignee entries
+     * 
+     * @param task      the task to update
+     * @return a stage that completes once the task is updated
+     */
+    public CompletionStage<Void> saveAsync(@NonNull Task task) {
+        return session.executeAsync(findTaskById(task))
+                .thenCompose((resultSet) -> session.executeAsync(saveBatch(task, resultSet.one())))
+                .thenApply((resultSet) -> null);
+    }
+    
+    
+    private BoundStatement findTaskById(Task task) {
+        BoundStatementBuilder findTaskById = preparedFindTaskById.boundStatementBuilder();
+        findTaskById.setUuid("project_id", task.getProjectId());
+        findTaskById.setUuid("id", task.getId());
+        findTaskById.setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        
+        return findTaskById.build();
+    }
+    
+    
+    private BatchStatement createBatch(Task task) {
+        BoundStatementBuilder insertTask = preparedInsertTask.boundStatementBuilder();
+        taskHelper.set(task, insertTask, NullSavingStrategy.DO_NOT_SET, false);
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                                                .addStatement(insertTask.build());
+        assigneeEntries.addMove(batchStart, task, null, null);
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+    
+    
+    private BatchStatement saveBatch(Task task, Row storedTask) {
+        BoundStatementBuilder updateTask = preparedUpdateTask.boundStatementBuilder();
+        taskHelper.set(task, updateTask, NullSavingStrategy.DO_NOT_SET, false);
+        ClearedColumns.clear(updateTask, storedTask);
+        
+        BatchStatementBuilder batchStart = BatchStatement.builder(BatchType.LOGGED)
+                                                .addStatement(updateTask.build());
+        
+        String previousAssigneeId = (storedTask != null) ? storedTask.getString(COLUMN_ASSIGNEE_ID) : null;
+        assigneeEntries.addMove(batchStart, task, previousAssigneeId, storedTask);
+        
+        return batchStart.build().setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ASSIGNEE_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PROJECT_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TASK_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_USER_TASKS;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.deleteFrom;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.insertInto;
+import java.util.Objects;
+import java.util.UUID;
+
+
+/**
+ * The statements that keep the assignee entries of a task in sync. The 
+ * assignee of a task is recorded in the "user_tasks" table, which lists the 
+ * tasks of a user within one project, and in the "tasks_by_assignee" table, 
+ * which lists them across all projects. The task query providers add these
+ * statements to the batch that writes the task itself.
+ */
+class TaskAssigneeEntries {
+
+    private final EntityHelper<TaskByAssignee> taskByAssigneeHelper;
+    private final PreparedStatement preparedInsertUserTask;
+    private final PreparedStatement preparedDeleteUserTask;
+    private final PreparedStatement preparedInsertTaskByAssignee;
+    private final PreparedStatement preparedDeleteTaskByAssignee;
+    
+    
+    TaskAssigneeEntries(CqlSession session, EntityHelper<TaskByAssignee> taskByAssigneeHelper) {
+        this.taskByAssigneeHelper = taskByAssigneeHelper;
+        
+        preparedInsertUserTask = session.prepare(insertInto(TABLE_USER_TASKS)
+                .value(COLUMN_ASSIGNEE_ID, bindMarker(COLUMN_ASSIGNEE_ID))
+                .value(COLUMN_PROJECT_ID, bindMarker(COLUMN_PROJECT_ID))
+                .value(COLUMN_TASK_ID, bindMarker(COLUMN_TASK_ID))
+                .build());
+        
+        preparedDeleteUserTask = session.prepare(deleteFrom(TABLE_USER_TASKS)
+                .whereColumn(COLUMN_ASSIGNEE_ID).isEqualTo(bindMarker(COLUMN_ASSIGNEE_ID))
+                .whereColumn(COLUMN_PROJECT_ID).isEqualTo(bindMarker(COLUMN_PROJECT_ID))
+                .whereColumn(COLUMN_TASK_ID).isEqualTo(bindMarker(COLUMN_TASK_ID))
+                .build());
+        
+        preparedInsertTaskByAssignee = session.prepare(taskByAssigneeHelper.insert().asCql());
+        preparedDeleteTaskByAssignee = session.prepare(taskByAssigneeHelper.deleteByPrimaryKey().asCql());
+    }
+    
+    
+    /**
+     * Adds the statements that move the entries of a task from its previous
+     * assignee to its current one. The entries of the current assignee are 
+     * always rewritten, so that they carry the latest attributes of the task.
+     * 
+     * @param batch                 the batch to which to add the statements
+     * @param task                  the task, with its current assignee
+     * @param previousAssigneeId    the ID of the previous assignee, if any
+     * @param storedTask            the task as currently stored, if it was read; the fields
+     *                              cleared since are then also cleared on an entry that
+     *                              stays with the same assignee
+     */
+    void addMove(BatchStatementBuilder batch, Task task, String previousAssigneeId, Row storedTask) {
+        if (previousAssigneeId != null && !Objects.equals(previousAssigneeId, task.getAssigneeId())) {
+            addRemoval(batch, task.getProjectId(), task.getId(), previousAssigneeId);
+        }
+        
+        if (task.getAssigneeId() == null) {
+            return;
+        }
+        
+        batch.addStatement(preparedInsertUserTask.bind(task.getAssigneeId(), task.getProjectId(), task.getId()));
+        
+        BoundStatementBuilder insertTaskByAssignee = preparedInsertTaskByAssignee.boundStatementBuilder();
+        taskByAssigneeHelper.set(TaskByAssignee.fromTask(task), insertTaskByAssignee, 
+                NullSavingStrategy.DO_NOT_SET, false);
+        
+        if (Objects.equals(previousAssigneeId, task.getAssigneeId())) {
+            ClearedColumns.clear(insertTaskByAssignee, storedTask);
+        }
+        
+        batch.addStatement(insertTaskByAssignee.build());
+    }
+    
+    
+    /**
+     * Adds the statements that remove the entries of a task for the specified
+     * assignee
+     * 
+     * @param batch         the batch to which to add the statements
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task
+     * @param assigneeId    the ID of the assignee whose entries to remove
+     */
+    void addRemoval(BatchStatementBuilder batch, UUID projectId, UUID taskId, String assigneeId) {
+        batch.addStatement(preparedDeleteUserTask.bind(assigneeId, projectId, taskId));
+        batch.addStatement(preparedDeleteTaskByAssignee.bind(assigneeId, projectId, taskId));
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.dao.exception.DAOException;
+import com.akwabasystems.asakusa.dao.helper.JsonMapToTextMapCodec;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_SETTINGS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_USER_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.TABLE_USER_SETTINGS;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.update;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.springframework.lang.NonNull;
+
+
+/**
+ * A class that provides the implementation of the {@code UserDao#updatePreferences}
+ * methods. The given settings are added to the settings map of the user, and the
+ * settings with a null value are removed from it, without reading the current
+ * settings first. Both changes target a single partition, so they are written
+ * together as one mutation.
+ */
+public class UpdatePreferencesQueryProvider {
+
+    private CqlSession session;
+    private PreparedStatement preparedPutSettings;
+    private PreparedStatement preparedRemoveSettings;
+
+
+    public UpdatePreferencesQueryProvider() {}
+
+
+    public UpdatePreferencesQueryProvider(MapperContext context) {
+        this.session = context.getSession();
+
+        this.prepareStatements();
+    }
+
+
+    private void prepareStatements() {
+        preparedPutSettings = session.prepare(update(TABLE_USER_SETTINGS)
+                .append(COLUMN_SETTINGS, bindMarker(COLUMN_SETTINGS))
+                .setColumn(COLUMN_LAST_MODIFIED_DATE, bindMarker(COLUMN_LAST_MODIFIED_DATE))
+                .whereColumn(COLUMN_USER_ID).isEqualTo(bindMarker(COLUMN_USER_ID))
+                .build());
+
+        preparedRemoveSettings = session.prepare(update(TABLE_USER_SETTINGS)
+                .remove(COLUMN_SETTINGS, bindMarker(COLUMN_SETTINGS))
+                .setColumn(COLUMN_LAST_MODIFIED_DATE, bindMarker(COLUMN_LAST_MODIFIED_DATE))
+                .whereColumn(COLUMN_USER_ID).isEqualTo(bindMarker(COLUMN_USER_ID))
+                .build());
+    }
+
+
+    /**
+     * Sets the given settings for the specified user. A setting with a null
+     * value is removed, and the settings that are not specified are unchanged.
+     *
+     * @param userId        the ID of the user whose settings to update
+     * @param settings      the settings to set or remove
+     */
+    public void updatePreferences(String userId, @NonNull Map<String,Object> settings) {
+        updatePreferencesAsync(userId, settings).toCompletableFuture().join();
+    }
+
+
+    /**
+     * Asynchronously sets the given settings for the specified user. A setting
+     * with a null value is removed, and the settings that are not specified
+     * are unchanged.
+     *
+     * @param userId        the ID of the user whose settings to update
+     * @param settings      the settings to set or remove
+     * @return a stage that completes once the settings are updated
+     */
+    public CompletionStage<Void> updatePreferencesAsync(String userId, @NonNull Map<String,Object> settings) {
+
+        if (userId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(DAOException.INVALID_PARAMETERS));
+        }
+
+        Map<String,String> entries = new HashMap<>();
+        Set<String> removedKeys = new HashSet<>();
+
+        for (Map.Entry<String,Object> setting : settings.entrySet()) {
+
+            if (setting.getValue() != null) {
+                entries.put(setting.getKey(), JsonMapToTextMapCodec.encodeValue(setting.getValue()));
+            } else {
+                removedKeys.add(setting.getKey());
+            }
+        }
+
+        if (entries.isEmpty() && removedKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Instant modifiedDate = Timeline.now();
+        Statement<?> statement;
+
+        if (removedKeys.isEmpty()) {
+            statement = putSettings(userId, entries, modifiedDate);
+        } else if (entries.isEmpty()) {
+            statement = removeSettings(userId, removedKeys, modifiedDate);
+        } else {
+            statement = BatchStatement.builder(BatchType.LOGGED)
+                    .addStatement(putSettings(userId, entries, modifiedDate))
+                    .addStatement(removeSettings(userId, removedKeys, modifiedDate))
+                    .build()
+                    .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        }
+
+        return session.executeAsync(statement).thenApply((resultSet) -> null);
+    }
+
+
+    private BoundStatement putSettings(String userId, Map<String,String> entries, Instant modifiedDate) {
+        return preparedPutSettings.boundStatementBuilder()
+                .setMap(COLUMN_SETTINGS, entries, String.class, String.class)
+                .setInstant(COLUMN_LAST_MODIFIED_DATE, modifiedDate)
+                .setString(COLUMN_USER_ID, userId)
+                .build()
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+
+    private BoundStatement removeSettings(String userId, Set<String> removedKeys, Instant modifiedDate) {
+        return preparedRemoveSettings.boundStatementBuilder()
+                .setSet(COLUMN_SETTINGS, removedKeys, String.class)
+                .setInstant(COLUMN_LAST_MODIFIED_DATE, modifiedDate)
+                .setString(COLUMN_USER_ID, userId)
+                .build()
+                .setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+    }
+
+}
@@ -6,6 +6,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 
 
 @Entity
@@ -18,8 +19,8 @@ public class AccessToken {
     
     private String tokenKey;
     private ItemStatus status = ItemStatus.ACTIVE;
-    private String createdDate;
-    private String lastModifiedDate;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
     
     public AccessToken() {}
     
@@ -28,6 +29,20 @@ public class AccessToken {
         this.tokenKey = tokenKey;
     }
     
+    /**
+     * Creates a copy of the specified access token, which can be modified
+     * without affecting the original
+     *
+     * @param accessToken   the access token to copy
+     */
+    public AccessToken(AccessToken accessToken) {
+        this.deviceId = accessToken.deviceId;
+        this.tokenKey = accessToken.tokenKey;
+        this.status = accessToken.status;
+        this.createdDate = accessToken.createdDate;
+        this.lastModifiedDate = accessToken.lastModifiedDate;
+    }
+    
     public String getDeviceId() {
         return deviceId;
     }
@@ -52,19 +67,19 @@ public class AccessToken {
         this.status = status;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
     
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
 
@@ -12,6 +12,8 @@ public enum ActivityType {
     
     TASK,
     
+    TEAM,
+    
     DISCUSSION,
 
     DISCUSSION_LIKE;
@@ -26,4 +26,15 @@ public class Address {
         return address;
     }
     
+    public Address copy() {
+        Address address = new Address();
+        address.setStreet(street);
+        address.setCity(city);
+        address.setStateOrProvince(stateOrProvince);
+        address.setPostalCode(postalCode);
+        address.setCountry(country);
+        
+        return address;
+    }
+    
 }
@@ -6,6 +6,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 
 
 @Entity
@@ -19,8 +20,8 @@ public class DeviceToken {
     @CqlName("device_token")
     private String token;
     
-    private String createdDate;
-    private String lastModifiedDate;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
 
     public DeviceToken() {}
 
@@ -45,19 +46,19 @@ public class DeviceToken {
         this.token = token;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
 
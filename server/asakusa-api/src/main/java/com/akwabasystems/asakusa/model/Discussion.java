@@ -7,6 +7,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 import java.util.UUID;
 
 
@@ -23,7 +24,7 @@ public class Discussion {
     
     private String title;
     private String authorId;
-    private String createdDate;
+    private Instant createdDate;
             
     public Discussion() {}
     
@@ -66,11 +67,11 @@ public class Discussion {
         this.authorId = authorId;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
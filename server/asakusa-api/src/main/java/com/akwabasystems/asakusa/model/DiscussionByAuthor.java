@@ -0,0 +1,137 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
+import java.util.UUID;
+
+
+/**
+ * A denormalized copy of a discussion, partitioned by the ID of its author. It
+ * lets the discussions started by a user be listed, newest first, with a 
+ * single-partition read.
+ */
+@Entity
+@CqlName("discussions_by_author")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class DiscussionByAuthor {
+
+    @PartitionKey
+    private String authorId;
+    
+    @ClusteringColumn
+    private UUID discussionId;
+    
+    private UUID projectId;
+    private String title;
+    private Instant createdDate;
+    
+    public DiscussionByAuthor() {}
+    
+    public DiscussionByAuthor(String authorId, UUID discussionId, UUID projectId) {
+        this.authorId = authorId;
+        this.discussionId = discussionId;
+        this.projectId = projectId;
+    }
+    
+    /**
+     * Returns the author entry for the specified discussion
+     * 
+     * @param discussion    the discussion for which to return the author entry
+     * @return the author entry for the specified discussion
+     */
+    public static DiscussionByAuthor fromDiscussion(Discussion discussion) {
+        DiscussionByAuthor entry = new DiscussionByAuthor(discussion.getAuthorId(), discussion.getId(),
+                discussion.getProjectId());
+        entry.setTitle(discussion.getTitle());
+        entry.setCreatedDate(discussion.getCreatedDate());
+        
+        return entry;
+    }
+    
+    /**
+     * Returns the discussion described by this entry
+     * 
+     * @return the discussion described by this entry
+     */
+    public Discussion toDiscussion() {
+        Discussion discussion = new Discussion(getProjectId(), getDiscussionId(), getTitle(), getAuthorId());
+        discussion.setCreatedDate(getCreatedDate());
+        
+        return discussion;
+    }
+    
+    public String getAuthorId() {
+        return authorId;
+    }
+    
+    public void setAuthorId(String authorId) {
+        this.authorId = authorId;
+    }
+    
+    public UUID getDiscussionId() {
+        return discussionId;
+    }
+    
+    public void setDiscussionId(UUID discussionId) {
+        this.discussionId = discussionId;
+    }
+    
+    public UUID getProjectId() {
+        return projectId;
+    }
+    
+    public void setProjectId(UUID projectId) {
+        this.projectId = projectId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+    
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+    
+    @Override
+    public String toString() {
+       return String.format("DiscussionByAuthor { authorId: %s, discussionId: %s, title: '%s' }", 
+               getAuthorId(), getDiscussionId(), getTitle());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof DiscussionByAuthor)) {
+            return false;
+        }
+        
+        if (object == this) {
+            return true;
+        }
+        
+        DiscussionByAuthor entry = (DiscussionByAuthor) object;
+        return (entry.getAuthorId() != null && entry.getAuthorId().equals(getAuthorId())) &&
+               (entry.getDiscussionId() != null && entry.getDiscussionId().equals(getDiscussionId()));
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = 17 * ((getAuthorId() != null) ? getAuthorId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getDiscussionId() != null) ? getDiscussionId().hashCode() : Integer.hashCode(1));
+        
+        return result;
+    }
+
+}
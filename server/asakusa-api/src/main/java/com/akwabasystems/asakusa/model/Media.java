@@ -6,6 +6,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 import java.util.UUID;
 
 
@@ -21,8 +22,8 @@ public class Media {
     private String thumbnail;
     private String url;
     private MediaType type;
-    private String createdDate;
-    private String lastModifiedDate;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
             
     public Media() {}
     
@@ -73,19 +74,19 @@ public class Media {
         this.type = type;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
     
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
     
@@ -6,6 +6,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 import java.util.UUID;
 
 
@@ -20,8 +21,8 @@ public class Membership {
     private UUID id;
     private MembershipType type = MembershipType.FREE;
     private ItemStatus status = ItemStatus.ACTIVE;
-    private String createdDate;
-    private String lastModifiedDate;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
     
     public Membership() {}
     
@@ -63,19 +64,19 @@ public class Membership {
         this.status = status;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
     
@@ -1,33 +1,44 @@
-
 package com.akwabasystems.asakusa.model;
 
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
 import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 import java.util.UUID;
 
 
+/**
+ * A message posted on a discussion. The message IDs are time-based UUIDs, and
+ * the messages of a discussion are partitioned by the day on which they were
+ * posted, so that a busy discussion never grows a single unbounded partition.
+ * Within a day, the messages are sorted newest first.
+ */
 @Entity
-@CqlName("discussion_messages")
+@CqlName("discussion_messages_by_day")
 @NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
 public class Message {
 
-    @PartitionKey(1)
+    @PartitionKey(0)
     private UUID projectId;
     
-    @PartitionKey(2)
+    @PartitionKey(1)
     private UUID discussionId;
     
+    @PartitionKey(2)
+    private String bucket;
+    
     @ClusteringColumn
     private UUID id;
     
     private String body;
     private String authorId;
-    private String createdDate;
-            
+    private Instant createdDate;
+    
     public Message() {}
     
     public Message(UUID projectId, 
@@ -41,6 +52,19 @@ public class Message {
         this.authorId = authorId;
         this.body = body;
     }
+    
+    /**
+     * Returns the bucket of the message with the specified ID, which is the
+     * day on which the message was posted (e.g. "2023-05-01")
+     * 
+     * @param messageId     the time-based ID of the message
+     * @return the bucket of the message with the specified ID
+     * @throws IllegalArgumentException if the ID is not a time-based UUID
+     */
+    public static String bucketOf(UUID messageId) {
+        Instant postedAt = Instant.ofEpochMilli(Uuids.unixTimestamp(messageId));
+        return Timeline.DATE_FORMAT_YEAR_MONTH_DAY.format(postedAt.atZone(Timeline.timezoneUTC()));
+    }
 
     public UUID getProjectId() {
         return projectId;
@@ -58,6 +82,14 @@ public class Message {
         this.discussionId = discussionId;
     }
 
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -82,11 +114,11 @@ public class Message {
         this.authorId = authorId;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
@@ -0,0 +1,94 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.util.UUID;
+
+
+/**
+ * A day on which messages were posted on a discussion. The buckets of a 
+ * discussion are sorted newest first, which lets the message reader skip the
+ * days on which nothing was posted.
+ */
+@Entity
+@CqlName("discussion_message_buckets")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class MessageBucket {
+
+    @PartitionKey(0)
+    private UUID projectId;
+    
+    @PartitionKey(1)
+    private UUID discussionId;
+    
+    @ClusteringColumn
+    private String bucket;
+    
+    public MessageBucket() {}
+    
+    public MessageBucket(UUID projectId, UUID discussionId, String bucket) {
+        this.projectId = projectId;
+        this.discussionId = discussionId;
+        this.bucket = bucket;
+    }
+    
+    public UUID getProjectId() {
+        return projectId;
+    }
+    
+    public void setProjectId(UUID projectId) {
+        this.projectId = projectId;
+    }
+    
+    public UUID getDiscussionId() {
+        return discussionId;
+    }
+    
+    public void setDiscussionId(UUID discussionId) {
+        this.discussionId = discussionId;
+    }
+    
+    public String getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+    
+    @Override
+    public String toString() {
+       return String.format("MessageBucket { discussionId: %s, bucket: '%s' }", 
+               getDiscussionId(), getBucket());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof MessageBucket)) {
+            return false;
+        }
+        
+        if (object == this) {
+            return true;
+        }
+        
+        MessageBucket messageBucket = (MessageBucket) object;
+        return (messageBucket.getProjectId() != null && messageBucket.getProjectId().equals(getProjectId())) &&
+               (messageBucket.getDiscussionId() != null && messageBucket.getDiscussionId().equals(getDiscussionId())) &&
+               (messageBucket.getBucket() != null && messageBucket.getBucket().equals(getBucket()));
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = 17 * ((getProjectId() != null) ? getProjectId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getDiscussionId() != null) ? getDiscussionId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getBucket() != null) ? getBucket().hashCode() : Integer.hashCode(1));
+        
+        return result;
+    }
+
+}
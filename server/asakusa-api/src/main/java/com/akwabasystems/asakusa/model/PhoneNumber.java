@@ -8,6 +8,7 @@ import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
+import java.time.Instant;
 import java.util.UUID;
 
 
@@ -26,8 +27,8 @@ public final class PhoneNumber {
     private String countryCode;
     private PhoneNumberType type = PhoneNumberType.MOBILE;
     private ItemStatus status = ItemStatus.UNVERIFIED;
-    private String createdDate;
-    private String lastModifiedDate;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
     
     public PhoneNumber() { }
     
@@ -191,19 +192,19 @@ public final class PhoneNumber {
         this.status = status;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
 
@@ -7,7 +7,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
-import java.time.ZonedDateTime;
+import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
@@ -24,10 +24,10 @@ public class PhoneNumberVerification {
     private String code;
 
     @CqlName("created_at")
-    private String createdDate;
+    private Instant createdDate;
     
     @CqlName("expires_at")
-    private String expirationDate;
+    private Instant expirationDate;
 
 
     public PhoneNumberVerification() {}
@@ -38,10 +38,8 @@ public class PhoneNumberVerification {
         this.id = id;
         
         /** Set the validity of the verification code to 10 minutes */
-        ZonedDateTime currentTimeUTC = ZonedDateTime.now(Timeline.timezoneUTC());
-        ZonedDateTime expirationTimeUTC = currentTimeUTC.plus(10, ChronoUnit.MINUTES);
-        createdDate = Timeline.toUTCFormat(currentTimeUTC);
-        expirationDate = Timeline.toUTCFormat(expirationTimeUTC);
+        createdDate = Timeline.now();
+        expirationDate = createdDate.plus(10, ChronoUnit.MINUTES);
     }
     
     
@@ -100,19 +98,19 @@ public class PhoneNumberVerification {
         this.code = code;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
-    public String getExpirationDate() {
+    public Instant getExpirationDate() {
         return expirationDate;
     }
 
-    public void setExpirationDate(String expirationDate) {
+    public void setExpirationDate(Instant expirationDate) {
         this.expirationDate = expirationDate;
     }
 
@@ -7,6 +7,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -29,15 +30,15 @@ public class Project {
     
     @Nullable
     private String ownerId;
-    private String startDate;
-    private String endDate;
-    private String deadline;
+    private Instant startDate;
+    private Instant endDate;
+    private Instant deadline;
     private int capacity = 40;
     private ItemStatus status = ItemStatus.TODO;
     private ItemPriority priority = ItemPriority.MEDIUM;
     private Set<String> tags = new HashSet<>();
-    private String createdDate;
-    private String lastModifiedDate;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
             
     public Project() {}
     
@@ -87,27 +88,27 @@ public class Project {
         this.ownerId = ownerId;
     }
 
-    public String getStartDate() {
+    public Instant getStartDate() {
         return startDate;
     }
 
-    public void setStartDate(String startDate) {
+    public void setStartDate(Instant startDate) {
         this.startDate = startDate;
     }
 
-    public String getEndDate() {
+    public Instant getEndDate() {
         return endDate;
     }
 
-    public void setEndDate(String endDate) {
+    public void setEndDate(Instant endDate) {
         this.endDate = endDate;
     }
 
-    public String getDeadline() {
+    public Instant getDeadline() {
         return deadline;
     }
 
-    public void setDeadline(String deadline) {
+    public void setDeadline(Instant deadline) {
         this.deadline = deadline;
     }
 
@@ -143,19 +144,19 @@ public class Project {
         this.tags = tags;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
 
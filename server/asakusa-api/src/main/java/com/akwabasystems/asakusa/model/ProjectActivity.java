@@ -1,31 +1,44 @@
 
 package com.akwabasystems.asakusa.model;
 
+import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
-import org.json.JSONObject;
 
 
+/**
+ * An activity of a project. The activities are partitioned by project and by
+ * month of creation, so that the partition of a long-running project stays
+ * bounded, and they are sorted newest first within each month.
+ */
 @Entity
-@CqlName("project_activity")
+@CqlName("project_activity_by_month")
 @NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
 public class ProjectActivity {
     
-    @PartitionKey
+    @PartitionKey(0)
     private UUID projectId;
     
-    @ClusteringColumn
+    @PartitionKey(1)
+    private String bucket;
+    
+    @ClusteringColumn(0)
+    private Instant createdDate;
+    
+    @ClusteringColumn(1)
     private UUID id;
     
     private String actor;
     private ActivityType type = ActivityType.NONE;
-    private JSONObject details = new JSONObject();
-    private String createdDate;
+    private Map<String,Object> details = new LinkedHashMap<>();
 
     public ProjectActivity() {}
     
@@ -39,6 +52,17 @@ public class ProjectActivity {
         this.type = type;
     }
     
+    /**
+     * Returns the bucket of an activity created at the specified date, which
+     * is the year and month of the date (e.g. "2023-05")
+     * 
+     * @param createdDate   the creation date of the activity
+     * @return the bucket of an activity created at the specified date
+     */
+    public static String bucketOf(Instant createdDate) {
+        return Timeline.DATE_FORMAT_YEAR_MONTH.format(createdDate.atZone(Timeline.timezoneUTC()));
+    }
+    
     public UUID getProjectId() {
         return projectId;
     }
@@ -47,6 +71,14 @@ public class ProjectActivity {
         this.projectId = projectId;
     }
 
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -71,22 +103,40 @@ public class ProjectActivity {
         this.type = type;
     }
 
-    public JSONObject getDetails() {
+    public Map<String,Object> getDetails() {
         return details;
     }
 
-    public void setDetails(JSONObject details) {
+    public void setDetails(Map<String,Object> details) {
         this.details = details;
     }
 
-    public String getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(String createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
     
+    /**
+     * Returns a map of the attributes of this activity, with the details 
+     * expanded, for use in API responses
+     * 
+     * @return a map of the attributes of this activity
+     */
+    public Map<String,Object> toMap() {
+        Map<String,Object> attributes = new LinkedHashMap<>();
+        attributes.put("id", getId());
+        attributes.put("projectId", getProjectId());
+        attributes.put("actor", getActor());
+        attributes.put("type", getType());
+        attributes.put("details", (getDetails() != null) ? getDetails() : Map.of());
+        attributes.put("createdDate", getCreatedDate());
+        
+        return attributes;
+    }
+    
     @Override
     public String toString() {
        return String.format("ProjectActivity { id: %s, actor: '%s', type: '%s' }", 
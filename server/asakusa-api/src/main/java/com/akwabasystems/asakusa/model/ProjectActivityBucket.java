@@ -0,0 +1,80 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.util.UUID;
+
+
+/**
+ * A month in which a project has recorded activities. The buckets of a project
+ * are sorted newest first, which lets the activity feed skip the months in
+ * which nothing happened.
+ */
+@Entity
+@CqlName("project_activity_buckets")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class ProjectActivityBucket {
+
+    @PartitionKey
+    private UUID projectId;
+    
+    @ClusteringColumn
+    private String bucket;
+    
+    public ProjectActivityBucket() {}
+    
+    public ProjectActivityBucket(UUID projectId, String bucket) {
+        this.projectId = projectId;
+        this.bucket = bucket;
+    }
+    
+    public UUID getProjectId() {
+        return projectId;
+    }
+    
+    public void setProjectId(UUID projectId) {
+        this.projectId = projectId;
+    }
+    
+    public String getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+    
+    @Override
+    public String toString() {
+       return String.format("ProjectActivityBucket { projectId: %s, bucket: '%s' }", 
+               getProjectId(), getBucket());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof ProjectActivityBucket)) {
+            return false;
+        }
+        
+        if (object == this) {
+            return true;
+        }
+        
+        ProjectActivityBucket activityBucket = (ProjectActivityBucket) object;
+        return (activityBucket.getProjectId() != null && activityBucket.getProjectId().equals(getProjectId())) &&
+               (activityBucket.getBucket() != null && activityBucket.getBucket().equals(getBucket()));
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = 17 * ((getProjectId() != null) ? getProjectId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getBucket() != null) ? getBucket().hashCode() : Integer.hashCode(1));
+        
+        return result;
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
+import java.util.UUID;
+
+
+/**
+ * A denormalized copy of the list attributes of a project, partitioned by the
+ * ID of the project owner. It lets the projects of a user be listed with a 
+ * single-partition read.
+ */
+@Entity
+@CqlName("projects_by_owner")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class ProjectByOwner {
+
+    @PartitionKey
+    private String ownerId;
+    
+    @ClusteringColumn(0)
+    private UUID teamId;
+    
+    @ClusteringColumn(1)
+    private UUID projectId;
+    
+    private String name;
+    private Instant startDate;
+    private Instant endDate;
+    private Instant deadline;
+    private ItemStatus status;
+    private ItemPriority priority;
+    private Instant lastModifiedDate;
+    
+    public ProjectByOwner() {}
+    
+    public ProjectByOwner(String ownerId, UUID teamId, UUID projectId) {
+        this.ownerId = ownerId;
+        this.teamId = teamId;
+        this.projectId = projectId;
+    }
+    
+    /**
+     * Returns the owner entry for the specified project
+     * 
+     * @param project       the project for which to return the owner entry
+     * @return the owner entry for the specified project
+     */
+    public static ProjectByOwner fromProject(Project project) {
+        ProjectByOwner entry = new ProjectByOwner(project.getOwnerId(), project.getTeamId(), project.getId());
+        entry.setName(project.getName());
+        entry.setStartDate(project.getStartDate());
+        entry.setEndDate(project.getEndDate());
+        entry.setDeadline(project.getDeadline());
+        entry.setStatus(project.getStatus());
+        entry.setPriority(project.getPriority());
+        entry.setLastModifiedDate(project.getLastModifiedDate());
+        
+        return entry;
+    }
+    
+    /**
+     * Returns a project with the list attributes of this entry
+     * 
+     * @return a project with the list attributes of this entry
+     */
+    public Project toProject() {
+        Project project = new Project(getTeamId(), getProjectId(), getName());
+        project.setOwnerId(getOwnerId());
+        project.setStartDate(getStartDate());
+        project.setEndDate(getEndDate());
+        project.setDeadline(getDeadline());
+        project.setStatus(getStatus());
+        project.setPriority(getPriority());
+        project.setLastModifiedDate(getLastModifiedDate());
+        
+        return project;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public UUID getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(UUID teamId) {
+        this.teamId = teamId;
+    }
+
+    public UUID getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(UUID projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Instant deadline) {
+        this.deadline = deadline;
+    }
+
+    public ItemStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ItemStatus status) {
+        this.status = status;
+    }
+
+    public ItemPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(ItemPriority priority) {
+        this.priority = priority;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ProjectByOwner { ownerId: %s, teamId: %s, projectId: %s, name: %s }", 
+                getOwnerId(), getTeamId(), getProjectId(), getName());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof ProjectByOwner)) {
+            return false;
+        }
+
+        if (object == this) {
+            return true;
+        }
+
+        ProjectByOwner entry = (ProjectByOwner) object;
+        return (entry.getOwnerId() != null && entry.getOwnerId().equals(getOwnerId())) &&
+               (entry.getTeamId() != null && entry.getTeamId().equals(getTeamId())) &&
+               (entry.getProjectId() != null && entry.getProjectId().equals(getProjectId()));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result * ((getOwnerId() != null) ? getOwnerId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getTeamId() != null) ? getTeamId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getProjectId() != null) ? getProjectId().hashCode() : Integer.hashCode(1));
+
+        return result;
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.akwabasystems.asakusa.model;
+
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
+import java.util.UUID;
+
+
+/**
+ * A signed access token that was revoked before it expired. The revoked tokens
+ * are bucketed by the hour in which they expire, so that only the buckets of
+ * the tokens that have not expired yet need to be read.
+ */
+@Entity
+@CqlName("revoked_access_tokens")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class RevokedAccessToken {
+
+    @PartitionKey
+    private String bucket;
+    
+    @ClusteringColumn
+    private UUID tokenId;
+    
+    private String deviceId;
+    private Instant expiresAt;
+    
+    public RevokedAccessToken() {}
+    
+    public RevokedAccessToken(UUID tokenId, String deviceId, Instant expiresAt) {
+        this.bucket = bucketOf(expiresAt);
+        this.tokenId = tokenId;
+        this.deviceId = deviceId;
+        this.expiresAt = expiresAt;
+    }
+    
+    /**
+     * Returns the bucket of a token that expires at the specified date, which
+     * is the date and hour of the expiry (e.g. "2023-05-01T14")
+     *
+     * @param expiresAt     the expiry date of the token
+     * @return the bucket of a token that expires at the specified date
+     */
+    public static String bucketOf(Instant expiresAt) {
+        return Timeline.DATE_FORMAT_YEAR_MONTH_DAY_HOUR.format(expiresAt.atZone(Timeline.timezoneUTC()));
+    }
+    
+    public String getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+    
+    public UUID getTokenId() {
+        return tokenId;
+    }
+    
+    public void setTokenId(UUID tokenId) {
+        this.tokenId = tokenId;
+    }
+    
+    public String getDeviceId() {
+        return deviceId;
+    }
+    
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    
+    @Override
+    public String toString() {
+        return String.format("RevokedAccessToken { tokenId: %s, deviceId: %s, expiresAt: %s }",
+                getTokenId(), getDeviceId(), getExpiresAt());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof RevokedAccessToken)) {
+            return false;
+        }
+        
+        if (object == this) {
+            return true;
+        }
+        
+        RevokedAccessToken token = (RevokedAccessToken) object;
+        return (token.getTokenId() != null && token.getTokenId().equals(getTokenId()));
+    }
+    
+    @Override
+    public int hashCode() {
+        return 17 * ((getTokenId() != null) ? getTokenId().hashCode() : Integer.hashCode(1));
+    }
+    
+}
@@ -1,62 +1,93 @@
 
 package com.akwabasystems.asakusa.model;
 
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
 import com.datastax.oss.driver.api.mapper.annotations.CqlName;
 import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 
 @Entity
-@CqlName("tags")
+@CqlName("team_tags")
 @NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
 public class Tag {
 
     @PartitionKey
-    private UUID id;
+    private UUID teamId;
     
+    @ClusteringColumn
     private String name;
+    
+    private UUID id;
     private String colorCode;
-            
+    
     public Tag() {}
     
-    public Tag(UUID id, String name, String colorCode) {
+    public Tag(UUID teamId, String name) {
+        this(teamId, idOf(teamId, name), name, null);
+    }
+    
+    public Tag(UUID teamId, UUID id, String name, String colorCode) {
+        this.teamId = teamId;
         this.id = id;
         this.name = name;
         this.colorCode = colorCode;
     }
-
+    
+    /**
+     * Returns the ID of the tag with the specified name in the catalog of the
+     * given team. The ID is derived from the team and the name, so that adding
+     * the same tag again writes the same row.
+     *
+     * @param teamId    the ID of the team
+     * @param name      the name of the tag
+     * @return the ID of the tag
+     */
+    public static UUID idOf(UUID teamId, String name) {
+        return UUID.nameUUIDFromBytes((teamId + ":" + name).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public UUID getTeamId() {
+        return teamId;
+    }
+    
+    public void setTeamId(UUID teamId) {
+        this.teamId = teamId;
+    }
+    
     public UUID getId() {
         return id;
     }
-
+    
     public void setId(UUID id) {
         this.id = id;
     }
-
+    
     public String getName() {
         return name;
     }
-
+    
     public void setName(String name) {
         this.name = name;
     }
-
+    
     public String getColorCode() {
         return colorCode;
     }
-
+    
     public void setColorCode(String colorCode) {
         this.colorCode = colorCode;
     }
-
+    
     
     @Override
     public String toString() {
-        return String.format("Tag { id: %s, name: %s, colorCode: %s }", 
-                getId(), getName(), getColorCode());
+        return String.format("Tag { teamId: %s, id: %s, name: %s, colorCode: %s }",
+                getTeamId(), getId(), getName(), getColorCode());
     }
     
     @Override
@@ -70,18 +101,18 @@ public class Tag {
         }
 
         Tag tag = (Tag) object;
-        return (tag.getId() != null && tag.getId().equals(getId())) &&
-               (tag.getColorCode() != null && tag.getColorCode().equals(getColorCode()));
+        return (tag.getTeamId() != null && tag.getTeamId().equals(getTeamId())) &&
+               (tag.getName() != null && tag.getName().equals(getName()));
     }
-
+    
     @Override
     public int hashCode() {
         int result = 17;
-        result = 31 * result * ((getId() != null) ? getId().hashCode() : Integer.hashCode(1));
-        result = 31 * result * ((getColorCode() != null) ? getColorCode().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getTeamId() != null) ? getTeamId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getName() != null) ? getName().hashCode() : Integer.hashCode(1));
 
         return result;
     }
-
     
+
 }
@@ -0,0 +1,186 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
+import java.util.UUID;
+
+
+/**
+ * A denormalized copy of the list attributes of a task, partitioned by the ID
+ * of the task assignee. It lets the tasks of a user be listed across all their
+ * projects with a single-partition read.
+ */
+@Entity
+@CqlName("tasks_by_assignee")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class TaskByAssignee {
+
+    @PartitionKey
+    private String assigneeId;
+    
+    @ClusteringColumn(0)
+    private UUID projectId;
+    
+    @ClusteringColumn(1)
+    private UUID taskId;
+    
+    private String title;
+    private Instant startDate;
+    private Instant endDate;
+    private ItemStatus status;
+    private ItemPriority priority;
+    private Instant lastModifiedDate;
+    
+    public TaskByAssignee() {}
+    
+    public TaskByAssignee(String assigneeId, UUID projectId, UUID taskId) {
+        this.assigneeId = assigneeId;
+        this.projectId = projectId;
+        this.taskId = taskId;
+    }
+    
+    /**
+     * Returns the assignee entry for the specified task
+     * 
+     * @param task      the task for which to return the assignee entry
+     * @return the assignee entry for the specified task
+     */
+    public static TaskByAssignee fromTask(Task task) {
+        TaskByAssignee entry = new TaskByAssignee(task.getAssigneeId(), task.getProjectId(), task.getId());
+        entry.setTitle(task.getTitle());
+        entry.setStartDate(task.getStartDate());
+        entry.setEndDate(task.getEndDate());
+        entry.setStatus(task.getStatus());
+        entry.setPriority(task.getPriority());
+        entry.setLastModifiedDate(task.getLastModifiedDate());
+        
+        return entry;
+    }
+    
+    /**
+     * Returns a task with the list attributes of this entry
+     * 
+     * @return a task with the list attributes of this entry
+     */
+    public Task toTask() {
+        Task task = new Task(getProjectId(), getTaskId(), getTitle());
+        task.setAssigneeId(getAssigneeId());
+        task.setStartDate(getStartDate());
+        task.setEndDate(getEndDate());
+        task.setStatus(getStatus());
+        task.setPriority(getPriority());
+        task.setLastModifiedDate(getLastModifiedDate());
+        
+        return task;
+    }
+    
+    public String getAssigneeId() {
+        return assigneeId;
+    }
+    
+    public void setAssigneeId(String assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+    
+    public UUID getProjectId() {
+        return projectId;
+    }
+    
+    public void setProjectId(UUID projectId) {
+        this.projectId = projectId;
+    }
+    
+    public UUID getTaskId() {
+        return taskId;
+    }
+    
+    public void setTaskId(UUID taskId) {
+        this.taskId = taskId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public Instant getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+    
+    public Instant getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+    
+    public ItemStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ItemStatus status) {
+        this.status = status;
+    }
+    
+    public ItemPriority getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(ItemPriority priority) {
+        this.priority = priority;
+    }
+    
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+    
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("TaskByAssignee { assigneeId: %s, projectId: %s, taskId: %s, title: %s }", 
+                getAssigneeId(), getProjectId(), getTaskId(), getTitle());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof TaskByAssignee)) {
+            return false;
+        }
+        
+        if (object == this) {
+            return true;
+        }
+        
+        TaskByAssignee entry = (TaskByAssignee) object;
+        return (entry.getAssigneeId() != null && entry.getAssigneeId().equals(getAssigneeId())) &&
+               (entry.getProjectId() != null && entry.getProjectId().equals(getProjectId())) &&
+               (entry.getTaskId() != null && entry.getTaskId().equals(getTaskId()));
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result * ((getAssigneeId() != null) ? getAssigneeId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getProjectId() != null) ? getProjectId().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getTaskId() != null) ? getTaskId().hashCode() : Integer.hashCode(1));
+        
+        return result;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.util.UUID;
+
+
+/**
+ * A lookup entry that maps a team name to the ID of the team that owns it.
+ * Entries are inserted conditionally, which makes team names unique.
+ */
+@Entity
+@CqlName("teams_by_name")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class TeamByName {
+
+    @PartitionKey
+    private String name;
+    
+    private UUID id;
+
+    public TeamByName() {}
+
+    public TeamByName(String name, UUID id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TeamByName { name: %s, id: %s }", getName(), getId());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof TeamByName)) {
+            return false;
+        }
+
+        if (object == this) {
+            return true;
+        }
+
+        TeamByName entry = (TeamByName) object;
+        return (entry.getName() != null && entry.getName().equals(getName())) &&
+               (entry.getId() != null && entry.getId().equals(getId()));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result * ((getName() != null) ? getName().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getId() != null) ? getId().hashCode() : Integer.hashCode(1));
+
+        return result;
+    }
+
+}
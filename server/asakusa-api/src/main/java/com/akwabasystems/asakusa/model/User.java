@@ -6,6 +6,7 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+import java.time.Instant;
 
 
 @Entity
@@ -28,7 +29,7 @@ public class User {
     private String email;
     private boolean emailVerified;
     private Gender gender = Gender.FEMALE;
-    private String birthDate;
+    private Instant birthDate;
     private String zoneInfo;
     private String locale;
     private String phoneNumber;
@@ -36,7 +37,7 @@ public class User {
     private Address address = Address.withDefaults();
 
     @CqlName("updated_at")
-    private String lastModifiedDate;
+    private Instant lastModifiedDate;
 
     public User() {}
 
@@ -47,6 +48,35 @@ public class User {
         this.email = email;
     }
 
+    /**
+     * Creates a copy of the specified user, which can be modified without
+     * affecting the original
+     *
+     * @param user      the user to copy
+     */
+    public User(User user) {
+        this.userId = user.userId;
+        this.name = user.name;
+        this.givenName = user.givenName;
+        this.familyName = user.familyName;
+        this.middleName = user.middleName;
+        this.nickname = user.nickname;
+        this.preferredUsername = user.preferredUsername;
+        this.profile = user.profile;
+        this.picture = user.picture;
+        this.website = user.website;
+        this.email = user.email;
+        this.emailVerified = user.emailVerified;
+        this.gender = user.gender;
+        this.birthDate = user.birthDate;
+        this.zoneInfo = user.zoneInfo;
+        this.locale = user.locale;
+        this.phoneNumber = user.phoneNumber;
+        this.phoneNumberVerified = user.phoneNumberVerified;
+        this.address = (user.address != null) ? user.address.copy() : null;
+        this.lastModifiedDate = user.lastModifiedDate;
+    }
+
     public String getUserId() {
         return userId;
     }
@@ -151,11 +181,11 @@ public class User {
         this.gender = gender;
     }
 
-    public String getBirthDate() {
+    public Instant getBirthDate() {
         return birthDate;
     }
 
-    public void setBirthDate(String birthDate) {
+    public void setBirthDate(Instant birthDate) {
         this.birthDate = birthDate;
     }
 
@@ -199,11 +229,11 @@ public class User {
         this.address = address;
     }
 
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
 
@@ -0,0 +1,77 @@
+package com.akwabasystems.asakusa.model;
+
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
+
+
+/**
+ * A lookup entry that maps an email address to the ID of the user who owns it.
+ * It lets users be found by email with a single-partition read.
+ */
+@Entity
+@CqlName("users_by_email")
+@NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
+public class UserByEmail {
+
+    @PartitionKey
+    private String email;
+    
+    private String userId;
+
+    public UserByEmail() {}
+
+    public UserByEmail(String email, String userId) {
+        this.email = email;
+        this.userId = userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UserByEmail { email: %s, userId: %s }", 
+                getEmail(), getUserId());
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof UserByEmail)) {
+            return false;
+        }
+
+        if (object == this) {
+            return true;
+        }
+
+        UserByEmail entry = (UserByEmail) object;
+        return (entry.getEmail() != null && entry.getEmail().equals(getEmail())) &&
+               (entry.getUserId() != null && entry.getUserId().equals(getUserId()));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result * ((getEmail() != null) ? getEmail().hashCode() : Integer.hashCode(1));
+        result = 31 * result * ((getUserId() != null) ? getUserId().hashCode() : Integer.hashCode(1));
+
+        return result;
+    }
+
+}
@@ -6,28 +6,48 @@ import com.datastax.oss.driver.api.mapper.annotations.Entity;
 import com.datastax.oss.driver.api.mapper.annotations.NamingStrategy;
 import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
 import com.datastax.oss.driver.api.mapper.entity.naming.NamingConvention;
-import org.json.JSONObject;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
+/**
+ * The preferences of a user. Each setting is stored as its own entry of the
+ * "settings" map, so that a setting can be changed or removed with a single
+ * write, without reading the other settings first.
+ */
 @Entity
-@CqlName("user_preferences")
+@CqlName("user_settings")
 @NamingStrategy(convention = NamingConvention.SNAKE_CASE_INSENSITIVE)
 public class UserPreferences {
 
     @PartitionKey
     private String userId;
     
-    private JSONObject settings = new JSONObject();
-    private String lastModifiedDate;
+    private Map<String,Object> settings = new LinkedHashMap<>();
+    private Instant lastModifiedDate;
     
     public UserPreferences() {}
     
     
-    public UserPreferences(String userId, JSONObject settings) {
+    public UserPreferences(String userId, Map<String,Object> settings) {
         this.userId = userId;
         this.settings = settings;
     }
     
+    
+    /**
+     * Creates a copy of the specified preferences, whose settings can be
+     * modified without affecting the original
+     *
+     * @param preferences   the preferences to copy
+     */
+    public UserPreferences(UserPreferences preferences) {
+        this.userId = preferences.userId;
+        this.settings = (preferences.settings != null) ? new LinkedHashMap<>(preferences.settings) : null;
+        this.lastModifiedDate = preferences.lastModifiedDate;
+    }
+    
     public String getUserId() {
         return userId;
     }
@@ -36,19 +56,19 @@ public class UserPreferences {
         this.userId = userId;
     }
 
-    public JSONObject getSettings() {
+    public Map<String,Object> getSettings() {
         return settings;
     }
 
-    public void setSettings(JSONObject settings) {
+    public void setSettings(Map<String,Object> settings) {
         this.settings = settings;
     }
 
-    public String getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
-    public void setLastModifiedDate(String lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
     
@@ -69,8 +89,7 @@ public class UserPreferences {
 
         UserPreferences preferences = (UserPreferences) object;
         return (preferences.getUserId() != null && preferences.getUserId().equals(getUserId()) &&
-                preferences.getSettings() != null && preferences.getSettings().toString().equals(
-                        getSettings().toString()));
+                preferences.getSettings() != null && preferences.getSettings().equals(getSettings()));
     }
 
 
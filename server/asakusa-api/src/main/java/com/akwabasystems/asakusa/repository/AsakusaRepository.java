@@ -60,13 +60,13 @@ public class AsakusaRepository {
          *   email text,
          *   email_verified boolean,
          *   gender text,
-         *   birth_date text,
+         *   birth_date timestamp,
          *   zone_info text,
          *   locale text,
          *   phone_number text,
          *   phone_number_verified boolean,
          *   address map<text, text>,
-         *   updated_at text
+         *   updated_at timestamp
          * );
          */
         cqlSession.execute(
@@ -85,16 +85,30 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_EMAIL, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_EMAIL_VERIFIED, DataTypes.BOOLEAN)
                     .withColumn(SchemaNames.COLUMN_GENDER, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_BIRTH_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_BIRTH_DATE, DataTypes.TIMESTAMP)
                     .withColumn(SchemaNames.COLUMN_ZONE_INFO, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_LOCALE, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_PHONE_NUMBER, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_PHONE_NUMBER_VERIFIED, DataTypes.BOOLEAN)
                     .withColumn(SchemaNames.COLUMN_ADDRESS, DataTypes.mapOf(DataTypes.TEXT, DataTypes.TEXT))
-                    .withColumn(SchemaNames.COLUMN_UPDATED_AT, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_UPDATED_AT, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_USERS.asInternal()));
         
+        /**
+         * CREATE TABLE IF NOT EXISTS users_by_email (
+         *   email text PRIMARY KEY,
+         *   user_id text
+         * );
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_USERS_BY_EMAIL)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_EMAIL, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_USER_ID, DataTypes.TEXT)
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_USERS_BY_EMAIL.asInternal()));
+        
         /**
          * CREATE TABLE IF NOT EXISTS user_credentials (
          *   user_id text PRIMARY KEY,
@@ -115,7 +129,7 @@ public class AsakusaRepository {
          * CREATE TABLE IF NOT EXISTS user_preferences (
          *   user_id text PRIMARY KEY,
          *   settings text,
-         *   last_modified_date text
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -123,18 +137,34 @@ public class AsakusaRepository {
                     .ifNotExists()
                     .withPartitionKey(SchemaNames.COLUMN_USER_ID, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_SETTINGS, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_USER_PREFERENCES.asInternal()));
         
+        /**
+         * CREATE TABLE IF NOT EXISTS user_settings (
+         *   user_id text PRIMARY KEY,
+         *   settings map<text,text>,
+         *   last_modified_date timestamp
+         * );
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_USER_SETTINGS)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_USER_ID, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_SETTINGS, DataTypes.mapOf(DataTypes.TEXT, DataTypes.TEXT))
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_USER_SETTINGS.asInternal()));
+        
         /**
          * CREATE TABLE IF NOT EXISTS teams (
          *   id uuid PRIMARY KEY,
          *   name text,
          *   description text,
          *   created_by text,
-         *   created_date text,
-         *   last_modified_date text
+         *   created_date timestamp,
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -144,10 +174,24 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_NAME, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_DESCRIPTION, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_CREATED_BY, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TEAMS.asInternal()));
+        
+        /**
+         * CREATE TABLE IF NOT EXISTS teams_by_name (
+         *   name text PRIMARY KEY,
+         *   id uuid
+         * );
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_TEAMS_BY_NAME)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_NAME, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_ID, DataTypes.UUID)
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TEAMS_BY_NAME.asInternal()));
 
         /**
          * CREATE TABLE IF NOT EXISTS team_members (
@@ -172,15 +216,15 @@ public class AsakusaRepository {
          *   name text,
          *   description text,
          *   owner_id text,
-         *   start_date text,
-         *   deadline text,
-         *   end_date text,
+         *   start_date timestamp,
+         *   deadline timestamp,
+         *   end_date timestamp,
          *   capacity int,
          *   status text,
          *   priority text,
          *   tags set<text>,
-         *   created_date text,
-         *   last_modified_date text,
+         *   created_date timestamp,
+         *   last_modified_date timestamp,
          *   PRIMARY KEY (("team_id"), "id")
          * );
          */
@@ -192,18 +236,50 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_NAME, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_DESCRIPTION, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_OWNER_ID, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_START_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_DEADLINE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_END_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_START_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_DEADLINE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_END_DATE, DataTypes.TIMESTAMP)
                     .withColumn(SchemaNames.COLUMN_CAPACITY, DataTypes.INT)
                     .withColumn(SchemaNames.COLUMN_STATUS, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_PRIORITY, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_TAGS, DataTypes.setOf(DataTypes.TEXT))
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PROJECTS.asInternal()));
         
+        /**
+         * CREATE TABLE IF NOT EXISTS projects_by_owner (
+         *   owner_id text,
+         *   team_id uuid,
+         *   project_id uuid,
+         *   name text,
+         *   start_date timestamp,
+         *   end_date timestamp,
+         *   deadline timestamp,
+         *   status text,
+         *   priority text,
+         *   last_modified_date timestamp,
+         *   PRIMARY KEY (("owner_id"), "team_id", "project_id")
+         * ) WITH COMMENT = 'Retrieve the projects owned by a user';
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_PROJECTS_BY_OWNER)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_OWNER_ID, DataTypes.TEXT)
+                    .withClusteringColumn(SchemaNames.COLUMN_TEAM_ID, DataTypes.UUID)
+                    .withClusteringColumn(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
+                    .withColumn(SchemaNames.COLUMN_NAME, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_START_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_END_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_DEADLINE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_STATUS, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_PRIORITY, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
+                    .withComment("Retrieve the projects owned by a user")
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PROJECTS_BY_OWNER.asInternal()));
+        
         /**
          * CREATE TABLE IF NOT EXISTS tasks (
          *   project_id uuid,
@@ -212,14 +288,14 @@ public class AsakusaRepository {
          *   description text,
          *   assignee_id text,
          *   depends_on uuid,
-         *   start_date text,
+         *   start_date timestamp,
          *   estimated_duration int,
-         *   end_date text,
+         *   end_date timestamp,
          *   status text,
          *   priority text,
          *   tags set<text>,
-         *   created_date text,
-         *   last_modified_date text,
+         *   created_date timestamp,
+         *   last_modified_date timestamp,
          *   PRIMARY KEY (("project_id"), "id")
          * );
          */
@@ -232,14 +308,14 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_DESCRIPTION, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_ASSIGNEE_ID, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_DEPENDS_ON, DataTypes.UUID)
-                    .withColumn(SchemaNames.COLUMN_START_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_START_DATE, DataTypes.TIMESTAMP)
                     .withColumn(SchemaNames.COLUMN_ESTIMATED_DURATION, DataTypes.INT)
-                    .withColumn(SchemaNames.COLUMN_END_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_END_DATE, DataTypes.TIMESTAMP)
                     .withColumn(SchemaNames.COLUMN_STATUS, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_PRIORITY, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_TAGS, DataTypes.setOf(DataTypes.TEXT))
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TASKS.asInternal()));
 
@@ -261,13 +337,43 @@ public class AsakusaRepository {
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_USER_TASKS.asInternal()));
 
+        /**
+         * CREATE TABLE IF NOT EXISTS tasks_by_assignee (
+         *   assignee_id text,
+         *   project_id uuid,
+         *   task_id uuid,
+         *   title text,
+         *   start_date timestamp,
+         *   end_date timestamp,
+         *   status text,
+         *   priority text,
+         *   last_modified_date timestamp,
+         *   PRIMARY KEY (("assignee_id"), "project_id", "task_id")
+         * ) WITH COMMENT = 'Retrieve the tasks assigned to a user across all projects';
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_TASKS_BY_ASSIGNEE)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_ASSIGNEE_ID, DataTypes.TEXT)
+                    .withClusteringColumn(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
+                    .withClusteringColumn(SchemaNames.COLUMN_TASK_ID, DataTypes.UUID)
+                    .withColumn(SchemaNames.COLUMN_TITLE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_START_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_END_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_STATUS, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_PRIORITY, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
+                    .withComment("Retrieve the tasks assigned to a user across all projects")
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TASKS_BY_ASSIGNEE.asInternal()));
+
         /**
          * CREATE TABLE IF NOT EXISTS project_discussions (
          *   project_id uuid,
          *   id uuid,
          *   author_id text,
          *   title text,
-         *   created_date text,
+         *   created_date timestamp,
          *   PRIMARY KEY (("project_id"), "id")
          * );
          */
@@ -278,50 +384,77 @@ public class AsakusaRepository {
                     .withClusteringColumn(SchemaNames.COLUMN_ID, DataTypes.UUID)
                     .withColumn(SchemaNames.COLUMN_AUTHOR_ID, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_TITLE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PROJECT_DISCUSSIONS.asInternal()));
         
         /**
-         * CREATE TABLE IF NOT EXISTS user_discussions (
-         *   author_id text PRIMARY KEY,
+         * CREATE TABLE IF NOT EXISTS discussions_by_author (
+         *   author_id text,
+         *   discussion_id uuid,
          *   project_id uuid,
-         *   discussion_id uuid
-         * ) WITH COMMENT = 'Retrieve the discussions for a user';
+         *   title text,
+         *   created_date timestamp,
+         *   PRIMARY KEY (("author_id"), "discussion_id")
+         * ) WITH CLUSTERING ORDER BY ("discussion_id" DESC)
+         *   AND COMMENT = 'Retrieve the discussions for a user';
          */
         cqlSession.execute(
-            createTable(keyspaceName, SchemaNames.TABLE_USER_DISCUSSIONS)
+            createTable(keyspaceName, SchemaNames.TABLE_DISCUSSIONS_BY_AUTHOR)
                     .ifNotExists()
                     .withPartitionKey(SchemaNames.COLUMN_AUTHOR_ID, DataTypes.TEXT)
+                    .withClusteringColumn(SchemaNames.COLUMN_DISCUSSION_ID, DataTypes.UUID)
                     .withColumn(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
-                    .withColumn(SchemaNames.COLUMN_DISCUSSION_ID, DataTypes.UUID)
+                    .withColumn(SchemaNames.COLUMN_TITLE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withClusteringOrder(SchemaNames.COLUMN_DISCUSSION_ID, ClusteringOrder.DESC)
                     .withComment("Retrieve the discussions for a user")
                     .build());
-        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_USER_DISCUSSIONS.asInternal()));
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_DISCUSSIONS_BY_AUTHOR.asInternal()));
         
         /**
-         * CREATE TABLE IF NOT EXISTS discussion_messages (
+         * CREATE TABLE IF NOT EXISTS discussion_messages_by_day (
          *   project_id uuid,
          *   discussion_id uuid,
-         *   id uuid,
+         *   bucket text,
+         *   id timeuuid,
          *   author_id text,
          *   body text,
-         *   created_date text,
-         *   PRIMARY KEY (("project_id", "discussion_id"), "id")
-         * ) WITH CLUSTERING ORDER BY ("id" ASC);
+         *   created_date timestamp,
+         *   PRIMARY KEY (("project_id", "discussion_id", "bucket"), "id")
+         * ) WITH CLUSTERING ORDER BY ("id" DESC);
          */
         cqlSession.execute(
-            createTable(keyspaceName, SchemaNames.TABLE_DISCUSSION_MESSAGES)
+            createTable(keyspaceName, SchemaNames.TABLE_DISCUSSION_MESSAGES_BY_DAY)
                     .ifNotExists()
                     .withPartitionKey(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
                     .withPartitionKey(SchemaNames.COLUMN_DISCUSSION_ID, DataTypes.UUID)
-                    .withClusteringColumn(SchemaNames.COLUMN_ID, DataTypes.UUID)
+                    .withPartitionKey(SchemaNames.COLUMN_BUCKET, DataTypes.TEXT)
+                    .withClusteringColumn(SchemaNames.COLUMN_ID, DataTypes.TIMEUUID)
                     .withColumn(SchemaNames.COLUMN_AUTHOR_ID, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_BODY, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withClusteringOrder(SchemaNames.COLUMN_ID, ClusteringOrder.ASC)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withClusteringOrder(SchemaNames.COLUMN_ID, ClusteringOrder.DESC)
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_DISCUSSION_MESSAGES_BY_DAY.asInternal()));
+        
+        /**
+         * CREATE TABLE IF NOT EXISTS discussion_message_buckets (
+         *   project_id uuid,
+         *   discussion_id uuid,
+         *   bucket text,
+         *   PRIMARY KEY (("project_id", "discussion_id"), "bucket")
+         * ) WITH CLUSTERING ORDER BY ("bucket" DESC);
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_DISCUSSION_MESSAGE_BUCKETS)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
+                    .withPartitionKey(SchemaNames.COLUMN_DISCUSSION_ID, DataTypes.UUID)
+                    .withClusteringColumn(SchemaNames.COLUMN_BUCKET, DataTypes.TEXT)
+                    .withClusteringOrder(SchemaNames.COLUMN_BUCKET, ClusteringOrder.DESC)
                     .build());
-        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_DISCUSSION_MESSAGES.asInternal()));
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_DISCUSSION_MESSAGE_BUCKETS.asInternal()));
         
         /**
          * CREATE TABLE IF NOT EXISTS media (
@@ -330,8 +463,8 @@ public class AsakusaRepository {
          *   thumbnail text,
          *   url text,
          *   type text,
-         *   created_date text,
-         *   last_modified_date text
+         *   created_date timestamp,
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -342,8 +475,8 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_THUMBNAIL, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_URL, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_TYPE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_MEDIA.asInternal()));
         
@@ -378,6 +511,9 @@ public class AsakusaRepository {
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TASK_MEDIA.asInternal()));
         
         /**
+         * The original tag table, which does not belong to any team. It is no
+         * longer used and has been replaced by the team_tags table.
+         *
          * CREATE TABLE IF NOT EXISTS tags (
          *   id uuid PRIMARY KEY,
          *   name text,
@@ -394,13 +530,36 @@ public class AsakusaRepository {
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TAGS.asInternal()));
         
         /**
+         * CREATE TABLE IF NOT EXISTS team_tags (
+         *   team_id uuid,
+         *   name text,
+         *   id uuid,
+         *   color_code text,
+         *   PRIMARY KEY (("team_id"), "name")
+         * ) WITH COMMENT = 'Retrieve the tag catalog of a team';
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_TEAM_TAGS)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_TEAM_ID, DataTypes.UUID)
+                    .withClusteringColumn(SchemaNames.COLUMN_NAME, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_ID, DataTypes.UUID)
+                    .withColumn(SchemaNames.COLUMN_COLOR_CODE, DataTypes.TEXT)
+                    .withComment("Retrieve the tag catalog of a team")
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_TEAM_TAGS.asInternal()));
+        
+        /**
+         * The original, unbucketed activity table. It is no longer written to
+         * and is only read by the ProjectActivityBackfill migration.
+         *
          * CREATE TABLE IF NOT EXISTS project_activity (
          *   project_id uuid,
          *   id uuid,
          *   type text,
          *   actor text,
          *   details text,
-         *   created_date text,
+         *   created_date timestamp,
          *   PRIMARY KEY (("project_id"), "id")
          * ) WITH CLUSTERING ORDER BY ("id" DESC);
          */
@@ -412,11 +571,54 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_TYPE, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_ACTOR, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_DETAILS, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
                     .withClusteringOrder(SchemaNames.COLUMN_ID, ClusteringOrder.DESC)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PROJECT_ACTIVITY.asInternal()));
         
+        /**
+         * CREATE TABLE IF NOT EXISTS project_activity_by_month (
+         *   project_id uuid,
+         *   bucket text,
+         *   created_date timestamp,
+         *   id uuid,
+         *   type text,
+         *   actor text,
+         *   details text,
+         *   PRIMARY KEY (("project_id", "bucket"), "created_date", "id")
+         * ) WITH CLUSTERING ORDER BY ("created_date" DESC, "id" DESC);
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_PROJECT_ACTIVITY_BY_MONTH)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
+                    .withPartitionKey(SchemaNames.COLUMN_BUCKET, DataTypes.TEXT)
+                    .withClusteringColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withClusteringColumn(SchemaNames.COLUMN_ID, DataTypes.UUID)
+                    .withColumn(SchemaNames.COLUMN_TYPE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_ACTOR, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_DETAILS, DataTypes.TEXT)
+                    .withClusteringOrder(SchemaNames.COLUMN_CREATED_DATE, ClusteringOrder.DESC)
+                    .withClusteringOrder(SchemaNames.COLUMN_ID, ClusteringOrder.DESC)
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PROJECT_ACTIVITY_BY_MONTH.asInternal()));
+        
+        /**
+         * CREATE TABLE IF NOT EXISTS project_activity_buckets (
+         *   project_id uuid,
+         *   bucket text,
+         *   PRIMARY KEY (("project_id"), "bucket")
+         * ) WITH CLUSTERING ORDER BY ("bucket" DESC);
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_PROJECT_ACTIVITY_BUCKETS)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_PROJECT_ID, DataTypes.UUID)
+                    .withClusteringColumn(SchemaNames.COLUMN_BUCKET, DataTypes.TEXT)
+                    .withClusteringOrder(SchemaNames.COLUMN_BUCKET, ClusteringOrder.DESC)
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PROJECT_ACTIVITY_BUCKETS.asInternal()));
+        
         /**
          * CREATE TABLE IF NOT EXISTS phone_numbers (
          *   user_id text PRIMARY KEY,
@@ -427,8 +629,8 @@ public class AsakusaRepository {
          *   formatted_number text,
          *   type text,
          *   status text,
-         *   created_date text,
-         *   last_modified_date text
+         *   created_date timestamp,
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -442,8 +644,8 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_FORMATTED_NUMBER, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_TYPE, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_STATUS, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PHONE_NUMBERS.asInternal()));
         
@@ -452,8 +654,8 @@ public class AsakusaRepository {
          *   phone_number text PRIMARY KEY,
          *   id uuid,
          *   code text,
-         *   created_at text,
-         *   expires_at text
+         *   created_at timestamp,
+         *   expires_at timestamp
          * );
          */
         cqlSession.execute(
@@ -462,8 +664,8 @@ public class AsakusaRepository {
                     .withPartitionKey(SchemaNames.COLUMN_PHONE_NUMBER, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_ID, DataTypes.UUID)
                     .withColumn(SchemaNames.COLUMN_CODE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_AT, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_EXPIRES_AT, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_AT, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_EXPIRES_AT, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_PHONE_NUMBER_VERIFICATIONS.asInternal()));
         
@@ -471,8 +673,8 @@ public class AsakusaRepository {
          * CREATE TABLE IF NOT EXISTS device_tokens (
          *   device_id text PRIMARY KEY,
          *   device_token text,
-         *   created_date text,
-         *   last_modified_date text
+         *   created_date timestamp,
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -480,8 +682,8 @@ public class AsakusaRepository {
                     .ifNotExists()
                     .withPartitionKey(SchemaNames.COLUMN_DEVICE_ID, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_DEVICE_TOKEN, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_DEVICE_TOKENS.asInternal()));
         
@@ -492,8 +694,8 @@ public class AsakusaRepository {
          *   id uuid,
          *   status text,
          *   type text,
-         *   created_date text,
-         *   last_modified_date text
+         *   created_date timestamp,
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -505,8 +707,8 @@ public class AsakusaRepository {
                     .withColumn(SchemaNames.COLUMN_TYPE, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_LICENSE_KEY, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_SOURCE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_MEMBERSHIP.asInternal()));
         
@@ -540,8 +742,8 @@ public class AsakusaRepository {
          *   device_id text PRIMARY KEY,
          *   token_key text,
          *   status text,
-         *   created_date text,
-         *   last_modified_date text
+         *   created_date timestamp,
+         *   last_modified_date timestamp
          * );
          */
         cqlSession.execute(
@@ -550,10 +752,34 @@ public class AsakusaRepository {
                     .withPartitionKey(SchemaNames.COLUMN_DEVICE_ID, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_TOKEN_KEY, DataTypes.TEXT)
                     .withColumn(SchemaNames.COLUMN_STATUS, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TEXT)
-                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_CREATED_DATE, DataTypes.TIMESTAMP)
+                    .withColumn(SchemaNames.COLUMN_LAST_MODIFIED_DATE, DataTypes.TIMESTAMP)
                     .build());
         logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_ACCESS_TOKENS.asInternal()));
+        
+        /**
+         * The signed access tokens revoked by a logout or a renewal before they
+         * expire, bucketed by the hour in which they expire. Each row is written
+         * with a TTL that ends when its token expires.
+         *
+         * CREATE TABLE IF NOT EXISTS revoked_access_tokens (
+         *   bucket text,
+         *   token_id uuid,
+         *   device_id text,
+         *   expires_at timestamp,
+         *   PRIMARY KEY (("bucket"), "token_id")
+         * ) WITH COMMENT = 'Retrieve the signed access tokens that expire in a given hour and were revoked';
+         */
+        cqlSession.execute(
+            createTable(keyspaceName, SchemaNames.TABLE_REVOKED_ACCESS_TOKENS)
+                    .ifNotExists()
+                    .withPartitionKey(SchemaNames.COLUMN_BUCKET, DataTypes.TEXT)
+                    .withClusteringColumn(SchemaNames.COLUMN_TOKEN_ID, DataTypes.UUID)
+                    .withColumn(SchemaNames.COLUMN_DEVICE_ID, DataTypes.TEXT)
+                    .withColumn(SchemaNames.COLUMN_EXPIRES_AT, DataTypes.TIMESTAMP)
+                    .withComment("Retrieve the signed access tokens that expire in a given hour and were revoked")
+                    .build());
+        logger.info(String.format("Table '%s' has been created (if needed)", SchemaNames.TABLE_REVOKED_ACCESS_TOKENS.asInternal()));
 
     }
 }
@@ -0,0 +1,192 @@
+package com.akwabasystems.asakusa.repository;
+
+import com.akwabasystems.asakusa.dao.AccessTokenDao;
+import com.akwabasystems.asakusa.dao.DeviceTokenDao;
+import com.akwabasystems.asakusa.dao.DiscussionDao;
+import com.akwabasystems.asakusa.dao.MembershipDao;
+import com.akwabasystems.asakusa.dao.MessageDao;
+import com.akwabasystems.asakusa.dao.PhoneNumberDao;
+import com.akwabasystems.asakusa.dao.PhoneVerificationDao;
+import com.akwabasystems.asakusa.dao.ProjectActivityDao;
+import com.akwabasystems.asakusa.dao.ProjectDao;
+import com.akwabasystems.asakusa.dao.RevokedAccessTokenDao;
+import com.akwabasystems.asakusa.dao.TagDao;
+import com.akwabasystems.asakusa.dao.TaskDao;
+import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.dao.UserDao;
+import com.akwabasystems.asakusa.dao.UserSessionDao;
+import com.akwabasystems.asakusa.dao.impl.CachingAccessTokenDao;
+import com.akwabasystems.asakusa.dao.impl.CachingUserDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The single holder of the application DAOs. All the DAOs are created from the
+ * shared mapper when the registry is initialized, which prepares every one of
+ * their statements before the application starts accepting traffic.
+ *
+ * If a statement cannot be prepared, the application is marked as refusing
+ * traffic and the startup is aborted. The time spent preparing the statements
+ * is logged and reported by the "daoRegistry" health indicator.
+ *
+ * The user DAO reads users, credentials and preferences through near caches
+ * bounded by "users.cache.max-size" entries, whose entries expire after
+ * "users.cache.ttl-seconds". The access token DAO likewise caches the token
+ * of each device, or its absence, bounded by "access-tokens.cache.max-size"
+ * entries that expire after "access-tokens.cache.ttl-seconds".
+ */
+@Component
+public class DaoRegistry implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaoRegistry.class);
+
+    private final CachingUserDao userDao;
+    private final TeamDao teamDao;
+    private final ProjectDao projectDao;
+    private final ProjectActivityDao projectActivityDao;
+    private final TaskDao taskDao;
+    private final TagDao tagDao;
+    private final DiscussionDao discussionDao;
+    private final MessageDao messageDao;
+    private final PhoneNumberDao phoneNumberDao;
+    private final PhoneVerificationDao phoneVerificationDao;
+    private final DeviceTokenDao deviceTokenDao;
+    private final MembershipDao membershipDao;
+    private final UserSessionDao userSessionDao;
+    private final CachingAccessTokenDao accessTokenDao;
+    private final RevokedAccessTokenDao revokedAccessTokenDao;
+    private final Duration preparationTime;
+
+    public DaoRegistry(
+        @NonNull RepositoryMapper mapper,
+        @NonNull ApplicationEventPublisher eventPublisher,
+        @NonNull MeterRegistry meterRegistry,
+        @Value("${users.cache.max-size:10000}") int userCacheSize,
+        @Value("${users.cache.ttl-seconds:30}") int userCacheTimeToLive,
+        @Value("${access-tokens.cache.max-size:50000}") int tokenCacheSize,
+        @Value("${access-tokens.cache.ttl-seconds:60}") int tokenCacheTimeToLive) {
+        long startTime = System.nanoTime();
+
+        try {
+            userDao = new CachingUserDao(mapper.userDao(), userCacheSize, Duration.ofSeconds(userCacheTimeToLive));
+            teamDao = mapper.teamDao();
+            projectDao = mapper.projectDao();
+            projectActivityDao = mapper.projectActivityDao();
+            taskDao = mapper.taskDao();
+            tagDao = mapper.tagDao();
+            discussionDao = mapper.discussionDao();
+            messageDao = mapper.messageDao();
+            phoneNumberDao = mapper.phoneNumberDao();
+            phoneVerificationDao = mapper.phoneVerificationDao();
+            deviceTokenDao = mapper.deviceTokenDao();
+            membershipDao = mapper.membershipDao();
+            userSessionDao = mapper.userSessionDao();
+            accessTokenDao = new CachingAccessTokenDao(mapper.accessTokenDao(), tokenCacheSize,
+                    Duration.ofSeconds(tokenCacheTimeToLive));
+            revokedAccessTokenDao = mapper.revokedAccessTokenDao();
+        } catch (RuntimeException ex) {
+            logger.error("[DaoRegistry] Failed to prepare the DAO statements: " + ex.getMessage());
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            throw new IllegalStateException("Failed to prepare the DAO statements", ex);
+        }
+
+        preparationTime = Duration.ofNanos(System.nanoTime() - startTime);
+        userDao.bindTo(meterRegistry);
+        accessTokenDao.bindTo(meterRegistry);
+
+        logger.info(String.format("[DaoRegistry] DAO statements prepared in %d ms%n",
+                preparationTime.toMillis()));
+    }
+
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("preparationTimeMillis", preparationTime.toMillis())
+                .build();
+    }
+
+    public Duration getPreparationTime() {
+        return preparationTime;
+    }
+
+    public UserDao userDao() {
+        return userDao;
+    }
+
+    public CachingUserDao cachingUserDao() {
+        return userDao;
+    }
+
+    public TeamDao teamDao() {
+        return teamDao;
+    }
+
+    public ProjectDao projectDao() {
+        return projectDao;
+    }
+
+    public ProjectActivityDao projectActivityDao() {
+        return projectActivityDao;
+    }
+
+    public TaskDao taskDao() {
+        return taskDao;
+    }
+
+    public TagDao tagDao() {
+        return tagDao;
+    }
+
+    public DiscussionDao discussionDao() {
+        return discussionDao;
+    }
+
+    public MessageDao messageDao() {
+        return messageDao;
+    }
+
+    public PhoneNumberDao phoneNumberDao() {
+        return phoneNumberDao;
+    }
+
+    public PhoneVerificationDao phoneVerificationDao() {
+        return phoneVerificationDao;
+    }
+
+    public DeviceTokenDao deviceTokenDao() {
+        return deviceTokenDao;
+    }
+
+    public MembershipDao membershipDao() {
+        return membershipDao;
+    }
+
+    public UserSessionDao userSessionDao() {
+        return userSessionDao;
+    }
+
+    public AccessTokenDao accessTokenDao() {
+        return accessTokenDao;
+    }
+
+    public CachingAccessTokenDao cachingAccessTokenDao() {
+        return accessTokenDao;
+    }
+
+    public RevokedAccessTokenDao revokedAccessTokenDao() {
+        return revokedAccessTokenDao;
+    }
+
+}
@@ -3,11 +3,15 @@ package com.akwabasystems.asakusa.repository;
 
 import com.akwabasystems.asakusa.dao.AccessTokenDao;
 import com.akwabasystems.asakusa.dao.DeviceTokenDao;
+import com.akwabasystems.asakusa.dao.DiscussionDao;
 import com.akwabasystems.asakusa.dao.MembershipDao;
+import com.akwabasystems.asakusa.dao.MessageDao;
 import com.akwabasystems.asakusa.dao.PhoneNumberDao;
 import com.akwabasystems.asakusa.dao.PhoneVerificationDao;
 import com.akwabasystems.asakusa.dao.ProjectActivityDao;
 import com.akwabasystems.asakusa.dao.ProjectDao;
+import com.akwabasystems.asakusa.dao.RevokedAccessTokenDao;
+import com.akwabasystems.asakusa.dao.TagDao;
 import com.akwabasystems.asakusa.dao.TaskDao;
 import com.akwabasystems.asakusa.dao.TeamDao;
 import com.akwabasystems.asakusa.dao.UserDao;
@@ -40,6 +44,15 @@ public interface RepositoryMapper {
     @DaoFactory
     TaskDao taskDao();
     
+    @DaoFactory
+    TagDao tagDao();
+    
+    @DaoFactory
+    DiscussionDao discussionDao();
+    
+    @DaoFactory
+    MessageDao messageDao();
+    
     @DaoFactory
     PhoneNumberDao phoneNumberDao();
     
@@ -58,6 +71,9 @@ public interface RepositoryMapper {
     @DaoFactory
     AccessTokenDao accessTokenDao();
     
+    @DaoFactory
+    RevokedAccessTokenDao revokedAccessTokenDao();
+    
     static MapperBuilder<RepositoryMapper> builder(CqlSession cqlSession) {
         return new RepositoryMapperBuilder(cqlSession);
     }
@@ -7,29 +7,39 @@ import com.datastax.oss.driver.api.core.CqlIdentifier;
 public class SchemaNames {
 
     public static final CqlIdentifier TABLE_USERS = CqlIdentifier.fromCql("users");
+    public static final CqlIdentifier TABLE_USERS_BY_EMAIL = CqlIdentifier.fromCql("users_by_email");
     public static final CqlIdentifier TABLE_USER_CREDENTIALS = CqlIdentifier.fromCql("user_credentials");
     public static final CqlIdentifier TABLE_USER_PREFERENCES = CqlIdentifier.fromCql("user_preferences");
+    public static final CqlIdentifier TABLE_USER_SETTINGS = CqlIdentifier.fromCql("user_settings");
     public static final CqlIdentifier TABLE_TEAMS = CqlIdentifier.fromCql("teams");
+    public static final CqlIdentifier TABLE_TEAMS_BY_NAME = CqlIdentifier.fromCql("teams_by_name");
     public static final CqlIdentifier TABLE_TEAM_MEMBERS = CqlIdentifier.fromCql("team_members");
     public static final CqlIdentifier TABLE_PROJECTS = CqlIdentifier.fromCql("projects");
     public static final CqlIdentifier TABLE_USER_PROJECTS = CqlIdentifier.fromCql("user_projects");
+    public static final CqlIdentifier TABLE_PROJECTS_BY_OWNER = CqlIdentifier.fromCql("projects_by_owner");
     public static final CqlIdentifier TABLE_TEAM_PROJECTS = CqlIdentifier.fromCql("team_projects");
     public static final CqlIdentifier TABLE_TASKS = CqlIdentifier.fromCql("tasks");
     public static final CqlIdentifier TABLE_USER_TASKS = CqlIdentifier.fromCql("user_tasks");
+    public static final CqlIdentifier TABLE_TASKS_BY_ASSIGNEE = CqlIdentifier.fromCql("tasks_by_assignee");
     public static final CqlIdentifier TABLE_PROJECT_DISCUSSIONS = CqlIdentifier.fromCql("project_discussions");
-    public static final CqlIdentifier TABLE_USER_DISCUSSIONS = CqlIdentifier.fromCql("user_discussions");
-    public static final CqlIdentifier TABLE_DISCUSSION_MESSAGES = CqlIdentifier.fromCql("discussion_messages");
+    public static final CqlIdentifier TABLE_DISCUSSIONS_BY_AUTHOR = CqlIdentifier.fromCql("discussions_by_author");
+    public static final CqlIdentifier TABLE_DISCUSSION_MESSAGES_BY_DAY = CqlIdentifier.fromCql("discussion_messages_by_day");
+    public static final CqlIdentifier TABLE_DISCUSSION_MESSAGE_BUCKETS = CqlIdentifier.fromCql("discussion_message_buckets");
     public static final CqlIdentifier TABLE_MEDIA = CqlIdentifier.fromCql("media");
     public static final CqlIdentifier TABLE_PROJECT_MEDIA = CqlIdentifier.fromCql("project_media");
     public static final CqlIdentifier TABLE_TASK_MEDIA = CqlIdentifier.fromCql("task_media");
     public static final CqlIdentifier TABLE_TAGS = CqlIdentifier.fromCql("tags");
+    public static final CqlIdentifier TABLE_TEAM_TAGS = CqlIdentifier.fromCql("team_tags");
     public static final CqlIdentifier TABLE_PROJECT_ACTIVITY = CqlIdentifier.fromCql("project_activity");
+    public static final CqlIdentifier TABLE_PROJECT_ACTIVITY_BY_MONTH = CqlIdentifier.fromCql("project_activity_by_month");
+    public static final CqlIdentifier TABLE_PROJECT_ACTIVITY_BUCKETS = CqlIdentifier.fromCql("project_activity_buckets");
     public static final CqlIdentifier TABLE_PHONE_NUMBERS = CqlIdentifier.fromCql("phone_numbers");
     public static final CqlIdentifier TABLE_PHONE_NUMBER_VERIFICATIONS = CqlIdentifier.fromCql("phone_number_verifications");
     public static final CqlIdentifier TABLE_DEVICE_TOKENS = CqlIdentifier.fromCql("device_tokens");
     public static final CqlIdentifier TABLE_MEMBERSHIP = CqlIdentifier.fromCql("membership");
     public static final CqlIdentifier TABLE_USER_SESSIONS = CqlIdentifier.fromCql("user_sessions");
     public static final CqlIdentifier TABLE_ACCESS_TOKENS = CqlIdentifier.fromCql("access_tokens");
+    public static final CqlIdentifier TABLE_REVOKED_ACCESS_TOKENS = CqlIdentifier.fromCql("revoked_access_tokens");
     
     public static final CqlIdentifier COLUMN_ID = CqlIdentifier.fromCql("id");
     public static final CqlIdentifier COLUMN_USER_ID = CqlIdentifier.fromCql("user_id");
@@ -102,4 +112,6 @@ public class SchemaNames {
     public static final CqlIdentifier COLUMN_CLIENT = CqlIdentifier.fromCql("client");
     public static final CqlIdentifier COLUMN_ACTIVE = CqlIdentifier.fromCql("active");
     public static final CqlIdentifier COLUMN_TOKEN_KEY = CqlIdentifier.fromCql("token_key");
+    public static final CqlIdentifier COLUMN_BUCKET = CqlIdentifier.fromCql("bucket");
+    public static final CqlIdentifier COLUMN_TOKEN_ID = CqlIdentifier.fromCql("token_id");
 }
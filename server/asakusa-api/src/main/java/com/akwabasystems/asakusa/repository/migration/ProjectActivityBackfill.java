@@ -0,0 +1,80 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.akwabasystems.asakusa.dao.ProjectActivityDao;
+import com.akwabasystems.asakusa.dao.helper.JsonMapToTextCodec;
+import com.akwabasystems.asakusa.model.ActivityType;
+import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ACTOR;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_CREATED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_DETAILS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PROJECT_ID;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TYPE;
+import com.datastax.oss.driver.api.core.cql.Row;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that copies the rows of the original "project_activity" table
+ * into the monthly buckets of the "project_activity_by_month" table. It runs at
+ * startup when the "migration.project-activity-buckets.enabled" property is set
+ * to true. The partitions of the original table are listed first, so that the
+ * activities of every project are copied, including those of projects that no
+ * longer belong to a team; the activities are then read one project partition
+ * at a time. Rerunning the job is harmless since each activity is simply
+ * overwritten. Activities without a creation date are filed under the current
+ * month, and activities of an unknown type are copied with the "NONE" type.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.project-activity-buckets.enabled", havingValue = "true")
+@Log
+public class ProjectActivityBackfill implements ApplicationRunner {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        ProjectActivityDao activityDao = daoRegistry.projectActivityDao();
+        int projects = 0;
+        int copied = 0;
+        
+        log.info("[ProjectActivityBackfill] Copying the project activities into monthly buckets...");
+        
+        for (Row partition : activityDao.findLegacyActivityProjects()) {
+            UUID projectId = partition.getUuid(COLUMN_PROJECT_ID);
+            projects++;
+            
+            for (Row row : activityDao.findLegacyActivities(projectId)) {
+                activityDao.create(toActivity(projectId, row));
+                copied++;
+            }
+        }
+        
+        log.info(String.format("[ProjectActivityBackfill] Done - %d projects scanned, %d activities copied", 
+                projects, copied));
+    }
+    
+    
+    private ProjectActivity toActivity(UUID projectId, Row row) {
+        ProjectActivity activity = new ProjectActivity(projectId, row.getUuid(COLUMN_ID), 
+                row.getString(COLUMN_ACTOR), ActivityType.fromString(row.getString(COLUMN_TYPE)));
+        
+        Map<String,Object> details = row.get(COLUMN_DETAILS, JsonMapToTextCodec.JAVA_TYPE);
+        activity.setDetails((details != null) ? details : new LinkedHashMap<>());
+        activity.setCreatedDate(row.getInstant(COLUMN_CREATED_DATE));
+        
+        return activity;
+    }
+
+}
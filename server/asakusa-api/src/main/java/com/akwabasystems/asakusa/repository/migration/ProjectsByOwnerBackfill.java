@@ -0,0 +1,60 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.akwabasystems.asakusa.dao.ProjectDao;
+import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.ProjectByOwner;
+import com.akwabasystems.asakusa.model.Team;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that populates the "projects_by_owner" table from the existing
+ * rows of the "projects" table. It runs at startup when the
+ * "migration.projects-by-owner.enabled" property is set to true. The projects 
+ * are read one team partition at a time, and rerunning the job is harmless
+ * since each entry is simply overwritten.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.projects-by-owner.enabled", havingValue = "true")
+@Log
+public class ProjectsByOwnerBackfill implements ApplicationRunner {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        TeamDao teamDao = daoRegistry.teamDao();
+        ProjectDao projectDao = daoRegistry.projectDao();
+        int scanned = 0;
+        int added = 0;
+        
+        log.info("[ProjectsByOwnerBackfill] Backfilling the projects by owner table...");
+        
+        for (Team team : teamDao.findAll()) {
+        
+            for (Project project : projectDao.findProjectsByTeam(team.getId())) {
+                scanned++;
+                
+                if (project.getOwnerId() == null) {
+                    continue;
+                }
+                
+                projectDao.addProjectByOwner(ProjectByOwner.fromProject(project));
+                added++;
+            }
+        }
+        
+        log.info(String.format("[ProjectsByOwnerBackfill] Done - %d projects scanned, %d entries added", 
+                scanned, added));
+    }
+
+}
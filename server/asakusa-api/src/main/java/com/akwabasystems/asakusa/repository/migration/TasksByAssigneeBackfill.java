@@ -0,0 +1,66 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.akwabasystems.asakusa.dao.ProjectDao;
+import com.akwabasystems.asakusa.dao.TaskDao;
+import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import com.akwabasystems.asakusa.model.Team;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that populates the "tasks_by_assignee" table from the existing
+ * rows of the "tasks" table. It runs at startup when the 
+ * "migration.tasks-by-assignee.enabled" property is set to true. The tasks are
+ * read one project partition at a time, and rerunning the job is harmless
+ * since each entry is simply overwritten.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.tasks-by-assignee.enabled", havingValue = "true")
+@Log
+public class TasksByAssigneeBackfill implements ApplicationRunner {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        TeamDao teamDao = daoRegistry.teamDao();
+        ProjectDao projectDao = daoRegistry.projectDao();
+        TaskDao taskDao = daoRegistry.taskDao();
+        int scanned = 0;
+        int added = 0;
+        
+        log.info("[TasksByAssigneeBackfill] Backfilling the tasks by assignee table...");
+        
+        for (Team team : teamDao.findAll()) {
+        
+            for (Project project : projectDao.findProjectsByTeam(team.getId())) {
+            
+                for (Task task : taskDao.findTasksByProject(project.getId())) {
+                    scanned++;
+                    
+                    if (task.getAssigneeId() == null) {
+                        continue;
+                    }
+                    
+                    taskDao.addTaskByAssignee(TaskByAssignee.fromTask(task));
+                    added++;
+                }
+            }
+        }
+        
+        log.info(String.format("[TasksByAssigneeBackfill] Done - %d tasks scanned, %d entries added", 
+                scanned, added));
+    }
+
+}
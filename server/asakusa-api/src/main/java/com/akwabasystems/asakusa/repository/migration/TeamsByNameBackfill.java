@@ -0,0 +1,65 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.model.Team;
+import com.akwabasystems.asakusa.model.TeamByName;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that populates the "teams_by_name" lookup table from the
+ * existing rows of the "teams" table. It runs at startup when the
+ * "migration.teams-by-name.enabled" property is set to true. Names are claimed
+ * with conditional inserts, so the first team found keeps a duplicated name
+ * and the other teams are reported as conflicts.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.teams-by-name.enabled", havingValue = "true")
+@Log
+public class TeamsByNameBackfill implements ApplicationRunner {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        TeamDao teamDao = daoRegistry.teamDao();
+        int scanned = 0;
+        int added = 0;
+        int conflicts = 0;
+        
+        log.info("[TeamsByNameBackfill] Backfilling the team name lookup table...");
+        
+        for (Team team : teamDao.findAll()) {
+            scanned++;
+            
+            if (team.getName() == null) {
+                continue;
+            }
+            
+            if (teamDao.addTeamByName(new TeamByName(team.getName(), team.getId()))) {
+                added++;
+                continue;
+            }
+            
+            TeamByName entry = teamDao.findTeamByName(team.getName());
+            
+            if (entry != null && !entry.getId().equals(team.getId())) {
+                log.warning(String.format("[TeamsByNameBackfill] Name '%s' is used by teams %s and %s", 
+                        team.getName(), entry.getId(), team.getId()));
+                conflicts++;
+            }
+        }
+        
+        log.info(String.format("[TeamsByNameBackfill] Done - %d teams scanned, %d entries added, %d conflicts", 
+                scanned, added, conflicts));
+    }
+    
+}
@@ -0,0 +1,196 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.selectFrom;
+import com.datastax.oss.driver.api.querybuilder.insert.RegularInsert;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that copies the tables of a keyspace whose date columns are
+ * stored as ISO-8601 <code>text</code> into the current keyspace, where the same
+ * columns are <code>timestamp</code>s. Cassandra cannot change the type of an
+ * existing column, so the rows are rewritten into a keyspace created by the
+ * current schema instead.
+ *
+ * It runs at startup when the "migration.timestamp-columns.enabled" property is
+ * set to true, reading from the keyspace named by the
+ * "migration.timestamp-columns.source-keyspace" property. The source keyspace
+ * keeps serving the previous release while the rows are copied; rerunning the
+ * job right before switching over picks up the rows written in the meantime,
+ * since each row is simply overwritten. A rerun does not propagate deletions,
+ * though: a row deleted from the source after the previous run stays in the
+ * target, and so does the value of a cell cleared in the source, because null
+ * cells are not written. If rows may have been deleted or cleared in the
+ * meantime, the target tables should be truncated before the final run.
+ *
+ * A date that cannot be parsed is logged and left out of the copy, or the row
+ * is skipped if the date is part of its key.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.timestamp-columns.enabled", havingValue = "true")
+@Log
+public class TimestampColumnsMigration implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 500;
+    
+    @Autowired
+    private CqlSession cqlSession;
+    
+    @Autowired
+    private CqlIdentifier keyspaceName;
+    
+    @Value("${migration.timestamp-columns.source-keyspace}")
+    private String sourceKeyspaceName;
+    
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        CqlIdentifier sourceKeyspaceId = CqlIdentifier.fromCql(sourceKeyspaceName);
+        Optional<KeyspaceMetadata> sourceKeyspace = cqlSession.getMetadata().getKeyspace(sourceKeyspaceId);
+        Optional<KeyspaceMetadata> targetKeyspace = cqlSession.getMetadata().getKeyspace(keyspaceName);
+        
+        if (sourceKeyspace.isEmpty() || targetKeyspace.isEmpty()) {
+            log.severe(String.format("[TimestampColumnsMigration] Unknown keyspace - source: %s, target: %s",
+                    sourceKeyspaceName, keyspaceName));
+            return;
+        }
+        
+        log.info(String.format("[TimestampColumnsMigration] Copying the tables of %s into %s...",
+                sourceKeyspaceName, keyspaceName));
+        
+        for (TableMetadata targetTable : targetKeyspace.get().getTables().values()) {
+            Optional<TableMetadata> sourceTable = sourceKeyspace.get().getTable(targetTable.getName());
+            
+            if (sourceTable.isPresent()) {
+                long copied = copyTable(sourceTable.get(), targetTable);
+                log.info(String.format("[TimestampColumnsMigration] %s - %d rows copied",
+                        targetTable.getName(), copied));
+            }
+        }
+        
+        log.info("[TimestampColumnsMigration] Done");
+    }
+    
+    
+    private long copyTable(TableMetadata sourceTable, TableMetadata targetTable) {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        
+        for (ColumnMetadata column : targetTable.getColumns().values()) {
+        
+            if (sourceTable.getColumn(column.getName()).isPresent()) {
+                columns.add(column);
+            }
+        }
+        
+        RegularInsert insert = null;
+        
+        for (ColumnMetadata column : columns) {
+            insert = (insert == null) ?
+                    insertInto(keyspaceName, targetTable.getName()).value(column.getName(), bindMarker()) :
+                    insert.value(column.getName(), bindMarker());
+        }
+        
+        PreparedStatement preparedInsert = cqlSession.prepare(insert.build());
+        SimpleStatement select = selectFrom(sourceTable.getKeyspace(), sourceTable.getName()).all()
+                .build()
+                .setPageSize(PAGE_SIZE);
+        long copied = 0;
+        
+        for (Row row : cqlSession.execute(select)) {
+            BoundStatementBuilder insertRow = preparedInsert.boundStatementBuilder();
+            
+            if (bindRow(insertRow, row, columns, sourceTable, targetTable)) {
+                cqlSession.execute(insertRow.build());
+                copied++;
+            }
+        }
+        
+        return copied;
+    }
+    
+    
+    /**
+     * Binds the values of a source row to the insert statement, converting the
+     * text dates to timestamps. The null cells are left unset, so that the copy
+     * does not write a tombstone for each of them. Returns false if the row cannot
+     * be copied since one of its primary key dates cannot be parsed.
+     */
+    private boolean bindRow(BoundStatementBuilder insertRow,
+                            Row row,
+                            List<ColumnMetadata> columns,
+                            TableMetadata sourceTable,
+                            TableMetadata targetTable) {
+        
+        for (int index = 0; index < columns.size(); index++) {
+            ColumnMetadata column = columns.get(index);
+            DataType sourceType = sourceTable.getColumn(column.getName()).get().getType();
+            
+            if (DataTypes.TIMESTAMP.equals(column.getType()) && DataTypes.TEXT.equals(sourceType)) {
+                Instant date = parseDate(targetTable, column.getName(), row.getString(column.getName()));
+                
+                if (date == null && targetTable.getPrimaryKey().contains(column)) {
+                    return false;
+                }
+                
+                if (date == null) {
+                    insertRow.unset(index);
+                } else {
+                    insertRow.setInstant(index, date);
+                }
+            } else {
+                ByteBuffer value = row.getBytesUnsafe(column.getName());
+                
+                if (value == null) {
+                    insertRow.unset(index);
+                } else {
+                    insertRow.setBytesUnsafe(index, value);
+                }
+            }
+        }
+        
+        return true;
+    }
+    
+    
+    private Instant parseDate(TableMetadata table, CqlIdentifier column, String value) {
+    
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        
+        try {
+            return ZonedDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ex) {
+            log.warning(String.format("[TimestampColumnsMigration] %s.%s - cannot parse \"%s\"",
+                    table.getName(), column, value));
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.akwabasystems.asakusa.dao.UserDao;
+import com.akwabasystems.asakusa.dao.helper.JsonMapToTextCodec;
+import com.akwabasystems.asakusa.model.UserPreferences;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_SETTINGS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_USER_ID;
+import com.datastax.oss.driver.api.core.cql.Row;
+import java.util.Map;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that copies the preferences of the original "user_preferences"
+ * table, where the settings are stored as a single JSON document, into the
+ * "user_settings" table, where each setting is its own map entry. It runs at
+ * startup when the "migration.user-settings.enabled" property is set to true.
+ * Rerunning the job is harmless since the settings of each user are simply
+ * overwritten, which is also why it should run before the settings start being
+ * changed in the new table.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.user-settings.enabled", havingValue = "true")
+@Log
+public class UserSettingsBackfill implements ApplicationRunner {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+
+
+    @Override
+    public void run(ApplicationArguments args) {
+        UserDao userDao = daoRegistry.userDao();
+        int copied = 0;
+
+        log.info("[UserSettingsBackfill] Copying the user preferences into per-setting entries...");
+
+        for (Row row : userDao.findLegacyPreferences()) {
+            Map<String,Object> settings = row.get(COLUMN_SETTINGS, JsonMapToTextCodec.JAVA_TYPE);
+
+            if (settings != null && !settings.isEmpty()) {
+                UserPreferences preferences = new UserPreferences(row.getString(COLUMN_USER_ID), settings);
+                preferences.setLastModifiedDate(row.getInstant(COLUMN_LAST_MODIFIED_DATE));
+                userDao.savePreferences(preferences);
+                copied++;
+            }
+        }
+
+        log.info(String.format("[UserSettingsBackfill] Done - %d users copied", copied));
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.akwabasystems.asakusa.repository.migration;
+
+import com.akwabasystems.asakusa.dao.UserDao;
+import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * A one-off job that populates the "users_by_email" lookup table from the
+ * existing rows of the "users" table. It runs at startup when the
+ * "migration.users-by-email.enabled" property is set to true, and it can be
+ * run again safely since existing lookup entries are left untouched.
+ */
+@Component
+@ConditionalOnProperty(name = "migration.users-by-email.enabled", havingValue = "true")
+@Log
+public class UsersByEmailBackfill implements ApplicationRunner {
+
+    private static final int PROGRESS_INTERVAL = 1_000;
+    
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        UserDao userDao = daoRegistry.userDao();
+        int scanned = 0;
+        int added = 0;
+        int conflicts = 0;
+        
+        log.info("[UsersByEmailBackfill] Backfilling the email lookup table...");
+        
+        for (User user : userDao.findAll()) {
+            scanned++;
+            
+            if (user.getEmail() != null) {
+                UserByEmail entry = userDao.findUserByEmail(user.getEmail());
+                
+                if (entry == null) {
+                    userDao.addUserByEmail(new UserByEmail(user.getEmail(), user.getUserId()));
+                    added++;
+                } else if (!entry.getUserId().equals(user.getUserId())) {
+                    log.warning(String.format("[UsersByEmailBackfill] Email '%s' is used by '%s' and '%s'", 
+                            user.getEmail(), entry.getUserId(), user.getUserId()));
+                    conflicts++;
+                }
+            }
+            
+            if (scanned % PROGRESS_INTERVAL == 0) {
+                log.info(String.format("[UsersByEmailBackfill] %d users scanned, %d entries added", 
+                        scanned, added));
+            }
+        }
+        
+        log.info(String.format("[UsersByEmailBackfill] Done - %d users scanned, %d entries added, %d conflicts", 
+                scanned, added, conflicts));
+    }
+    
+}
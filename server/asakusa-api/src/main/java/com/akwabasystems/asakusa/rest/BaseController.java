@@ -2,8 +2,11 @@
 package com.akwabasystems.asakusa.rest;
 
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.ServiceOverloadedException;
 import java.net.URI;
+import java.util.concurrent.CompletionException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -84,15 +87,51 @@ public abstract class BaseController {
     
     
     /**
-     * Handles exceptions that are thrown while sending a request
+     * Returns a response with the request problem of the specified details. Unlike
+     * {@code problemDetails}, this method doesn't throw a checked exception, so
+     * it can be used to complete an asynchronous request.
+     * 
+     * @param <T>       the type of the response body
+     * @param status    the HTTP status of the problem
+     * @param uri       the request URI    
+     * @param title     the title of the problem
+     * @return a response with the request problem of the specified details
+     */
+    protected <T> ResponseEntity<T> problemResponse(HttpStatus status,
+                                                    String uri,
+                                                    String title) {
+        ProblemDetail details = ProblemDetail.forStatus(status);
+        details.setTitle(title);
+        details.setInstance(URI.create(uri));
+        
+        return ResponseEntity.of(details).build();
+    }
+    
+    
+    /**
+     * Handles exceptions that are thrown while sending a request. Exceptions
+     * raised by an asynchronous request are unwrapped first, so that the problem
+     * has the same title as for a synchronous request. A request refused because
+     * the service is overloaded is reported as a 503, with a "Retry-After" header.
      * 
      * @param exception         the exception thrown during the request
      * @return a JSON string with the details of the exception
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ProblemDetail> handleAllExceptions(Exception exception) {
+        Throwable cause = (exception instanceof CompletionException && exception.getCause() != null) ?
+                exception.getCause() : exception;
+        
+        if (cause instanceof ServiceOverloadedException) {
+            ProblemDetail details = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+            details.setTitle(cause.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(details);
+        }
+        
         ProblemDetail details = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        details.setTitle(exception.getMessage());
+        details.setTitle(cause.getMessage());
         return ResponseEntity.of(details).build();
     }
     
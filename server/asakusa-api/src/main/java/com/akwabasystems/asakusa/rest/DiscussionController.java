@@ -0,0 +1,230 @@
+package com.akwabasystems.asakusa.rest;
+
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.Message;
+import com.akwabasystems.asakusa.rest.service.DiscussionService;
+import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
+import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import com.akwabasystems.asakusa.rest.utils.QueryUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import lombok.extern.java.Log;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+
+@RestController
+@RequestMapping("/api/v1/projects")
+@Log
+public class DiscussionController extends BaseController {
+
+    @Autowired
+    private DiscussionService discussionService;
+    
+    
+    /**
+     * Handles a request to start a new discussion on a project
+     *
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for which to start the discussion
+     * @param map           the request body
+     * @return the details of the newly created discussion
+     * @throws Exception if the request fails
+     */
+    @PostMapping("/{id}/discussions")
+    public ResponseEntity<?> startDiscussion(HttpServletRequest request,
+                                             HttpServletResponse response,
+                                             @PathVariable String id,
+                                             @RequestBody LinkedHashMap<String,Object> map)
+                                             throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String title = (String) QueryUtils.getValueRequired(map, QueryParameter.TITLE);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Discussion discussion = discussionService.startDiscussion(authTicket, UUID.fromString(id),
+                StringEscapeUtils.escapeJava(title));
+        
+        String location = String.format("/api/v1/projects/%s/discussions/%s",
+                id, discussion.getId().toString());
+        
+        /** Return an HTTP 201 (Created) response with the discussion details */
+        return ResponseEntity.created(new URI(location)).body(discussion);
+    
+    }
+    
+    
+    /**
+     * Handles a request to retrieve one page of the discussions for the
+     * specified project
+     *
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for which to retrieve the discussions
+     * @return one page of the project discussions, with the cursor of the next page
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/discussions")
+    public CompletionStage<ResponseEntity<ResultPage<Discussion>>> projectDiscussions(HttpServletRequest request,
+                                                                                      HttpServletResponse response,
+                                                                                      @PathVariable String id)
+                                                                                      throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
+        
+        return discussionService.findProjectDiscussionsAsync(
+            getAuthorizationTicket(userId, accessToken),
+            UUID.fromString(id),
+            pageSize,
+            cursor
+        ).thenApply((discussions) -> ResponseEntity.ok(discussions));
+    }
+    
+    
+    /**
+     * Handles a request to delete a discussion along with all its messages
+     *
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion to delete
+     * @param map           the request body
+     * @return the status of the delete operation
+     * @throws Exception if the request fails
+     */
+    @DeleteMapping("/{id}/discussions/{discussionId}")
+    public ResponseEntity<?> deleteDiscussion(HttpServletRequest request,
+                                              HttpServletResponse response,
+                                              @PathVariable("id") String id,
+                                              @PathVariable("discussionId") String discussionId,
+                                              @RequestBody LinkedHashMap<String,Object> map)
+                                              throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        discussionService.deleteDiscussion(authTicket, UUID.fromString(id), UUID.fromString(discussionId));
+        
+        return ResponseEntity.noContent().build();
+    
+    }
+    
+    
+    /**
+     * Handles a request to post a message on a discussion
+     *
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion on which to post the message
+     * @param map           the request body
+     * @return the details of the newly posted message
+     * @throws Exception if the request fails
+     */
+    @PostMapping("/{id}/discussions/{discussionId}/messages")
+    public ResponseEntity<?> postMessage(HttpServletRequest request,
+                                         HttpServletResponse response,
+                                         @PathVariable("id") String id,
+                                         @PathVariable("discussionId") String discussionId,
+                                         @RequestBody LinkedHashMap<String,Object> map)
+                                         throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String body = (String) QueryUtils.getValueRequired(map, QueryParameter.BODY);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Message message = discussionService.postMessage(authTicket, UUID.fromString(id),
+                UUID.fromString(discussionId), StringEscapeUtils.escapeJava(body));
+        
+        String location = String.format("/api/v1/projects/%s/discussions/%s/messages/%s",
+                id, discussionId, message.getId().toString());
+        
+        /** Return an HTTP 201 (Created) response with the message details */
+        return ResponseEntity.created(new URI(location)).body(message);
+    
+    }
+    
+    
+    /**
+     * Handles a request to retrieve one page of the messages of a discussion,
+     * newest first. The cursor of the next page is the ID of the oldest
+     * message of the current page.
+     *
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion for which to retrieve the messages
+     * @return one page of the discussion messages, with the cursor of the next page
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/discussions/{discussionId}/messages")
+    public CompletionStage<ResponseEntity<ResultPage<Message>>> discussionMessages(HttpServletRequest request,
+                                                                                   HttpServletResponse response,
+                                                                                   @PathVariable("id") String id,
+                                                                                   @PathVariable("discussionId")
+                                                                                   String discussionId)
+                                                                                   throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
+        
+        return discussionService.findMessagesAsync(
+            getAuthorizationTicket(userId, accessToken),
+            UUID.fromString(id),
+            UUID.fromString(discussionId),
+            pageSize,
+            cursor
+        ).thenApply((messages) -> ResponseEntity.ok(messages));
+    }
+    
+    
+    /**
+     * Handles a request to delete a message from a discussion
+     *
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion for the message
+     * @param messageId     the ID of the message to delete
+     * @param map           the request body
+     * @return the status of the delete operation
+     * @throws Exception if the request fails
+     */
+    @DeleteMapping("/{id}/discussions/{discussionId}/messages/{messageId}")
+    public ResponseEntity<?> deleteMessage(HttpServletRequest request,
+                                           HttpServletResponse response,
+                                           @PathVariable("id") String id,
+                                           @PathVariable("discussionId") String discussionId,
+                                           @PathVariable("messageId") String messageId,
+                                           @RequestBody LinkedHashMap<String,Object> map)
+                                           throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        discussionService.deleteMessage(authTicket, UUID.fromString(id), UUID.fromString(discussionId),
+                UUID.fromString(messageId));
+        
+        return ResponseEntity.noContent().build();
+    
+    }
+
+}
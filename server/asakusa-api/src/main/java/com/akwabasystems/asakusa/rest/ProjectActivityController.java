@@ -0,0 +1,62 @@
+package com.akwabasystems.asakusa.rest;
+
+import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.rest.service.ProjectActivityService;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
+import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+
+@RestController
+@RequestMapping("/api/v1/projects")
+@Log
+public class ProjectActivityController extends BaseController {
+
+    @Autowired
+    private ProjectActivityService activityService;
+    
+    
+    /**
+     * Handles a request to retrieve one page of the activity feed of the 
+     * specified project, newest first
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for which to retrieve the activities
+     * @return one page of the project activities, with the cursor of the next page
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/activity")
+    public CompletionStage<ResponseEntity<ResultPage<Map<String,Object>>>> projectActivity(HttpServletRequest request,
+                                                                                          HttpServletResponse response,
+                                                                                          @PathVariable String id) 
+                                                                                          throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
+        
+        return activityService.findActivityFeedAsync(
+            getAuthorizationTicket(userId, accessToken),
+            UUID.fromString(id),
+            pageSize,
+            cursor
+        ).thenApply((activities) -> ResponseEntity.ok(new ResultPage<>(
+            activities.getItems().stream().map(ProjectActivity::toMap).toList(),
+            activities.getNextCursor()
+        )));
+    }
+
+}
@@ -3,25 +3,31 @@ package com.akwabasystems.asakusa.rest;
 
 import com.akwabasystems.asakusa.model.Project;
 import com.akwabasystems.asakusa.rest.service.ProjectService;
+import com.akwabasystems.asakusa.rest.service.TagCatalog;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
 import com.akwabasystems.asakusa.rest.utils.QueryUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.net.URI;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import lombok.extern.java.Log;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -101,28 +107,30 @@ public class ProjectController extends BaseController {
 
 
     /**
-     * Handles a request to retrieve the projects for the specified team
+     * Handles a request to retrieve one page of the projects for the specified team
      * 
      * @param request       the incoming request
      * @param response      the outgoing response
      * @param id            the ID of the team for which to retrieve the projects
-     * @return the list of projects for the specified team
+     * @return one page of projects for the specified team, with the cursor of the next page
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}/projects")
-    public ResponseEntity<List<Project>> teamProjects(HttpServletRequest request,
-                                                      HttpServletResponse response,
-                                                      @PathVariable String id) 
-                                                      throws Exception {
+    public CompletionStage<ResponseEntity<ResultPage<Project>>> teamProjects(HttpServletRequest request,
+                                                                             HttpServletResponse response,
+                                                                             @PathVariable String id) 
+                                                                             throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
         
-        List<Project> teamProjects = projectService.findTeamProjects(
+        return projectService.findTeamProjectsAsync(
             getAuthorizationTicket(userId, accessToken),
-            UUID.fromString(id)
-        );
-        
-        return ResponseEntity.ok(teamProjects);
+            UUID.fromString(id),
+            pageSize,
+            cursor
+        ).thenApply((teamProjects) -> ResponseEntity.ok(teamProjects));
     }
     
 
@@ -137,27 +145,21 @@ public class ProjectController extends BaseController {
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}/projects/{projectId}")
-    public ResponseEntity<Project> projectById(HttpServletRequest request,
-                                               HttpServletResponse response,
-                                               @PathVariable("id") String id,
-                                               @PathVariable("projectId") String projectId) 
-                                               throws Exception {
+    public CompletionStage<ResponseEntity<Project>> projectById(HttpServletRequest request,
+                                                                HttpServletResponse response,
+                                                                @PathVariable("id") String id,
+                                                                @PathVariable("projectId") String projectId) 
+                                                                throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        String requestURI = request.getRequestURI();
         
-        Project project = projectService.findProjectById(
+        return projectService.findProjectByIdAsync(
             getAuthorizationTicket(userId, accessToken),
             UUID.fromString(id), 
             UUID.fromString(projectId)
-        );
-        
-        if (project == null) {
-            ProblemDetail details = problemDetails(HttpStatus.NOT_FOUND, 
-                    request.getRequestURI(), ApplicationError.PROJECT_NOT_FOUND);
-            return ResponseEntity.of(details).build();
-        }
-        
-        return ResponseEntity.ok(project);
+        ).thenApply((project) -> (project != null) ? ResponseEntity.ok(project) : 
+                problemResponse(HttpStatus.NOT_FOUND, requestURI, ApplicationError.PROJECT_NOT_FOUND));
  
     }
     
@@ -213,5 +215,126 @@ public class ProjectController extends BaseController {
         return ResponseEntity.ok(updatedProject);
         
     }
+    
+    
+    /**
+     * Handles a request to partially update a project. Only the fields present in
+     * the request body are written. If the body includes the "lastModifiedDate" of
+     * the project seen by the client, the update fails if the project has changed
+     * since.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the team for the project
+     * @param projectId     the ID of the project to update
+     * @param map           the request body
+     * @return the ID and the new last modified date of the project
+     * @throws Exception if the request fails
+     */
+    @PatchMapping("/{id}/projects/{projectId}")
+    public ResponseEntity<?> patchProject(HttpServletRequest request,
+                                          HttpServletResponse response,
+                                          @PathVariable("id") String id,
+                                          @PathVariable("projectId") String projectId, 
+                                          @RequestBody LinkedHashMap<String,Object> map) 
+                                          throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String timezone = (String) QueryUtils.getValueWithDefault(map, QueryParameter.TIMEZONE, 
+                ZoneId.systemDefault().getId());
+        
+        Map<String,Object> parameterMap = new LinkedHashMap<>();
+        parameterMap.put(QueryParameter.TIMEZONE, timezone);
+        
+        if (map.containsKey(QueryParameter.NAME)) {
+            String name = (String) map.get(QueryParameter.NAME);
+            parameterMap.put(QueryParameter.NAME, StringEscapeUtils.escapeJava(name));
+        }
+        
+        if (map.containsKey(QueryParameter.DESCRIPTION)) {
+            String description = (String) map.get(QueryParameter.DESCRIPTION);
+            parameterMap.put(QueryParameter.DESCRIPTION, StringEscapeUtils.escapeJava(description));
+        }
+        
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.OWNER_ID);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.START_DATE);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.END_DATE);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.DEADLINE);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.PRIORITY);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.STATUS);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.CAPACITY);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.TAGS);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.LAST_MODIFIED_DATE);
+
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = projectService.patchProject(authTicket, id, projectId, parameterMap);
+        
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, projectId, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+        
+    }
+    
+    
+    /**
+     * Handles a request to add tags to a project. The tags are added to the ones
+     * the project already has, and to the tag catalog of the team.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the team for the project
+     * @param projectId     the ID of the project to tag
+     * @param map           the request body
+     * @return the ID and the new last modified date of the project
+     * @throws Exception if the request fails
+     */
+    @PostMapping("/{id}/projects/{projectId}/tags")
+    public ResponseEntity<?> addProjectTags(HttpServletRequest request,
+                                            HttpServletResponse response,
+                                            @PathVariable("id") String id,
+                                            @PathVariable("projectId") String projectId, 
+                                            @RequestBody LinkedHashMap<String,Object> map) 
+                                            throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String tags = (String) QueryUtils.getValueRequired(map, QueryParameter.TAGS);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = projectService.addProjectTags(authTicket, id, projectId, 
+                TagCatalog.parseTags(tags));
+        
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, projectId, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+        
+    }
+    
+    
+    /**
+     * Handles a request to remove tags from a project. The other tags of the
+     * project are left untouched.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the team for the project
+     * @param projectId     the ID of the project to untag
+     * @param map           the request body
+     * @return the ID and the new last modified date of the project
+     * @throws Exception if the request fails
+     */
+    @DeleteMapping("/{id}/projects/{projectId}/tags")
+    public ResponseEntity<?> removeProjectTags(HttpServletRequest request,
+                                               HttpServletResponse response,
+                                               @PathVariable("id") String id,
+                                               @PathVariable("projectId") String projectId, 
+                                               @RequestBody LinkedHashMap<String,Object> map) 
+                                               throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String tags = (String) QueryUtils.getValueRequired(map, QueryParameter.TAGS);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = projectService.removeProjectTags(authTicket, id, projectId, 
+                TagCatalog.parseTags(tags));
+        
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, projectId, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+        
+    }
 
 }
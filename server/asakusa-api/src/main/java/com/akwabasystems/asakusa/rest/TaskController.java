@@ -2,19 +2,24 @@
 package com.akwabasystems.asakusa.rest;
 
 import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.rest.service.TagCatalog;
 import com.akwabasystems.asakusa.rest.service.TaskService;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
 import com.akwabasystems.asakusa.rest.utils.QueryUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.net.URI;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import lombok.extern.java.Log;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +28,7 @@ import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -103,28 +109,30 @@ public class TaskController extends BaseController {
 
 
     /**
-     * Handles a request to retrieve the tasks for the specified project
+     * Handles a request to retrieve one page of the tasks for the specified project
      * 
      * @param request       the incoming request
      * @param response      the outgoing response
      * @param id            the ID of the project for which to retrieve the tasks
-     * @return the list of tasks for the specified project
+     * @return one page of tasks for the specified project, with the cursor of the next page
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}/tasks")
-    public ResponseEntity<List<Task>> projectTasks(HttpServletRequest request,
-                                                   HttpServletResponse response,
-                                                   @PathVariable String id) 
-                                                   throws Exception {
+    public CompletionStage<ResponseEntity<ResultPage<Task>>> projectTasks(HttpServletRequest request,
+                                                                          HttpServletResponse response,
+                                                                          @PathVariable String id) 
+                                                                          throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
         
-        List<Task> projectTasks = taskService.findProjectTasks(
+        return taskService.findProjectTasksAsync(
             getAuthorizationTicket(userId, accessToken),
-            UUID.fromString(id)
-        );
-        
-        return ResponseEntity.ok(projectTasks);
+            UUID.fromString(id),
+            pageSize,
+            cursor
+        ).thenApply((projectTasks) -> ResponseEntity.ok(projectTasks));
     }
     
 
@@ -139,27 +147,21 @@ public class TaskController extends BaseController {
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}/tasks/{taskId}")
-    public ResponseEntity<Task> taskById(HttpServletRequest request,
-                                         HttpServletResponse response,
-                                         @PathVariable("id") String id,
-                                         @PathVariable("taskId") String taskId) 
-                                         throws Exception {
+    public CompletionStage<ResponseEntity<Task>> taskById(HttpServletRequest request,
+                                                          HttpServletResponse response,
+                                                          @PathVariable("id") String id,
+                                                          @PathVariable("taskId") String taskId) 
+                                                          throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        String requestURI = request.getRequestURI();
         
-        Task task = taskService.findTaskById(
+        return taskService.findTaskByIdAsync(
             getAuthorizationTicket(userId, accessToken),
             UUID.fromString(id), 
             UUID.fromString(taskId)
-        );
-        
-        if (task == null) {
-            ProblemDetail details = problemDetails(HttpStatus.NOT_FOUND, 
-                    request.getRequestURI(), ApplicationError.TASK_NOT_FOUND);
-            return ResponseEntity.of(details).build();
-        }
-        
-        return ResponseEntity.ok(task);
+        ).thenApply((task) -> (task != null) ? ResponseEntity.ok(task) : 
+                problemResponse(HttpStatus.NOT_FOUND, requestURI, ApplicationError.TASK_NOT_FOUND));
 
     }
     
@@ -217,6 +219,161 @@ public class TaskController extends BaseController {
     }
     
     
+    /**
+     * Handles a request to partially update a task. Only the fields present in
+     * the request body are written. If the body includes the "lastModifiedDate"
+     * of the task seen by the client, the update fails if the task has changed
+     * since.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the task
+     * @param taskId        the ID of the task to update
+     * @param map           the request body
+     * @return the ID and the new last modified date of the task
+     * @throws Exception if the request fails
+     */
+    @PatchMapping("/{id}/tasks/{taskId}")
+    public ResponseEntity<?> patchTask(HttpServletRequest request,
+                                       HttpServletResponse response,
+                                       @PathVariable("id") String id,
+                                       @PathVariable("taskId") String taskId, 
+                                       @RequestBody LinkedHashMap<String,Object> map) 
+                                       throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String timezone = (String) QueryUtils.getValueWithDefault(map, QueryParameter.TIMEZONE, 
+                ZoneId.systemDefault().getId());
+        
+        Map<String,Object> parameterMap = new LinkedHashMap<>();
+        parameterMap.put(QueryParameter.TIMEZONE, timezone);
+        
+        if (map.containsKey(QueryParameter.TITLE)) {
+            String title = (String) map.get(QueryParameter.TITLE);
+            parameterMap.put(QueryParameter.TITLE, StringEscapeUtils.escapeJava(title));
+        }
+        
+        if (map.containsKey(QueryParameter.DESCRIPTION)) {
+            String description = (String) map.get(QueryParameter.DESCRIPTION);
+            parameterMap.put(QueryParameter.DESCRIPTION, StringEscapeUtils.escapeJava(description));
+        }
+        
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.ASSIGNEE_ID);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.DEPENDS_ON);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.ESTIMATED_DURATION);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.START_DATE);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.END_DATE);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.PRIORITY);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.STATUS);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.TAGS);
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.LAST_MODIFIED_DATE);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = taskService.patchTask(authTicket, id, taskId, parameterMap);
+        
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, taskId, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+        
+    }
+    
+    
+    /**
+     * Handles a request to add tags to a task. The tags are added to the ones
+     * the task already has, and to the tag catalog of the team.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the task
+     * @param taskId        the ID of the task to tag
+     * @param map           the request body
+     * @return the ID and the new last modified date of the task
+     * @throws Exception if the request fails
+     */
+    @PostMapping("/{id}/tasks/{taskId}/tags")
+    public ResponseEntity<?> addTaskTags(HttpServletRequest request,
+                                         HttpServletResponse response,
+                                         @PathVariable("id") String id,
+                                         @PathVariable("taskId") String taskId, 
+                                         @RequestBody LinkedHashMap<String,Object> map) 
+                                         throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String teamId = (String) QueryUtils.getValueRequired(map, QueryParameter.TEAM_ID);
+        String tags = (String) QueryUtils.getValueRequired(map, QueryParameter.TAGS);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = taskService.addTaskTags(authTicket, teamId, id, taskId, 
+                TagCatalog.parseTags(tags));
+        
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, taskId, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+        
+    }
+    
+    
+    /**
+     * Handles a request to remove tags from a task. The other tags of the task
+     * are left untouched.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the task
+     * @param taskId        the ID of the task to untag
+     * @param map           the request body
+     * @return the ID and the new last modified date of the task
+     * @throws Exception if the request fails
+     */
+    @DeleteMapping("/{id}/tasks/{taskId}/tags")
+    public ResponseEntity<?> removeTaskTags(HttpServletRequest request,
+                                            HttpServletResponse response,
+                                            @PathVariable("id") String id,
+                                            @PathVariable("taskId") String taskId, 
+                                            @RequestBody LinkedHashMap<String,Object> map) 
+                                            throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String tags = (String) QueryUtils.getValueRequired(map, QueryParameter.TAGS);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = taskService.removeTaskTags(authTicket, id, taskId, 
+                TagCatalog.parseTags(tags));
+        
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, taskId, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+        
+    }
+    
+    
+    /**
+     * Handles a request to move tasks of a project from one user to another.
+     * If the request has no "taskIds" list, all the tasks of the current 
+     * assignee in the project are moved.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the project for the tasks
+     * @param map           the request body
+     * @return the number of tasks that were moved
+     * @throws Exception if the request fails
+     */
+    @PostMapping("/{id}/tasks/reassign")
+    public ResponseEntity<?> reassignTasks(HttpServletRequest request,
+                                           HttpServletResponse response,
+                                           @PathVariable("id") String id,
+                                           @RequestBody LinkedHashMap<String,Object> map) 
+                                           throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        String fromUserId = (String) QueryUtils.getValueRequired(map, QueryParameter.FROM_USER_ID);
+        String toUserId = (String) QueryUtils.getValueRequired(map, QueryParameter.TO_USER_ID);
+        List<String> taskIds = QueryUtils.getStringListIfPresent(map, QueryParameter.TASK_IDS);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        long reassigned = taskService.reassignTasks(authTicket, UUID.fromString(id), 
+                fromUserId, toUserId, taskIds);
+        
+        return ResponseEntity.ok(Map.of("reassigned", reassigned));
+        
+    }
+    
+    
     /**
      * Handles a request to delete a task
      * 
@@ -1,20 +1,25 @@
 
 package com.akwabasystems.asakusa.rest;
 
+import com.akwabasystems.asakusa.model.Tag;
 import com.akwabasystems.asakusa.model.Team;
 import com.akwabasystems.asakusa.rest.service.TeamService;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
 import com.akwabasystems.asakusa.rest.utils.QueryUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.net.URI;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import lombok.extern.java.Log;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +28,7 @@ import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -87,22 +93,24 @@ public class TeamController extends BaseController {
     
     
     /**
-     * Handles a request to retrieve all the teams
+     * Handles a request to retrieve one page of the teams
      * 
      * @param request       the incoming request
      * @param response      the outgoing response
-     * @return a list of all the teams
+     * @return one page of the teams, with the cursor of the next page
      * @throws Exception if the request fails
      */
     @GetMapping("")
-    public ResponseEntity<List<Team>> findAllTeams(HttpServletRequest request,
-                                                   HttpServletResponse response) 
-                                                   throws Exception {
+    public CompletionStage<ResponseEntity<ResultPage<Team>>> findAllTeams(HttpServletRequest request,
+                                                                          HttpServletResponse response) 
+                                                                          throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
         
-        List<Team> teams = teamService.findAll(getAuthorizationTicket(userId, accessToken));
-        return ResponseEntity.ok(teams);
+        return teamService.findAllAsync(getAuthorizationTicket(userId, accessToken), pageSize, cursor)
+                .thenApply((teams) -> ResponseEntity.ok(teams));
     }
 
 
@@ -116,23 +124,44 @@ public class TeamController extends BaseController {
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Team> teamById(HttpServletRequest request,
-                                         HttpServletResponse response,
-                                         @PathVariable String id) throws Exception {
+    public CompletionStage<ResponseEntity<Team>> teamById(HttpServletRequest request,
+                                                          HttpServletResponse response,
+                                                          @PathVariable String id) throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        String requestURI = request.getRequestURI();
         
-        Team team = teamService.findTeamById(
+        return teamService.findTeamByIdAsync(
                 getAuthorizationTicket(userId, accessToken),
-                UUID.fromString(id));
+                UUID.fromString(id)
+        ).thenApply((team) -> (team != null) ? ResponseEntity.ok(team) : 
+                problemResponse(HttpStatus.NOT_FOUND, requestURI, ApplicationError.TEAM_NOT_FOUND));
+    }
 
-        if (team == null) {
-            ProblemDetail details = problemDetails(HttpStatus.NOT_FOUND, 
-                    request.getRequestURI(), ApplicationError.TEAM_NOT_FOUND);
-            return ResponseEntity.of(details).build();
-        }
+
+    /**
+     * Handles a request to retrieve the tags of a team, for tag autocomplete.
+     * The tags are read from the cached tag catalog of the team.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the team for which to retrieve the tags
+     * @return the tags of the team that start with the requested prefix, ordered by name
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/tags")
+    public ResponseEntity<List<Tag>> teamTags(HttpServletRequest request,
+                                              HttpServletResponse response,
+                                              @PathVariable String id) throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        String prefix = request.getParameter(QueryParameter.PREFIX);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        
+        List<Tag> tags = teamService.findTeamTags(getAuthorizationTicket(userId, accessToken), 
+                UUID.fromString(id), prefix, pageSize);
         
-        return ResponseEntity.ok(team);
+        return ResponseEntity.ok(tags);
     }
 
 
@@ -174,27 +203,73 @@ public class TeamController extends BaseController {
     
     
     /**
-     * Handles a request to retrieve the members of the specified team
+     * Handles a request to partially update a team. Only the fields present in the
+     * request body are written. If the body includes the "lastModifiedDate" of the
+     * team seen by the client, the update fails if the team has changed since.
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param map           the request body
+     * @return the ID and the new last modified date of the team
+     * @throws Exception if the request fails
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchTeam(HttpServletRequest request,
+                                       HttpServletResponse response,
+                                       @PathVariable String id,
+                                       @RequestBody LinkedHashMap<String,Object> map) 
+                                       throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
+        
+        Map<String,Object> parameterMap = new HashMap<>();
+        parameterMap.put(QueryParameter.ID, id);
+        
+        if (map.containsKey(QueryParameter.NAME)) {
+            String name = (String) map.get(QueryParameter.NAME);
+            parameterMap.put(QueryParameter.NAME, StringEscapeUtils.escapeJava(name));
+        }
+        
+        if (map.containsKey(QueryParameter.DESCRIPTION)) {
+            String description = (String) map.get(QueryParameter.DESCRIPTION);
+            parameterMap.put(QueryParameter.DESCRIPTION, StringEscapeUtils.escapeJava(description));
+        }
+        
+        QueryUtils.populateMapIfPresent(map, parameterMap, QueryParameter.LAST_MODIFIED_DATE);
+        
+        AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
+        Instant lastModifiedDate = teamService.patchTeam(authTicket, parameterMap);
+
+        return ResponseEntity.ok(Map.of(QueryParameter.ID, id, QueryParameter.LAST_MODIFIED_DATE, lastModifiedDate));
+  
+    }
+    
+    
+    /**
+     * Handles a request to retrieve one page of the members of the specified team
      * 
      * @param request       the incoming request
      * @param response      the outgoing response
      * @param id            the ID of the team for which to retrieve the members
-     * @return the list of members for the specified team
+     * @return one page of members for the specified team, with the cursor of the next page
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}/members")
-    public ResponseEntity<List<String>> teamMembers(HttpServletRequest request,
-                                                    HttpServletResponse response,
-                                                    @PathVariable String id) 
-                                                    throws Exception {
+    public CompletionStage<ResponseEntity<ResultPage<String>>> teamMembers(HttpServletRequest request,
+                                                                           HttpServletResponse response,
+                                                                           @PathVariable String id) 
+                                                                           throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) request.getParameter(QueryParameter.USER_ID);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
         
-        List<String> teamMemberIds = teamService.findTeamMembers(
+        return teamService.findTeamMembersAsync(
                 getAuthorizationTicket(userId, accessToken),
-                UUID.fromString(id));
-        
-        return ResponseEntity.ok(teamMemberIds);
+                UUID.fromString(id),
+                pageSize,
+                cursor
+        ).thenApply((teamMemberIds) -> ResponseEntity.ok(teamMemberIds));
     }
     
     
@@ -205,21 +280,21 @@ public class TeamController extends BaseController {
      * @param response      the outgoing response
      * @param id            the ID of the team to which to add the member
      * @param map           the request body
-     * @return the updated members list for the specified team
+     * @return the first page of the updated members list for the specified team
      * @throws Exception if the request fails
      */
     @PostMapping("/{id}/members")
-    public ResponseEntity<List<String>> addTeamMember(HttpServletRequest request,
-                                                      HttpServletResponse response,
-                                                      @PathVariable String id,
-                                                      @RequestBody LinkedHashMap<String,Object> map) 
-                                                      throws Exception {
+    public ResponseEntity<ResultPage<String>> addTeamMember(HttpServletRequest request,
+                                                            HttpServletResponse response,
+                                                            @PathVariable String id,
+                                                            @RequestBody LinkedHashMap<String,Object> map) 
+                                                            throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
         String memberId = (String) QueryUtils.getValueRequired(map, QueryParameter.MEMBER_ID);
         
         AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
-        List<String> teamMembers = teamService.addTeamMember(authTicket, UUID.fromString(id), memberId);
+        ResultPage<String> teamMembers = teamService.addTeamMember(authTicket, UUID.fromString(id), memberId);
 
         return ResponseEntity.ok(teamMembers);
   
@@ -234,21 +309,21 @@ public class TeamController extends BaseController {
      * @param id            the ID of the team from which to remove the member
      * @param memberId      the ID of the member to remove
      * @param map           the request body
-     * @return the updated members list for the specified team
+     * @return the first page of the updated members list for the specified team
      * @throws Exception if the request fails
      */
     @DeleteMapping("/{id}/members/{memberId}")
-    public ResponseEntity<List<String>> removeTeamMember(HttpServletRequest request,
-                                                         HttpServletResponse response,
-                                                         @PathVariable("id") String id,
-                                                         @PathVariable("memberId") String memberId,
-                                                         @RequestBody LinkedHashMap<String,Object> map) 
-                                                         throws Exception {
+    public ResponseEntity<ResultPage<String>> removeTeamMember(HttpServletRequest request,
+                                                               HttpServletResponse response,
+                                                               @PathVariable("id") String id,
+                                                               @PathVariable("memberId") String memberId,
+                                                               @RequestBody LinkedHashMap<String,Object> map) 
+                                                               throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
         String userId = (String) QueryUtils.getValueRequired(map, QueryParameter.USER_ID);
         
         AuthorizationTicket authTicket = getAuthorizationTicket(userId, accessToken);
-        List<String> teamMembers = teamService.removeTeamMember(authTicket, 
+        ResultPage<String> teamMembers = teamService.removeTeamMember(authTicket, 
                 UUID.fromString(id), memberId);
 
         return ResponseEntity.ok(teamMembers);
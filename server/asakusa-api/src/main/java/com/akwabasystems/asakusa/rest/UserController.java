@@ -2,22 +2,31 @@
 package com.akwabasystems.asakusa.rest;
 
 import com.akwabasystems.asakusa.model.AccessToken;
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.Task;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.model.UserPreferences;
 import com.akwabasystems.asakusa.rest.service.AuthService;
+import com.akwabasystems.asakusa.rest.service.DiscussionService;
+import com.akwabasystems.asakusa.rest.service.ProjectService;
+import com.akwabasystems.asakusa.rest.service.TaskService;
 import com.akwabasystems.asakusa.rest.utils.UserResponse;
 import com.akwabasystems.asakusa.rest.service.UserService;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
 import com.akwabasystems.asakusa.rest.utils.LoginResponse;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
 import com.akwabasystems.asakusa.rest.utils.QueryUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import lombok.extern.java.Log;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +54,15 @@ public class UserController extends BaseController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private ProjectService projectService;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private DiscussionService discussionService;
+    
     
     /**
      * Handles a request to create a user account
@@ -95,7 +113,7 @@ public class UserController extends BaseController {
             UserResponse userInfo = UserResponse.fromUser(user);
             
             Map<String,Object> accountSummary = userService.getAccountSummary(user);
-            Map<String,Object> accountSettings = userService.getUserPreferences(user).getSettings().toMap();
+            Map<String,Object> accountSettings = userService.getUserPreferences(user).getSettings();
             AccessToken accessToken = authService.createAccessToken(client);
                 
             LoginResponse responseBody = new LoginResponse(userInfo, accountSummary, 
@@ -124,24 +142,103 @@ public class UserController extends BaseController {
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> userById(HttpServletRequest request,
-                                      HttpServletResponse response,
-                                      @PathVariable String id) 
-                                      throws Exception {
+    public CompletionStage<ResponseEntity<UserResponse>> userById(HttpServletRequest request,
+                                                                  HttpServletResponse response,
+                                                                  @PathVariable String id) 
+                                                                  throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
-        User user = userService.findUserById(getAuthorizationTicket(id, accessToken));
+        String requestURI = request.getRequestURI();
         
-        if (user == null) {
-            ProblemDetail details = problemDetails(HttpStatus.NOT_FOUND, 
-                    request.getRequestURI(), ApplicationError.USER_NOT_FOUND);
-            return ResponseEntity.of(details).build();
-        }
-        
-        return ResponseEntity.ok(UserResponse.fromUser(user));
+        return userService.findUserByIdAsync(getAuthorizationTicket(id, accessToken))
+                .thenApply((user) -> (user != null) ? ResponseEntity.ok(UserResponse.fromUser(user)) : 
+                        problemResponse(HttpStatus.NOT_FOUND, requestURI, ApplicationError.USER_NOT_FOUND));
  
     }
     
     
+    /**
+     * Handles a request to retrieve one page of the projects owned by a user
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the user for whom to retrieve the projects
+     * @return one page of the projects owned by the user, with the cursor of the next page
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/projects")
+    public CompletionStage<ResponseEntity<ResultPage<Project>>> userProjects(HttpServletRequest request,
+                                                                             HttpServletResponse response,
+                                                                             @PathVariable String id) 
+                                                                             throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
+        
+        return projectService.findOwnerProjectsAsync(
+            getAuthorizationTicket(id, accessToken),
+            id,
+            pageSize,
+            cursor
+        ).thenApply((ownerProjects) -> ResponseEntity.ok(ownerProjects));
+    }
+    
+    
+    /**
+     * Handles a request to retrieve one page of the tasks assigned to a user
+     * across all their projects
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the user for whom to retrieve the tasks
+     * @return one page of the tasks assigned to the user, with the cursor of the next page
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/tasks")
+    public CompletionStage<ResponseEntity<ResultPage<Task>>> userTasks(HttpServletRequest request,
+                                                                       HttpServletResponse response,
+                                                                       @PathVariable String id) 
+                                                                       throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
+        
+        return taskService.findAssignedTasksAsync(
+            getAuthorizationTicket(id, accessToken),
+            id,
+            pageSize,
+            cursor
+        ).thenApply((assignedTasks) -> ResponseEntity.ok(assignedTasks));
+    }
+    
+    
+    /**
+     * Handles a request to retrieve one page of the discussions started by a
+     * user across all their projects, newest first
+     * 
+     * @param request       the incoming request
+     * @param response      the outgoing response
+     * @param id            the ID of the user for whom to retrieve the discussions
+     * @return one page of the discussions started by the user, with the cursor of the next page
+     * @throws Exception if the request fails
+     */
+    @GetMapping("/{id}/discussions")
+    public CompletionStage<ResponseEntity<ResultPage<Discussion>>> userDiscussions(HttpServletRequest request,
+                                                                                   HttpServletResponse response,
+                                                                                   @PathVariable String id) 
+                                                                                   throws Exception {
+        String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
+        int pageSize = PagingUtils.pageSize(request.getParameter(QueryParameter.PAGE_SIZE));
+        String cursor = request.getParameter(QueryParameter.CURSOR);
+        
+        return discussionService.findAuthorDiscussionsAsync(
+            getAuthorizationTicket(id, accessToken),
+            id,
+            pageSize,
+            cursor
+        ).thenApply((discussions) -> ResponseEntity.ok(discussions));
+    }
+    
+    
     /**
      * Handles a request to update a user account
      * 
@@ -198,23 +295,22 @@ public class UserController extends BaseController {
      * @throws Exception if the request fails
      */
     @GetMapping("/{id}/preferences")
-    public ResponseEntity<?> userPreferences(HttpServletRequest request,
-                                             HttpServletResponse response,
-                                             @PathVariable String id) 
-                                                      throws Exception {
+    public CompletionStage<ResponseEntity<Map<String,Object>>> userPreferences(HttpServletRequest request,
+                                                                                HttpServletResponse response,
+                                                                                @PathVariable String id) 
+                                                                                throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
-        User user = userService.findUserById(getAuthorizationTicket(id, accessToken));
+        String requestURI = request.getRequestURI();
         
-        if (user == null) {
-            ProblemDetail details = problemDetails(HttpStatus.NOT_FOUND, 
-                    request.getRequestURI(), ApplicationError.USER_NOT_FOUND);
-            return ResponseEntity.of(details).build();
-        }
+        /** The user and the preferences are read at the same time */
+        CompletionStage<UserPreferences> preferencesLookup = userService.getUserPreferencesAsync(id);
         
-        UserPreferences preferences = userService.getUserPreferences(user);
-        return ResponseEntity.ok()
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body(preferences.getSettings().toString());
+        return userService.findUserByIdAsync(getAuthorizationTicket(id, accessToken))
+                .thenCombine(preferencesLookup, (user, preferences) -> (user != null) ? 
+                        ResponseEntity.ok()
+                                      .contentType(MediaType.APPLICATION_JSON)
+                                      .body(preferences.getSettings()) :
+                        problemResponse(HttpStatus.NOT_FOUND, requestURI, ApplicationError.USER_NOT_FOUND));
     }
     
     
@@ -225,7 +321,7 @@ public class UserController extends BaseController {
      * @param response      the outgoing response
      * @param id            the user's ID
      * @param map           an object that contains the query parameters
-     * @return a JSON object with the updated user details
+     * @return the status of the update operation
      * @throws Exception if the request fails
      */
     @PutMapping("/{id}/preferences")
@@ -235,7 +331,7 @@ public class UserController extends BaseController {
                                                    @RequestBody LinkedHashMap<String,Object> map) 
                                                          throws Exception {
         String accessToken = (String) request.getHeader(QueryParameter.ACCESS_TOKEN);
-        LinkedHashMap settings = (LinkedHashMap)QueryUtils.getValueRequired(map, QueryParameter.SETTINGS);        
+        Map<String,Object> settings = QueryUtils.getObjectRequired(map, QueryParameter.SETTINGS);
         
         AuthorizationTicket authTicket = getAuthorizationTicket(id, accessToken);
         User user = userService.findUserById(authTicket);
@@ -246,10 +342,8 @@ public class UserController extends BaseController {
             return ResponseEntity.of(details).build();
         }
         
-        UserPreferences updatedPreferences = userService.updateUserPreferences(user, settings);
-        return ResponseEntity.ok()
-                             .contentType(MediaType.APPLICATION_JSON)
-                             .body(updatedPreferences.getSettings().toString());
+        userService.updateUserPreferences(user, settings);
+        return ResponseEntity.noContent().build();
     }
     
 }
@@ -0,0 +1,209 @@
+package com.akwabasystems.asakusa.rest.filter;
+
+import com.akwabasystems.asakusa.model.AccessToken;
+import com.akwabasystems.asakusa.model.ItemStatus;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.rest.service.SignedTokenService;
+import com.akwabasystems.asakusa.rest.utils.AccessTokenSigner;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Verifies the access token sent with each API request against the token of the
+ * client that sent it. The client sends its ID in the "X-AKWABA-CLIENT" header
+ * and its token in the "X-AKWABA-TOKEN" header; a request whose token is
+ * missing, unknown, different from the client's or expired is rejected with a
+ * 401 problem before it reaches a controller.
+ *
+ * The tokens are read through the caching access token DAO, so the token of an
+ * active client is verified without reading Cassandra, and the tokens created
+ * or expired by the login, logout and renewal requests are seen at once. Signed
+ * tokens are verified by the signed token service without any lookup, and do
+ * not require the client header.
+ *
+ * The challenge, login and phone verification requests and the signup request
+ * are not verified, since they are made before the client has a token. The
+ * logout and renewal requests are. The verification can be turned off with
+ * "access-tokens.verification.enabled".
+ */
+@Component
+@WebFilter("/api/*")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AccessTokenFilter implements Filter {
+
+    private static final String API_PATH = "/api/";
+    private static final String SIGNUP_PATH = "/api/v1/users";
+    private static final Set<String> PUBLIC_AUTH_PATHS = Set.of(
+        "/api/v1/auth/challenge",
+        "/api/v1/auth/login",
+        "/api/v1/auth/phones/number-verification-code",
+        "/api/v1/auth/phones/code-verification"
+    );
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+
+    @Autowired
+    private SignedTokenService signedTokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${access-tokens.verification.enabled:true}")
+    private boolean verificationEnabled;
+
+
+    /**
+     * Verifies the access token of the incoming request and proceeds with the
+     * next filter in the filter chain if it is valid; otherwise, responds with
+     * the reason why the token was rejected
+     *
+     * @param request           the incoming request
+     * @param response          the response object
+     * @param chain             the filter chain handling the request
+     * @throws ServletException if the request cannot be processed
+     * @throws IOException if the response cannot be output to the stream
+     */
+    @Override
+    public void doFilter(ServletRequest request,
+                         ServletResponse response,
+                         FilterChain chain)
+                        throws ServletException, IOException {
+
+        HttpServletRequest servletRequest = (HttpServletRequest) request;
+        HttpServletResponse servletResponse = (HttpServletResponse) response;
+
+        if (!verificationEnabled || !requiresAccessToken(servletRequest)) {
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        String client = servletRequest.getHeader(QueryParameter.ACCESS_TOKEN_CLIENT);
+        String tokenKey = servletRequest.getHeader(QueryParameter.ACCESS_TOKEN);
+        String error = verify(client, tokenKey);
+
+        if (error != null) {
+            reject(servletRequest, servletResponse, error);
+            return;
+        }
+
+        chain.doFilter(servletRequest, servletResponse);
+
+    }
+
+
+    /**
+     * Verifies the specified access token. A signed token is verified in memory,
+     * and bound to the client if the client sent its ID; any other token is
+     * verified against the token of the client. A token that does not match the
+     * cached token of the client is verified again against the stored one
+     * before it is rejected.
+     *
+     * @param client        the ID of the client that sent the token, if any
+     * @param tokenKey      the access token sent by the client
+     * @return the error for which the token is rejected, or null if it is valid
+     */
+    public String verify(String client, String tokenKey) {
+
+        if (tokenKey == null || tokenKey.isBlank()) {
+            return ApplicationError.UNAUTHORIZED_ACCESS;
+        }
+
+        if (AccessTokenSigner.isSigned(tokenKey)) {
+            return signedTokenService.verify(tokenKey, client);
+        }
+
+        if (client == null || client.isBlank()) {
+            return ApplicationError.UNAUTHORIZED_ACCESS;
+        }
+
+        String error = verifyToken(daoRegistry.accessTokenDao().findById(client), tokenKey);
+
+        /** The cached token may predate a login or renewal made on another instance */
+        if (ApplicationError.INVALID_ACCESS_TOKEN.equals(error)) {
+            error = verifyToken(daoRegistry.cachingAccessTokenDao().reloadById(client), tokenKey);
+        }
+
+        return error;
+    }
+
+
+    /**
+     * Verifies the specified access token against the token of a client
+     *
+     * @param accessToken   the token of the client, or null if it has none
+     * @param tokenKey      the access token sent by the client
+     * @return the error for which the token is rejected, or null if it is valid
+     */
+    public static String verifyToken(AccessToken accessToken, String tokenKey) {
+
+        if (accessToken == null || accessToken.getTokenKey() == null || tokenKey == null) {
+            return ApplicationError.INVALID_ACCESS_TOKEN;
+        }
+
+        /** Compare the tokens in constant time, so that the comparison doesn't leak the token */
+        boolean isSameToken = MessageDigest.isEqual(
+                accessToken.getTokenKey().getBytes(StandardCharsets.UTF_8),
+                tokenKey.getBytes(StandardCharsets.UTF_8));
+
+        if (!isSameToken) {
+            return ApplicationError.INVALID_ACCESS_TOKEN;
+        }
+
+        if (accessToken.getStatus() == ItemStatus.EXPIRED) {
+            return ApplicationError.EXPIRED_ACCESS_TOKEN;
+        }
+
+        return null;
+    }
+
+
+    private boolean requiresAccessToken(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (!path.startsWith(API_PATH) || PUBLIC_AUTH_PATHS.contains(path)) {
+            return false;
+        }
+
+        boolean isSignup = "POST".equals(request.getMethod()) &&
+                (path.equals(SIGNUP_PATH) || path.equals(SIGNUP_PATH + "/"));
+        return !isSignup;
+    }
+
+
+    private void reject(HttpServletRequest request,
+                        HttpServletResponse response,
+                        String error) throws IOException {
+        ProblemDetail details = ProblemDetail.forStatus(HttpStatus.UNAUTHORIZED);
+        details.setTitle(error);
+        details.setInstance(URI.create(request.getRequestURI()));
+
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), details);
+    }
+
+}
@@ -10,11 +10,14 @@ import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 
 @Component
 @WebFilter("/api/*")
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class SecurityFilter implements Filter {
 
     /**
@@ -0,0 +1,182 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.model.ActivityType;
+import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * A service that records the activities of projects, tasks, teams and 
+ * discussions without delaying the requests that cause them.
+ *
+ * Recording an activity only adds it to a bounded in-memory queue. A single
+ * background writer drains the queue and writes the activities with one 
+ * unlogged batch per partition. When the queue is full the activity is dropped
+ * and counted rather than blocking the request. The queue is flushed when the
+ * application shuts down.
+ *
+ * Team activities are recorded in the feed keyed by the team ID, since they
+ * do not belong to any single project.
+ */
+@Service
+@Log
+public class ActivityRecorder {
+
+    private static final String QUEUE_DEPTH_GAUGE = "asakusa.activity.queue.depth";
+    private static final String RECORDED_COUNTER = "asakusa.activity.recorded";
+    private static final String DROPPED_COUNTER = "asakusa.activity.dropped";
+    private static final String FAILED_COUNTER = "asakusa.activity.failed";
+    
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${activity.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${activity.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${activity.shutdown-timeout-seconds:10}")
+    private int shutdownTimeoutSeconds;
+    
+    private BlockingQueue<ProjectActivity> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private Counter recordedCounter;
+    private Counter droppedCounter;
+    private Counter failedCounter;
+    
+    
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        recordedCounter = meterRegistry.counter(RECORDED_COUNTER);
+        droppedCounter = meterRegistry.counter(DROPPED_COUNTER);
+        failedCounter = meterRegistry.counter(FAILED_COUNTER);
+        Gauge.builder(QUEUE_DEPTH_GAUGE, queue, BlockingQueue::size).register(meterRegistry);
+        
+        running = true;
+        writer = new Thread(this::drainQueue, "activity-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    
+    /**
+     * Stops accepting activities and waits for the writer to flush the queue
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        
+        if (!queue.isEmpty()) {
+            log.warning(String.format("[ActivityRecorder] %d activities were not written before shutdown", 
+                    queue.size()));
+        }
+    }
+    
+    
+    /**
+     * Records an activity for the specified project or team. This method never
+     * blocks; the activity is dropped if the queue is full.
+     * 
+     * @param authTicket    the ticket of the user who performed the activity
+     * @param feedId        the ID of the project or team in whose feed to record the activity
+     * @param type          the type of the activity
+     * @param action        the action performed, such as "created" or "updated"
+     * @param details       the details of the activity, as alternating keys and values
+     * @return true if the activity was queued; otherwise, false
+     */
+    public boolean record(AuthorizationTicket authTicket, 
+                          UUID feedId, 
+                          ActivityType type,
+                          String action,
+                          Object... details) {
+    
+        if (!running || feedId == null) {
+            droppedCounter.increment();
+            return false;
+        }
+        
+        String actor = (authTicket != null) ? authTicket.getUserId() : null;
+        ProjectActivity activity = new ProjectActivity(feedId, Uuids.timeBased(), actor, type);
+        activity.getDetails().put("action", action);
+        
+        for (int index = 0; index + 1 < details.length; index += 2) {
+        
+            if (details[index + 1] != null) {
+                activity.getDetails().put(String.valueOf(details[index]), String.valueOf(details[index + 1]));
+            }
+        }
+        
+        activity.setCreatedDate(Timeline.now());
+        
+        if (!queue.offer(activity)) {
+            droppedCounter.increment();
+            return false;
+        }
+        
+        return true;
+    }
+    
+    
+    private void drainQueue() {
+        List<ProjectActivity> activities = new ArrayList<>(batchSize);
+        
+        while (running || !queue.isEmpty()) {
+        
+            try {
+                ProjectActivity activity = queue.poll(100, TimeUnit.MILLISECONDS);
+                
+                if (activity == null) {
+                    continue;
+                }
+                
+                activities.add(activity);
+                queue.drainTo(activities, batchSize - 1);
+                write(activities);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                activities.clear();
+            }
+        }
+    }
+    
+    
+    private void write(List<ProjectActivity> activities) {
+    
+        try {
+            daoRegistry.projectActivityDao().createAllAsync(activities).toCompletableFuture().join();
+            recordedCounter.increment(activities.size());
+        } catch (RuntimeException ex) {
+            failedCounter.increment(activities.size());
+            log.warning(String.format("[ActivityRecorder] Failed to write %d activities: %s", 
+                    activities.size(), ex.getMessage()));
+        }
+    }
+
+}
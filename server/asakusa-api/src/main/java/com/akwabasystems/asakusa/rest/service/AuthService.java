@@ -10,27 +10,26 @@ import com.akwabasystems.asakusa.model.ItemStatus;
 import com.akwabasystems.asakusa.model.PhoneNumberVerification;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.model.UserCredentials;
+import com.akwabasystems.asakusa.model.UserPreferences;
 import com.akwabasystems.asakusa.model.UserSession;
-import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
 import com.akwabasystems.asakusa.rest.utils.LoginResponse;
 import com.akwabasystems.asakusa.rest.utils.UserResponse;
-import com.akwabasystems.asakusa.utils.PasswordUtils;
 import com.akwabasystems.asakusa.utils.Timeline;
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
 import jakarta.annotation.PostConstruct;
 import java.time.Clock;
 import java.time.Instant;
-import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -52,7 +51,7 @@ public class AuthService {
     protected String appRealm;
     
     @Autowired
-    private CqlSession cqlSession;
+    private DaoRegistry daoRegistry;
     
     @Autowired
     private SMSService smsService;
@@ -60,13 +59,17 @@ public class AuthService {
     @Autowired
     private UserService userService;
     
-    private RepositoryMapper mapper;
+    @Autowired
+    private SignedTokenService signedTokenService;
+    
+    @Autowired
+    private PasswordHasher passwordHasher;
+    
     private String nonce;
     private static final String QOP = "auth";
     
     @PostConstruct
     public void initialize() {
-        mapper = RepositoryMapper.builder(cqlSession).build();
         generateAuthenticationNonce();
     }
     
@@ -102,7 +105,7 @@ public class AuthService {
     public LoginResponse login(AuthorizationTicket authTicket,
                                String context,
                                String client) throws Exception {
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         
         /**
          * Step 1: Extract the contents of the login context. This contents
@@ -137,29 +140,46 @@ public class AuthService {
             throw new Exception(ApplicationError.INVALID_CREDENTIALS);
         }
         
-        /** Step 3: Verify that the user exists */
-        User user = userDao.findById(authTicket.getUserId());
+        /** 
+         * Step 3: Read the user, the credentials, the preferences and the last
+         * session of the user at the same time, since none of those reads
+         * depends on the others
+         */
+        String userId = authTicket.getUserId();
+        CompletableFuture<User> userLookup = userDao.findByIdAsync(userId).toCompletableFuture();
+        CompletableFuture<UserCredentials> credentialsLookup = userDao.getCredentialsAsync(userId)
+                .toCompletableFuture();
+        CompletableFuture<UserPreferences> preferencesLookup = userDao.getPreferencesAsync(userId)
+                .toCompletableFuture();
+        CompletableFuture<UserSession> lastSessionLookup = getLastSessionForUserAsync(userId)
+                .toCompletableFuture();
+        
+        /** Step 4: Verify that the user exists */
+        User user = userLookup.join();
         
         if (user == null) {
             throw new Exception(ApplicationError.USER_NOT_FOUND);
         }
         
-        /** Step 4: Validate the user's password */
-        UserCredentials credentials = userDao.getCredentials(user.getUserId());
-        boolean isValidCredentials = PasswordUtils.matches(userPassword.toCharArray(), credentials.getPassword());
+        /** 
+         * Step 5: Validate the user's password on the password hashing pool,
+         * which refuses the login with a 503 if too many are waiting
+         */
+        UserCredentials credentials = credentialsLookup.join();
+        boolean isValidCredentials = passwordHasher.matches(userPassword.toCharArray(), credentials.getPassword());
         
         if (!isValidCredentials) {
             throw new Exception(ApplicationError.INVALID_CREDENTIALS);
         }
         
-        /** Step 5: Start a new session for the user */
-        startNewSessionForUser(user, client);
+        /** Step 6: Start a new session for the user */
+        startNewSessionForUser(user, client, lastSessionLookup.join());
         
-        /** Step 6: Create a new access token for the user */
+        /** Step 7: Create a new access token for the user */
         AccessToken accessToken = createAccessToken(client);
         
         Map<String,Object> accountSummary = userService.getAccountSummary(user);
-        Map<String,Object> accountSettings = userService.getUserPreferences(user).getSettings().toMap();
+        Map<String,Object> accountSettings = preferencesLookup.join().getSettings();
         UserResponse userInfo = UserResponse.fromUser(user);
         
         return new LoginResponse(userInfo, accountSummary, accountSettings, accessToken);
@@ -168,7 +188,7 @@ public class AuthService {
     
     
     public void startNewSessionForUser(AuthorizationTicket authTicket, String client) throws Exception {
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         User user = userDao.findById(authTicket.getUserId());
         
         if (user == null) {
@@ -180,8 +200,14 @@ public class AuthService {
     
     
     public void startNewSessionForUser(User user, String client) throws Exception {
-        UserSessionDao sessionDao = mapper.userSessionDao();
-        UserSession lastSession = getLastSessionForUser(user);
+        startNewSessionForUser(user, client, getLastSessionForUser(user));
+    }
+    
+    
+    private void startNewSessionForUser(User user, 
+                                        String client, 
+                                        UserSession lastSession) throws Exception {
+        UserSessionDao sessionDao = daoRegistry.userSessionDao();
         
         /**
          * If the last session has been active for more than 8 hours, end it and 
@@ -205,17 +231,22 @@ public class AuthService {
     
     
     public UserSession getLastSessionForUser(User user) {
-        UserSessionDao sessionDao = mapper.userSessionDao();
+        UserSessionDao sessionDao = daoRegistry.userSessionDao();
         
+        /** Sessions are clustered by descending ID, so the first row is the last session */
         PagingIterable<UserSession> userSessions = sessionDao.findAll(user.getUserId());
-        List<UserSession> userSessionList = userSessions.all();
-        
-        return userSessionList.isEmpty() ? null : userSessionList.get(0);
+        return userSessions.one();
+    }
+    
+    
+    public CompletionStage<UserSession> getLastSessionForUserAsync(String userId) {
+        UserSessionDao sessionDao = daoRegistry.userSessionDao();
+        return sessionDao.findAllAsync(userId).thenApply((userSessions) -> userSessions.one());
     }
     
     
     private void endSession(UserSession session) throws Exception {
-        UserSessionDao sessionDao = mapper.userSessionDao();
+        UserSessionDao sessionDao = daoRegistry.userSessionDao();
             
         session.setEndDate(Instant.now(Clock.systemUTC()));
         session.setStatus(ItemStatus.EXPIRED);
@@ -223,13 +254,33 @@ public class AuthService {
     }
     
     
+    /**
+     * Creates a new access token for the specified client, which replaces its
+     * current token. The token key is a signed token if signed tokens are
+     * enabled, in which case the replaced token is revoked; otherwise, it is a
+     * random key.
+     * 
+     * @param clientId      the ID of the client for which to create the token
+     * @return the new access token for the client
+     * @throws Exception if the token cannot be created
+     */
     public AccessToken createAccessToken(String clientId) throws Exception {
-        AccessTokenDao accessTokenDao = mapper.accessTokenDao();
+        AccessTokenDao accessTokenDao = daoRegistry.accessTokenDao();
+        String tokenKey = UUID.randomUUID().toString();
+        
+        if (signedTokenService.isEnabled()) {
+            AccessToken currentAccessToken = accessTokenDao.findById(clientId);
+            
+            if (currentAccessToken != null) {
+                signedTokenService.revoke(currentAccessToken.getTokenKey());
+            }
+            
+            tokenKey = signedTokenService.issue(clientId);
+        }
         
-        AccessToken accessToken = new AccessToken(clientId, UUID.randomUUID().toString());
-        accessToken.setTokenKey(UUID.randomUUID().toString());
-        accessToken.setCreatedDate(Timeline.currentDateTimeUTCString());
-        accessToken.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        AccessToken accessToken = new AccessToken(clientId, tokenKey);
+        accessToken.setCreatedDate(Timeline.now());
+        accessToken.setLastModifiedDate(Timeline.now());
         
         accessTokenDao.create(accessToken);
         
@@ -238,14 +289,15 @@ public class AuthService {
     
     
     public AccessToken getAccessTokenForClient(String clientId) {
-        return mapper.accessTokenDao().findById(clientId);
+        return daoRegistry.accessTokenDao().findById(clientId);
     }
     
     
     private void deactivateAccessToken(AccessToken accessToken) throws Exception {
         accessToken.setStatus(ItemStatus.EXPIRED);
-        accessToken.setLastModifiedDate(Timeline.currentDateTimeUTCString());
-        mapper.accessTokenDao().save(accessToken);
+        accessToken.setLastModifiedDate(Timeline.now());
+        daoRegistry.accessTokenDao().save(accessToken);
+        signedTokenService.revoke(accessToken.getTokenKey());
     }
     
     
@@ -298,7 +350,7 @@ public class AuthService {
          * Step 3: Generate the code for the given phone number, store it, and
          * send an SMS notification to the device.  
          */
-        PhoneVerificationDao phoneVerificationDao = mapper.phoneVerificationDao();
+        PhoneVerificationDao phoneVerificationDao = daoRegistry.phoneVerificationDao();
         
         PhoneNumberVerification phoneVerification = new PhoneNumberVerification(
                 phoneNumber, smsService.generateSMSCode(6), UUID.randomUUID());
@@ -349,16 +401,14 @@ public class AuthService {
             throw new Exception(ApplicationError.INVALID_CREDENTIALS);
         }
         
-        PhoneVerificationDao phoneVerificationDao = mapper.phoneVerificationDao();
+        PhoneVerificationDao phoneVerificationDao = daoRegistry.phoneVerificationDao();
         PhoneNumberVerification phoneVerification = phoneVerificationDao.findByPhoneNumber(phoneNumber);
         
         if (phoneVerification == null) {
             throw new Exception(ApplicationError.INVALID_PARAMETERS);
         }
         
-        ZonedDateTime currentTimeUTC = ZonedDateTime.now(Timeline.timezoneUTC());
-        ZonedDateTime expirationTimeUTC = Timeline.fromUTCFormat(phoneVerification.getExpirationDate());
-        boolean hasExpired = currentTimeUTC.isAfter(expirationTimeUTC);
+        boolean hasExpired = Timeline.now().isAfter(phoneVerification.getExpirationDate());
         boolean isVerified = hasExpired ? false : phoneVerification.getCode().equals(code);
         
         Map<String,Object> status = new HashMap<>();
@@ -381,7 +431,7 @@ public class AuthService {
      * @throws Exception if the operation fails
      */
     public Map<String,Object> logout(AuthorizationTicket authTicket, String client) throws Exception {
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         
         User user = userDao.findById(authTicket.getUserId());
         
@@ -421,7 +471,7 @@ public class AuthService {
                                         String context) throws Exception {
         // validateRequestContext(context);
         
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         User user = userDao.findById(authTicket.getUserId());
         
         if (user == null) {
@@ -0,0 +1,396 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.dao.DiscussionDao;
+import com.akwabasystems.asakusa.dao.MessageDao;
+import com.akwabasystems.asakusa.model.ActivityType;
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.DiscussionByAuthor;
+import com.akwabasystems.asakusa.model.Message;
+import com.akwabasystems.asakusa.model.MessageBucket;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * A service that manages the discussions of a project and their messages.
+ *
+ * The messages of a discussion are stored in one partition per day, newest
+ * first. A page of messages is filled from the most recent days first, and the
+ * cursor of the next page is the ID of the oldest message returned, so that
+ * reading older messages never depends on a driver paging state.
+ */
+@Service
+@Log
+public class DiscussionService {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    @Autowired
+    private ActivityRecorder activityRecorder;
+    
+    
+    /**
+     * Starts a new discussion on a project
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for which to start the discussion
+     * @param title         the title of the discussion
+     * @return the newly created discussion
+     */
+    public Discussion startDiscussion(AuthorizationTicket authTicket,
+                                      UUID projectId,
+                                      String title) {
+        DiscussionDao discussionDao = daoRegistry.discussionDao();
+        
+        Discussion discussion = new Discussion(projectId, Uuids.timeBased(), title, authTicket.getUserId());
+        discussion.setCreatedDate(Timeline.now());
+        discussionDao.create(discussion);
+        
+        activityRecorder.record(authTicket, projectId, ActivityType.DISCUSSION, "created",
+                "discussionId", discussion.getId(), "discussionTitle", discussion.getTitle());
+        
+        return discussion;
+    }
+    
+    
+    /**
+     * Finds a discussion by ID
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion to find
+     * @return the discussion with the specified ID
+     */
+    public Discussion findDiscussionById(AuthorizationTicket authTicket,
+                                         UUID projectId,
+                                         UUID discussionId) {
+        return daoRegistry.discussionDao().findById(projectId, discussionId);
+    }
+    
+    
+    /**
+     * Finds one page of the discussions for the specified project
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for which to find the discussions
+     * @param pageSize      the maximum number of discussions to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the discussions for the specified project
+     */
+    public ResultPage<Discussion> findProjectDiscussions(AuthorizationTicket authTicket,
+                                                         UUID projectId,
+                                                         int pageSize,
+                                                         String cursor) {
+        DiscussionDao discussionDao = daoRegistry.discussionDao();
+        return PagingUtils.pageOf(discussionDao.findDiscussionsByProject(projectId,
+                PagingUtils.pagingOptions(pageSize, cursor)));
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the discussions for the specified project
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for which to find the discussions
+     * @param pageSize      the maximum number of discussions to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the discussions for the project
+     */
+    public CompletionStage<ResultPage<Discussion>> findProjectDiscussionsAsync(AuthorizationTicket authTicket,
+                                                                               UUID projectId,
+                                                                               int pageSize,
+                                                                               String cursor) {
+        DiscussionDao discussionDao = daoRegistry.discussionDao();
+        return discussionDao.findDiscussionsByProjectAsync(projectId, PagingUtils.pagingOptions(pageSize, cursor))
+                .thenApply((discussions) -> PagingUtils.pageOf(discussions));
+    }
+    
+    
+    /**
+     * Finds one page of the discussions started by the specified user, newest first
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param authorId      the ID of the user for whom to find the discussions
+     * @param pageSize      the maximum number of discussions to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the discussions started by the specified user
+     */
+    public ResultPage<Discussion> findAuthorDiscussions(AuthorizationTicket authTicket,
+                                                        String authorId,
+                                                        int pageSize,
+                                                        String cursor) {
+        DiscussionDao discussionDao = daoRegistry.discussionDao();
+        return PagingUtils.pageOf(discussionDao.findDiscussionsByAuthor(authorId,
+                PagingUtils.pagingOptions(pageSize, cursor)), DiscussionByAuthor::toDiscussion);
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the discussions started by the specified
+     * user, newest first
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param authorId      the ID of the user for whom to find the discussions
+     * @param pageSize      the maximum number of discussions to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the discussions started by the user
+     */
+    public CompletionStage<ResultPage<Discussion>> findAuthorDiscussionsAsync(AuthorizationTicket authTicket,
+                                                                              String authorId,
+                                                                              int pageSize,
+                                                                              String cursor) {
+        DiscussionDao discussionDao = daoRegistry.discussionDao();
+        return discussionDao.findDiscussionsByAuthorAsync(authorId, PagingUtils.pagingOptions(pageSize, cursor))
+                .thenApply((discussions) -> PagingUtils.pageOf(discussions, DiscussionByAuthor::toDiscussion));
+    }
+    
+    
+    /**
+     * Deletes a discussion along with all its messages
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion to delete
+     * @throws Exception if the request fails
+     */
+    public void deleteDiscussion(AuthorizationTicket authTicket,
+                                 UUID projectId,
+                                 UUID discussionId) throws Exception {
+        DiscussionDao discussionDao = daoRegistry.discussionDao();
+        Discussion discussion = discussionDao.findById(projectId, discussionId);
+        
+        if (discussion == null) {
+            throw new Exception(ApplicationError.DISCUSSION_NOT_FOUND);
+        }
+        
+        discussionDao.delete(discussion);
+        
+        activityRecorder.record(authTicket, projectId, ActivityType.DISCUSSION, "deleted",
+                "discussionId", discussion.getId(), "discussionTitle", discussion.getTitle());
+    }
+    
+    
+    /**
+     * Posts a message on a discussion
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion on which to post the message
+     * @param body          the body of the message
+     * @return the newly posted message
+     * @throws Exception if the request fails
+     */
+    public Message postMessage(AuthorizationTicket authTicket,
+                               UUID projectId,
+                               UUID discussionId,
+                               String body) throws Exception {
+        Discussion discussion = daoRegistry.discussionDao().findById(projectId, discussionId);
+        
+        if (discussion == null) {
+            throw new Exception(ApplicationError.DISCUSSION_NOT_FOUND);
+        }
+        
+        Message message = new Message(projectId, discussionId, Uuids.timeBased(), authTicket.getUserId(), body);
+        daoRegistry.messageDao().create(message);
+        
+        activityRecorder.record(authTicket, projectId, ActivityType.DISCUSSION, "messagePosted",
+                "discussionId", discussionId, "discussionTitle", discussion.getTitle(),
+                "messageId", message.getId());
+        
+        return message;
+    }
+    
+    
+    /**
+     * Finds one page of the messages of a discussion, newest first. The cursor
+     * is the ID of the oldest message of the previous page; when it is not
+     * specified, the latest messages are returned.
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion for which to find the messages
+     * @param pageSize      the maximum number of messages to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the messages of the specified discussion
+     */
+    public ResultPage<Message> findMessages(AuthorizationTicket authTicket,
+                                            UUID projectId,
+                                            UUID discussionId,
+                                            int pageSize,
+                                            String cursor) {
+        MessageDao messageDao = daoRegistry.messageDao();
+        UUID before = decodeCursor(cursor);
+        List<String> buckets = new ArrayList<>();
+        
+        for (MessageBucket messageBucket : messageDao.findMessageBuckets(projectId, discussionId)) {
+            buckets.add(messageBucket.getBucket());
+        }
+        
+        List<Message> items = new ArrayList<>(pageSize);
+        
+        for (String bucket : bucketsToRead(buckets, before)) {
+            int limit = pageSize - items.size();
+            PagingIterable<Message> messages = isCursorBucket(bucket, before) ?
+                    messageDao.findMessagesBefore(projectId, discussionId, bucket, before, limit) :
+                    messageDao.findLatestMessages(projectId, discussionId, bucket, limit);
+            
+            messages.forEach(items::add);
+            
+            if (items.size() >= pageSize) {
+                break;
+            }
+        }
+        
+        return pageOf(items, pageSize);
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the messages of a discussion, newest first
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion for which to find the messages
+     * @param pageSize      the maximum number of messages to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the messages of the discussion
+     */
+    public CompletionStage<ResultPage<Message>> findMessagesAsync(AuthorizationTicket authTicket,
+                                                                  UUID projectId,
+                                                                  UUID discussionId,
+                                                                  int pageSize,
+                                                                  String cursor) {
+        MessageDao messageDao = daoRegistry.messageDao();
+        UUID before = decodeCursor(cursor);
+        
+        return messageDao.findMessageBucketsAsync(projectId, discussionId).thenCompose((messageBuckets) -> {
+            List<String> buckets = new ArrayList<>();
+            
+            for (MessageBucket messageBucket : messageBuckets.currentPage()) {
+                buckets.add(messageBucket.getBucket());
+            }
+            
+            return readMessagesAsync(messageDao, projectId, discussionId, bucketsToRead(buckets, before),
+                    0, before, pageSize, new ArrayList<>(pageSize));
+        });
+    }
+    
+    
+    private CompletionStage<ResultPage<Message>> readMessagesAsync(MessageDao messageDao,
+                                                                   UUID projectId,
+                                                                   UUID discussionId,
+                                                                   List<String> buckets,
+                                                                   int index,
+                                                                   UUID before,
+                                                                   int pageSize,
+                                                                   List<Message> items) {
+        
+        if (index >= buckets.size() || items.size() >= pageSize) {
+            return CompletableFuture.completedFuture(pageOf(items, pageSize));
+        }
+        
+        String bucket = buckets.get(index);
+        int limit = pageSize - items.size();
+        CompletionStage<MappedAsyncPagingIterable<Message>> messages = isCursorBucket(bucket, before) ?
+                messageDao.findMessagesBeforeAsync(projectId, discussionId, bucket, before, limit) :
+                messageDao.findLatestMessagesAsync(projectId, discussionId, bucket, limit);
+        
+        return messages.thenCompose((result) -> {
+            result.currentPage().forEach(items::add);
+            return readMessagesAsync(messageDao, projectId, discussionId, buckets, index + 1,
+                    before, pageSize, items);
+        });
+    }
+    
+    
+    /**
+     * Deletes a message from a discussion
+     *
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the discussion
+     * @param discussionId  the ID of the discussion for the message
+     * @param messageId     the ID of the message to delete
+     * @throws Exception if the request fails
+     */
+    public void deleteMessage(AuthorizationTicket authTicket,
+                              UUID projectId,
+                              UUID discussionId,
+                              UUID messageId) throws Exception {
+        MessageDao messageDao = daoRegistry.messageDao();
+        Message message = (messageId.version() == 1) ?
+                messageDao.findById(projectId, discussionId, messageId) : null;
+        
+        if (message == null) {
+            throw new Exception(ApplicationError.MESSAGE_NOT_FOUND);
+        }
+        
+        messageDao.delete(message);
+    }
+    
+    
+    /**
+     * Returns the buckets from which to read a page of messages: all of them
+     * for the latest messages, or the bucket of the cursor and the older ones
+     */
+    private List<String> bucketsToRead(List<String> buckets, UUID before) {
+    
+        if (before == null) {
+            return buckets;
+        }
+        
+        String cursorBucket = Message.bucketOf(before);
+        return buckets.stream().filter((bucket) -> bucket.compareTo(cursorBucket) <= 0).toList();
+    }
+    
+    
+    private boolean isCursorBucket(String bucket, UUID before) {
+        return before != null && bucket.equals(Message.bucketOf(before));
+    }
+    
+    
+    /**
+     * Returns a page with the specified messages. Only a full page has a next
+     * cursor, which is the ID of its oldest message.
+     */
+    private ResultPage<Message> pageOf(List<Message> items, int pageSize) {
+        String nextCursor = (items.size() >= pageSize) ? items.get(items.size() - 1).getId().toString() : null;
+        return new ResultPage<>(items, nextCursor);
+    }
+    
+    
+    private UUID decodeCursor(String cursor) {
+    
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        
+        try {
+            UUID before = UUID.fromString(cursor);
+            
+            if (before.version() != 1) {
+                throw new IllegalArgumentException(ApplicationError.INVALID_CURSOR);
+            }
+            
+            return before;
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(ApplicationError.INVALID_CURSOR);
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.ServiceOverloadedException;
+import com.akwabasystems.asakusa.utils.PasswordUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * A service that hashes and verifies passwords on a dedicated, bounded pool of
+ * threads, away from the request threads.
+ *
+ * A BCrypt hash costs hundreds of milliseconds of CPU, so a burst of logins or
+ * signups running on the request threads would starve every other endpoint.
+ * Here, at most "passwords.hashing.threads" hashes run at the same time (half
+ * the processors by default), and at most "passwords.hashing.queue-capacity"
+ * wait for a thread. A request that finds the queue full is refused with a
+ * {@link ServiceOverloadedException}, which the controllers report as a 503.
+ *
+ * The time spent waiting in the queue is recorded by the
+ * "asakusa.passwords.queue.time" timer, and the time spent hashing by the
+ * "asakusa.passwords.work.time" timer.
+ */
+@Service
+@Log
+public class PasswordHasher {
+
+    private static final String QUEUE_TIMER = "asakusa.passwords.queue.time";
+    private static final String WORK_TIMER = "asakusa.passwords.work.time";
+    private static final String REJECTED_COUNTER = "asakusa.passwords.rejected";
+    private static final String QUEUE_DEPTH_GAUGE = "asakusa.passwords.queue.depth";
+    
+    private final ThreadPoolExecutor executor;
+    private final Timer queueTimer;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+    
+    
+    /**
+     * Creates a password hasher
+     *
+     * @param meterRegistry     the registry with which to register the metrics
+     * @param threads           the number of hashing threads, or 0 for half the processors
+     * @param queueCapacity     the maximum number of passwords waiting for a thread
+     */
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${passwords.hashing.threads:0}") int threads,
+                          @Value("${passwords.hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = (threads > 0) ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.SECONDS, queue, (task) -> {
+            Thread thread = new Thread(task, "password-hasher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        queueTimer = Timer.builder(QUEUE_TIMER).register(meterRegistry);
+        hashTimer = Timer.builder(WORK_TIMER).tag("operation", "hash").register(meterRegistry);
+        verifyTimer = Timer.builder(WORK_TIMER).tag("operation", "verify").register(meterRegistry);
+        rejectedCounter = meterRegistry.counter(REJECTED_COUNTER);
+        Gauge.builder(QUEUE_DEPTH_GAUGE, queue, BlockingQueue::size).register(meterRegistry);
+        
+        log.info(String.format("[PasswordHasher] %d hashing thread(s), queue capacity: %d",
+                poolSize, queueCapacity));
+    }
+    
+    
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+    
+    
+    /**
+     * Hashes the specified password, waiting for a hashing thread
+     *
+     * @param password      the password to hash
+     * @return the hash of the password
+     * @throws ServiceOverloadedException if too many passwords are waiting to be hashed
+     */
+    public String hash(char[] password) {
+        return await(hashAsync(password));
+    }
+    
+    
+    /**
+     * Returns true if the specified password matches the hash, waiting for a
+     * hashing thread; otherwise, returns false
+     *
+     * @param password      the password to verify
+     * @param hash          the hash against which to verify the password
+     * @return true if the password matches the hash; otherwise, false
+     * @throws ServiceOverloadedException if too many passwords are waiting to be hashed
+     */
+    public boolean matches(char[] password, String hash) {
+        return await(matchesAsync(password, hash));
+    }
+    
+    
+    /**
+     * Asynchronously hashes the specified password
+     *
+     * @param password      the password to hash
+     * @return a future that completes with the hash of the password
+     * @throws ServiceOverloadedException if too many passwords are waiting to be hashed
+     */
+    public CompletableFuture<String> hashAsync(char[] password) {
+        return submit(hashTimer, () -> PasswordUtils.hash(password));
+    }
+    
+    
+    /**
+     * Asynchronously verifies the specified password against the hash
+     *
+     * @param password      the password to verify
+     * @param hash          the hash against which to verify the password
+     * @return a future that completes with true if the password matches the
+     *         hash; otherwise, with false
+     * @throws ServiceOverloadedException if too many passwords are waiting to be hashed
+     */
+    public CompletableFuture<Boolean> matchesAsync(char[] password, String hash) {
+        return submit(verifyTimer, () -> PasswordUtils.matches(password, hash));
+    }
+    
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+    
+    public long getRejectedCount() {
+        return (long) rejectedCounter.count();
+    }
+    
+    public Timer getQueueTimer() {
+        return queueTimer;
+    }
+    
+    
+    private <T> CompletableFuture<T> submit(Timer workTimer, Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return workTimer.record(work);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException(ApplicationError.SERVICE_OVERLOADED);
+        }
+    }
+    
+    
+    private <T> T await(CompletableFuture<T> result) {
+        
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            
+            throw ex;
+        }
+    }
+    
+}
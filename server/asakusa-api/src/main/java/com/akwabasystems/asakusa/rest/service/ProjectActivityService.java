@@ -0,0 +1,189 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.dao.ProjectActivityDao;
+import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.model.ProjectActivityBucket;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * A service that reads the activity feed of a project. The activities are 
+ * stored in one partition per project and month, so the feed walks the 
+ * non-empty months of the project newest first and fills each page from as 
+ * many of them as needed.
+ *
+ * The feed cursor records the month from which to resume and, if that month
+ * was only partially read, the paging cursor within it.
+ */
+@Service
+@Log
+public class ProjectActivityService {
+
+    private static final String CURSOR_SEPARATOR = ":";
+    
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    
+    /**
+     * Finds one page of the activity feed of the specified project, newest first
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for which to find the activities
+     * @param pageSize      the maximum number of activities to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the activities of the specified project
+     */
+    public ResultPage<ProjectActivity> findActivityFeed(AuthorizationTicket authTicket, 
+                                                        UUID projectId,
+                                                        int pageSize,
+                                                        String cursor) {
+        ProjectActivityDao activityDao = daoRegistry.projectActivityDao();
+        List<String> buckets = new ArrayList<>();
+        
+        for (ProjectActivityBucket activityBucket : activityDao.findBuckets(projectId)) {
+            buckets.add(activityBucket.getBucket());
+        }
+        
+        String[] position = decodeCursor(cursor, buckets);
+        
+        if (position == null) {
+            return new ResultPage<>(new ArrayList<>(), null);
+        }
+        
+        List<ProjectActivity> items = new ArrayList<>(pageSize);
+        int index = buckets.indexOf(position[0]);
+        String bucketCursor = position[1];
+        
+        while (index < buckets.size() && items.size() < pageSize) {
+            String bucket = buckets.get(index);
+            ResultPage<ProjectActivity> bucketPage = PagingUtils.pageOf(activityDao.findActivities(projectId, 
+                    bucket, PagingUtils.pagingOptions(pageSize - items.size(), bucketCursor)));
+            items.addAll(bucketPage.getItems());
+            
+            if (bucketPage.getNextCursor() != null) {
+                return new ResultPage<>(items, encodeCursor(bucket, bucketPage.getNextCursor()));
+            }
+            
+            index++;
+            bucketCursor = null;
+        }
+        
+        String nextCursor = (index < buckets.size()) ? encodeCursor(buckets.get(index), null) : null;
+        return new ResultPage<>(items, nextCursor);
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the activity feed of the specified 
+     * project, newest first
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for which to find the activities
+     * @param pageSize      the maximum number of activities to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the activities of the project
+     */
+    public CompletionStage<ResultPage<ProjectActivity>> findActivityFeedAsync(AuthorizationTicket authTicket, 
+                                                                              UUID projectId,
+                                                                              int pageSize,
+                                                                              String cursor) {
+        ProjectActivityDao activityDao = daoRegistry.projectActivityDao();
+        
+        return activityDao.findBucketsAsync(projectId).thenCompose((activityBuckets) -> {
+            List<String> buckets = new ArrayList<>();
+            
+            for (ProjectActivityBucket activityBucket : activityBuckets.currentPage()) {
+                buckets.add(activityBucket.getBucket());
+            }
+            
+            String[] position = decodeCursor(cursor, buckets);
+            
+            if (position == null) {
+                return CompletableFuture.completedFuture(new ResultPage<>(new ArrayList<>(), null));
+            }
+            
+            return readFeedAsync(activityDao, projectId, buckets, buckets.indexOf(position[0]), 
+                    position[1], pageSize, new ArrayList<>(pageSize));
+        });
+    }
+    
+    
+    private CompletionStage<ResultPage<ProjectActivity>> readFeedAsync(ProjectActivityDao activityDao,
+                                                                       UUID projectId,
+                                                                       List<String> buckets,
+                                                                       int index,
+                                                                       String bucketCursor,
+                                                                       int pageSize,
+                                                                       List<ProjectActivity> items) {
+        
+        if (index >= buckets.size() || items.size() >= pageSize) {
+            String nextCursor = (index < buckets.size()) ? encodeCursor(buckets.get(index), null) : null;
+            return CompletableFuture.completedFuture(new ResultPage<>(items, nextCursor));
+        }
+        
+        String bucket = buckets.get(index);
+        
+        return activityDao.findActivitiesAsync(projectId, bucket, 
+                PagingUtils.pagingOptions(pageSize - items.size(), bucketCursor))
+                .thenCompose((activities) -> {
+                    ResultPage<ProjectActivity> bucketPage = PagingUtils.pageOf(activities);
+                    items.addAll(bucketPage.getItems());
+                    
+                    if (bucketPage.getNextCursor() != null) {
+                        return CompletableFuture.completedFuture(new ResultPage<>(items, 
+                                encodeCursor(bucket, bucketPage.getNextCursor())));
+                    }
+                    
+                    return readFeedAsync(activityDao, projectId, buckets, index + 1, null, pageSize, items);
+                });
+    }
+    
+    
+    private String encodeCursor(String bucket, String bucketCursor) {
+        String position = bucket + CURSOR_SEPARATOR + ((bucketCursor != null) ? bucketCursor : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    
+    /**
+     * Returns the bucket and the paging cursor within that bucket from which to 
+     * read the feed, or null if the project has no activities
+     */
+    private String[] decodeCursor(String cursor, List<String> buckets) {
+    
+        if (cursor == null || cursor.isBlank()) {
+            return buckets.isEmpty() ? null : new String[] { buckets.get(0), null };
+        }
+        
+        String[] position;
+        
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            position = decoded.split(CURSOR_SEPARATOR, 2);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException(ApplicationError.INVALID_CURSOR);
+        }
+        
+        if (position.length != 2 || !buckets.contains(position[0])) {
+            throw new IllegalArgumentException(ApplicationError.INVALID_CURSOR);
+        }
+        
+        return new String[] { position[0], position[1].isEmpty() ? null : position[1] };
+    }
+
+}
@@ -3,29 +3,36 @@ package com.akwabasystems.asakusa.rest.service;
 
 import com.akwabasystems.asakusa.dao.ProjectDao;
 import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import com.akwabasystems.asakusa.model.ActivityType;
 import com.akwabasystems.asakusa.model.ItemPriority;
 import com.akwabasystems.asakusa.model.ItemStatus;
 import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.ProjectByOwner;
 import com.akwabasystems.asakusa.model.Team;
-import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.repository.SchemaNames;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
+import com.akwabasystems.asakusa.rest.utils.VersionedPageCache;
 import com.akwabasystems.asakusa.utils.Timeline;
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.Instant;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import static java.util.stream.Collectors.toSet;
 import java.util.stream.Stream;
 import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
@@ -34,14 +41,31 @@ import org.springframework.stereotype.Service;
 public class ProjectService {
 
     @Autowired
-    private CqlSession cqlSession;
+    private DaoRegistry daoRegistry;
     
-    private RepositoryMapper mapper;
+    @Autowired
+    private ActivityRecorder activityRecorder;
+    
+    @Autowired
+    private TagCatalog tagCatalog;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${lists.cache.max-pages:10000}")
+    private int listCacheSize;
+    
+    @Value("${lists.cache.ttl-seconds:10}")
+    private int listCacheTimeToLive;
+    
+    private VersionedPageCache<Project> teamProjectPages;
     
     
     @PostConstruct
-    public void initialize() {
-        mapper = RepositoryMapper.builder(cqlSession).build();
+    public void start() {
+        teamProjectPages = new VersionedPageCache<>("team_projects", listCacheSize, 
+                TimeUnit.SECONDS.toNanos(listCacheTimeToLive));
+        teamProjectPages.bindTo(meterRegistry);
     }
     
     
@@ -57,8 +81,8 @@ public class ProjectService {
     public Project createProject(AuthorizationTicket authTicket,
                                  String teamId,
                                  Map<String,Object> projectDetails) throws Exception {
-        TeamDao teamDao = mapper.teamDao();
-        ProjectDao projectDao = mapper.projectDao();
+        TeamDao teamDao = daoRegistry.teamDao();
+        ProjectDao projectDao = daoRegistry.projectDao();
         
         Team team = teamDao.findById(UUID.fromString(teamId));
         
@@ -102,34 +126,106 @@ public class ProjectService {
             project.setTags(tagList);
         }
         
-        project.setCreatedDate(Timeline.currentDateTimeUTCString());
-        project.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
         projectDao.create(project);
+        teamProjectPages.bumpVersion(project.getTeamId());
+        tagCatalog.register(project.getTeamId(), project.getTags());
+        
+        activityRecorder.record(authTicket, project.getId(), ActivityType.PROJECT, "created",
+                "projectId", project.getId(), "projectName", project.getName());
         
         return project;
 
     }
     
     
-    private String parseDateTime(String dateComponents, String timezoneId) {
-        ZonedDateTime parsedDate = Timeline.dateTimeFromComponents(ZoneId.of(timezoneId),
-                dateComponents.split(","));
-        return parsedDate.format(DateTimeFormatter.ISO_INSTANT);
+    private Instant parseDateTime(String dateComponents, String timezoneId) {
+        return Timeline.instantFromComponents(Timeline.zoneOf(timezoneId), dateComponents);
+    }
+    
+    
+    /**
+     * Finds one page of the projects for the specified team. The pages are
+     * cached until a project of the team is written by this service.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for which to find the projects
+     * @param pageSize      the maximum number of projects to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the projects of the specified team
+     */
+    public ResultPage<Project> findTeamProjects(AuthorizationTicket authTicket, 
+                                                UUID teamId,
+                                                int pageSize,
+                                                String cursor) {
+        ProjectDao projectDao = daoRegistry.projectDao();
+        
+        return teamProjectPages.get(teamId, pageSize, cursor, () -> PagingUtils.pageOf(
+                projectDao.findProjectsByTeam(teamId, PagingUtils.pagingOptions(pageSize, cursor))));
     }
     
     
     /**
-     * Finds all the projects for the specified team
+     * Asynchronously finds one page of the projects for the specified team. The
+     * pages are cached until a project of the team is written by this service.
      * 
      * @param authTicket    the ticket used to authorize the request
      * @param teamId        the ID of the team for which to find the projects
-     * @return all the projects of the specified team
+     * @param pageSize      the maximum number of projects to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the projects of the specified team
      */
-    public List<Project> findTeamProjects(AuthorizationTicket authTicket, UUID teamId) {
-        ProjectDao projectDao = mapper.projectDao();
-        PagingIterable<Project> teamProjects = projectDao.findProjectsByTeam(teamId);
+    public CompletionStage<ResultPage<Project>> findTeamProjectsAsync(AuthorizationTicket authTicket, 
+                                                                      UUID teamId,
+                                                                      int pageSize,
+                                                                      String cursor) {
+        ProjectDao projectDao = daoRegistry.projectDao();
         
-        return teamProjects.all();
+        return teamProjectPages.getAsync(teamId, pageSize, cursor, () -> 
+                projectDao.findProjectsByTeamAsync(teamId, PagingUtils.pagingOptions(pageSize, cursor))
+                        .thenApply((teamProjects) -> PagingUtils.pageOf(teamProjects)));
+    }
+    
+    
+    /**
+     * Finds one page of the projects owned by the specified user
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param ownerId       the ID of the user for whom to find the projects
+     * @param pageSize      the maximum number of projects to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the projects owned by the specified user
+     */
+    public ResultPage<Project> findOwnerProjects(AuthorizationTicket authTicket, 
+                                                 String ownerId,
+                                                 int pageSize,
+                                                 String cursor) {
+        ProjectDao projectDao = daoRegistry.projectDao();
+        PagingIterable<ProjectByOwner> ownerProjects = projectDao.findProjectEntriesByOwner(ownerId,
+                PagingUtils.pagingOptions(pageSize, cursor));
+        
+        return PagingUtils.pageOf(ownerProjects, ProjectByOwner::toProject);
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the projects owned by the specified user
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param ownerId       the ID of the user for whom to find the projects
+     * @param pageSize      the maximum number of projects to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the projects owned by the specified user
+     */
+    public CompletionStage<ResultPage<Project>> findOwnerProjectsAsync(AuthorizationTicket authTicket, 
+                                                                       String ownerId,
+                                                                       int pageSize,
+                                                                       String cursor) {
+        ProjectDao projectDao = daoRegistry.projectDao();
+        
+        return projectDao.findProjectEntriesByOwnerAsync(ownerId, PagingUtils.pagingOptions(pageSize, cursor))
+                .thenApply((ownerProjects) -> PagingUtils.pageOf(ownerProjects, ProjectByOwner::toProject));
     }
     
     
@@ -144,9 +240,25 @@ public class ProjectService {
     public Project findProjectById(AuthorizationTicket authTicket, 
                                    UUID teamId,
                                    UUID projectId) {
-        ProjectDao projectDao = mapper.projectDao();
+        ProjectDao projectDao = daoRegistry.projectDao();
         return projectDao.findById(teamId, projectId);
     }
+    
+    
+    /**
+     * Asynchronously finds a project by ID
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to find
+     * @return a stage that completes with the project with the specified ID
+     */
+    public CompletionStage<Project> findProjectByIdAsync(AuthorizationTicket authTicket, 
+                                                         UUID teamId,
+                                                         UUID projectId) {
+        ProjectDao projectDao = daoRegistry.projectDao();
+        return projectDao.findByIdAsync(teamId, projectId);
+    }
 
 
     /**
@@ -163,7 +275,7 @@ public class ProjectService {
                                  String teamId,
                                  String projectId,
                                  Map<String,Object> projectDetails) throws Exception {
-        ProjectDao projectDao = mapper.projectDao();
+        ProjectDao projectDao = daoRegistry.projectDao();
         
         Project project = projectDao.findById(
                 UUID.fromString(teamId), UUID.fromString(projectId));
@@ -172,6 +284,14 @@ public class ProjectService {
             throw new Exception(ApplicationError.PROJECT_NOT_FOUND);
         }
         
+        if (projectDetails.containsKey(QueryParameter.LAST_MODIFIED_DATE)) {
+            Instant lastModifiedDate = Instant.parse((String) projectDetails.get(QueryParameter.LAST_MODIFIED_DATE));
+            
+            if (!lastModifiedDate.equals(project.getLastModifiedDate())) {
+                throw new Exception(ApplicationError.STALE_UPDATE);
+            }
+        }
+        
         String timezoneId = (String) projectDetails.get(QueryParameter.TIMEZONE);
         
         if (projectDetails.containsKey(QueryParameter.NAME)) {
@@ -221,12 +341,197 @@ public class ProjectService {
             project.setTags(tagList);
         }
         
-        project.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        project.setLastModifiedDate(Timeline.now());
         projectDao.save(project);
+        teamProjectPages.bumpVersion(project.getTeamId());
+        tagCatalog.register(project.getTeamId(), project.getTags());
+        
+        activityRecorder.record(authTicket, project.getId(), ActivityType.PROJECT, "updated",
+                "projectId", project.getId(), "projectName", project.getName());
         
         return project;
 
     }
     
     
+    /**
+     * Partially updates a project. Only the fields present in the project details
+     * are written, without reading the project first. The update is only applied if
+     * the project exists, or, when the details include the last modified date of the
+     * project seen by the caller, only if the project has not changed since. Changing
+     * the owner moves the project to another owner partition, so a request that
+     * includes one goes through a full update instead.
+     * 
+     * @param authTicket        the ticket used to authorize the request
+     * @param teamId            the ID of the team for the project
+     * @param projectId         the ID of the project to update
+     * @param projectDetails    an object with the fields of the project to update
+     * @return the new last modified date of the project
+     * @throws Exception if the request fails
+     */
+    public Instant patchProject(AuthorizationTicket authTicket,
+                                String teamId,
+                                String projectId,
+                                Map<String,Object> projectDetails) throws Exception {
+        
+        if (projectDetails.containsKey(QueryParameter.OWNER_ID)) {
+            return updateProject(authTicket, teamId, projectId, projectDetails).getLastModifiedDate();
+        }
+        
+        String timezoneId = (String) projectDetails.get(QueryParameter.TIMEZONE);
+        ColumnPatch patch = new ColumnPatch();
+        
+        if (projectDetails.containsKey(QueryParameter.NAME)) {
+            patch.set(SchemaNames.COLUMN_NAME, projectDetails.get(QueryParameter.NAME));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.DESCRIPTION)) {
+            patch.set(SchemaNames.COLUMN_DESCRIPTION, projectDetails.get(QueryParameter.DESCRIPTION));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.CAPACITY)) {
+            patch.set(SchemaNames.COLUMN_CAPACITY, (int) projectDetails.get(QueryParameter.CAPACITY));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.PRIORITY)) {
+            patch.set(SchemaNames.COLUMN_PRIORITY, 
+                    ItemPriority.fromString((String) projectDetails.get(QueryParameter.PRIORITY)));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.STATUS)) {
+            patch.set(SchemaNames.COLUMN_STATUS, 
+                    ItemStatus.fromString((String) projectDetails.get(QueryParameter.STATUS)));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.START_DATE)) {
+            String startDate = (String) projectDetails.get(QueryParameter.START_DATE);
+            patch.set(SchemaNames.COLUMN_START_DATE, parseDateTime(startDate, timezoneId));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.END_DATE)) {
+            String endDate = (String) projectDetails.get(QueryParameter.END_DATE);
+            patch.set(SchemaNames.COLUMN_END_DATE, parseDateTime(endDate, timezoneId));
+        }
+        
+        if (projectDetails.containsKey(QueryParameter.DEADLINE)) {
+            String deadline = (String) projectDetails.get(QueryParameter.DEADLINE);
+            patch.set(SchemaNames.COLUMN_DEADLINE, parseDateTime(deadline, timezoneId));
+        }
+        
+        Set<String> patchedTags = null;
+        
+        if (projectDetails.containsKey(QueryParameter.TAGS)) {
+            String tags = (String) projectDetails.get(QueryParameter.TAGS);
+            patchedTags = Stream.of(tags.split(",")).collect(toSet());
+            patch.set(SchemaNames.COLUMN_TAGS, patchedTags);
+        }
+        
+        if (patch.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = Timeline.now();
+        patch.set(SchemaNames.COLUMN_LAST_MODIFIED_DATE, lastModifiedDate);
+        
+        if (projectDetails.containsKey(QueryParameter.LAST_MODIFIED_DATE)) {
+            patch.ifLastModifiedDate(Instant.parse((String) projectDetails.get(QueryParameter.LAST_MODIFIED_DATE)));
+        } else {
+            patch.ifExists();
+        }
+        
+        ProjectDao projectDao = daoRegistry.projectDao();
+        
+        if (!projectDao.patch(UUID.fromString(teamId), UUID.fromString(projectId), patch)) {
+            throw new Exception(patch.getExpectedLastModifiedDate() != null ?
+                    ApplicationError.STALE_UPDATE : ApplicationError.PROJECT_NOT_FOUND);
+        }
+        
+        teamProjectPages.bumpVersion(UUID.fromString(teamId));
+        
+        if (patchedTags != null) {
+            tagCatalog.register(UUID.fromString(teamId), patchedTags);
+        }
+        
+        activityRecorder.record(authTicket, UUID.fromString(projectId), ActivityType.PROJECT, "updated",
+                "projectId", UUID.fromString(projectId), "projectName", patch.get(SchemaNames.COLUMN_NAME));
+        
+        return lastModifiedDate;
+    }
+    
+    
+    /**
+     * Adds tags to a project, leaving its other tags untouched. The tags are
+     * appended to the tag set of the project without reading it, if the project
+     * exists, and are then added to the tag catalog of the team.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to tag
+     * @param tags          the tags to add
+     * @return the new last modified date of the project
+     * @throws Exception if the request fails
+     */
+    public Instant addProjectTags(AuthorizationTicket authTicket,
+                                  String teamId,
+                                  String projectId,
+                                  Set<String> tags) throws Exception {
+        
+        if (tags.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = patchProjectTags(teamId, projectId, 
+                new ColumnPatch().add(SchemaNames.COLUMN_TAGS, tags));
+        tagCatalog.register(UUID.fromString(teamId), tags);
+        
+        activityRecorder.record(authTicket, UUID.fromString(projectId), ActivityType.PROJECT, "tagged",
+                "projectId", UUID.fromString(projectId), "tags", String.join(",", tags));
+        
+        return lastModifiedDate;
+    }
+    
+    
+    /**
+     * Removes tags from a project, leaving its other tags untouched. The tags
+     * are removed from the tag set of the project without reading it.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project to untag
+     * @param tags          the tags to remove
+     * @return the new last modified date of the project
+     * @throws Exception if the request fails
+     */
+    public Instant removeProjectTags(AuthorizationTicket authTicket,
+                                     String teamId,
+                                     String projectId,
+                                     Set<String> tags) throws Exception {
+        
+        if (tags.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = patchProjectTags(teamId, projectId, 
+                new ColumnPatch().remove(SchemaNames.COLUMN_TAGS, tags));
+        
+        activityRecorder.record(authTicket, UUID.fromString(projectId), ActivityType.PROJECT, "untagged",
+                "projectId", UUID.fromString(projectId), "tags", String.join(",", tags));
+        
+        return lastModifiedDate;
+    }
+    
+    
+    private Instant patchProjectTags(String teamId, String projectId, ColumnPatch patch) throws Exception {
+        Instant lastModifiedDate = Timeline.now();
+        patch.set(SchemaNames.COLUMN_LAST_MODIFIED_DATE, lastModifiedDate).ifExists();
+        
+        if (!daoRegistry.projectDao().patch(UUID.fromString(teamId), UUID.fromString(projectId), patch)) {
+            throw new Exception(ApplicationError.PROJECT_NOT_FOUND);
+        }
+        
+        teamProjectPages.bumpVersion(UUID.fromString(teamId));
+        return lastModifiedDate;
+    }
+    
+    
 }
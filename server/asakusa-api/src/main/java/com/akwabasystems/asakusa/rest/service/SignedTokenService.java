@@ -0,0 +1,237 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.model.RevokedAccessToken;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.rest.utils.AccessTokenSigner;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.SignedAccessToken;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * A service that issues the signed access tokens and keeps the list of the
+ * signed tokens revoked before they expire.
+ *
+ * Signed tokens are issued instead of random token keys when
+ * "access-tokens.format" is "signed". They carry the client to which they were
+ * issued and their expiry, "access-tokens.signed.ttl-seconds" after issue, and
+ * are signed with "access-tokens.signing-key", so that every instance of the
+ * application verifies them in memory.
+ *
+ * A token that is replaced by a login or a renewal, or expired by a logout, is
+ * added to the revocation list of this instance at once and written to the
+ * revoked_access_tokens table. Every instance reads the buckets of the revoked
+ * tokens that have not expired yet every "access-tokens.revocations.refresh-seconds",
+ * which is how long the other instances may still accept a revoked token. The
+ * revoked tokens are dropped from the list once they expire, which keeps the
+ * list small.
+ */
+@Service
+@Log
+public class SignedTokenService {
+
+    private static final String SIGNED_FORMAT = "signed";
+    private static final String REVOKED_GAUGE = "asakusa.tokens.revoked";
+    
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${access-tokens.format:opaque}")
+    private String tokenFormat;
+    
+    @Value("${access-tokens.signing-key:${security.akwaba.app-secret}}")
+    private String signingKey;
+    
+    @Value("${access-tokens.signed.ttl-seconds:3600}")
+    private int timeToLiveSeconds;
+    
+    @Value("${access-tokens.revocations.refresh-seconds:10}")
+    private int refreshSeconds;
+    
+    private final Map<UUID,Instant> revokedTokens = new ConcurrentHashMap<>();
+    private AccessTokenSigner signer;
+    private Thread refresher;
+    private volatile boolean running;
+    
+    
+    @PostConstruct
+    public void start() {
+        
+        if (!isEnabled()) {
+            return;
+        }
+        
+        signer = new AccessTokenSigner(signingKey.getBytes(StandardCharsets.UTF_8));
+        Gauge.builder(REVOKED_GAUGE, revokedTokens, Map::size).register(meterRegistry);
+        
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            log.warning(String.format("[SignedTokenService] Failed to read the revoked tokens: %s",
+                    ex.getMessage()));
+        }
+        
+        running = true;
+        refresher = new Thread(this::refreshPeriodically, "token-revocations");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+    
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        
+        if (refresher != null) {
+            refresher.interrupt();
+        }
+    }
+    
+    
+    /**
+     * Returns true if signed access tokens are issued and accepted; otherwise,
+     * returns false
+     *
+     * @return true if signed access tokens are issued and accepted; otherwise, false
+     */
+    public boolean isEnabled() {
+        return SIGNED_FORMAT.equalsIgnoreCase(tokenFormat);
+    }
+    
+    
+    /**
+     * Issues a signed access token for the specified client
+     *
+     * @param client        the ID of the client to which to issue the token
+     * @return the signed token key
+     */
+    public String issue(String client) {
+        Instant expiresAt = Instant.now(Clock.systemUTC()).plusSeconds(timeToLiveSeconds)
+                .truncatedTo(ChronoUnit.SECONDS);
+        return signer.sign(new SignedAccessToken(UUID.randomUUID(), client, expiresAt));
+    }
+    
+    
+    /**
+     * Verifies the specified signed token without any I/O
+     *
+     * @param tokenKey      the signed token key sent by the client
+     * @param client        the ID of the client that sent the token, or null if
+     *                      the client did not send it
+     * @return the error for which the token is rejected, or null if it is valid
+     */
+    public String verify(String tokenKey, String client) {
+        
+        if (!isEnabled()) {
+            return ApplicationError.INVALID_ACCESS_TOKEN;
+        }
+        
+        SignedAccessToken token = signer.verify(tokenKey);
+        
+        if (token == null || (client != null && !client.equals(token.getClient()))) {
+            return ApplicationError.INVALID_ACCESS_TOKEN;
+        }
+        
+        if (token.isExpired(Instant.now(Clock.systemUTC())) || revokedTokens.containsKey(token.getTokenId())) {
+            return ApplicationError.EXPIRED_ACCESS_TOKEN;
+        }
+        
+        return null;
+    }
+    
+    
+    /**
+     * Revokes the specified token if it is a signed token that has not expired.
+     * The token is revoked on this instance at once, and on the other instances
+     * once they refresh their revocation list.
+     *
+     * @param tokenKey      the token key to revoke
+     */
+    public void revoke(String tokenKey) {
+        
+        if (!isEnabled() || !AccessTokenSigner.isSigned(tokenKey)) {
+            return;
+        }
+        
+        SignedAccessToken token = signer.verify(tokenKey);
+        Instant now = Instant.now(Clock.systemUTC());
+        
+        if (token == null || token.isExpired(now)) {
+            return;
+        }
+        
+        revokedTokens.put(token.getTokenId(), token.getExpiresAt());
+        
+        int ttl = (int) Math.max(1, Duration.between(now, token.getExpiresAt()).getSeconds());
+        daoRegistry.revokedAccessTokenDao().revoke(
+                new RevokedAccessToken(token.getTokenId(), token.getClient(), token.getExpiresAt()), ttl);
+    }
+    
+    
+    public boolean isRevoked(UUID tokenId) {
+        return revokedTokens.containsKey(tokenId);
+    }
+    
+    
+    /**
+     * Reads the revoked tokens that have not expired yet, from the bucket of the
+     * current hour to the bucket of the latest possible expiry, and drops the
+     * revoked tokens that have expired from the list
+     */
+    public void refresh() {
+        Instant now = Instant.now(Clock.systemUTC());
+        Instant lastExpiry = now.plusSeconds(timeToLiveSeconds);
+        
+        for (Instant hour = now.truncatedTo(ChronoUnit.HOURS); !hour.isAfter(lastExpiry);
+                hour = hour.plus(1, ChronoUnit.HOURS)) {
+            
+            for (RevokedAccessToken revokedToken :
+                    daoRegistry.revokedAccessTokenDao().findByBucket(RevokedAccessToken.bucketOf(hour))) {
+                
+                if (revokedToken.getExpiresAt() != null && revokedToken.getExpiresAt().isAfter(now)) {
+                    revokedTokens.put(revokedToken.getTokenId(), revokedToken.getExpiresAt());
+                }
+            }
+        }
+        
+        revokedTokens.values().removeIf((expiresAt) -> !expiresAt.isAfter(now));
+    }
+    
+    
+    private void refreshPeriodically() {
+        
+        while (running) {
+            
+            try {
+                TimeUnit.SECONDS.sleep(refreshSeconds);
+                refresh();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warning(String.format("[SignedTokenService] Failed to refresh the revoked tokens: %s",
+                        ex.getMessage()));
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,185 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.dao.TagDao;
+import com.akwabasystems.asakusa.model.Tag;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * The tag catalog of each team, which lists every tag used on the tasks and
+ * projects of the team and serves the tag autocomplete.
+ *
+ * The catalog of a team is read from the "team_tags" table the first time it
+ * is needed and kept in memory, ordered by lowercase name so that the tags that
+ * start with a given prefix are a range of the map. It is read again once it is
+ * older than "tags.catalog.ttl-seconds", which picks up the tags added by other
+ * instances. Only the catalogs of the "tags.catalog.max-teams" most recently
+ * used teams are kept.
+ *
+ * Registering tags only writes the ones that are not already in the cached
+ * catalog, with blind inserts that do not delay the request.
+ */
+@Service
+@Log
+public class TagCatalog {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+
+    @Value("${tags.catalog.max-teams:1000}")
+    private int maxTeams;
+
+    @Value("${tags.catalog.ttl-seconds:300}")
+    private int ttlSeconds;
+
+    private Map<UUID,TeamTags> catalogs;
+
+
+    @PostConstruct
+    public void start() {
+        catalogs = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID,TeamTags> eldest) {
+                return size() > maxTeams;
+            }
+        });
+    }
+
+
+    /**
+     * Parses a comma-separated list of tags, trimming each tag and dropping
+     * the empty ones
+     *
+     * @param tags      the comma-separated list of tags
+     * @return the tags of the list, in the order in which they appear
+     */
+    public static Set<String> parseTags(String tags) {
+
+        if (tags == null) {
+            return Set.of();
+        }
+
+        return Stream.of(tags.split(","))
+                .map(String::trim)
+                .filter((tag) -> !tag.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+
+    /**
+     * Returns the tags of the specified team whose name starts with the given
+     * prefix, ignoring case
+     *
+     * @param teamId    the ID of the team
+     * @param prefix    the prefix of the tags to find, or null to find all the tags
+     * @param limit     the maximum number of tags to return
+     * @return the matching tags, ordered by name
+     */
+    public List<Tag> findTags(UUID teamId, String prefix, int limit) {
+        NavigableMap<String,Tag> tags = catalogOf(teamId).tags;
+        String key = (prefix != null) ? prefix.trim().toLowerCase(Locale.ROOT) : "";
+
+        return tags.tailMap(key, true).entrySet().stream()
+                .takeWhile((entry) -> entry.getKey().startsWith(key))
+                .limit(limit)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Adds the specified tags to the catalog of a team. The tags that are not
+     * already in the cached catalog are written in the background; if the
+     * catalog is not cached, all of them are, since writing a tag again is
+     * harmless.
+     *
+     * @param teamId    the ID of the team
+     * @param names     the names of the tags used by the team
+     */
+    public void register(UUID teamId, Collection<String> names) {
+
+        if (teamId == null || names == null || names.isEmpty()) {
+            return;
+        }
+
+        TeamTags catalog = catalogs.get(teamId);
+        TagDao tagDao = daoRegistry.tagDao();
+
+        for (String name : names) {
+            Tag tag = new Tag(teamId, name);
+
+            if (catalog != null && catalog.tags.putIfAbsent(keyOf(name), tag) != null) {
+                continue;
+            }
+
+            tagDao.addAsync(tag).whenComplete((result, error) -> {
+
+                if (error != null) {
+                    log.warning(String.format("[TagCatalog] Failed to add the tag '%s' to team %s: %s",
+                            name, teamId, error.getMessage()));
+                }
+            });
+        }
+    }
+
+
+    private TeamTags catalogOf(UUID teamId) {
+        TeamTags catalog = catalogs.get(teamId);
+
+        if (catalog != null && !catalog.isExpired()) {
+            return catalog;
+        }
+
+        NavigableMap<String,Tag> tags = new ConcurrentSkipListMap<>();
+
+        for (Tag tag : daoRegistry.tagDao().findByTeam(teamId)) {
+            tags.putIfAbsent(keyOf(tag.getName()), tag);
+        }
+
+        catalog = new TeamTags(tags);
+        catalogs.put(teamId, catalog);
+
+        return catalog;
+    }
+
+
+    private static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+
+    private class TeamTags {
+
+        private final NavigableMap<String,Tag> tags;
+        private final long loadedAt = System.nanoTime();
+
+        private TeamTags(NavigableMap<String,Tag> tags) {
+            this.tags = tags;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - loadedAt > TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+
+    }
+
+}
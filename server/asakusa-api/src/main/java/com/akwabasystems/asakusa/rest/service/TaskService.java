@@ -3,29 +3,37 @@ package com.akwabasystems.asakusa.rest.service;
 
 import com.akwabasystems.asakusa.dao.ProjectDao;
 import com.akwabasystems.asakusa.dao.TaskDao;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import com.akwabasystems.asakusa.model.ActivityType;
 import com.akwabasystems.asakusa.model.ItemPriority;
 import com.akwabasystems.asakusa.model.ItemStatus;
 import com.akwabasystems.asakusa.model.Project;
 import com.akwabasystems.asakusa.model.Task;
-import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.repository.SchemaNames;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
+import com.akwabasystems.asakusa.rest.utils.VersionedPageCache;
 import com.akwabasystems.asakusa.utils.Timeline;
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import static java.util.stream.Collectors.toSet;
 import java.util.stream.Stream;
 import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
@@ -34,14 +42,31 @@ import org.springframework.stereotype.Service;
 public class TaskService {
 
     @Autowired
-    private CqlSession cqlSession;
+    private DaoRegistry daoRegistry;
     
-    private RepositoryMapper mapper;
+    @Autowired
+    private ActivityRecorder activityRecorder;
+    
+    @Autowired
+    private TagCatalog tagCatalog;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${lists.cache.max-pages:10000}")
+    private int listCacheSize;
+    
+    @Value("${lists.cache.ttl-seconds:10}")
+    private int listCacheTimeToLive;
+    
+    private VersionedPageCache<Task> projectTaskPages;
     
     
     @PostConstruct
-    public void initialize() {
-        mapper = RepositoryMapper.builder(cqlSession).build();
+    public void start() {
+        projectTaskPages = new VersionedPageCache<>("project_tasks", listCacheSize, 
+                TimeUnit.SECONDS.toNanos(listCacheTimeToLive));
+        projectTaskPages.bindTo(meterRegistry);
     }
     
     
@@ -59,8 +84,8 @@ public class TaskService {
                            String teamId,
                            String projectId,
                            Map<String,Object> taskDetails) throws Exception {
-        ProjectDao projectDao = mapper.projectDao();
-        TaskDao taskDao = mapper.taskDao();
+        ProjectDao projectDao = daoRegistry.projectDao();
+        TaskDao taskDao = daoRegistry.taskDao();
         
         Project project = projectDao.findById(UUID.fromString(teamId), UUID.fromString(projectId));
         
@@ -104,34 +129,108 @@ public class TaskService {
             task.setTags(tagList);
         }
         
-        task.setCreatedDate(Timeline.currentDateTimeUTCString());
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
         taskDao.create(task);
+        projectTaskPages.bumpVersion(task.getProjectId());
+        tagCatalog.register(project.getTeamId(), task.getTags());
+        
+        activityRecorder.record(authTicket, project.getId(), ActivityType.TASK, "created",
+                "taskId", task.getId(), "taskTitle", task.getTitle(), "assigneeId", task.getAssigneeId());
         
         return task;
 
     }
     
     
-    private String parseDateTime(String dateComponents, String timezoneId) {
-        ZonedDateTime parsedDate = Timeline.dateTimeFromComponents(ZoneId.of(timezoneId),
-                dateComponents.split(","));
-        return parsedDate.format(DateTimeFormatter.ISO_INSTANT);
+    private Instant parseDateTime(String dateComponents, String timezoneId) {
+        return Timeline.instantFromComponents(Timeline.zoneOf(timezoneId), dateComponents);
+    }
+    
+    
+    /**
+     * Finds one page of the tasks for the specified project. The pages are
+     * cached until a task of the project is written by this service.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for which to find the tasks
+     * @param pageSize      the maximum number of tasks to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the tasks for the specified project
+     */
+    public ResultPage<Task> findProjectTasks(AuthorizationTicket authTicket, 
+                                             UUID projectId,
+                                             int pageSize,
+                                             String cursor) {
+        TaskDao taskDao = daoRegistry.taskDao();
+        
+        return projectTaskPages.get(projectId, pageSize, cursor, () -> PagingUtils.pageOf(
+                taskDao.findTasksByProject(projectId, PagingUtils.pagingOptions(pageSize, cursor))));
     }
     
     
     /**
-     * Finds all the tasks for the specified project
+     * Asynchronously finds one page of the tasks for the specified project. The
+     * pages are cached until a task of the project is written by this service.
      * 
      * @param authTicket    the ticket used to authorize the request
      * @param projectId     the ID of the project for which to find the tasks
-     * @return all the tasks for the specified project
+     * @param pageSize      the maximum number of tasks to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the tasks for the specified project
      */
-    public List<Task> findProjectTasks(AuthorizationTicket authTicket, UUID projectId) {
-        TaskDao taskDao = mapper.taskDao();
-        PagingIterable<Task> projectTasks = taskDao.findTasksByProject(projectId);
+    public CompletionStage<ResultPage<Task>> findProjectTasksAsync(AuthorizationTicket authTicket, 
+                                                                   UUID projectId,
+                                                                   int pageSize,
+                                                                   String cursor) {
+        TaskDao taskDao = daoRegistry.taskDao();
         
-        return projectTasks.all();
+        return projectTaskPages.getAsync(projectId, pageSize, cursor, () -> 
+                taskDao.findTasksByProjectAsync(projectId, PagingUtils.pagingOptions(pageSize, cursor))
+                        .thenApply((projectTasks) -> PagingUtils.pageOf(projectTasks)));
+    }
+    
+    
+    /**
+     * Finds one page of the tasks assigned to the specified user across all
+     * their projects
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param assigneeId    the ID of the user for whom to find the tasks
+     * @param pageSize      the maximum number of tasks to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the tasks assigned to the specified user
+     */
+    public ResultPage<Task> findAssignedTasks(AuthorizationTicket authTicket, 
+                                              String assigneeId,
+                                              int pageSize,
+                                              String cursor) {
+        TaskDao taskDao = daoRegistry.taskDao();
+        PagingIterable<TaskByAssignee> assignedTasks = taskDao.findAssignedTasks(assigneeId,
+                PagingUtils.pagingOptions(pageSize, cursor));
+        
+        return PagingUtils.pageOf(assignedTasks, TaskByAssignee::toTask);
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the tasks assigned to the specified user
+     * across all their projects
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param assigneeId    the ID of the user for whom to find the tasks
+     * @param pageSize      the maximum number of tasks to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the tasks assigned to the user
+     */
+    public CompletionStage<ResultPage<Task>> findAssignedTasksAsync(AuthorizationTicket authTicket, 
+                                                                    String assigneeId,
+                                                                    int pageSize,
+                                                                    String cursor) {
+        TaskDao taskDao = daoRegistry.taskDao();
+        
+        return taskDao.findAssignedTasksAsync(assigneeId, PagingUtils.pagingOptions(pageSize, cursor))
+                .thenApply((assignedTasks) -> PagingUtils.pageOf(assignedTasks, TaskByAssignee::toTask));
     }
     
     
@@ -146,9 +245,25 @@ public class TaskService {
     public Task findTaskById(AuthorizationTicket authTicket, 
                                 UUID projectId,
                                 UUID taskId) {
-        TaskDao taskDao = mapper.taskDao();
+        TaskDao taskDao = daoRegistry.taskDao();
         return taskDao.findById(projectId, taskId);
     }
+    
+    
+    /**
+     * Asynchronously finds a task by ID
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to find
+     * @return a stage that completes with the task with the specified ID
+     */
+    public CompletionStage<Task> findTaskByIdAsync(AuthorizationTicket authTicket, 
+                                                   UUID projectId,
+                                                   UUID taskId) {
+        TaskDao taskDao = daoRegistry.taskDao();
+        return taskDao.findByIdAsync(projectId, taskId);
+    }
 
 
     /**
@@ -165,7 +280,7 @@ public class TaskService {
                            String projectId,
                            String taskId,
                            Map<String,Object> taskDetails) throws Exception {
-        TaskDao taskDao = mapper.taskDao();
+        TaskDao taskDao = daoRegistry.taskDao();
         
         Task task = taskDao.findById(UUID.fromString(projectId), UUID.fromString(taskId));
         
@@ -173,6 +288,14 @@ public class TaskService {
             throw new Exception(ApplicationError.TASK_NOT_FOUND);
         }
         
+        if (taskDetails.containsKey(QueryParameter.LAST_MODIFIED_DATE)) {
+            Instant lastModifiedDate = Instant.parse((String) taskDetails.get(QueryParameter.LAST_MODIFIED_DATE));
+            
+            if (!lastModifiedDate.equals(task.getLastModifiedDate())) {
+                throw new Exception(ApplicationError.STALE_UPDATE);
+            }
+        }
+        
         String timezoneId = (String) taskDetails.get(QueryParameter.TIMEZONE);
         
         if (taskDetails.containsKey(QueryParameter.TITLE)) {
@@ -222,14 +345,195 @@ public class TaskService {
             task.setTags(tagList);
         }
         
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setLastModifiedDate(Timeline.now());
         taskDao.save(task);
+        projectTaskPages.bumpVersion(task.getProjectId());
+        
+        activityRecorder.record(authTicket, task.getProjectId(), ActivityType.TASK, "updated",
+                "taskId", task.getId(), "taskTitle", task.getTitle(), "status", task.getStatus());
 
         return task;
 
     }
     
     
+    /**
+     * Partially updates a task. Only the fields present in the task details are
+     * written, without reading the task first. The update is only applied if the
+     * task exists, or, when the details include the last modified date of the
+     * task seen by the caller, only if the task has not changed since. Changing
+     * the assignee moves the task to another assignee partition, so a request
+     * that includes one goes through a full update instead.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to update
+     * @param taskDetails   an object with the fields of the task to update
+     * @return the new last modified date of the task
+     * @throws Exception if the request fails
+     */
+    public Instant patchTask(AuthorizationTicket authTicket,
+                             String projectId,
+                             String taskId,
+                             Map<String,Object> taskDetails) throws Exception {
+        
+        if (taskDetails.containsKey(QueryParameter.ASSIGNEE_ID)) {
+            return updateTask(authTicket, projectId, taskId, taskDetails).getLastModifiedDate();
+        }
+        
+        String timezoneId = (String) taskDetails.get(QueryParameter.TIMEZONE);
+        ColumnPatch patch = new ColumnPatch();
+        
+        if (taskDetails.containsKey(QueryParameter.TITLE)) {
+            patch.set(SchemaNames.COLUMN_TITLE, taskDetails.get(QueryParameter.TITLE));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.DESCRIPTION)) {
+            patch.set(SchemaNames.COLUMN_DESCRIPTION, taskDetails.get(QueryParameter.DESCRIPTION));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.DEPENDS_ON)) {
+            String dependsOn = (String) taskDetails.get(QueryParameter.DEPENDS_ON);
+            patch.set(SchemaNames.COLUMN_DEPENDS_ON, UUID.fromString(dependsOn));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.ESTIMATED_DURATION)) {
+            patch.set(SchemaNames.COLUMN_ESTIMATED_DURATION, (int) taskDetails.get(QueryParameter.ESTIMATED_DURATION));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.PRIORITY)) {
+            patch.set(SchemaNames.COLUMN_PRIORITY, 
+                    ItemPriority.fromString((String) taskDetails.get(QueryParameter.PRIORITY)));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.STATUS)) {
+            patch.set(SchemaNames.COLUMN_STATUS, 
+                    ItemStatus.fromString((String) taskDetails.get(QueryParameter.STATUS)));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.START_DATE)) {
+            String startDate = (String) taskDetails.get(QueryParameter.START_DATE);
+            patch.set(SchemaNames.COLUMN_START_DATE, parseDateTime(startDate, timezoneId));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.END_DATE)) {
+            String endDate = (String) taskDetails.get(QueryParameter.END_DATE);
+            patch.set(SchemaNames.COLUMN_END_DATE, parseDateTime(endDate, timezoneId));
+        }
+        
+        if (taskDetails.containsKey(QueryParameter.TAGS)) {
+            String tags = (String) taskDetails.get(QueryParameter.TAGS);
+            patch.set(SchemaNames.COLUMN_TAGS, Stream.of(tags.split(",")).collect(toSet()));
+        }
+        
+        if (patch.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = Timeline.now();
+        patch.set(SchemaNames.COLUMN_LAST_MODIFIED_DATE, lastModifiedDate);
+        
+        if (taskDetails.containsKey(QueryParameter.LAST_MODIFIED_DATE)) {
+            patch.ifLastModifiedDate(Instant.parse((String) taskDetails.get(QueryParameter.LAST_MODIFIED_DATE)));
+        } else {
+            patch.ifExists();
+        }
+        
+        TaskDao taskDao = daoRegistry.taskDao();
+        
+        if (!taskDao.patch(UUID.fromString(projectId), UUID.fromString(taskId), patch)) {
+            throw new Exception(patch.getExpectedLastModifiedDate() != null ?
+                    ApplicationError.STALE_UPDATE : ApplicationError.TASK_NOT_FOUND);
+        }
+        
+        projectTaskPages.bumpVersion(UUID.fromString(projectId));
+        
+        activityRecorder.record(authTicket, UUID.fromString(projectId), ActivityType.TASK, "updated",
+                "taskId", UUID.fromString(taskId), 
+                "taskTitle", patch.get(SchemaNames.COLUMN_TITLE), 
+                "status", patch.get(SchemaNames.COLUMN_STATUS));
+        
+        return lastModifiedDate;
+    }
+    
+    
+    /**
+     * Adds tags to a task, leaving its other tags untouched. The tags are
+     * appended to the tag set of the task without reading it, if the task
+     * exists, and are then added to the tag catalog of the team.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for the project
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to tag
+     * @param tags          the tags to add
+     * @return the new last modified date of the task
+     * @throws Exception if the request fails
+     */
+    public Instant addTaskTags(AuthorizationTicket authTicket,
+                               String teamId,
+                               String projectId,
+                               String taskId,
+                               Set<String> tags) throws Exception {
+        
+        if (tags.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = patchTaskTags(projectId, taskId, 
+                new ColumnPatch().add(SchemaNames.COLUMN_TAGS, tags));
+        tagCatalog.register(UUID.fromString(teamId), tags);
+        
+        activityRecorder.record(authTicket, UUID.fromString(projectId), ActivityType.TASK, "tagged",
+                "taskId", UUID.fromString(taskId), "tags", String.join(",", tags));
+        
+        return lastModifiedDate;
+    }
+    
+    
+    /**
+     * Removes tags from a task, leaving its other tags untouched. The tags
+     * are removed from the tag set of the task without reading it.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the task
+     * @param taskId        the ID of the task to untag
+     * @param tags          the tags to remove
+     * @return the new last modified date of the task
+     * @throws Exception if the request fails
+     */
+    public Instant removeTaskTags(AuthorizationTicket authTicket,
+                                  String projectId,
+                                  String taskId,
+                                  Set<String> tags) throws Exception {
+        
+        if (tags.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = patchTaskTags(projectId, taskId, 
+                new ColumnPatch().remove(SchemaNames.COLUMN_TAGS, tags));
+        
+        activityRecorder.record(authTicket, UUID.fromString(projectId), ActivityType.TASK, "untagged",
+                "taskId", UUID.fromString(taskId), "tags", String.join(",", tags));
+        
+        return lastModifiedDate;
+    }
+    
+    
+    private Instant patchTaskTags(String projectId, String taskId, ColumnPatch patch) throws Exception {
+        Instant lastModifiedDate = Timeline.now();
+        patch.set(SchemaNames.COLUMN_LAST_MODIFIED_DATE, lastModifiedDate).ifExists();
+        
+        if (!daoRegistry.taskDao().patch(UUID.fromString(projectId), UUID.fromString(taskId), patch)) {
+            throw new Exception(ApplicationError.TASK_NOT_FOUND);
+        }
+        
+        projectTaskPages.bumpVersion(UUID.fromString(projectId));
+        return lastModifiedDate;
+    }
+    
+    
     /**
      * Deletes a task
      * 
@@ -241,7 +545,7 @@ public class TaskService {
     public void deleteTask(AuthorizationTicket authTicket, 
                               UUID projectId,
                               UUID taskId) throws Exception {
-        TaskDao taskDao = mapper.taskDao();
+        TaskDao taskDao = daoRegistry.taskDao();
         Task task = findTaskById(authTicket, projectId, taskId);
         
         if (task == null) {
@@ -249,6 +553,49 @@ public class TaskService {
         }
         
         taskDao.deleteTask(task);
+        projectTaskPages.bumpVersion(projectId);
+        
+        activityRecorder.record(authTicket, projectId, ActivityType.TASK, "deleted",
+                "taskId", task.getId(), "taskTitle", task.getTitle());
+    }
+    
+    
+    /**
+     * Moves tasks of a project from one user to another. If no task IDs are
+     * specified, all the tasks assigned to the first user in the project are
+     * moved.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param projectId     the ID of the project for the tasks
+     * @param fromUserId    the ID of the current assignee of the tasks
+     * @param toUserId      the ID of the new assignee of the tasks
+     * @param taskIds       the IDs of the tasks to move, or null to move all of them
+     * @return the number of tasks that were moved
+     * @throws Exception if the request fails
+     */
+    public long reassignTasks(AuthorizationTicket authTicket,
+                              UUID projectId,
+                              String fromUserId,
+                              String toUserId,
+                              List<String> taskIds) throws Exception {
+        TaskDao taskDao = daoRegistry.taskDao();
+        List<UUID> tasksToMove;
+        
+        if (taskIds != null) {
+            tasksToMove = taskIds.stream().map(UUID::fromString).toList();
+        } else {
+            tasksToMove = taskDao.findTasksByAssignee(projectId, fromUserId).all().stream()
+                    .map((row) -> row.getUuid(SchemaNames.COLUMN_TASK_ID))
+                    .toList();
+        }
+        
+        long reassigned = taskDao.reassignTasks(projectId, tasksToMove, fromUserId, toUserId);
+        projectTaskPages.bumpVersion(projectId);
+        
+        activityRecorder.record(authTicket, projectId, ActivityType.TASK, "reassigned",
+                "fromUserId", fromUserId, "toUserId", toUserId, "taskCount", reassigned);
+        
+        return reassigned;
     }
     
     
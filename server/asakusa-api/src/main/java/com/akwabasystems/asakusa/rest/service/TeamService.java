@@ -2,22 +2,25 @@
 package com.akwabasystems.asakusa.rest.service;
 
 import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
+import com.akwabasystems.asakusa.model.ActivityType;
+import com.akwabasystems.asakusa.model.Tag;
 import com.akwabasystems.asakusa.model.Team;
-import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
 import com.akwabasystems.asakusa.repository.SchemaNames;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
 import com.akwabasystems.asakusa.utils.Timeline;
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
-import jakarta.annotation.PostConstruct;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionStage;
 import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -28,15 +31,13 @@ import org.springframework.stereotype.Service;
 public class TeamService {
 
     @Autowired
-    private CqlSession cqlSession;
-    
-    private RepositoryMapper mapper;
+    private DaoRegistry daoRegistry;
     
+    @Autowired
+    private ActivityRecorder activityRecorder;
     
-    @PostConstruct
-    public void initialize() {
-        mapper = RepositoryMapper.builder(cqlSession).build();
-    }
+    @Autowired
+    private TagCatalog tagCatalog;
     
     
     /**
@@ -49,25 +50,25 @@ public class TeamService {
      */
     public Team createTeam(AuthorizationTicket authTicket,
                            Map<String,Object> teamDetails) throws Exception {
-        TeamDao teamDao = mapper.teamDao();
+        TeamDao teamDao = daoRegistry.teamDao();
         
         String name = (String) teamDetails.get(QueryParameter.NAME);
         String createdBy = (String) teamDetails.get(QueryParameter.CREATED_BY);
         String description = (String) teamDetails.get(QueryParameter.DESCRIPTION);
         
-        Optional<Team> existingTeam = teamDao.findByName(name);
-        
-        if (existingTeam.isPresent()) {
-            throw new Exception(ApplicationError.TEAM_ALREADY_EXISTS);
-        }
-
+        /** The DAO claims the team name and rejects names that are already in use */
         Team team = new Team(UUID.randomUUID(), name);
         team.setDescription(description);
         team.setCreatedBy(createdBy);
-        team.setCreatedDate(Timeline.currentDateTimeUTCString());
-        team.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        team.setCreatedDate(Timeline.now());
+        team.setLastModifiedDate(Timeline.now());
+        
+        Team createdTeam = teamDao.create(team);
+        
+        activityRecorder.record(authTicket, team.getId(), ActivityType.TEAM, "created",
+                "teamId", team.getId(), "teamName", team.getName());
         
-        return teamDao.create(team);
+        return createdTeam;
 
     }
     
@@ -76,26 +77,74 @@ public class TeamService {
      * Finds a team by ID
      * 
      * @param authTicket    the ticket used to authorize the request
-     * @param teamId
+     * @param teamId        the ID of the team to find
      * @return the team with the specified ID
      */
     public Team findTeamById(AuthorizationTicket authTicket, UUID teamId) {
-        TeamDao teamDao = mapper.teamDao();
+        TeamDao teamDao = daoRegistry.teamDao();
         return teamDao.findById(teamId);
     }
+    
+    
+    /**
+     * Asynchronously finds a team by ID
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team to find
+     * @return a stage that completes with the team with the specified ID
+     */
+    public CompletionStage<Team> findTeamByIdAsync(AuthorizationTicket authTicket, UUID teamId) {
+        TeamDao teamDao = daoRegistry.teamDao();
+        return teamDao.findByIdAsync(teamId);
+    }
+
+
+    /**
+     * Finds the tags of a team whose name starts with the given prefix, from
+     * the cached tag catalog of the team
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for which to find the tags
+     * @param prefix        the prefix of the tags to find, or null to find all the tags
+     * @param limit         the maximum number of tags to return
+     * @return the matching tags, ordered by name
+     */
+    public List<Tag> findTeamTags(AuthorizationTicket authTicket, UUID teamId, String prefix, int limit) {
+        return tagCatalog.findTags(teamId, prefix, limit);
+    }
 
 
     /**
-     * Finds all the teams in the application
+     * Finds one page of the teams in the application
+     * 
+     * @param authTicket   the ticket used to authorize the request
+     * @param pageSize     the maximum number of teams to return
+     * @param cursor       the cursor returned with the previous page, if any
+     * @return one page of the teams in the application
+     */
+    public ResultPage<Team> findAll(AuthorizationTicket authTicket, int pageSize, String cursor) {
+        TeamDao teamDao = daoRegistry.teamDao();
+        PagingIterable<Team> teams = teamDao.findAll(PagingUtils.pagingOptions(pageSize, cursor));
+        
+        return PagingUtils.pageOf(teams);
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the teams in the application
      * 
      * @param authTicket   the ticket used to authorize the request
-     * @return all the teams in the application
+     * @param pageSize     the maximum number of teams to return
+     * @param cursor       the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the teams in the application
      */
-    public List<Team> findAll(AuthorizationTicket authTicket) {
-        TeamDao teamDao = mapper.teamDao();
-        PagingIterable<Team> teams = teamDao.findAll();
+    public CompletionStage<ResultPage<Team>> findAllAsync(AuthorizationTicket authTicket, 
+                                                          int pageSize, 
+                                                          String cursor) {
+        TeamDao teamDao = daoRegistry.teamDao();
         
-        return teams.all();
+        return teamDao.findAllAsync(PagingUtils.pagingOptions(pageSize, cursor))
+                .thenApply((teams) -> PagingUtils.pageOf(teams));
     }
     
     
@@ -110,7 +159,7 @@ public class TeamService {
     public Team updateTeam(AuthorizationTicket authTicket,
                            Map<String,Object> teamDetails) throws Exception {
         
-        TeamDao teamDao = mapper.teamDao();
+        TeamDao teamDao = daoRegistry.teamDao();
         
         String teamId = (String) teamDetails.get(QueryParameter.ID);
         UUID teamUUID = UUID.fromString(teamId);
@@ -121,42 +170,128 @@ public class TeamService {
             throw new Exception(ApplicationError.TEAM_NOT_FOUND);
         }
         
+        if (teamDetails.containsKey(QueryParameter.LAST_MODIFIED_DATE)) {
+            Instant lastModifiedDate = Instant.parse((String) teamDetails.get(QueryParameter.LAST_MODIFIED_DATE));
+            
+            if (!lastModifiedDate.equals(teamById.getLastModifiedDate())) {
+                throw new Exception(ApplicationError.STALE_UPDATE);
+            }
+        }
+        
         String name = (String) teamDetails.get(QueryParameter.NAME);
-        Optional<Team> teamByName = teamDao.findByName(name);
         
-        if (teamByName.isPresent()) {
-            throw new Exception(ApplicationError.TEAM_ALREADY_EXISTS);
+        if (name == null) {
+            name = teamById.getName();
         }
-
-        teamById.setName(name);
         
         if (teamDetails.containsKey(QueryParameter.DESCRIPTION)) {
             teamById.setDescription((String) teamDetails.get(QueryParameter.DESCRIPTION));
         }
         
-        teamById.setLastModifiedDate(Timeline.currentDateTimeUTCString());
-        teamDao.save(teamById);
-                
-        return teamById;
+        /** The rename fails if another team already uses the new name */
+        Team updatedTeam = teamDao.rename(teamById, name);
+        
+        activityRecorder.record(authTicket, teamUUID, ActivityType.TEAM, "updated",
+                "teamId", teamUUID, "teamName", name);
+        
+        return updatedTeam;
         
     }
     
     
     /**
-     * Finds all the members of the specified team
+     * Partially updates a team. Only the fields present in the team details are
+     * written, without reading the team first. The update is only applied if the
+     * team exists, or, when the details include the last modified date of the team
+     * seen by the caller, only if the team has not changed since. A new name has to
+     * be checked against the names of the other teams, so a request that includes
+     * one goes through a full update instead.
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamDetails   an object with the ID of the team and the fields to update
+     * @return the new last modified date of the team
+     * @throws Exception if the request fails
+     */
+    public Instant patchTeam(AuthorizationTicket authTicket,
+                             Map<String,Object> teamDetails) throws Exception {
+        
+        if (teamDetails.containsKey(QueryParameter.NAME)) {
+            return updateTeam(authTicket, teamDetails).getLastModifiedDate();
+        }
+        
+        UUID teamId = UUID.fromString((String) teamDetails.get(QueryParameter.ID));
+        ColumnPatch patch = new ColumnPatch();
+        
+        if (teamDetails.containsKey(QueryParameter.DESCRIPTION)) {
+            patch.set(SchemaNames.COLUMN_DESCRIPTION, teamDetails.get(QueryParameter.DESCRIPTION));
+        }
+        
+        if (patch.isEmpty()) {
+            throw new Exception(ApplicationError.INVALID_PARAMETERS);
+        }
+        
+        Instant lastModifiedDate = Timeline.now();
+        patch.set(SchemaNames.COLUMN_LAST_MODIFIED_DATE, lastModifiedDate);
+        
+        if (teamDetails.containsKey(QueryParameter.LAST_MODIFIED_DATE)) {
+            patch.ifLastModifiedDate(Instant.parse((String) teamDetails.get(QueryParameter.LAST_MODIFIED_DATE)));
+        } else {
+            patch.ifExists();
+        }
+        
+        TeamDao teamDao = daoRegistry.teamDao();
+        
+        if (!teamDao.patch(teamId, patch)) {
+            throw new Exception(patch.getExpectedLastModifiedDate() != null ?
+                    ApplicationError.STALE_UPDATE : ApplicationError.TEAM_NOT_FOUND);
+        }
+        
+        activityRecorder.record(authTicket, teamId, ActivityType.TEAM, "updated", "teamId", teamId);
+        
+        return lastModifiedDate;
+    }
+    
+    
+    /**
+     * Finds one page of the members of the specified team
      * 
      * @param authTicket    the ticket used to authorize the request
      * @param teamId        the ID of the team for which to find the members
-     * @return all the members of the specified team
+     * @param pageSize      the maximum number of members to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return one page of the members of the specified team
      */
-    public List<String> findTeamMembers(AuthorizationTicket authTicket, UUID teamId) {
-        TeamDao teamDao = mapper.teamDao();
+    public ResultPage<String> findTeamMembers(AuthorizationTicket authTicket, 
+                                              UUID teamId,
+                                              int pageSize,
+                                              String cursor) {
+        TeamDao teamDao = daoRegistry.teamDao();
 
-        ResultSet teamMembersResult = teamDao.teamMembers(teamId);
-        return teamMembersResult.all()
-                        .stream()
-                        .map((row) -> row.getString(SchemaNames.COLUMN_USER_ID))
-                        .collect(Collectors.toList());
+        ResultSet teamMembersResult = teamDao.teamMembers(teamId, 
+                PagingUtils.pagingOptions(pageSize, cursor));
+        return PagingUtils.pageOf(teamMembersResult, 
+                (row) -> row.getString(SchemaNames.COLUMN_USER_ID));
+    }
+    
+    
+    /**
+     * Asynchronously finds one page of the members of the specified team
+     * 
+     * @param authTicket    the ticket used to authorize the request
+     * @param teamId        the ID of the team for which to find the members
+     * @param pageSize      the maximum number of members to return
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a stage that completes with one page of the members of the specified team
+     */
+    public CompletionStage<ResultPage<String>> findTeamMembersAsync(AuthorizationTicket authTicket, 
+                                                                    UUID teamId,
+                                                                    int pageSize,
+                                                                    String cursor) {
+        TeamDao teamDao = daoRegistry.teamDao();
+
+        return teamDao.teamMembersAsync(teamId, PagingUtils.pagingOptions(pageSize, cursor))
+                .thenApply((teamMembersResult) -> PagingUtils.pageOf(teamMembersResult, 
+                        (row) -> row.getString(SchemaNames.COLUMN_USER_ID)));
     }
     
     
@@ -166,20 +301,19 @@ public class TeamService {
      * @param authTicket    the ticket used to authorize the request
      * @param teamId        the ID of the team to add the member to
      * @param memberId      the ID of the member to add
-     * @return the updated members list
+     * @return the first page of the updated members list
      */
-    public List<String> addTeamMember(AuthorizationTicket authTicket, 
-                                      UUID teamId,
-                                      String memberId) {
-        TeamDao teamDao = mapper.teamDao();
+    public ResultPage<String> addTeamMember(AuthorizationTicket authTicket, 
+                                            UUID teamId,
+                                            String memberId) {
+        TeamDao teamDao = daoRegistry.teamDao();
         teamDao.addTeamMember(teamId, memberId);
         
-        /** Return the updated members list for convenience */
-        ResultSet teamMembersResult = teamDao.teamMembers(teamId);
-        return teamMembersResult.all()
-                        .stream()
-                        .map((row) -> row.getString(SchemaNames.COLUMN_USER_ID))
-                        .collect(Collectors.toList());
+        activityRecorder.record(authTicket, teamId, ActivityType.TEAM, "memberAdded",
+                "teamId", teamId, "memberId", memberId);
+        
+        /** Return the first page of the updated members list for convenience */
+        return findTeamMembers(authTicket, teamId, PagingUtils.DEFAULT_PAGE_SIZE, null);
     }
     
     
@@ -189,20 +323,19 @@ public class TeamService {
      * @param authTicket    the ticket used to authorize the request
      * @param teamId        the ID of the team from which to remove to member
      * @param memberId      the ID of the member to remove
-     * @return the updated members list
+     * @return the first page of the updated members list
      */
-    public List<String> removeTeamMember(AuthorizationTicket authTicket, 
-                                         UUID teamId,
-                                         String memberId) {
-        TeamDao teamDao = mapper.teamDao();
+    public ResultPage<String> removeTeamMember(AuthorizationTicket authTicket, 
+                                               UUID teamId,
+                                               String memberId) {
+        TeamDao teamDao = daoRegistry.teamDao();
         teamDao.removeTeamMember(teamId, memberId);
         
-        /** Return the updated members list for convenience */
-        ResultSet teamMembersResult = teamDao.teamMembers(teamId);
-        return teamMembersResult.all()
-                        .stream()
-                        .map((row) -> row.getString(SchemaNames.COLUMN_USER_ID))
-                        .collect(Collectors.toList());
+        activityRecorder.record(authTicket, teamId, ActivityType.TEAM, "memberRemoved",
+                "teamId", teamId, "memberId", memberId);
+        
+        /** Return the first page of the updated members list for convenience */
+        return findTeamMembers(authTicket, teamId, PagingUtils.DEFAULT_PAGE_SIZE, null);
     }
     
     
@@ -1,6 +1,8 @@
 
 package com.akwabasystems.asakusa.rest.service;
 
+import com.akwabasystems.asakusa.dao.exception.ConflictException;
+import com.akwabasystems.asakusa.dao.exception.DAOException;
 import com.akwabasystems.asakusa.dao.MembershipDao;
 import com.akwabasystems.asakusa.dao.UserDao;
 import com.akwabasystems.asakusa.dao.UserSessionDao;
@@ -12,23 +14,25 @@ import com.akwabasystems.asakusa.model.Role;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.model.UserPreferences;
 import com.akwabasystems.asakusa.model.UserSession;
-import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
 import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
 import com.akwabasystems.asakusa.rest.utils.ApplicationError;
 import com.akwabasystems.asakusa.rest.utils.QueryParameter;
 import com.akwabasystems.asakusa.utils.Timeline;
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 import lombok.extern.java.Log;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -48,16 +52,17 @@ public class UserService {
     protected String appRealm;
     
     @Autowired
-    private CqlSession cqlSession;
+    private DaoRegistry daoRegistry;
     
-    private RepositoryMapper mapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
     
-    private static final String DEFAULT_AVATAR = "https://s3-us-west-1.amazonaws.com/akwaba/assets/avatar-female.png";
+    @Autowired
+    private PasswordHasher passwordHasher;
     
-    @PostConstruct
-    public void initialize() {
-        mapper = RepositoryMapper.builder(cqlSession).build();
-    }
+    
+    private static final String PROVISIONING_TIMER = "asakusa.signup.provisioning";
+    private static final String DEFAULT_AVATAR = "https://s3-us-west-1.amazonaws.com/akwaba/assets/avatar-female.png";
     
     
     /**
@@ -76,23 +81,11 @@ public class UserService {
             throw new Exception(ApplicationError.INVALID_CREDENTIALS);
         }
         
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         
         String userId = (String) accountDetails.get(QueryParameter.USER_ID);
         String email = (String) accountDetails.get(QueryParameter.EMAIL);
         
-        User existingUser = userDao.findById(userId);
-
-        if (existingUser != null) {
-            throw new Exception(ApplicationError.USER_ALREADY_EXISTS);
-        }
-
-        Optional<User> existingUserByEmail = userDao.findByEmail(email);
-
-        if (existingUserByEmail.isPresent()) {
-            throw new Exception(ApplicationError.EMAIL_ALREADY_EXISTS);
-        }
-        
         String password = (String) accountDetails.get(QueryParameter.PASSWORD);
         String firstName = (String) accountDetails.get(QueryParameter.FIRST_NAME);
         String lastName = (String) accountDetails.get(QueryParameter.LAST_NAME);
@@ -118,23 +111,103 @@ public class UserService {
         Set<Role> roles = new HashSet<>();
         roles.add(Role.ADMIN);
         
-        userDao.create(user, password.toCharArray(), roles);
+        /** 
+         * Hash the password on the password hashing pool, which refuses the
+         * signup with a 503 if too many passwords are waiting to be hashed
+         */
+        String passwordHash = passwordHasher.hash(password.toCharArray());
+        
+        /** 
+         * The user ID and the email address are claimed by the DAO itself, which
+         * reports a taken key with a conflict error
+         */
+        try {
+            userDao.createWithPasswordHash(user, passwordHash, roles);
+        } catch (ConflictException ex) {
+            String error = DAOException.USER_ALREADY_EXISTS.equals(ex.getMessage()) ?
+                    ApplicationError.USER_ALREADY_EXISTS : ApplicationError.EMAIL_ALREADY_EXISTS;
+            throw new Exception(error);
+        }
+        
+        String client = (String) accountDetails.get(QueryParameter.CLIENT);
+        provisionAccount(user, client, locale);
+        
+        return user;
+    }
+    
+    
+    /**
+     * Adds the session, the default preferences and the default membership of
+     * a new account. The three writes go to different partitions and do not
+     * depend on each other, so they are sent in parallel, and the latency of 
+     * each step is recorded by the "asakusa.signup.provisioning" timer.
+     * 
+     * If any of the writes fails, the account is deleted so that the sign-up
+     * can be retried from scratch, and the failed steps are logged.
+     * 
+     * @param user      the newly created user
+     * @param client    the client used to create the account
+     * @param locale    the preferred language of the user
+     * @throws Exception if the account cannot be fully provisioned
+     */
+    private void provisionAccount(User user, String client, String locale) throws Exception {
+        Map<String,CompletableFuture<Void>> steps = new LinkedHashMap<>();
         
         /** 
          * Starts a new session for the newly created user. This is necessary
          * since the iOS app redirects the user to the login view if he/she
          * doesn't have an active session.
          */
-        String client = (String) accountDetails.get(QueryParameter.CLIENT);
-        startNewSessionForUser(user, client);
+        steps.put("session", timedStep("session", () -> startNewSessionForUser(user, client)));
         
         /** Add the default preferences for the user */
-        addPreferencesForUser(userId, locale);
+        steps.put("preferences", timedStep("preferences", () -> addPreferencesForUser(user.getUserId(), locale)));
         
         /** Add the default membership details for the user */
-        addMembershipForUser(user);
+        steps.put("membership", timedStep("membership", () -> addMembershipForUser(user)));
         
-        return user;
+        CompletableFuture.allOf(steps.values().toArray(new CompletableFuture<?>[0]))
+                .exceptionally((error) -> null)
+                .join();
+        
+        List<String> failedSteps = steps.entrySet().stream()
+                .filter((step) -> step.getValue().isCompletedExceptionally())
+                .map(Map.Entry::getKey)
+                .toList();
+        
+        if (failedSteps.isEmpty()) {
+            return;
+        }
+        
+        log.severe(String.format("[UserService#createAccount] - Provisioning steps %s failed for user %s", 
+                failedSteps, user.getUserId()));
+        
+        daoRegistry.userDao().delete(user);
+        throw new Exception(ApplicationError.ACCOUNT_PROVISIONING_FAILED);
+    }
+    
+    
+    private CompletableFuture<Void> timedStep(String step, Supplier<CompletionStage<Void>> write) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletionStage<Void> stage;
+        
+        try {
+            stage = write.get();
+        } catch (RuntimeException ex) {
+            stage = CompletableFuture.failedFuture(ex);
+        }
+        
+        return stage.whenComplete((result, error) -> {
+            sample.stop(Timer.builder(PROVISIONING_TIMER)
+                    .tag("step", step)
+                    .tag("outcome", (error == null) ? "success" : "failure")
+                    .register(meterRegistry));
+            
+            if (error != null) {
+                log.warning(String.format("[UserService#createAccount] - Step '%s' failed: %s", 
+                        step, error.getMessage()));
+            }
+        }).toCompletableFuture();
     }
     
 
@@ -169,29 +242,29 @@ public class UserService {
     }
     
     
-    private void startNewSessionForUser(User user, String client) {
-        UserSessionDao sessionDao = mapper.userSessionDao();
+    private CompletionStage<Void> startNewSessionForUser(User user, String client) {
+        UserSessionDao sessionDao = daoRegistry.userSessionDao();
         
         UserSession session = new UserSession(user.getUserId(), Uuids.timeBased());
         session.setClient(client);
 
-        sessionDao.create(session);
+        return sessionDao.createAsync(session);
     }
     
     
-    private void addMembershipForUser(User user) {
-        MembershipDao membershipDao = mapper.membershipDao();
+    private CompletionStage<Void> addMembershipForUser(User user) {
+        MembershipDao membershipDao = daoRegistry.membershipDao();
         
         Membership membership = new Membership(user.getUserId(), 
                 UUID.randomUUID(), MembershipType.FREE);
-        membership.setCreatedDate(Timeline.currentDateTimeUTCString());
-        membership.setLastModifiedDate(Timeline.currentDateTimeUTCString());
-        membershipDao.add(membership);
+        membership.setCreatedDate(Timeline.now());
+        membership.setLastModifiedDate(Timeline.now());
+        return membershipDao.addAsync(membership);
     }
     
     
-    private void addPreferencesForUser(String userId, String language) {
-        UserDao userDao = mapper.userDao();
+    private CompletionStage<Void> addPreferencesForUser(String userId, String language) {
+        UserDao userDao = daoRegistry.userDao();
         
         Map<String,Object> settings = new HashMap<>();
         settings.put("preferredLanguage", language);
@@ -202,10 +275,10 @@ public class UserService {
         notifications.put("turnOffNotifications", "false");
         settings.put("notifications", notifications);
 
-        UserPreferences preferences = new UserPreferences(userId, new JSONObject(settings));
-        preferences.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        UserPreferences preferences = new UserPreferences(userId, settings);
+        preferences.setLastModifiedDate(Timeline.now());
 
-        userDao.savePreferences(preferences);
+        return userDao.savePreferencesAsync(preferences);
     }
     
     
@@ -216,11 +289,23 @@ public class UserService {
      * @return the user with the ID specified in the request
      */
     public User findUserById(AuthorizationTicket authTicket) {
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         return userDao.findById(authTicket.getUserId());
     }
     
     
+    /**
+     * Asynchronously finds a user by ID
+     * 
+     * @param authTicket        the auth ticket that contains the ID of the user to find
+     * @return a stage that completes with the user with the ID specified in the request
+     */
+    public CompletionStage<User> findUserByIdAsync(AuthorizationTicket authTicket) {
+        UserDao userDao = daoRegistry.userDao();
+        return userDao.findByIdAsync(authTicket.getUserId());
+    }
+    
+    
     /**
      * Updates a user account
      * 
@@ -231,7 +316,7 @@ public class UserService {
      */
     public boolean updateAccount(AuthorizationTicket authorizationTicket,
                                  Map<String,Object> accountDetails) throws Exception {
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         User user = userDao.findById(authorizationTicket.getUserId());
         
         if (user == null) {
@@ -242,14 +327,20 @@ public class UserService {
         String lastName = (String) accountDetails.get(QueryParameter.LAST_NAME);
         String gender = (String) accountDetails.get(QueryParameter.GENDER);
         String locale = (String) accountDetails.get(QueryParameter.LOCALE);
+        String email = (String) accountDetails.get(QueryParameter.EMAIL);
         
         user.setGivenName(firstName);
         user.setFamilyName(lastName);
         user.setGender(Gender.fromString(gender));
         user.setLocale(locale);
-        user.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        user.setLastModifiedDate(Timeline.now());
         
-        userDao.update(user);
+        /** An email change also moves the user's email lookup entry */
+        if (email != null && !email.equals(user.getEmail())) {
+            userDao.changeEmail(user, email);
+        } else {
+            userDao.update(user);
+        }
         
         return true;
         
@@ -263,31 +354,35 @@ public class UserService {
      * @return the preferences for the specified user
      */
     public UserPreferences getUserPreferences(User user) {
-        UserDao userDao = mapper.userDao();
+        UserDao userDao = daoRegistry.userDao();
         return userDao.getPreferences(user.getUserId());
     }
     
     
     /**
-     * Updates the preferences for the given user
+     * Asynchronously returns the preferences for the user with the specified ID
+     * 
+     * @param userId    the ID of the user for whom to return the preferences
+     * @return a stage that completes with the preferences for the specified user
+     */
+    public CompletionStage<UserPreferences> getUserPreferencesAsync(String userId) {
+        UserDao userDao = daoRegistry.userDao();
+        return userDao.getPreferencesAsync(userId);
+    }
+    
+    
+    /**
+     * Updates the preferences for the given user. Each setting is written on 
+     * its own, without reading the current preferences; a setting with a null
+     * value is removed, and the settings that are not specified are unchanged.
      * 
      * @param user          the user for whom to update the preferences
-     * @param settings      a serialized string of the preferences to set
-     * @return the updated user preferences
+     * @param settings      the settings to set or remove
      * @throws Exception if the operation fails
      */
-    public UserPreferences updateUserPreferences(User user, LinkedHashMap settings) throws Exception {
-        UserDao userDao = mapper.userDao();
-        UserPreferences userPreferences = userDao.getPreferences(user.getUserId());
-        JSONObject preferences = new JSONObject(settings);
-
-        preferences.keySet().stream().forEach((String key) -> {
-            userPreferences.getSettings().put(key, preferences.get(key));
-        });
-        
-        userDao.savePreferences(userPreferences);
-        
-        return userPreferences;
+    public void updateUserPreferences(User user, Map<String,Object> settings) throws Exception {
+        UserDao userDao = daoRegistry.userDao();
+        userDao.updatePreferences(user.getUserId(), settings);
     }
     
     
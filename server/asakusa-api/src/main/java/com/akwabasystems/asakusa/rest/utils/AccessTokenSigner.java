@@ -0,0 +1,145 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+
+/**
+ * Signs and verifies the access tokens that carry their own claims, so that
+ * any instance of the application can verify them without reading Cassandra.
+ *
+ * A signed token has the form "v1.{claims}.{signature}", where the claims are
+ * the token ID, the expiry date in epoch seconds and the client ID, in binary
+ * form, and the signature is the HMAC-SHA256 of "v1.{claims}". Both parts are
+ * encoded in unpadded URL-safe Base64.
+ *
+ * The MAC instances are not thread-safe, so each thread keeps its own.
+ */
+public class AccessTokenSigner {
+
+    public static final String PREFIX = "v1.";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int CLAIMS_HEADER_LENGTH = 16 + 8;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+
+
+    /**
+     * Creates a signer
+     *
+     * @param secret    the secret key with which to sign the tokens
+     * @throws IllegalArgumentException if the secret key is empty
+     */
+    public AccessTokenSigner(byte[] secret) {
+
+        if (secret == null || secret.length == 0) {
+            throw new IllegalArgumentException("The access token signing key is empty");
+        }
+
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Cannot create the access token signer", ex);
+            }
+        });
+    }
+
+
+    /**
+     * Returns true if the specified token key has the form of a signed token;
+     * otherwise, returns false
+     *
+     * @param tokenKey      the token key to check
+     * @return true if the token key has the form of a signed token; otherwise, false
+     */
+    public static boolean isSigned(String tokenKey) {
+        return tokenKey != null && tokenKey.startsWith(PREFIX);
+    }
+
+
+    /**
+     * Returns the signed token key for the specified claims
+     *
+     * @param token     the claims of the token
+     * @return the signed token key for the specified claims
+     */
+    public String sign(SignedAccessToken token) {
+        byte[] client = token.getClient().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer claims = ByteBuffer.allocate(CLAIMS_HEADER_LENGTH + client.length)
+                .putLong(token.getTokenId().getMostSignificantBits())
+                .putLong(token.getTokenId().getLeastSignificantBits())
+                .putLong(token.getExpiresAt().getEpochSecond())
+                .put(client);
+
+        String payload = PREFIX + ENCODER.encodeToString(claims.array());
+        return payload + "." + ENCODER.encodeToString(signatureOf(payload));
+    }
+
+
+    /**
+     * Returns the claims of the specified token key if its signature is valid.
+     * The expiry of the token is not checked.
+     *
+     * @param tokenKey      the signed token key to verify
+     * @return the claims of the token, or null if the token is malformed or its
+     *         signature is invalid
+     */
+    public SignedAccessToken verify(String tokenKey) {
+
+        if (!isSigned(tokenKey)) {
+            return null;
+        }
+
+        int separator = tokenKey.lastIndexOf('.');
+
+        if (separator <= PREFIX.length()) {
+            return null;
+        }
+
+        try {
+            String payload = tokenKey.substring(0, separator);
+            byte[] signature = DECODER.decode(tokenKey.substring(separator + 1));
+
+            if (!MessageDigest.isEqual(signature, signatureOf(payload))) {
+                return null;
+            }
+
+            byte[] claims = DECODER.decode(payload.substring(PREFIX.length()));
+
+            if (claims.length <= CLAIMS_HEADER_LENGTH) {
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(claims);
+            UUID tokenId = new UUID(buffer.getLong(), buffer.getLong());
+            Instant expiresAt = Instant.ofEpochSecond(buffer.getLong());
+            String client = new String(claims, CLAIMS_HEADER_LENGTH, claims.length - CLAIMS_HEADER_LENGTH,
+                    StandardCharsets.UTF_8);
+
+            return new SignedAccessToken(tokenId, client, expiresAt);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+
+    private byte[] signatureOf(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+}
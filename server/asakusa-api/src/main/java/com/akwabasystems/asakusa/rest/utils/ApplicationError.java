@@ -8,15 +8,25 @@ public class ApplicationError {
     public static final String USER_NOT_FOUND = "error.userNotFound";
     public static final String USER_ALREADY_EXISTS = "error.userAlreadyExists";
     public static final String EMAIL_ALREADY_EXISTS = "error.emailAlreadyExists";
+    public static final String ACCOUNT_PROVISIONING_FAILED = "error.accountProvisioningFailed";
     
     public static final String TEAM_NOT_FOUND = "error.teamNotFound";
     public static final String TEAM_ALREADY_EXISTS = "error.teamAlreadyExists";
     
     public static final String PROJECT_NOT_FOUND = "error.projectNotFound";
     public static final String TASK_NOT_FOUND = "error.taskNotFound";
+    public static final String DISCUSSION_NOT_FOUND = "error.discussionNotFound";
+    public static final String MESSAGE_NOT_FOUND = "error.messageNotFound";
+    public static final String STALE_UPDATE = "error.staleUpdate";
     
     public static final String UNAUTHORIZED_ACCESS = "error.unauthorizedAccess";
     public static final String INVALID_CREDENTIALS = "error.invalidCredentials";
+    public static final String INVALID_ACCESS_TOKEN = "error.invalidAccessToken";
+    public static final String EXPIRED_ACCESS_TOKEN = "error.expiredAccessToken";
     public static final String HTTP_ERROR = "error.httpError";
+    public static final String SERVICE_OVERLOADED = "error.serviceOverloaded";
+    
+    public static final String INVALID_PAGE_SIZE = "error.invalidPageSize";
+    public static final String INVALID_CURSOR = "error.invalidCursor";
     
 }
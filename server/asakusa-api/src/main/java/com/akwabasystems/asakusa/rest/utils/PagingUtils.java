@@ -0,0 +1,202 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import com.datastax.oss.driver.api.core.AsyncPagingIterable;
+import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PagingState;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+
+/**
+ * A collection of utility methods used to read query results one page at a time.
+ *
+ * The cursor handed out to clients is the URL-safe Base64 encoding of the
+ * driver's paging state, so a page request never holds more than one page of
+ * rows in memory, however large the underlying partition is. The paging state
+ * records the query and the values it was returned for, so a cursor replayed
+ * against another query is rejected rather than resumed at an arbitrary row.
+ */
+public class PagingUtils {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+
+    /**
+     * Parses the requested page size, falling back to the default page size if
+     * none is specified and capping it to the maximum page size
+     *
+     * @param pageSize      the requested page size
+     * @return the page size to use for the query
+     * @throws IllegalArgumentException if the page size is not a positive number
+     */
+    public static int pageSize(String pageSize) {
+        if (pageSize == null || pageSize.isBlank()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        try {
+            int size = Integer.parseInt(pageSize.trim());
+
+            if (size <= 0) {
+                throw new IllegalArgumentException(ApplicationError.INVALID_PAGE_SIZE);
+            }
+
+            return Math.min(size, MAX_PAGE_SIZE);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(ApplicationError.INVALID_PAGE_SIZE);
+        }
+    }
+
+
+    /**
+     * Returns a function that sets the page size and, if a cursor is specified,
+     * the paging state of the statement sent by a DAO method. The DAO methods
+     * apply the function before binding the values of the statement, so the
+     * cursor is checked against the statement once it is built.
+     *
+     * @param pageSize      the number of rows to fetch
+     * @param cursor        the cursor returned with the previous page, if any
+     * @return a function that sets the paging options of a statement
+     * @throws IllegalArgumentException if the cursor is not valid, or, when the
+     *         statement is built, if it was not returned for the same statement
+     */
+    public static Function<BoundStatementBuilder, BoundStatementBuilder> pagingOptions(int pageSize,
+                                                                                       String cursor) {
+        PagingState pagingState = decodeCursor(cursor);
+
+        if (pagingState == null) {
+            return (builder) -> builder.setPageSize(pageSize);
+        }
+
+        return (builder) -> new CursorStatementBuilder(builder.build(), pagingState).setPageSize(pageSize);
+    }
+
+
+    /**
+     * Returns the rows of the current page of the specified result
+     *
+     * @param <T>       the type of the rows in the result
+     * @param result    the result from which to read the page
+     * @return the rows of the current page of the specified result
+     */
+    public static <T> ResultPage<T> pageOf(PagingIterable<T> result) {
+        return pageOf(result, Function.identity());
+    }
+
+
+    /**
+     * Returns the rows of the current page of the specified result, converted
+     * with the given function. Only the rows that have already been fetched are
+     * read, so no further page is requested from the server.
+     *
+     * @param <S>       the type of the rows in the result
+     * @param <T>       the type of the items in the page
+     * @param result    the result from which to read the page
+     * @param converter the function used to convert each row
+     * @return the rows of the current page of the specified result
+     */
+    public static <S,T> ResultPage<T> pageOf(PagingIterable<S> result, Function<S,T> converter) {
+        int available = result.getAvailableWithoutFetching();
+        List<T> items = new ArrayList<>(available);
+        Iterator<S> rows = result.iterator();
+
+        for (int index = 0; index < available; index++) {
+            items.add(converter.apply(rows.next()));
+        }
+
+        String nextCursor = result.isFullyFetched() ? null :
+                encodeCursor(result.getExecutionInfo().getSafePagingState());
+
+        return new ResultPage<>(items, nextCursor);
+    }
+
+
+    /**
+     * Returns the rows of the current page of the specified asynchronous result
+     *
+     * @param <T>       the type of the rows in the result
+     * @param result    the result from which to read the page
+     * @return the rows of the current page of the specified result
+     */
+    public static <T> ResultPage<T> pageOf(AsyncPagingIterable<T,?> result) {
+        return pageOf(result, Function.identity());
+    }
+
+
+    /**
+     * Returns the rows of the current page of the specified asynchronous result,
+     * converted with the given function
+     *
+     * @param <S>       the type of the rows in the result
+     * @param <T>       the type of the items in the page
+     * @param result    the result from which to read the page
+     * @param converter the function used to convert each row
+     * @return the rows of the current page of the specified result
+     */
+    public static <S,T> ResultPage<T> pageOf(AsyncPagingIterable<S,?> result, Function<S,T> converter) {
+        List<T> items = new ArrayList<>(result.remaining());
+
+        for (S row : result.currentPage()) {
+            items.add(converter.apply(row));
+        }
+
+        String nextCursor = result.hasMorePages() ?
+                encodeCursor(result.getExecutionInfo().getSafePagingState()) : null;
+
+        return new ResultPage<>(items, nextCursor);
+    }
+
+
+    private static String encodeCursor(PagingState pagingState) {
+        return (pagingState != null) ?
+                Base64.getUrlEncoder().withoutPadding().encodeToString(pagingState.toBytes()) : null;
+    }
+
+
+    private static PagingState decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            return PagingState.fromBytes(Base64.getUrlDecoder().decode(cursor));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException(ApplicationError.INVALID_CURSOR);
+        }
+    }
+
+
+    /**
+     * A statement builder that sets the paging state of a cursor once the
+     * values of the statement are bound, provided that the cursor was returned
+     * for the same query and values
+     */
+    private static class CursorStatementBuilder extends BoundStatementBuilder {
+
+        private final PagingState pagingState;
+
+        CursorStatementBuilder(BoundStatement template, PagingState pagingState) {
+            super(template);
+            this.pagingState = pagingState;
+        }
+
+        @Override
+        public BoundStatement build() {
+            BoundStatement statement = super.build();
+
+            if (!pagingState.matches(statement)) {
+                throw new IllegalArgumentException(ApplicationError.INVALID_CURSOR);
+            }
+
+            return statement.setPagingState(pagingState.getRawPagingState());
+        }
+
+    }
+
+}
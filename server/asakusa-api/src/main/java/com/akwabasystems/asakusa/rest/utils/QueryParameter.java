@@ -22,14 +22,19 @@ public class QueryParameter {
     
     public static final String TITLE = "title";
     public static final String DESCRIPTION = "description";
+    public static final String BODY = "body";
     public static final String CREATED_BY = "createdBy";
     public static final String CLIENT = "client";
     public static final String ASSIGNEE_ID = "assigneeId";
+    public static final String FROM_USER_ID = "fromUserId";
+    public static final String TO_USER_ID = "toUserId";
+    public static final String TASK_IDS = "taskIds";
     public static final String DEPENDS_ON = "dependsOn";
     public static final String ESTIMATED_DURATION = "estimatedDuration";
     
     public static final String TOKEN = "token";
     public static final String ACCESS_TOKEN = "X-AKWABA-TOKEN";
+    public static final String ACCESS_TOKEN_CLIENT = "X-AKWABA-CLIENT";
     public static final String AUTH_CONTEXT = "X-AKWABA-CONTEXT";
     public static final String CONTEXT = "context";
     public static final String ORIGIN = "origin";
@@ -49,5 +54,10 @@ public class QueryParameter {
     public static final String PRIORITY = "priority";
     public static final String STATUS = "status";
     public static final String TAGS = "tags";
+    public static final String LAST_MODIFIED_DATE = "lastModifiedDate";
+    
+    public static final String PREFIX = "prefix";
+    public static final String PAGE_SIZE = "pageSize";
+    public static final String CURSOR = "cursor";
     
 }
@@ -1,6 +1,9 @@
 
 package com.akwabasystems.asakusa.rest.utils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -11,6 +14,7 @@ import java.util.Map;
 public class QueryUtils {
     
     public static final String ERROR_MESSAGE = "'%s' is a required field";
+    public static final String TYPE_ERROR_MESSAGE = "'%s' must be %s";
     
     
     /**
@@ -72,6 +76,69 @@ public class QueryUtils {
     }
     
     
+    /**
+     * Retrieves the value of the specified required field, which must be a JSON
+     * object
+     * 
+     * @param map           the source map from which to read the value
+     * @param field         the field whose value to retrieve
+     * @return a copy of the object in the specified field
+     * @throws Exception if the value is null or is not an object
+     */
+    public static Map<String,Object> getObjectRequired(Map<String,Object> map,
+                                                       String field) throws Exception {
+        Object value = getValueRequired(map, field);
+        
+        if (!(value instanceof Map)) {
+            throw new Exception(String.format(TYPE_ERROR_MESSAGE, field, "an object"));
+        }
+        
+        Map<String,Object> object = new LinkedHashMap<>();
+        
+        for (Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet()) {
+            object.put(String.valueOf(entry.getKey()), entry.getValue());
+        }
+        
+        return object;
+    }
+    
+    
+    /**
+     * Retrieves the value of the specified field, if present, which must be a
+     * JSON array of strings
+     * 
+     * @param map           the source map from which to read the value
+     * @param field         the field whose value to retrieve
+     * @return a copy of the strings in the specified field if present; otherwise, null
+     * @throws Exception if the value is not an array of strings
+     */
+    public static List<String> getStringListIfPresent(Map<String,Object> map,
+                                                      String field) throws Exception {
+        Object value = map.get(field);
+        
+        if (value == null) {
+            return null;
+        }
+        
+        if (!(value instanceof List)) {
+            throw new Exception(String.format(TYPE_ERROR_MESSAGE, field, "an array of strings"));
+        }
+        
+        List<String> strings = new ArrayList<>();
+        
+        for (Object element : (List<?>) value) {
+            
+            if (!(element instanceof String)) {
+                throw new Exception(String.format(TYPE_ERROR_MESSAGE, field, "an array of strings"));
+            }
+            
+            strings.add((String) element);
+        }
+        
+        return strings;
+    }
+    
+    
     /**
      * Retrieves the value of the specified field, if present.
      * 
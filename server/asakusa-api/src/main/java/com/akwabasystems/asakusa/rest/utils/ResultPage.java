@@ -0,0 +1,28 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+
+/**
+ * A single page of results returned by a list endpoint. The next cursor is an
+ * opaque string that the client sends back to retrieve the following page; it
+ * is null when there are no more results.
+ */
+@Getter
+@Setter
+public class ResultPage<T> {
+
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+
+    public ResultPage() {}
+
+    public ResultPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+
+/**
+ * Thrown when a request is refused because the resource it needs is saturated,
+ * such as the password hashing pool during a burst of logins. The controllers
+ * report it as "503 Service Unavailable", so that clients retry later instead
+ * of waiting in an ever longer queue.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceOverloadedException(String error) {
+        super(error);
+    }
+
+}
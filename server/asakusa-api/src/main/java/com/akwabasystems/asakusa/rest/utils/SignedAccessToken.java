@@ -0,0 +1,37 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+
+
+/**
+ * The claims carried by a signed access token: the ID of the token, the client
+ * to which it was issued, and the date at which it expires.
+ */
+@Getter
+public class SignedAccessToken {
+
+    private final UUID tokenId;
+    private final String client;
+    private final Instant expiresAt;
+
+    public SignedAccessToken(UUID tokenId, String client, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.client = client;
+        this.expiresAt = expiresAt;
+    }
+
+
+    /**
+     * Returns true if this token has expired at the specified date; otherwise,
+     * returns false
+     *
+     * @param now       the date at which to check the token
+     * @return true if this token has expired at the specified date; otherwise, false
+     */
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+}
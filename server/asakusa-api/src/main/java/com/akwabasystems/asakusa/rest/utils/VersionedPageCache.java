@@ -0,0 +1,106 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import com.akwabasystems.asakusa.dao.helper.NearCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+
+/**
+ * A cache of the pages read from the partitions of a list table, such as the
+ * projects of a team or the tasks of a project.
+ *
+ * Each partition has a version, which the services bump once they have written
+ * to the partition. A page is cached under the version of its partition at the
+ * time it was read, so the pages cached before a write are no longer found
+ * after it, and age out of the cache. A page read while a write is in progress
+ * is cached under the version that the write then replaces.
+ *
+ * The versions are local to each instance of the application, so the writes
+ * made by other instances are only seen once the cached pages expire.
+ */
+public class VersionedPageCache<T> {
+
+    private final NearCache<String,ResultPage<T>> pages;
+    private final Map<UUID,Long> versions = new ConcurrentHashMap<>();
+
+
+    /**
+     * Creates a page cache
+     *
+     * @param name              the name of the cache, used to tag its metrics
+     * @param maximumSize       the maximum number of pages in the cache
+     * @param timeToLiveNanos   the time after which a page expires, in nanoseconds
+     */
+    public VersionedPageCache(String name, int maximumSize, long timeToLiveNanos) {
+        this.pages = new NearCache<>(name, maximumSize, timeToLiveNanos);
+    }
+
+
+    /**
+     * Returns the cached page of the specified partition, reading it if it is
+     * not cached for the current version of the partition
+     *
+     * @param partition     the ID of the partition
+     * @param pageSize      the size of the page
+     * @param cursor        the cursor of the page, if any
+     * @param loader        the function that reads the page
+     * @return the page of the partition
+     */
+    public ResultPage<T> get(UUID partition,
+                             int pageSize,
+                             String cursor,
+                             Supplier<ResultPage<T>> loader) {
+        return pages.get(keyOf(partition, pageSize, cursor), (key) -> loader.get());
+    }
+
+
+    /**
+     * Asynchronously returns the cached page of the specified partition, reading
+     * it if it is not cached for the current version of the partition
+     *
+     * @param partition     the ID of the partition
+     * @param pageSize      the size of the page
+     * @param cursor        the cursor of the page, if any
+     * @param loader        the function that reads the page
+     * @return a stage that completes with the page of the partition
+     */
+    public CompletionStage<ResultPage<T>> getAsync(UUID partition,
+                                                   int pageSize,
+                                                   String cursor,
+                                                   Supplier<CompletionStage<ResultPage<T>>> loader) {
+        return pages.getAsync(keyOf(partition, pageSize, cursor), (key) -> loader.get());
+    }
+
+
+    /**
+     * Bumps the version of the specified partition, once it has been written to
+     *
+     * @param partition     the ID of the partition
+     */
+    public void bumpVersion(UUID partition) {
+        versions.merge(partition, 1L, Long::sum);
+    }
+
+    public long versionOf(UUID partition) {
+        return versions.getOrDefault(partition, 0L);
+    }
+
+    public NearCache<String,ResultPage<T>> pages() {
+        return pages;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        pages.bindTo(registry);
+    }
+
+
+    private String keyOf(UUID partition, int pageSize, String cursor) {
+        return String.format("%s|%d|%d|%s", partition, versionOf(partition), pageSize,
+                (cursor != null) ? cursor : "");
+    }
+
+}
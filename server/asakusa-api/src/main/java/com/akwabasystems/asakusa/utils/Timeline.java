@@ -8,24 +8,39 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * A class that contains utility methods for working with calendars, dates, 
  * time and time zones.
+ *
+ * The methods called on every request avoid repeated work: the time zones are
+ * resolved once and cached, and date components are parsed without splitting
+ * the input string.
  */
 public class Timeline {
 
     public static final DateTimeFormatter DATE_FORMAT_UTC;
     public static final DateTimeFormatter LOCAL_DATE_FORMAT;
+    public static final DateTimeFormatter DATE_FORMAT_YEAR_MONTH_DAY_HOUR;
     public static final DateTimeFormatter DATE_FORMAT_YEAR_MONTH_DAY;
+    public static final DateTimeFormatter DATE_FORMAT_YEAR_MONTH;
 
     static { 
         DATE_FORMAT_UTC = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
         LOCAL_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+        DATE_FORMAT_YEAR_MONTH_DAY_HOUR = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH");
         DATE_FORMAT_YEAR_MONTH_DAY = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        DATE_FORMAT_YEAR_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
     }
     
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final int MAX_CACHED_ZONES = 1024;
+    private static final Map<String,ZoneId> zones = new ConcurrentHashMap<>();
+    
    
     /**
      * Formats the specified date in the following UTC format: 2001-01-01T00:00:00Z
@@ -75,7 +90,30 @@ public class Timeline {
      * @return the UTC time zone
      */
     public static ZoneId timezoneUTC() {
-        return ZoneId.of("UTC");
+        return UTC;
+    }
+    
+    
+    /**
+     * Returns the time zone with the specified ID. The time zones are cached,
+     * since resolving a zone ID looks up its rules every time.
+     * 
+     * @param timezoneId    the ID of the time zone (e.g. "America/New_York")
+     * @return the time zone with the specified ID
+     * @throws java.time.DateTimeException if the ID is not a valid time zone ID
+     */
+    public static ZoneId zoneOf(String timezoneId) {
+        ZoneId zone = zones.get(timezoneId);
+        
+        if (zone == null) {
+            zone = ZoneId.of(timezoneId);
+            
+            if (zones.size() < MAX_CACHED_ZONES) {
+                zones.put(timezoneId, zone);
+            }
+        }
+        
+        return zone;
     }
 
      
@@ -93,6 +131,18 @@ public class Timeline {
     }
     
     
+    /**
+     * Returns the current instant, truncated to the millisecond precision of
+     * the Cassandra <code>timestamp</code> type so that a stored value reads
+     * back equal to the one that was written
+     * 
+     * @return the current instant, truncated to milliseconds
+     */
+    public static Instant now() {
+        return Clock.systemUTC().instant().truncatedTo(ChronoUnit.MILLIS);
+    }
+    
+    
     /**
      * Returns the string representation of the current UTC date and time
      * 
@@ -152,4 +202,89 @@ public class Timeline {
         );
     }
     
+    
+    /**
+     * Returns the instant described by a comma-separated list of date 
+     * components, in the order year, month, day, hour, minute and second. The
+     * missing components default to the start of the period, and the input is 
+     * parsed in place rather than split into substrings.
+     * 
+     * @param timezone      the time zone in which to interpret the components
+     * @param components    the date components (e.g. "2023,5,1,13,30")
+     * @return the instant described by the specified date components
+     * @throws NumberFormatException if a component is not a number
+     */
+    public static Instant instantFromComponents(ZoneId timezone, CharSequence components) {
+        int year = 0;
+        int month = 1;
+        int day = 1;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int count = 0;
+        int value = 0;
+        int digits = 0;
+        int length = components.length();
+        
+        for (int index = 0; index <= length; index++) {
+            char current = (index < length) ? components.charAt(index) : ',';
+            
+            if (current >= '0' && current <= '9') {
+                value = value * 10 + (current - '0');
+                digits++;
+                
+                if (digits > 9) {
+                    throw new NumberFormatException("Date component out of range: " + components);
+                }
+            } else if (current == ',') {
+                
+                if (digits == 0) {
+                    if (trailingSeparators(components, index)) {
+                        break;
+                    }
+                    
+                    throw new NumberFormatException("Empty date component: " + components);
+                }
+                
+                if (count == 0) {
+                    year = value;
+                } else if (count == 1) {
+                    month = value;
+                } else if (count == 2) {
+                    day = value;
+                } else if (count == 3) {
+                    hour = value;
+                } else if (count == 4) {
+                    minute = value;
+                } else if (count == 5) {
+                    second = value;
+                }
+                
+                count++;
+                value = 0;
+                digits = 0;
+            } else {
+                throw new NumberFormatException("Invalid date components: " + components);
+            }
+        }
+        
+        if (count == 0) {
+            throw new NumberFormatException("Invalid date components: " + components);
+        }
+        
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, timezone).toInstant();
+    }
+    
+    
+    private static boolean trailingSeparators(CharSequence components, int index) {
+        
+        for (int position = index; position < components.length(); position++) {
+            if (components.charAt(position) != ',') {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
 }
@@ -0,0 +1,141 @@
+package com.akwabasystems.asakusa.benchmark;
+
+import com.akwabasystems.asakusa.dao.helper.JsonMapToTextCodec;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.extern.java.Log;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+
+/**
+ * Compares the JsonMapToText codec with the JSONObject based path it replaces,
+ * which decoded the column to a string, parsed it into a JSONObject and then
+ * converted it to a map before the response was serialized.
+ *
+ * Both the time and the memory allocated per call are measured on the current
+ * thread, so this benchmark does not need a cluster, but it is still not part
+ * of the regular test run:
+ *   mvn test -Dtest=JsonCodecBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log
+public class JsonCodecBenchmark {
+
+    private static final int WARMUP_CALLS = 100_000;
+    private static final int CALLS = 500_000;
+    private static final ProtocolVersion PROTOCOL = ProtocolVersion.DEFAULT;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final JsonMapToTextCodec codec = new JsonMapToTextCodec();
+    private final Map<String,Object> settings = settings();
+
+
+    @Test
+    public void benchmarkDecode() {
+        ByteBuffer column = TypeCodecs.TEXT.encode(new JSONObject(settings).toString(), PROTOCOL);
+        assertThat(codec.decode(column.duplicate(), PROTOCOL)).isEqualTo(originalDecode(column.duplicate()));
+
+        Measurement original = measure(() -> originalDecode(column.duplicate()));
+        Measurement fastPath = measure(() -> codec.decode(column.duplicate(), PROTOCOL));
+
+        log.info(String.format("[JsonCodecBenchmark] Decode - original: %s, codec: %s", original, fastPath));
+
+        assertThat(fastPath.bytesPerCall).isLessThan(original.bytesPerCall);
+    }
+
+
+    @Test
+    public void benchmarkEncode() {
+        ByteBuffer original = originalEncode();
+        ByteBuffer encoded = codec.encode(settings, PROTOCOL);
+        assertThat(codec.decode(encoded.duplicate(), PROTOCOL)).isEqualTo(settings);
+
+        Measurement originalEncoding = measure(this::originalEncode);
+        Measurement fastPath = measure(() -> codec.encode(settings, PROTOCOL));
+
+        log.info(String.format("[JsonCodecBenchmark] Encode - original: %s (%d bytes stored), " +
+                "codec: %s (%d bytes stored)", originalEncoding, original.remaining(), fastPath,
+                encoded.remaining()));
+
+        assertThat(fastPath.bytesPerCall).isLessThan(originalEncoding.bytesPerCall);
+    }
+
+
+    private Map<String,Object> originalDecode(ByteBuffer column) {
+        return new JSONObject(TypeCodecs.TEXT.decode(column, PROTOCOL)).toMap();
+    }
+
+
+    private ByteBuffer originalEncode() {
+        return TypeCodecs.TEXT.encode(new JSONObject(settings).toString(), PROTOCOL);
+    }
+
+
+    private Map<String,Object> settings() {
+        Map<String,Object> notifications = new LinkedHashMap<>();
+        notifications.put("turnOffNotifications", false);
+        notifications.put("channels", List.of("email", "push"));
+        notifications.put("quietHoursStart", 22);
+
+        Map<String,Object> document = new LinkedHashMap<>();
+        document.put("preferredLanguage", "en");
+        document.put("timezone", "America/Los_Angeles");
+        document.put("acceptedTermsAndConditions", true);
+        document.put("theme", "dark");
+        document.put("itemsPerPage", 25);
+        document.put("notifications", notifications);
+
+        return document;
+    }
+
+
+    private Measurement measure(Supplier<?> call) {
+        Object sink = null;
+
+        for (int index = 0; index < WARMUP_CALLS; index++) {
+            sink = call.get();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+
+        for (int index = 0; index < CALLS; index++) {
+            sink = call.get();
+        }
+
+        long elapsedTime = System.nanoTime() - startTime;
+        long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+        assertThat(sink).isNotNull();
+
+        return new Measurement((double) elapsedTime / CALLS, (double) allocatedBytes / CALLS);
+    }
+
+
+    private static final class Measurement {
+
+        private final double nanosPerCall;
+        private final double bytesPerCall;
+
+        private Measurement(double nanosPerCall, double bytesPerCall) {
+            this.nanosPerCall = nanosPerCall;
+            this.bytesPerCall = bytesPerCall;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f ns/call, %.1f bytes/call", nanosPerCall, bytesPerCall);
+        }
+    }
+
+}
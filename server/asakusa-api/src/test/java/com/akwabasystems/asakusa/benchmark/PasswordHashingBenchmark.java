@@ -0,0 +1,162 @@
+package com.akwabasystems.asakusa.benchmark;
+
+import com.akwabasystems.asakusa.rest.service.PasswordHasher;
+import com.akwabasystems.asakusa.rest.utils.ServiceOverloadedException;
+import com.akwabasystems.asakusa.utils.PasswordUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import lombok.extern.java.Log;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+
+/**
+ * Runs a login storm next to a steady load of cheap requests, once with the
+ * passwords verified on the request threads, as the original login did, and
+ * once on the bounded password hashing pool. It reports the throughput and the
+ * p99 latency of the logins and of the other requests.
+ *
+ * There are four times as many login callers as processors, so that the logins
+ * verified on the request threads saturate the processors. The hashing pool
+ * keeps half the processors free for the other requests, and refuses the logins
+ * it cannot queue, which the controllers report as a 503.
+ *
+ * This benchmark does not need a cluster, but it is not part of the regular
+ * test run:
+ *   mvn test -Dtest=PasswordHashingBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log
+public class PasswordHashingBenchmark {
+
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static final int LOGIN_CALLERS = 4 * PROCESSORS;
+    private static final int OTHER_CALLERS = 16;
+    private static final int QUEUE_CAPACITY = 2 * PROCESSORS;
+    private static final long DURATION_SECONDS = 10;
+    private static final char[] PASSWORD = "jsmith01".toCharArray();
+    
+    private final String hash = PasswordUtils.hash(PASSWORD);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String,Object> response = Map.of("id", "jsmith", "name", "John Smith",
+            "tags", List.of("backend", "urgent"), "status", "IN_PROGRESS");
+    
+    
+    @Test
+    public void benchmarkLoginStorm() throws Exception {
+        StormResult inline = runStorm("request threads", () -> PasswordUtils.matches(PASSWORD, hash));
+        
+        PasswordHasher passwordHasher = new PasswordHasher(new SimpleMeterRegistry(), 0, QUEUE_CAPACITY);
+        StormResult pooled = runStorm("hashing pool", () -> passwordHasher.matches(PASSWORD, hash));
+        passwordHasher.stop();
+        
+        assertThat(pooled.otherThroughput).isGreaterThan(inline.otherThroughput);
+    }
+    
+    
+    private StormResult runStorm(String mode, BooleanSupplier login) throws Exception {
+        List<Long> loginLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> otherLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger refusedLogins = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        
+        ExecutorService callers = Executors.newFixedThreadPool(LOGIN_CALLERS + OTHER_CALLERS);
+        
+        for (int index = 0; index < LOGIN_CALLERS; index++) {
+            callers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long startTime = System.nanoTime();
+                    
+                    try {
+                        login.getAsBoolean();
+                        loginLatencies.add(System.nanoTime() - startTime);
+                    } catch (ServiceOverloadedException ex) {
+                        refusedLogins.incrementAndGet();
+                        sleepQuietly(10);
+                    }
+                }
+            });
+        }
+        
+        for (int index = 0; index < OTHER_CALLERS; index++) {
+            callers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long startTime = System.nanoTime();
+                    otherRequest();
+                    otherLatencies.add(System.nanoTime() - startTime);
+                }
+            });
+        }
+        
+        callers.shutdown();
+        callers.awaitTermination(DURATION_SECONDS + 60, TimeUnit.SECONDS);
+        
+        StormResult result = new StormResult(loginLatencies.size() / (double) DURATION_SECONDS,
+                otherLatencies.size() / (double) DURATION_SECONDS);
+        
+        log.info(String.format("[PasswordHashingBenchmark] %s - logins: %.1f/s, p99 %.0f ms, %d refused - "
+                + "other requests: %.0f/s, p99 %.2f ms", 
+                mode, result.loginThroughput, p99Millis(loginLatencies), refusedLogins.get(),
+                result.otherThroughput, p99Millis(otherLatencies)));
+        
+        return result;
+    }
+    
+    
+    private void otherRequest() {
+        
+        try {
+            for (int index = 0; index < 20; index++) {
+                objectMapper.writeValueAsString(response);
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    
+    private static double p99Millis(List<Long> latencies) {
+        
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1) / 1_000_000.0;
+    }
+    
+    
+    private static void sleepQuietly(long millis) {
+        
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    
+    private static class StormResult {
+        
+        private final double loginThroughput;
+        private final double otherThroughput;
+        
+        private StormResult(double loginThroughput, double otherThroughput) {
+            this.loginThroughput = loginThroughput;
+            this.otherThroughput = otherThroughput;
+        }
+    
+    }
+    
+}
@@ -0,0 +1,153 @@
+package com.akwabasystems.asakusa.benchmark;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.TaskDao;
+import com.akwabasystems.asakusa.model.Project;
+import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.rest.service.TaskService;
+import com.akwabasystems.asakusa.rest.utils.AuthorizationTicket;
+import com.akwabasystems.asakusa.utils.TestUtils;
+import com.akwabasystems.asakusa.utils.Timeline;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.java.Log;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+
+/**
+ * Compares the throughput and the thread usage of the synchronous and the
+ * asynchronous service paths for the same read. The synchronous path needs one
+ * blocked caller thread per request in flight, whereas the asynchronous path
+ * keeps the same number of requests in flight from a single caller thread.
+ * 
+ * This benchmark needs a live cluster and is not part of the regular test run:
+ *   mvn test -Dtest=ServicePathBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log
+public class ServicePathBenchmark extends BaseTestSuite {
+
+    private static final int WARMUP_REQUESTS = 1_000;
+    private static final int REQUESTS = 20_000;
+    private static final int REQUESTS_IN_FLIGHT = 64;
+    
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final AuthorizationTicket authTicket = new AuthorizationTicket("benchmark", "benchmark");
+    private Task task;
+    
+    
+    @BeforeAll
+    public void setup() {
+        Project project = TestUtils.defaultProject();
+        task = new Task(project.getId(), UUID.randomUUID(), "Task " + TestUtils.randomSuffix());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
+        daoRegistry.taskDao().create(task);
+    }
+    
+    
+    @AfterAll
+    public void tearDown() throws Exception {
+        TaskDao taskDao = daoRegistry.taskDao();
+        taskDao.deleteTask(task);
+    }
+    
+    
+    @Test
+    public void benchmarkSyncServicePath() throws Exception {
+        runSyncPath(WARMUP_REQUESTS);
+        
+        threads.resetPeakThreadCount();
+        long startTime = System.nanoTime();
+        int completed = runSyncPath(REQUESTS);
+        
+        report("sync", completed, System.nanoTime() - startTime, REQUESTS_IN_FLIGHT);
+        assertThat(completed).isEqualTo(REQUESTS);
+    }
+    
+    
+    @Test
+    public void benchmarkAsyncServicePath() throws Exception {
+        runAsyncPath(WARMUP_REQUESTS);
+        
+        threads.resetPeakThreadCount();
+        long startTime = System.nanoTime();
+        int completed = runAsyncPath(REQUESTS);
+        
+        report("async", completed, System.nanoTime() - startTime, 1);
+        assertThat(completed).isEqualTo(REQUESTS);
+    }
+    
+    
+    private int runSyncPath(int requests) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(REQUESTS_IN_FLIGHT);
+        AtomicInteger completed = new AtomicInteger();
+        
+        for (int index = 0; index < requests; index++) {
+            callers.execute(() -> {
+                if (taskService.findTaskById(authTicket, task.getProjectId(), task.getId()) != null) {
+                    completed.incrementAndGet();
+                }
+            });
+        }
+        
+        callers.shutdown();
+        callers.awaitTermination(5, TimeUnit.MINUTES);
+        
+        return completed.get();
+    }
+    
+    
+    private int runAsyncPath(int requests) throws Exception {
+        Semaphore inFlight = new Semaphore(REQUESTS_IN_FLIGHT);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger completed = new AtomicInteger();
+        
+        for (int index = 0; index < requests; index++) {
+            inFlight.acquire();
+            taskService.findTaskByIdAsync(authTicket, task.getProjectId(), task.getId())
+                    .whenComplete((result, error) -> {
+                        if (result != null) {
+                            completed.incrementAndGet();
+                        }
+                        
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        
+        done.await(5, TimeUnit.MINUTES);
+        
+        return completed.get();
+    }
+    
+    
+    private void report(String path, int requests, long elapsedNanos, int callerThreads) {
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+        
+        log.info(String.format("[ServicePathBenchmark] %s path - %d requests in %.2f s - %.0f requests/s - "
+                + "%d caller thread(s) - peak live threads: %d", 
+                path, requests, elapsedSeconds, requests / elapsedSeconds, 
+                callerThreads, threads.getPeakThreadCount()));
+    }
+    
+}
@@ -0,0 +1,94 @@
+package com.akwabasystems.asakusa.benchmark;
+
+import com.akwabasystems.asakusa.utils.Timeline;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.function.Supplier;
+import lombok.extern.java.Log;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+
+/**
+ * Compares the memory allocated per call by the original Timeline code paths,
+ * which resolve the time zone and split the date components on every call, with
+ * the cached and in-place variants used by the services.
+ *
+ * The allocations are measured per thread, so this benchmark does not need a
+ * cluster, but it is still not part of the regular test run:
+ *   mvn test -Dtest=TimelineBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log
+public class TimelineBenchmark {
+
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int CALLS = 1_000_000;
+    private static final String TIMEZONE_ID = "America/New_York";
+    private static final String COMPONENTS = "2023,5,1,13,30";
+    
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    
+    @Test
+    public void benchmarkComponentParsing() {
+        Instant original = originalParse();
+        Instant fastPath = fastParse();
+        assertThat(fastPath).isEqualTo(original);
+        
+        double originalBytes = bytesPerCall(this::originalParse);
+        double fastPathBytes = bytesPerCall(this::fastParse);
+        
+        log.info(String.format("[TimelineBenchmark] Date components - original: %.1f bytes/call, " +
+                "fast path: %.1f bytes/call", originalBytes, fastPathBytes));
+        
+        assertThat(fastPathBytes).isLessThan(originalBytes);
+    }
+    
+    
+    @Test
+    public void benchmarkTimezoneLookup() {
+        double originalBytes = bytesPerCall(() -> ZoneId.of(TIMEZONE_ID));
+        double fastPathBytes = bytesPerCall(() -> Timeline.zoneOf(TIMEZONE_ID));
+        
+        log.info(String.format("[TimelineBenchmark] Time zone lookup - original: %.1f bytes/call, " +
+                "fast path: %.1f bytes/call", originalBytes, fastPathBytes));
+        
+        assertThat(fastPathBytes).isLessThan(originalBytes);
+    }
+    
+    
+    private Instant originalParse() {
+        return Timeline.dateTimeFromComponents(ZoneId.of(TIMEZONE_ID), COMPONENTS.split(",")).toInstant();
+    }
+    
+    
+    private Instant fastParse() {
+        return Timeline.instantFromComponents(Timeline.zoneOf(TIMEZONE_ID), COMPONENTS);
+    }
+    
+    
+    private double bytesPerCall(Supplier<?> call) {
+        Object sink = null;
+        
+        for (int index = 0; index < WARMUP_CALLS; index++) {
+            sink = call.get();
+        }
+        
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        
+        for (int index = 0; index < CALLS; index++) {
+            sink = call.get();
+        }
+        
+        long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+        assertThat(sink).isNotNull();
+        
+        return (double) allocatedBytes / CALLS;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.akwabasystems.asakusa.config;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+
+public class NullBindingAuditTests extends BaseTestSuite {
+
+    private static final String UPDATE_TITLE = "UPDATE tasks SET title = ?, end_date = ? WHERE project_id = ? AND id = ?";
+    private static final String DELETE_TASK = "DELETE FROM tasks WHERE project_id = ? AND id = ?";
+    
+    
+    @Test
+    public void testCountNullBindingsPerStatement() {
+        NullBindingAudit audit = new NullBindingAudit();
+        
+        audit.onSuccess(SimpleStatement.newInstance(UPDATE_TITLE, "Title", null, "project", "task"), 
+                0, null, null, "");
+        audit.onSuccess(SimpleStatement.newInstance(UPDATE_TITLE, null, null, "project", "task"), 
+                0, null, null, "");
+        audit.onError(SimpleStatement.newInstance(DELETE_TASK, "project", "task"), 
+                new RuntimeException(), 0, null, null, "");
+        
+        assertThat(audit.getExecutions(UPDATE_TITLE)).isEqualTo(2);
+        assertThat(audit.getNullBindings(UPDATE_TITLE)).isEqualTo(3);
+        assertThat(audit.getExecutions(DELETE_TASK)).isEqualTo(1);
+        assertThat(audit.getNullBindings(DELETE_TASK)).isZero();
+        assertThat(audit.getTotalNullBindings()).isEqualTo(3);
+        assertThat(audit.report()).contains(UPDATE_TITLE).doesNotContain(DELETE_TASK);
+        
+        audit.reset();
+        assertThat(audit.getTotalNullBindings()).isZero();
+        assertThat(audit.getExecutions(UPDATE_TITLE)).isZero();
+    }
+    
+    
+    @Test
+    public void testCountNullBindingsOfBatchedStatements() {
+        NullBindingAudit audit = new NullBindingAudit();
+        
+        BatchStatement batch = BatchStatement.builder(BatchType.LOGGED)
+                .addStatement(SimpleStatement.newInstance(UPDATE_TITLE, "Title", null, "project", "task"))
+                .addStatement(SimpleStatement.newInstance(DELETE_TASK, "project", "task"))
+                .build();
+        
+        audit.onSuccess(batch, 0, null, null, "");
+        
+        assertThat(audit.getExecutions(UPDATE_TITLE)).isEqualTo(1);
+        assertThat(audit.getNullBindings(UPDATE_TITLE)).isEqualTo(1);
+        assertThat(audit.getExecutions(DELETE_TASK)).isEqualTo(1);
+    }
+    
+}
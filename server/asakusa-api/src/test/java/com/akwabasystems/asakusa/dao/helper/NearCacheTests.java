@@ -0,0 +1,97 @@
+package com.akwabasystems.asakusa.dao.helper;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+
+public class NearCacheTests extends BaseTestSuite {
+
+    @Test
+    public void testReadThrough() {
+        NearCache<String,String> cache = new NearCache<>("test", 10, TimeUnit.MINUTES.toNanos(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", (key) -> key + loads.incrementAndGet())).isEqualTo("a1");
+        assertThat(cache.get("a", (key) -> key + loads.incrementAndGet())).isEqualTo("a1");
+        assertThat(cache.getAsync("a", (key) -> CompletableFuture.completedFuture("unused"))
+                .toCompletableFuture().join()).isEqualTo("a1");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.hitRatio()).isEqualTo(2.0 / 3);
+
+        /** Null results are not cached */
+        assertThat(cache.get("missing", (key) -> null)).isNull();
+        assertThat(cache.get("missing", (key) -> "found")).isEqualTo("found");
+    }
+
+
+    @Test
+    public void testInvalidation() {
+        NearCache<String,String> cache = new NearCache<>("test", 10, TimeUnit.MINUTES.toNanos(1));
+
+        cache.get("a", (key) -> "old");
+        cache.invalidate("a");
+        assertThat(cache.get("a", (key) -> "new")).isEqualTo("new");
+
+        /** A value loaded while its key is invalidated is returned but not cached */
+        assertThat(cache.get("b", (key) -> {
+            cache.invalidate(key);
+            return "stale";
+        })).isEqualTo("stale");
+        assertThat(cache.get("b", (key) -> "fresh")).isEqualTo("fresh");
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+    }
+
+
+    @Test
+    public void testSizeAndTimeEviction() throws Exception {
+        NearCache<Integer,Integer> boundedCache = new NearCache<>("test", 2, TimeUnit.MINUTES.toNanos(1));
+
+        boundedCache.get(1, (key) -> key);
+        boundedCache.get(2, (key) -> key);
+        boundedCache.get(1, (key) -> key);
+        boundedCache.get(3, (key) -> key);
+
+        /** The least recently used entry is the one evicted */
+        assertThat(boundedCache.size()).isEqualTo(2);
+        assertThat(boundedCache.getEvictions()).isEqualTo(1);
+        assertThat(boundedCache.get(2, (key) -> -key)).isEqualTo(-2);
+
+        NearCache<Integer,Integer> expiringCache = new NearCache<>("test", 10, TimeUnit.MILLISECONDS.toNanos(10));
+        expiringCache.get(1, (key) -> key);
+        Thread.sleep(20);
+
+        assertThat(expiringCache.get(1, (key) -> -key)).isEqualTo(-1);
+        assertThat(expiringCache.getEvictions()).isEqualTo(1);
+    }
+
+
+    @Test
+    public void testMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NearCache<String,String> cache = new NearCache<>("users", 10, TimeUnit.MINUTES.toNanos(1));
+        cache.bindTo(registry);
+
+        cache.get("a", (key) -> key);
+        cache.get("a", (key) -> key);
+
+        assertThat(registry.get("asakusa.cache.gets").tags("cache", "users", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("asakusa.cache.gets").tags("cache", "users", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("asakusa.cache.hit.ratio").tags("cache", "users").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.get("asakusa.cache.size").tags("cache", "users").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("asakusa.cache.evictions").tags("cache", "users")
+                .functionCounter().count()).isZero();
+    }
+
+}
@@ -43,8 +43,8 @@ public class AccessTokenDaoTests extends BaseTestSuite {
         String token = UUID.randomUUID().toString();
         
         AccessToken accessToken = new AccessToken(deviceID, token);
-        accessToken.setCreatedDate(Timeline.currentDateTimeUTCString());
-        accessToken.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        accessToken.setCreatedDate(Timeline.now());
+        accessToken.setLastModifiedDate(Timeline.now());
         
         accessTokenDao.create(accessToken);
         
@@ -42,8 +42,8 @@ public class DeviceTokenDaoTests extends BaseTestSuite {
         String token = UUID.randomUUID().toString();
         
         DeviceToken deviceToken = new DeviceToken(deviceID, token);
-        deviceToken.setCreatedDate(Timeline.currentDateTimeUTCString());
-        deviceToken.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        deviceToken.setCreatedDate(Timeline.now());
+        deviceToken.setLastModifiedDate(Timeline.now());
         
         deviceTokenDao.add(deviceToken);
         
@@ -0,0 +1,117 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.DiscussionDao;
+import com.akwabasystems.asakusa.dao.MessageDao;
+import com.akwabasystems.asakusa.model.Discussion;
+import com.akwabasystems.asakusa.model.DiscussionByAuthor;
+import com.akwabasystems.asakusa.model.Message;
+import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
+import com.akwabasystems.asakusa.utils.TestUtils;
+import com.akwabasystems.asakusa.utils.Timeline;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import java.util.List;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+
+public class DiscussionDaoTests extends BaseTestSuite {
+
+    @Autowired
+    private CqlSession cqlSession;
+    
+    private RepositoryMapper mapper;
+    
+    
+    @BeforeAll
+    public void setup() {
+        mapper = RepositoryMapper.builder(cqlSession).build();
+    }
+    
+    
+    @Test
+    public void testDaoInitialization() {
+        DiscussionDao discussionDao = mapper.discussionDao();
+        assertThat(discussionDao).isNotNull();
+    }
+    
+    
+    @Test
+    public void testCreateDiscussion() throws Exception {
+        DiscussionDao discussionDao = mapper.discussionDao();
+        User user = TestUtils.defaultUser();
+        
+        Discussion discussion = new Discussion(UUID.randomUUID(), Uuids.timeBased(), 
+                "Discussion " + TestUtils.randomSuffix(), user.getUserId());
+        discussion.setCreatedDate(Timeline.now());
+        discussionDao.create(discussion);
+        
+        Discussion savedDiscussion = discussionDao.findById(discussion.getProjectId(), discussion.getId());
+        
+        assertThat(savedDiscussion).isNotNull();
+        assertThat(savedDiscussion.getTitle()).isEqualTo(discussion.getTitle());
+        assertThat(savedDiscussion.getAuthorId()).isEqualTo(user.getUserId());
+        
+        List<Discussion> projectDiscussions = discussionDao.findDiscussionsByProject(discussion.getProjectId(),
+                PagingUtils.pagingOptions(10, null)).all();
+        
+        assertThat(projectDiscussions).containsExactly(discussion);
+        
+    }
+    
+    
+    @Test
+    public void testFindDiscussionsByAuthor() throws Exception {
+        DiscussionDao discussionDao = mapper.discussionDao();
+        String authorId = "author-" + TestUtils.randomSuffix();
+        UUID projectId = UUID.randomUUID();
+        
+        Discussion firstDiscussion = new Discussion(projectId, Uuids.timeBased(), "First discussion", authorId);
+        discussionDao.create(firstDiscussion);
+        
+        Discussion secondDiscussion = new Discussion(UUID.randomUUID(), Uuids.timeBased(), 
+                "Second discussion", authorId);
+        discussionDao.create(secondDiscussion);
+        
+        List<DiscussionByAuthor> authorDiscussions = discussionDao.findDiscussionsByAuthor(authorId,
+                PagingUtils.pagingOptions(10, null)).all();
+        
+        assertThat(authorDiscussions.size()).isEqualTo(2);
+        assertThat(authorDiscussions.get(0).getDiscussionId()).isEqualTo(secondDiscussion.getId());
+        assertThat(authorDiscussions.get(1).toDiscussion()).isEqualTo(firstDiscussion);
+        
+    }
+    
+    
+    @Test
+    public void testDeleteDiscussion() throws Exception {
+        DiscussionDao discussionDao = mapper.discussionDao();
+        MessageDao messageDao = mapper.messageDao();
+        String authorId = "author-" + TestUtils.randomSuffix();
+        
+        Discussion discussion = new Discussion(UUID.randomUUID(), Uuids.timeBased(), 
+                "Discussion " + TestUtils.randomSuffix(), authorId);
+        discussionDao.create(discussion);
+        
+        Message message = new Message(discussion.getProjectId(), discussion.getId(), null, 
+                authorId, "First message");
+        messageDao.create(message);
+        
+        discussionDao.delete(discussion);
+        
+        assertThat(discussionDao.findById(discussion.getProjectId(), discussion.getId())).isNull();
+        assertThat(messageDao.findById(message.getProjectId(), message.getDiscussionId(), 
+                message.getId())).isNull();
+        assertThat(messageDao.findMessageBuckets(discussion.getProjectId(), discussion.getId()).all()).isEmpty();
+        assertThat(discussionDao.findDiscussionsByAuthor(authorId, 
+                PagingUtils.pagingOptions(10, null)).all()).isEmpty();
+        
+    }
+    
+}
@@ -46,8 +46,8 @@ public class MembershipDaoTests extends BaseTestSuite {
         
         
         Membership membership = new Membership(user.getUserId(), UUID.randomUUID(), MembershipType.FREE);
-        membership.setCreatedDate(Timeline.currentDateTimeUTCString());
-        membership.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        membership.setCreatedDate(Timeline.now());
+        membership.setLastModifiedDate(Timeline.now());
         membershipDao.add(membership);
         
         Membership membershipById = membershipDao.findByUserId(user.getUserId());
@@ -57,7 +57,7 @@ public class MembershipDaoTests extends BaseTestSuite {
         assertThat(membershipById.getStatus()).isEqualTo(ItemStatus.ACTIVE);
         
         membershipById.setType(MembershipType.PREMIUM);
-        membershipById.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        membershipById.setLastModifiedDate(Timeline.now());
         membershipDao.save(membershipById);
         
         membershipById = membershipDao.findByUserId(user.getUserId());
@@ -0,0 +1,115 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.MessageDao;
+import com.akwabasystems.asakusa.model.Message;
+import com.akwabasystems.asakusa.model.MessageBucket;
+import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.utils.TestUtils;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+
+public class MessageDaoTests extends BaseTestSuite {
+
+    @Autowired
+    private CqlSession cqlSession;
+    
+    private RepositoryMapper mapper;
+    
+    
+    @BeforeAll
+    public void setup() {
+        mapper = RepositoryMapper.builder(cqlSession).build();
+    }
+    
+    
+    @Test
+    public void testDaoInitialization() {
+        MessageDao messageDao = mapper.messageDao();
+        assertThat(messageDao).isNotNull();
+    }
+    
+    
+    @Test
+    public void testPostMessage() throws Exception {
+        MessageDao messageDao = mapper.messageDao();
+        User user = TestUtils.defaultUser();
+        
+        Message message = new Message(UUID.randomUUID(), UUID.randomUUID(), null, 
+                user.getUserId(), "Hello " + TestUtils.randomSuffix());
+        messageDao.create(message);
+        
+        assertThat(message.getId()).isNotNull();
+        assertThat(message.getId().version()).isEqualTo(1);
+        assertThat(message.getBucket()).isEqualTo(Message.bucketOf(message.getId()));
+        
+        Message savedMessage = messageDao.findById(message.getProjectId(), message.getDiscussionId(), 
+                message.getId());
+        
+        assertThat(savedMessage).isNotNull();
+        assertThat(savedMessage.getBody()).isEqualTo(message.getBody());
+        assertThat(savedMessage.getCreatedDate()).isNotNull();
+        
+        messageDao.delete(savedMessage);
+        
+        assertThat(messageDao.findById(message.getProjectId(), message.getDiscussionId(), 
+                message.getId())).isNull();
+        
+    }
+    
+    
+    @Test
+    public void testFindMessagesAcrossBuckets() throws Exception {
+        MessageDao messageDao = mapper.messageDao();
+        User user = TestUtils.defaultUser();
+        UUID projectId = UUID.randomUUID();
+        UUID discussionId = UUID.randomUUID();
+        
+        long now = System.currentTimeMillis();
+        long yesterday = now - Duration.ofDays(1).toMillis();
+        
+        Message oldMessage = new Message(projectId, discussionId, Uuids.startOf(yesterday), 
+                user.getUserId(), "Yesterday");
+        Message firstMessage = new Message(projectId, discussionId, Uuids.startOf(now - 2), 
+                user.getUserId(), "First");
+        Message secondMessage = new Message(projectId, discussionId, Uuids.startOf(now - 1), 
+                user.getUserId(), "Second");
+        Message thirdMessage = new Message(projectId, discussionId, Uuids.startOf(now), 
+                user.getUserId(), "Third");
+        
+        for (Message message : List.of(oldMessage, firstMessage, secondMessage, thirdMessage)) {
+            messageDao.create(message);
+        }
+        
+        List<String> buckets = messageDao.findMessageBuckets(projectId, discussionId).all()
+                .stream().map(MessageBucket::getBucket).toList();
+        
+        assertThat(buckets).containsExactly(thirdMessage.getBucket(), oldMessage.getBucket());
+        
+        List<Message> latestMessages = messageDao.findLatestMessages(projectId, discussionId, 
+                thirdMessage.getBucket(), 2).all();
+        
+        assertThat(latestMessages).containsExactly(thirdMessage, secondMessage);
+        
+        List<Message> olderMessages = messageDao.findMessagesBefore(projectId, discussionId, 
+                thirdMessage.getBucket(), secondMessage.getId(), 2).all();
+        
+        assertThat(olderMessages).containsExactly(firstMessage);
+        
+        List<Message> previousDay = messageDao.findLatestMessages(projectId, discussionId, 
+                oldMessage.getBucket(), 2).all();
+        
+        assertThat(previousDay).containsExactly(oldMessage);
+        
+    }
+    
+}
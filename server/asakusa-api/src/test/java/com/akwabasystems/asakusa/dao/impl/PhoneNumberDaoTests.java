@@ -50,8 +50,8 @@ public class PhoneNumberDaoTests extends BaseTestSuite {
         
         phoneNumber.setCountryId("US");
         phoneNumber.setFormattedNumber(phoneNumber.toInternationalFormat());
-        phoneNumber.setCreatedDate(Timeline.currentDateTimeUTCString());
-        phoneNumber.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        phoneNumber.setCreatedDate(Timeline.now());
+        phoneNumber.setLastModifiedDate(Timeline.now());
         
         phoneNumberDao.add(phoneNumber);
         
@@ -82,8 +82,8 @@ public class PhoneNumberDaoTests extends BaseTestSuite {
         
         phoneNumber.setCountryId("US");
         phoneNumber.setFormattedNumber(phoneNumber.toInternationalFormat());
-        phoneNumber.setCreatedDate(Timeline.currentDateTimeUTCString());
-        phoneNumber.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        phoneNumber.setCreatedDate(Timeline.now());
+        phoneNumber.setLastModifiedDate(Timeline.now());
         
         phoneNumberDao.add(phoneNumber);
         
@@ -6,19 +6,22 @@ import com.akwabasystems.asakusa.dao.ProjectActivityDao;
 import com.akwabasystems.asakusa.model.ActivityType;
 import com.akwabasystems.asakusa.model.Project;
 import com.akwabasystems.asakusa.model.ProjectActivity;
+import com.akwabasystems.asakusa.model.ProjectActivityBucket;
 import com.akwabasystems.asakusa.model.Team;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
 import com.akwabasystems.asakusa.utils.TestUtils;
 import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
-import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,18 +61,19 @@ public class ProjectActivityDaoTests extends BaseTestSuite {
         ProjectActivity activity = new ProjectActivity(project.getId(), 
                 UUID.randomUUID(), user.getUserId(), ActivityType.PROJECT);
         
-        Map<String,String> details = new HashMap<>();
+        Map<String,Object> details = new HashMap<>();
         details.put("projectId", project.getId().toString());
         details.put("projectName", project.getName());
-        activity.setDetails(new JSONObject(details));
-        activity.setCreatedDate(Timeline.currentDateTimeUTCString());
+        activity.setDetails(details);
+        activity.setCreatedDate(Timeline.now());
         activityDao.create(activity);
         
-        ProjectActivity projectActivity = activityDao.findById(project.getId(), activity.getId());
+        ProjectActivity projectActivity = activityDao.findById(project.getId(), 
+                activity.getCreatedDate(), activity.getId());
         
         assertThat(projectActivity).isNotNull();
         assertThat(projectActivity.getActor()).isEqualTo(user.getUserId());
-        assertThat(projectActivity.getDetails().has("projectId")).isTrue();
+        assertThat(projectActivity.getDetails().containsKey("projectId")).isTrue();
         assertThat(projectActivity.getProjectId()).isEqualTo(project.getId());
         
     }
@@ -88,11 +92,11 @@ public class ProjectActivityDaoTests extends BaseTestSuite {
         ProjectActivity activity1 = new ProjectActivity(project.getId(), 
                 UUID.randomUUID(), user.getUserId(), ActivityType.PROJECT);
         
-        Map<String,String> details = new HashMap<>();
+        Map<String,Object> details = new HashMap<>();
         details.put("projectId", project.getId().toString());
         details.put("projectName", project.getName());
-        activity1.setDetails(new JSONObject(details));
-        activity1.setCreatedDate(Timeline.currentDateTimeUTCString());
+        activity1.setDetails(details);
+        activity1.setCreatedDate(Timeline.now());
         activityDao.create(activity1);
         
         ProjectActivity activity2 = new ProjectActivity(project.getId(), 
@@ -101,11 +105,12 @@ public class ProjectActivityDaoTests extends BaseTestSuite {
         details = new HashMap<>();
         details.put("taskId", UUID.randomUUID().toString());
         details.put("taskTitle", "UI Research task");
-        activity2.setDetails(new JSONObject(details));
-        activity2.setCreatedDate(Timeline.currentDateTimeUTCString());
+        activity2.setDetails(details);
+        activity2.setCreatedDate(Timeline.now());
         activityDao.create(activity2);
         
-        PagingIterable<ProjectActivity> recentActivities = activityDao.findAll(project.getId());
+        PagingIterable<ProjectActivity> recentActivities = activityDao.findActivities(project.getId(),
+                ProjectActivity.bucketOf(activity2.getCreatedDate()), PagingUtils.pagingOptions(10, null));
         List<ProjectActivity> activityList = recentActivities.all();
         
         assertThat(activityList.isEmpty()).isFalse();
@@ -113,4 +118,72 @@ public class ProjectActivityDaoTests extends BaseTestSuite {
         
     }
     
+    
+    @Test
+    public void testActivitiesAreBucketedByMonth() throws Exception {
+        ProjectActivityDao activityDao = mapper.projectActivityDao();
+        
+        Team team = TestUtils.defaultTeam();
+        Project project = new Project(team.getId(), UUID.randomUUID(), 
+                "Project " + TestUtils.randomSuffix());
+        
+        User user = TestUtils.defaultUser();
+        
+        ProjectActivity olderActivity = new ProjectActivity(project.getId(), 
+                UUID.randomUUID(), user.getUserId(), ActivityType.PROJECT);
+        olderActivity.setCreatedDate(Instant.parse("2023-04-30T23:59:59Z"));
+        activityDao.create(olderActivity);
+        
+        ProjectActivity newerActivity = new ProjectActivity(project.getId(), 
+                UUID.randomUUID(), user.getUserId(), ActivityType.TASK);
+        newerActivity.setCreatedDate(Instant.parse("2023-05-01T00:00:00Z"));
+        activityDao.create(newerActivity);
+        
+        assertThat(olderActivity.getBucket()).isEqualTo("2023-04");
+        assertThat(newerActivity.getBucket()).isEqualTo("2023-05");
+        
+        List<ProjectActivityBucket> buckets = activityDao.findBuckets(project.getId()).all();
+        assertThat(buckets).hasSize(2);
+        assertThat(buckets.get(0).getBucket()).isEqualTo("2023-05");
+        assertThat(buckets.get(1).getBucket()).isEqualTo("2023-04");
+        
+        List<ProjectActivity> aprilActivities = activityDao.findActivities(project.getId(), "2023-04",
+                PagingUtils.pagingOptions(10, null)).all();
+        assertThat(aprilActivities).hasSize(1);
+        assertThat(aprilActivities.get(0).getId()).isEqualTo(olderActivity.getId());
+    }
+    
+    
+    @Test
+    public void testCreateActivitiesInBatches() throws Exception {
+        ProjectActivityDao activityDao = mapper.projectActivityDao();
+        
+        Team team = TestUtils.defaultTeam();
+        Project project = new Project(team.getId(), UUID.randomUUID(), 
+                "Project " + TestUtils.randomSuffix());
+        Project otherProject = new Project(team.getId(), UUID.randomUUID(), 
+                "Project " + TestUtils.randomSuffix());
+        
+        User user = TestUtils.defaultUser();
+        List<ProjectActivity> activities = new ArrayList<>();
+        
+        for (int index = 0; index < 5; index++) {
+            Project activityProject = (index % 2 == 0) ? project : otherProject;
+            ProjectActivity activity = new ProjectActivity(activityProject.getId(), 
+                    UUID.randomUUID(), user.getUserId(), ActivityType.TASK);
+            activity.setCreatedDate(Timeline.now());
+            activities.add(activity);
+        }
+        
+        activityDao.createAllAsync(activities).toCompletableFuture().join();
+        
+        String bucket = ProjectActivity.bucketOf(activities.get(0).getCreatedDate());
+        
+        assertThat(activityDao.findActivities(project.getId(), bucket, 
+                PagingUtils.pagingOptions(10, null)).all()).hasSize(3);
+        assertThat(activityDao.findActivities(otherProject.getId(), bucket, 
+                PagingUtils.pagingOptions(10, null)).all()).hasSize(2);
+        assertThat(activityDao.findBuckets(otherProject.getId()).all()).hasSize(1);
+    }
+    
 }
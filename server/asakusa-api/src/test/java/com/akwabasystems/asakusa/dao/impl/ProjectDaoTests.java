@@ -3,17 +3,23 @@ package com.akwabasystems.asakusa.dao.impl;
 
 import com.akwabasystems.asakusa.BaseTestSuite;
 import com.akwabasystems.asakusa.dao.ProjectDao;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
 import com.akwabasystems.asakusa.model.ItemPriority;
 import com.akwabasystems.asakusa.model.ItemStatus;
 import com.akwabasystems.asakusa.model.Project;
 import com.akwabasystems.asakusa.model.Team;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_NAME;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_PRIORITY;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TAGS;
 import com.akwabasystems.asakusa.utils.TestUtils;
 import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeAll;
@@ -49,8 +55,8 @@ public class ProjectDaoTests extends BaseTestSuite {
         
         Project project = new Project(team.getId(), UUID.randomUUID(), 
                 "Project " + TestUtils.randomSuffix());
-        project.setCreatedDate(Timeline.currentDateTimeUTCString());
-        project.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
         projectDao.create(project);
         
         Project projectById = projectDao.findById(team.getId(), project.getId());
@@ -69,6 +75,83 @@ public class ProjectDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testPatchProject() throws Exception {
+        ProjectDao projectDao = mapper.projectDao();
+        Team team = TestUtils.defaultTeam();
+        
+        Project project = new Project(team.getId(), UUID.randomUUID(), 
+                "Project " + TestUtils.randomSuffix());
+        project.setDescription("Original description");
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
+        projectDao.create(project);
+        
+        ColumnPatch patch = new ColumnPatch()
+                .set(COLUMN_NAME, project.getName() + " (Patched)")
+                .set(COLUMN_PRIORITY, ItemPriority.HIGH)
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        
+        assertThat(projectDao.patch(team.getId(), project.getId(), patch)).isTrue();
+        
+        Project projectById = projectDao.findById(team.getId(), project.getId());
+        
+        assertThat(projectById.getName()).contains("(Patched)");
+        assertThat(projectById.getPriority()).isEqualTo(ItemPriority.HIGH);
+        assertThat(projectById.getDescription()).isEqualTo("Original description");
+        
+        ColumnPatch stalePatch = new ColumnPatch()
+                .set(COLUMN_PRIORITY, ItemPriority.LOW)
+                .ifLastModifiedDate(project.getLastModifiedDate());
+        assertThat(projectDao.patch(team.getId(), project.getId(), stalePatch)).isFalse();
+        
+        ColumnPatch missingProjectPatch = new ColumnPatch()
+                .set(COLUMN_PRIORITY, ItemPriority.LOW)
+                .ifExists();
+        assertThat(projectDao.patch(team.getId(), UUID.randomUUID(), missingProjectPatch)).isFalse();
+        
+        projectDao.delete(project);
+        
+        projectById = projectDao.findById(team.getId(), project.getId());
+        assertThat(projectById).isNull();
+    }
+    
+    
+    @Test
+    public void testPatchProjectTags() throws Exception {
+        ProjectDao projectDao = mapper.projectDao();
+        Team team = TestUtils.defaultTeam();
+        
+        Project project = new Project(team.getId(), UUID.randomUUID(), 
+                "Project " + TestUtils.randomSuffix());
+        project.setTags(Set.of("mobile"));
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
+        projectDao.create(project);
+        
+        ColumnPatch addTags = new ColumnPatch()
+                .add(COLUMN_TAGS, Set.of("q3", "customer"))
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(projectDao.patch(team.getId(), project.getId(), addTags)).isTrue();
+        
+        Project projectById = projectDao.findById(team.getId(), project.getId());
+        assertThat(projectById.getTags()).containsExactlyInAnyOrder("mobile", "q3", "customer");
+        
+        ColumnPatch removeTags = new ColumnPatch()
+                .remove(COLUMN_TAGS, Set.of("mobile"))
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(projectDao.patch(team.getId(), project.getId(), removeTags)).isTrue();
+        
+        projectById = projectDao.findById(team.getId(), project.getId());
+        assertThat(projectById.getTags()).containsExactlyInAnyOrder("q3", "customer");
+        
+        projectDao.delete(projectById);
+    }
+    
+    
     @Test
     public void testSaveProject() throws Exception {
         ProjectDao projectDao = mapper.projectDao();
@@ -76,8 +159,8 @@ public class ProjectDaoTests extends BaseTestSuite {
         
         Project project = new Project(team.getId(), UUID.randomUUID(), 
                 "Project " + TestUtils.randomSuffix());
-        project.setCreatedDate(Timeline.currentDateTimeUTCString());
-        project.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
         projectDao.create(project);
         
         Project projectById = projectDao.findById(team.getId(), project.getId());
@@ -108,8 +191,8 @@ public class ProjectDaoTests extends BaseTestSuite {
         
         Project project = new Project(team.getId(), UUID.randomUUID(), 
                 "Project " + TestUtils.randomSuffix());
-        project.setCreatedDate(Timeline.currentDateTimeUTCString());
-        project.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
         projectDao.create(project);
                 
         PagingIterable<Project> teamProjects = projectDao.findProjectsByTeam(team.getId());
@@ -136,8 +219,8 @@ public class ProjectDaoTests extends BaseTestSuite {
         Project project = new Project(team.getId(), UUID.randomUUID(), 
                 "Project " + TestUtils.randomSuffix());
         project.setOwnerId(user.getUserId());
-        project.setCreatedDate(Timeline.currentDateTimeUTCString());
-        project.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
         projectDao.create(project);
                 
         PagingIterable<Project> userProjects = projectDao.findProjectsByOwner(user.getUserId());
@@ -154,6 +237,9 @@ public class ProjectDaoTests extends BaseTestSuite {
         
         assertThat(projectById.getOwnerId()).isNull();
         assertThat(projectById.getName()).isEqualTo(project.getName());
+        assertThat(projectDao.findProjectsByOwner(user.getUserId()).all())
+                .extracting(Project::getId)
+                .doesNotContain(project.getId());
         
         projectDao.delete(project);
         
@@ -162,4 +248,38 @@ public class ProjectDaoTests extends BaseTestSuite {
         
     }
     
+    
+    @Test
+    public void testChangeProjectOwner() throws Exception {
+        ProjectDao projectDao = mapper.projectDao();
+        
+        Team team = TestUtils.defaultTeam();
+        String previousOwnerId = "owner-" + TestUtils.randomSuffix();
+        String newOwnerId = "owner-" + TestUtils.randomSuffix();
+        
+        Project project = new Project(team.getId(), UUID.randomUUID(), 
+                "Project " + TestUtils.randomSuffix());
+        project.setOwnerId(previousOwnerId);
+        project.setCreatedDate(Timeline.now());
+        project.setLastModifiedDate(Timeline.now());
+        projectDao.create(project);
+        
+        assertThat(projectDao.findProjectsByOwner(previousOwnerId).all()).hasSize(1);
+        
+        project.setOwnerId(newOwnerId);
+        project.setName("Renamed " + project.getName());
+        projectDao.save(project);
+        
+        assertThat(projectDao.findProjectsByOwner(previousOwnerId).all()).isEmpty();
+        
+        List<Project> ownerProjects = projectDao.findProjectsByOwner(newOwnerId).all();
+        assertThat(ownerProjects).hasSize(1);
+        assertThat(ownerProjects.get(0).getId()).isEqualTo(project.getId());
+        assertThat(ownerProjects.get(0).getName()).isEqualTo(project.getName());
+        
+        projectDao.delete(project);
+        
+        assertThat(projectDao.findProjectsByOwner(newOwnerId).all()).isEmpty();
+    }
+    
 }
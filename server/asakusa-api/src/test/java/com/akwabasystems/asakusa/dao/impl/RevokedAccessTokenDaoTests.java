@@ -0,0 +1,58 @@
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.RevokedAccessTokenDao;
+import com.akwabasystems.asakusa.model.RevokedAccessToken;
+import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.datastax.oss.driver.api.core.CqlSession;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+
+public class RevokedAccessTokenDaoTests extends BaseTestSuite {
+
+    @Autowired
+    private CqlSession cqlSession;
+    
+    private RepositoryMapper mapper;
+    
+    
+    @BeforeAll
+    public void setup() {
+        mapper = RepositoryMapper.builder(cqlSession).build();
+    }
+    
+    
+    @Test
+    public void testDaoInitialization() {
+        RevokedAccessTokenDao revokedAccessTokenDao = mapper.revokedAccessTokenDao();
+        assertThat(revokedAccessTokenDao).isNotNull();
+    }
+    
+    
+    @Test
+    public void testRevokeAndRetrieveTokens() throws Exception {
+        RevokedAccessTokenDao revokedAccessTokenDao = mapper.revokedAccessTokenDao();
+        Instant expiresAt = Instant.now(Clock.systemUTC()).plus(30, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.SECONDS);
+        
+        RevokedAccessToken revokedToken = new RevokedAccessToken(UUID.randomUUID(), "device-1", expiresAt);
+        revokedAccessTokenDao.revoke(revokedToken, 1800);
+        
+        assertThat(revokedToken.getBucket()).isEqualTo(RevokedAccessToken.bucketOf(expiresAt));
+        
+        List<RevokedAccessToken> revokedTokens = revokedAccessTokenDao.findByBucket(revokedToken.getBucket()).all();
+        assertThat(revokedTokens).contains(revokedToken);
+        
+        RevokedAccessToken tokenFromList = revokedTokens.get(revokedTokens.indexOf(revokedToken));
+        assertThat(tokenFromList.getDeviceId()).isEqualTo("device-1");
+        assertThat(tokenFromList.getExpiresAt()).isEqualTo(expiresAt);
+    }
+    
+}
@@ -0,0 +1,72 @@
+
+package com.akwabasystems.asakusa.dao.impl;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.TagDao;
+import com.akwabasystems.asakusa.model.Tag;
+import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.datastax.oss.driver.api.core.CqlSession;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+
+public class TagDaoTests extends BaseTestSuite {
+
+    @Autowired
+    private CqlSession cqlSession;
+    
+    private RepositoryMapper mapper;
+    
+    
+    @BeforeAll
+    public void setup() {
+        mapper = RepositoryMapper.builder(cqlSession).build();
+    }
+    
+    
+    @Test
+    public void testDaoInitialization() {
+        TagDao tagDao = mapper.tagDao();
+        assertThat(tagDao).isNotNull();
+    }
+    
+    
+    @Test
+    public void testAddRetrieveTeamTags() throws Exception {
+        TagDao tagDao = mapper.tagDao();
+        UUID teamId = UUID.randomUUID();
+        
+        tagDao.add(new Tag(teamId, Tag.idOf(teamId, "urgent"), "urgent", "#FF0000"));
+        tagDao.add(new Tag(teamId, "backend"));
+        tagDao.addAsync(new Tag(teamId, "api")).toCompletableFuture().get();
+        
+        /** Adding a tag again without a color code keeps the stored color code */
+        tagDao.add(new Tag(teamId, "urgent"));
+        
+        List<String> names = tagDao.findByTeam(teamId).all()
+                .stream()
+                .map(Tag::getName)
+                .collect(Collectors.toList());
+        assertThat(names).containsExactly("api", "backend", "urgent");
+        
+        Tag tag = tagDao.findByName(teamId, "urgent");
+        assertThat(tag).isNotNull();
+        assertThat(tag.getId()).isEqualTo(Tag.idOf(teamId, "urgent"));
+        assertThat(tag.getColorCode()).isEqualTo("#FF0000");
+        
+        assertThat(tagDao.findByTeam(UUID.randomUUID()).all()).isEmpty();
+        
+        for (Tag teamTag : tagDao.findByTeam(teamId)) {
+            tagDao.delete(teamTag);
+        }
+        
+        assertThat(tagDao.findByTeam(teamId).all()).isEmpty();
+    }
+    
+
+}
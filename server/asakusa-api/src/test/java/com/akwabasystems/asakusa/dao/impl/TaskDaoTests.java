@@ -2,22 +2,38 @@
 package com.akwabasystems.asakusa.dao.impl;
 
 import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.config.NullBindingAudit;
 import com.akwabasystems.asakusa.dao.TaskDao;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
 import com.akwabasystems.asakusa.model.ItemPriority;
 import com.akwabasystems.asakusa.model.ItemStatus;
 import com.akwabasystems.asakusa.model.Project;
 import com.akwabasystems.asakusa.model.Task;
+import com.akwabasystems.asakusa.model.TaskByAssignee;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_DESCRIPTION;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_START_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_STATUS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TAGS;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_TITLE;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.PagingUtils;
+import com.akwabasystems.asakusa.rest.utils.ResultPage;
 import com.akwabasystems.asakusa.utils.TestUtils;
 import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +44,9 @@ public class TaskDaoTests extends BaseTestSuite {
     @Autowired
     private CqlSession cqlSession;
     
+    @Autowired
+    private NullBindingAudit nullBindingAudit;
+    
     private RepositoryMapper mapper;
     
     
@@ -51,9 +70,9 @@ public class TaskDaoTests extends BaseTestSuite {
         Project project = TestUtils.defaultProject();
         Task task = new Task(project.getId(), UUID.randomUUID(), 
             "Task " + TestUtils.randomSuffix());
-        task.setStartDate(Timeline.currentDateTimeUTCString());
-        task.setCreatedDate(Timeline.currentDateTimeUTCString());
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setStartDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
         
         taskDao.create(task);
         
@@ -72,6 +91,32 @@ public class TaskDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testCreateAndRetrieveTaskAsync() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = TestUtils.defaultProject();
+        Task task = new Task(project.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
+        
+        Task taskById = taskDao.createAsync(task)
+                .thenCompose((created) -> taskDao.findByIdAsync(project.getId(), task.getId()))
+                .toCompletableFuture()
+                .get();
+        
+        assertThat(taskById).isNotNull();
+        assertThat(taskById.getTitle()).isEqualTo(task.getTitle());
+        
+        taskDao.deleteAsync(taskById).toCompletableFuture().get();
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById).isNull();
+        
+    }
+    
+    
     @Test
     public void testSaveTask() throws Exception {
         TaskDao taskDao = mapper.taskDao();
@@ -79,9 +124,9 @@ public class TaskDaoTests extends BaseTestSuite {
         Project project = TestUtils.defaultProject();
         Task task = new Task(project.getId(), UUID.randomUUID(), 
             "Task " + TestUtils.randomSuffix());
-        task.setStartDate(Timeline.currentDateTimeUTCString());
-        task.setCreatedDate(Timeline.currentDateTimeUTCString());
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setStartDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
         
         taskDao.create(task);
         
@@ -105,6 +150,217 @@ public class TaskDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testPatchTask() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        User user = TestUtils.defaultUser();
+        Project project = TestUtils.defaultProject();
+        Task task = new Task(project.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        task.setDescription("Original description");
+        task.setStartDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
+        
+        taskDao.create(task);
+        taskDao.assignTask(task, user.getUserId());
+        
+        Task taskById = taskDao.findById(project.getId(), task.getId());
+        Instant lastModifiedDate = Timeline.now();
+        
+        ColumnPatch patch = new ColumnPatch()
+                .set(COLUMN_TITLE, task.getTitle() + " (Patched)")
+                .set(COLUMN_STATUS, ItemStatus.IN_PROGRESS)
+                .set(COLUMN_LAST_MODIFIED_DATE, lastModifiedDate)
+                .ifLastModifiedDate(taskById.getLastModifiedDate());
+        
+        assertThat(taskDao.patch(project.getId(), task.getId(), patch)).isTrue();
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById.getTitle()).contains("(Patched)");
+        assertThat(taskById.getStatus()).isEqualTo(ItemStatus.IN_PROGRESS);
+        assertThat(taskById.getDescription()).isEqualTo("Original description");
+        assertThat(taskById.getAssigneeId()).isEqualTo(user.getUserId());
+        
+        /** The lookup entry of the assignee is patched along with the task */
+        TaskByAssignee entry = taskDao.findAssignedTasks(user.getUserId(), PagingUtils.pagingOptions(100, null))
+                .all()
+                .stream()
+                .filter((assigned) -> task.getId().equals(assigned.getTaskId()))
+                .findFirst()
+                .orElse(null);
+        assertThat(entry).isNotNull();
+        assertThat(entry.getTitle()).contains("(Patched)");
+        assertThat(entry.getStatus()).isEqualTo(ItemStatus.IN_PROGRESS);
+        
+        /** The last modified date seen before the patch is now stale */
+        ColumnPatch stalePatch = new ColumnPatch()
+                .set(COLUMN_DESCRIPTION, "Stale description")
+                .ifLastModifiedDate(task.getLastModifiedDate());
+        assertThat(taskDao.patch(project.getId(), task.getId(), stalePatch)).isFalse();
+        
+        ColumnPatch missingTaskPatch = new ColumnPatch()
+                .set(COLUMN_DESCRIPTION, "Missing task")
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), UUID.randomUUID(), missingTaskPatch)).isFalse();
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById.getDescription()).isEqualTo("Original description");
+        
+        taskDao.unassignTask(taskById, user.getUserId());
+        taskDao.deleteTask(taskById);
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById).isNull();
+    }
+    
+    
+    @Test
+    public void testPatchTaskTags() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = TestUtils.defaultProject();
+        Task task = new Task(project.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        task.setTags(Set.of("backend"));
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
+        
+        taskDao.create(task);
+        
+        ColumnPatch addTags = new ColumnPatch()
+                .add(COLUMN_TAGS, Set.of("urgent", "api"))
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), task.getId(), addTags)).isTrue();
+        
+        Task taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById.getTags()).containsExactlyInAnyOrder("backend", "urgent", "api");
+        
+        ColumnPatch removeTags = new ColumnPatch()
+                .remove(COLUMN_TAGS, Set.of("backend", "unknown"))
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), task.getId(), removeTags)).isTrue();
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById.getTags()).containsExactlyInAnyOrder("urgent", "api");
+        
+        ColumnPatch missingTaskPatch = new ColumnPatch()
+                .add(COLUMN_TAGS, Set.of("urgent"))
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), UUID.randomUUID(), missingTaskPatch)).isFalse();
+        
+        taskDao.deleteTask(taskById);
+    }
+    
+    
+    @Test
+    public void testPatchMissingTask() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = TestUtils.defaultProject();
+        UUID taskId = UUID.randomUUID();
+        
+        /** A patch of the task alone does not create the missing task */
+        ColumnPatch descriptionPatch = new ColumnPatch()
+                .set(COLUMN_DESCRIPTION, "Missing task")
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), taskId, descriptionPatch)).isFalse();
+        assertThat(taskDao.findById(project.getId(), taskId)).isNull();
+        
+        /** Neither does a patch that is copied to the entry of the assignee */
+        ColumnPatch titlePatch = new ColumnPatch()
+                .set(COLUMN_TITLE, "Missing task")
+                .set(COLUMN_STATUS, ItemStatus.IN_PROGRESS)
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), taskId, titlePatch)).isFalse();
+        assertThat(taskDao.findById(project.getId(), taskId)).isNull();
+    }
+    
+    
+    @Test
+    public void testPatchReassignedTask() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = TestUtils.defaultProject();
+        String previousUserId = "user-" + TestUtils.randomSuffix();
+        String newUserId = "user-" + TestUtils.randomSuffix();
+        Task task = new Task(project.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
+        
+        taskDao.create(task);
+        taskDao.assignTask(task, previousUserId);
+        taskDao.reassignTasks(project.getId(), List.of(task.getId()), previousUserId, newUserId);
+        
+        ColumnPatch patch = new ColumnPatch()
+                .set(COLUMN_TITLE, task.getTitle() + " (Patched)")
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifExists();
+        assertThat(taskDao.patch(project.getId(), task.getId(), patch)).isTrue();
+        
+        /** Only the entry of the current assignee is patched */
+        assertThat(taskDao.findAssignedTasks(previousUserId, PagingUtils.pagingOptions(100, null)).all()).isEmpty();
+        assertThat(taskDao.findAssignedTasks(newUserId, PagingUtils.pagingOptions(100, null)).all())
+                .extracting(TaskByAssignee::getTitle)
+                .containsExactly(task.getTitle() + " (Patched)");
+        
+        Task taskById = taskDao.findById(project.getId(), task.getId());
+        taskDao.unassignTask(taskById, newUserId);
+        taskDao.deleteTask(taskById);
+    }
+    
+    
+    @Test
+    public void testSaveTaskWithoutNullBindings() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = TestUtils.defaultProject();
+        Task task = new Task(project.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        task.setStartDate(Timeline.now());
+        task.setEndDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
+        
+        /** The task has no assignee, description or dependency, which are left unset */
+        nullBindingAudit.reset();
+        taskDao.create(task);
+        assertThat(nullBindingAudit.getTotalNullBindings()).isZero();
+        
+        Task taskById = taskDao.findById(project.getId(), task.getId());
+        taskById.setTitle(taskById.getTitle() + " (Updated)");
+        taskDao.save(taskById);
+        assertThat(nullBindingAudit.getTotalNullBindings()).isZero();
+        
+        /** Only a field that is cleared on the task is written as null */
+        taskById.setEndDate(null);
+        taskDao.save(taskById);
+        assertThat(nullBindingAudit.getTotalNullBindings()).isEqualTo(1);
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById.getTitle()).contains("(Updated)");
+        assertThat(taskById.getEndDate()).isNull();
+        assertThat(taskById.getStartDate()).isNotNull();
+        
+        taskDao.patch(project.getId(), task.getId(), new ColumnPatch().clear(COLUMN_START_DATE));
+        assertThat(nullBindingAudit.getTotalNullBindings()).isEqualTo(2);
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById.getStartDate()).isNull();
+        
+        taskDao.deleteTask(taskById);
+        
+        taskById = taskDao.findById(project.getId(), task.getId());
+        assertThat(taskById).isNull();
+    }
+    
+    
     @Test
     public void testRetrieveTasksByProject() throws Exception {
         TaskDao taskDao = mapper.taskDao();
@@ -112,9 +368,9 @@ public class TaskDaoTests extends BaseTestSuite {
         Project project = TestUtils.defaultProject();
         Task task = new Task(project.getId(), UUID.randomUUID(), 
             "Task " + TestUtils.randomSuffix());
-        task.setStartDate(Timeline.currentDateTimeUTCString());
-        task.setCreatedDate(Timeline.currentDateTimeUTCString());
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setStartDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
         
         taskDao.create(task);
                 
@@ -133,6 +389,47 @@ public class TaskDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testRetrieveTasksByProjectInPages() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = new Project(UUID.randomUUID(), UUID.randomUUID(), 
+            "Project " + TestUtils.randomSuffix());
+        
+        for (int index = 0; index < 5; index++) {
+            Task task = new Task(project.getId(), UUID.randomUUID(), 
+                "Task " + TestUtils.randomSuffix());
+            task.setCreatedDate(Timeline.now());
+            task.setLastModifiedDate(Timeline.now());
+            taskDao.create(task);
+        }
+        
+        ResultPage<Task> firstPage = PagingUtils.pageOf(taskDao.findTasksByProject(project.getId(), 
+                PagingUtils.pagingOptions(3, null)));
+        
+        assertThat(firstPage.getItems()).hasSize(3);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        
+        ResultPage<Task> secondPage = PagingUtils.pageOf(taskDao.findTasksByProject(project.getId(), 
+                PagingUtils.pagingOptions(3, firstPage.getNextCursor())));
+        
+        assertThat(secondPage.getItems()).hasSize(2);
+        assertThat(secondPage.getNextCursor()).isNull();
+        assertThat(secondPage.getItems()).doesNotContainAnyElementsOf(firstPage.getItems());
+        
+        /** A cursor cannot be replayed against the tasks of another project */
+        assertThatThrownBy(() -> taskDao.findTasksByProject(UUID.randomUUID(), 
+                PagingUtils.pagingOptions(3, firstPage.getNextCursor())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(ApplicationError.INVALID_CURSOR);
+        
+        for (Task task : taskDao.findTasksByProject(project.getId()).all()) {
+            taskDao.deleteTask(task);
+        }
+        
+    }
+    
+    
     @Test
     public void testAssignAndUnassignTask() throws Exception {
         TaskDao taskDao = mapper.taskDao();
@@ -141,9 +438,9 @@ public class TaskDaoTests extends BaseTestSuite {
         Project project = TestUtils.defaultProject();
         Task task = new Task(project.getId(), UUID.randomUUID(), 
             "Task " + TestUtils.randomSuffix());
-        task.setStartDate(Timeline.currentDateTimeUTCString());
-        task.setCreatedDate(Timeline.currentDateTimeUTCString());
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setStartDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
         
         taskDao.create(task);
         taskDao.assignTask(task, user.getUserId());
@@ -156,6 +453,11 @@ public class TaskDaoTests extends BaseTestSuite {
         List<Row> rows = userTasksResult.all();
         assertThat(rows.isEmpty()).isFalse();
         
+        /** A task is not unassigned from a user who is no longer its assignee */
+        taskDao.unassignTask(assignedTask, "user-" + TestUtils.randomSuffix());
+        assertThat(taskDao.findById(project.getId(), task.getId()).getAssigneeId()).isEqualTo(user.getUserId());
+        assertThat(taskDao.findTasksByAssignee(project.getId(), user.getUserId()).all()).isNotEmpty();
+        
         taskDao.unassignTask(assignedTask, user.getUserId());
         
         Task taskById = taskDao.findById(project.getId(), assignedTask.getId());
@@ -172,6 +474,89 @@ public class TaskDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testReassignTasks() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project project = TestUtils.defaultProject();
+        String previousUserId = "user-" + TestUtils.randomSuffix();
+        String newUserId = "user-" + TestUtils.randomSuffix();
+        List<UUID> taskIds = new ArrayList<>();
+        
+        for (int index = 0; index < 3; index++) {
+            Task task = new Task(project.getId(), UUID.randomUUID(), 
+                "Task " + TestUtils.randomSuffix());
+            task.setCreatedDate(Timeline.now());
+            task.setLastModifiedDate(Timeline.now());
+            
+            taskDao.create(task);
+            taskDao.assignTask(task, previousUserId);
+            taskIds.add(task.getId());
+        }
+        
+        long reassigned = taskDao.reassignTasks(project.getId(), taskIds, previousUserId, newUserId);
+        assertThat(reassigned).isEqualTo(3);
+        
+        assertThat(taskDao.findTasksByAssignee(project.getId(), previousUserId).all()).isEmpty();
+        assertThat(taskDao.findTasksByAssignee(project.getId(), newUserId).all()).hasSize(3);
+        
+        for (UUID taskId : taskIds) {
+            Task taskById = taskDao.findById(project.getId(), taskId);
+            assertThat(taskById.getAssigneeId()).isEqualTo(newUserId);
+            
+            taskDao.deleteTask(taskById);
+        }
+    }
+    
+    
+    @Test
+    public void testFindAssignedTasks() throws Exception {
+        TaskDao taskDao = mapper.taskDao();
+        
+        Project firstProject = TestUtils.defaultProject();
+        Project secondProject = TestUtils.defaultProject();
+        String userId = "user-" + TestUtils.randomSuffix();
+        String otherUserId = "user-" + TestUtils.randomSuffix();
+        
+        Task firstTask = new Task(firstProject.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        firstTask.setAssigneeId(userId);
+        firstTask.setCreatedDate(Timeline.now());
+        firstTask.setLastModifiedDate(Timeline.now());
+        taskDao.create(firstTask);
+        
+        Task secondTask = new Task(secondProject.getId(), UUID.randomUUID(), 
+            "Task " + TestUtils.randomSuffix());
+        secondTask.setCreatedDate(Timeline.now());
+        secondTask.setLastModifiedDate(Timeline.now());
+        taskDao.create(secondTask);
+        taskDao.assignTask(secondTask, userId);
+        
+        ResultPage<Task> assignedTasks = PagingUtils.pageOf(taskDao.findAssignedTasks(userId, 
+                PagingUtils.pagingOptions(10, null)), TaskByAssignee::toTask);
+        assertThat(assignedTasks.getItems()).hasSize(2);
+        
+        taskDao.assignTask(firstTask, otherUserId);
+        
+        assignedTasks = PagingUtils.pageOf(taskDao.findAssignedTasks(userId, 
+                PagingUtils.pagingOptions(10, null)), TaskByAssignee::toTask);
+        assertThat(assignedTasks.getItems()).hasSize(1);
+        assertThat(assignedTasks.getItems().get(0).getId()).isEqualTo(secondTask.getId());
+        
+        taskDao.deleteTask(secondTask);
+        
+        assignedTasks = PagingUtils.pageOf(taskDao.findAssignedTasks(userId, 
+                PagingUtils.pagingOptions(10, null)), TaskByAssignee::toTask);
+        assertThat(assignedTasks.getItems()).isEmpty();
+        
+        taskDao.deleteTask(firstTask);
+        
+        assignedTasks = PagingUtils.pageOf(taskDao.findAssignedTasks(otherUserId, 
+                PagingUtils.pagingOptions(10, null)), TaskByAssignee::toTask);
+        assertThat(assignedTasks.getItems()).isEmpty();
+    }
+    
+    
     @Test
     public void testDeleteAssignedTask() throws Exception {
         TaskDao taskDao = mapper.taskDao();
@@ -180,9 +565,9 @@ public class TaskDaoTests extends BaseTestSuite {
         Project project = TestUtils.defaultProject();
         Task task = new Task(project.getId(), UUID.randomUUID(), 
             "Task " + TestUtils.randomSuffix());
-        task.setStartDate(Timeline.currentDateTimeUTCString());
-        task.setCreatedDate(Timeline.currentDateTimeUTCString());
-        task.setLastModifiedDate(Timeline.currentDateTimeUTCString());
+        task.setStartDate(Timeline.now());
+        task.setCreatedDate(Timeline.now());
+        task.setLastModifiedDate(Timeline.now());
         
         taskDao.create(task);
         taskDao.assignTask(task, user.getUserId());
@@ -3,10 +3,15 @@ package com.akwabasystems.asakusa.dao.impl;
 
 import com.akwabasystems.asakusa.BaseTestSuite;
 import com.akwabasystems.asakusa.dao.TeamDao;
+import com.akwabasystems.asakusa.dao.helper.ColumnPatch;
 import com.akwabasystems.asakusa.model.Team;
 import com.akwabasystems.asakusa.model.User;
 import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_DESCRIPTION;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_LAST_MODIFIED_DATE;
+import static com.akwabasystems.asakusa.repository.SchemaNames.COLUMN_NAME;
 import com.akwabasystems.asakusa.utils.TestUtils;
+import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
@@ -108,6 +113,39 @@ public class TeamDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testRenameTeam() throws Exception {
+        TeamDao teamDao = mapper.teamDao();
+        
+        Team team = TestUtils.defaultTeam();
+        teamDao.create(team);
+        
+        Team anotherTeam = TestUtils.defaultTeam();
+        teamDao.create(anotherTeam);
+        
+        String previousName = team.getName();
+        String newName = "Renamed " + previousName;
+        
+        Team renamedTeam = teamDao.rename(team, newName);
+        
+        assertThat(renamedTeam.getName()).isEqualTo(newName);
+        assertThat(teamDao.findById(team.getId()).getName()).isEqualTo(newName);
+        assertThat(teamDao.findByName(newName).get().getId()).isEqualTo(team.getId());
+        assertThat(teamDao.findByName(previousName).isPresent()).isFalse();
+        
+        assertThatThrownBy(() -> teamDao.rename(anotherTeam, newName))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("error.teamAlreadyExists");
+        
+        teamDao.delete(team);
+        assertThat(teamDao.findTeamByName(newName)).isNull();
+        
+        teamDao.delete(anotherTeam);
+        assertThat(teamDao.findTeamByName(anotherTeam.getName())).isNull();
+        
+    }
+    
+    
     @Test
     public void testUpdateTeam() throws Exception {
         TeamDao teamDao = mapper.teamDao();
@@ -142,6 +180,44 @@ public class TeamDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testPatchTeam() throws Exception {
+        TeamDao teamDao = mapper.teamDao();
+        
+        Team team = TestUtils.defaultTeam();
+        teamDao.create(team);
+        
+        Team teamById = teamDao.findById(team.getId());
+        String updatedDescription = team.getDescription() + " (Patched)";
+        
+        ColumnPatch patch = new ColumnPatch()
+                .set(COLUMN_DESCRIPTION, updatedDescription)
+                .set(COLUMN_LAST_MODIFIED_DATE, Timeline.now())
+                .ifLastModifiedDate(teamById.getLastModifiedDate());
+        
+        assertThat(teamDao.patch(team.getId(), patch)).isTrue();
+        
+        /** The same last modified date is now stale */
+        assertThat(teamDao.patch(team.getId(), patch)).isFalse();
+        
+        teamById = teamDao.findById(team.getId());
+        assertThat(teamById.getName()).isEqualTo(team.getName());
+        assertThat(teamById.getDescription()).isEqualTo(updatedDescription);
+        
+        /** A new name has to go through a rename */
+        ColumnPatch renamePatch = new ColumnPatch().set(COLUMN_NAME, team.getName() + " (Patched)");
+        
+        assertThatThrownBy(() -> teamDao.patchAsync(team.getId(), renamePatch).toCompletableFuture().get())
+            .hasCauseInstanceOf(IllegalArgumentException.class);
+        
+        teamDao.delete(teamById);
+        
+        teamById = teamDao.findById(team.getId());
+        assertThat(teamById).isNull();
+        
+    }
+    
+    
     @Test
     public void testFindAllTeams() throws Exception {
         TeamDao teamDao = mapper.teamDao();
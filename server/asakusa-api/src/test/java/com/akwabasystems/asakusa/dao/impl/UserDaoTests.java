@@ -2,18 +2,19 @@
 package com.akwabasystems.asakusa.dao.impl;
 
 import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.exception.ConflictException;
 import com.akwabasystems.asakusa.dao.UserDao;
 import com.akwabasystems.asakusa.model.Address;
 import com.akwabasystems.asakusa.model.Gender;
 import com.akwabasystems.asakusa.model.Role;
 import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.model.UserByEmail;
 import com.akwabasystems.asakusa.model.UserCredentials;
 import com.akwabasystems.asakusa.model.UserPreferences;
 import com.akwabasystems.asakusa.repository.AsakusaRepository;
 import com.akwabasystems.asakusa.repository.RepositoryMapper;
 import com.akwabasystems.asakusa.utils.PasswordUtils;
 import com.akwabasystems.asakusa.utils.TestUtils;
-import com.akwabasystems.asakusa.utils.Timeline;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import java.time.ZoneId;
@@ -25,7 +26,6 @@ import java.util.Optional;
 import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -117,7 +117,7 @@ public class UserDaoTests extends BaseTestSuite {
         
         ZonedDateTime birthDate = ZonedDateTime.of(2000, 1, 1, 
                 1, 0, 0, 0, ZoneId.systemDefault());
-        user.setBirthDate(Timeline.toUTCFormat(birthDate));
+        user.setBirthDate(birthDate.toInstant());
         
         Address address = new Address();
         address.setStreet("1 Main Street");
@@ -168,16 +168,20 @@ public class UserDaoTests extends BaseTestSuite {
             "Smith", "ksmith01@example.com");
         
         assertThatThrownBy(() -> userDao.create(userWithId, "ksmith01".toCharArray(), new HashSet<Role>()))
-            .isInstanceOf(IllegalArgumentException.class)
+            .isInstanceOf(ConflictException.class)
             .hasMessage("error.userAlreadyExists");
         
         final User userWithEmail = new User("ksmith-" + TestUtils.randomID(), 
                 "Ken", "Smith", user.getEmail());
         
         assertThatThrownBy(() -> userDao.create(userWithEmail, "ksmith01".toCharArray(), new HashSet<Role>()))
-            .isInstanceOf(IllegalArgumentException.class)
+            .isInstanceOf(ConflictException.class)
             .hasMessage("error.emailAlreadyExists");
         
+        /** The account rejected for its email address is rolled back */
+        assertThat(userDao.findById(userWithEmail.getUserId())).isNull();
+        assertThat(userDao.findByEmail(user.getEmail()).get().getUserId()).isEqualTo(user.getUserId());
+        
         boolean userDeleted = userDao.delete(user);
         assertThat(userDeleted).isTrue();
     }
@@ -219,6 +223,47 @@ public class UserDaoTests extends BaseTestSuite {
     }
     
     
+    @Test
+    public void testChangeUserEmail() throws Exception {
+        UserDao userDao = mapper.userDao();
+        
+        User user = TestUtils.defaultUser();
+        userDao.create(user, "jsmith01".toCharArray(), new HashSet<Role>());
+        
+        String previousEmail = user.getEmail();
+        String newEmail = "new-" + previousEmail;
+        
+        UserByEmail entry = userDao.findUserByEmail(previousEmail);
+        assertThat(entry).isNotNull();
+        assertThat(entry.getUserId()).isEqualTo(user.getUserId());
+        
+        user.setProfile(null);
+        
+        User updatedUser = userDao.changeEmail(user, newEmail);
+        assertThat(updatedUser.getEmail()).isEqualTo(newEmail);
+        assertThat(userDao.findById(user.getUserId()).getEmail()).isEqualTo(newEmail);
+        assertThat(userDao.findById(user.getUserId()).getProfile()).isEqualTo("https://akwaba.systems");
+        
+        assertThat(userDao.findUserByEmail(previousEmail)).isNull();
+        assertThat(userDao.findByEmail(previousEmail).isEmpty()).isTrue();
+        assertThat(userDao.findByEmail(newEmail).get().getUserId()).isEqualTo(user.getUserId());
+        
+        User anotherUser = TestUtils.defaultUser();
+        userDao.create(anotherUser, "jsmith02".toCharArray(), new HashSet<Role>());
+        
+        assertThatThrownBy(() -> userDao.changeEmail(anotherUser, newEmail))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("error.emailAlreadyExists");
+        
+        boolean userDeleted = userDao.delete(user);
+        assertThat(userDeleted).isTrue();
+        assertThat(userDao.findUserByEmail(newEmail)).isNull();
+        
+        userDeleted = userDao.delete(anotherUser);
+        assertThat(userDeleted).isTrue();
+    }
+    
+    
     @Test
     public void testFindAllUsers() throws Exception {
         UserDao userDao = mapper.userDao();
@@ -324,16 +369,15 @@ public class UserDaoTests extends BaseTestSuite {
         settings.put("preferredLanguage", "en");
         settings.put("timezone", "America/Los_Angeles");
 
-        UserPreferences preferences = new UserPreferences(user.getUserId(), 
-                new JSONObject(settings));
+        UserPreferences preferences = new UserPreferences(user.getUserId(), settings);
 
         userDao.savePreferences(preferences);
         
         UserPreferences userPreferences = userDao.getPreferences(user.getUserId());
         assertThat(userPreferences).isNotNull();
         
-        JSONObject currentSettings = userPreferences.getSettings();
-        assertThat(currentSettings.getString("preferredLanguage")).isEqualTo("en");
+        Map<String,Object> currentSettings = userPreferences.getSettings();
+        assertThat(currentSettings.get("preferredLanguage")).isEqualTo("en");
 
         currentSettings.put("timezone", "Asia/Tokyo");
         currentSettings.put("enableNotifications", true);
@@ -341,8 +385,50 @@ public class UserDaoTests extends BaseTestSuite {
         
         userPreferences = userDao.getPreferences(user.getUserId());
         
-        assertThat(userPreferences.getSettings().getString("timezone")).isEqualTo("Asia/Tokyo");
-        assertThat(userPreferences.getSettings().getBoolean("enableNotifications")).isTrue();
+        assertThat(userPreferences.getSettings().get("timezone")).isEqualTo("Asia/Tokyo");
+        assertThat(userPreferences.getSettings().get("enableNotifications")).isEqualTo(true);
+
+        boolean userDeleted = userDao.delete(user);
+        assertThat(userDeleted).isTrue();
+    }
+
+    @Test
+    public void testUpdatePreferencesPerSetting() throws Exception {
+        UserDao userDao = mapper.userDao();
+
+        User user = TestUtils.defaultUser();
+        userDao.create(user, "jsmith01".toCharArray(), new HashSet<>());
+
+        Map<String,Object> notifications = new HashMap<>();
+        notifications.put("turnOffNotifications", false);
+
+        Map<String,Object> settings = new HashMap<>();
+        settings.put("preferredLanguage", "en");
+        settings.put("timezone", "America/Los_Angeles");
+        settings.put("notifications", notifications);
+        userDao.savePreferences(new UserPreferences(user.getUserId(), settings));
+
+        Map<String,Object> changes = new HashMap<>();
+        changes.put("timezone", "Asia/Tokyo");
+        changes.put("itemsPerPage", 25);
+        changes.put("preferredLanguage", null);
+        userDao.updatePreferences(user.getUserId(), changes);
+
+        UserPreferences userPreferences = userDao.getPreferences(user.getUserId());
+
+        assertThat(userPreferences.getSettings()).doesNotContainKey("preferredLanguage");
+        assertThat(userPreferences.getSettings().get("timezone")).isEqualTo("Asia/Tokyo");
+        assertThat(userPreferences.getSettings().get("itemsPerPage")).isEqualTo(25);
+        assertThat(userPreferences.getSettings().get("notifications")).isEqualTo(notifications);
+        assertThat(userPreferences.getLastModifiedDate()).isNotNull();
+
+        userDao.updatePreferencesAsync(user.getUserId(), Map.of("timezone", "Europe/Paris"))
+                .toCompletableFuture()
+                .join();
+
+        userPreferences = userDao.getPreferences(user.getUserId());
+        assertThat(userPreferences.getSettings().get("timezone")).isEqualTo("Europe/Paris");
+        assertThat(userPreferences.getSettings().get("itemsPerPage")).isEqualTo(25);
 
         boolean userDeleted = userDao.delete(user);
         assertThat(userDeleted).isTrue();
@@ -0,0 +1,150 @@
+package com.akwabasystems.asakusa.repository;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.dao.AccessTokenDao;
+import com.akwabasystems.asakusa.dao.UserDao;
+import com.akwabasystems.asakusa.dao.impl.CachingAccessTokenDao;
+import com.akwabasystems.asakusa.dao.impl.CachingUserDao;
+import com.akwabasystems.asakusa.model.AccessToken;
+import com.akwabasystems.asakusa.model.ItemStatus;
+import com.akwabasystems.asakusa.model.Role;
+import com.akwabasystems.asakusa.model.User;
+import com.akwabasystems.asakusa.utils.TestUtils;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+
+
+public class DaoRegistryTests extends BaseTestSuite {
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+    
+    @Autowired
+    private RepositoryMapper repositoryMapper;
+    
+    
+    @Test
+    public void testRegistryInitialization() {
+        assertThat(daoRegistry.userDao()).isNotNull();
+        assertThat(daoRegistry.teamDao()).isNotNull();
+        assertThat(daoRegistry.projectDao()).isNotNull();
+        assertThat(daoRegistry.projectActivityDao()).isNotNull();
+        assertThat(daoRegistry.taskDao()).isNotNull();
+        assertThat(daoRegistry.discussionDao()).isNotNull();
+        assertThat(daoRegistry.messageDao()).isNotNull();
+        assertThat(daoRegistry.phoneNumberDao()).isNotNull();
+        assertThat(daoRegistry.phoneVerificationDao()).isNotNull();
+        assertThat(daoRegistry.deviceTokenDao()).isNotNull();
+        assertThat(daoRegistry.membershipDao()).isNotNull();
+        assertThat(daoRegistry.userSessionDao()).isNotNull();
+        assertThat(daoRegistry.accessTokenDao()).isNotNull();
+    }
+    
+    
+    @Test
+    public void testPreparationTimeIsReported() {
+        assertThat(daoRegistry.getPreparationTime()).isNotNull();
+        assertThat(daoRegistry.getPreparationTime().isNegative()).isFalse();
+        assertThat(daoRegistry.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(daoRegistry.health().getDetails()).containsKey("preparationTimeMillis");
+    }
+    
+    
+    @Test
+    public void testUserReadsAreCachedUntilUpdated() throws Exception {
+        UserDao userDao = daoRegistry.userDao();
+        CachingUserDao cachingUserDao = daoRegistry.cachingUserDao();
+        
+        User user = TestUtils.defaultUser();
+        userDao.create(user, "jsmith01".toCharArray(), new HashSet<Role>());
+        
+        long hits = cachingUserDao.users().getHits();
+        User userById = userDao.findById(user.getUserId());
+        assertThat(userDao.findById(user.getUserId())).isEqualTo(userById).isNotSameAs(userById);
+        assertThat(userDao.findByIdAsync(user.getUserId()).toCompletableFuture().get()).isEqualTo(userById);
+        assertThat(cachingUserDao.users().getHits()).isEqualTo(hits + 2);
+        
+        /** The cached user is not affected by a change that has not been written */
+        userById.setGivenName("Jack");
+        assertThat(userDao.findById(user.getUserId()).getGivenName()).isEqualTo("John");
+        
+        userDao.update(userById);
+        
+        User updatedUser = userDao.findById(user.getUserId());
+        assertThat(updatedUser).isNotSameAs(userById);
+        assertThat(updatedUser.getGivenName()).isEqualTo("Jack");
+        
+        assertThat(userDao.getCredentials(user.getUserId())).isNotNull();
+        userDao.delete(updatedUser);
+        
+        assertThat(userDao.findById(user.getUserId())).isNull();
+        assertThat(userDao.getCredentials(user.getUserId())).isNull();
+    }
+    
+    
+    @Test
+    public void testAccessTokenReadsAreCachedUntilSaved() throws Exception {
+        AccessTokenDao accessTokenDao = daoRegistry.accessTokenDao();
+        CachingAccessTokenDao cachingAccessTokenDao = daoRegistry.cachingAccessTokenDao();
+        String deviceId = UUID.randomUUID().toString();
+        
+        /** The absence of a token is cached as well */
+        long hits = cachingAccessTokenDao.tokens().getHits();
+        assertThat(accessTokenDao.findById(deviceId)).isNull();
+        assertThat(accessTokenDao.findByIdAsync(deviceId).toCompletableFuture().get()).isNull();
+        assertThat(cachingAccessTokenDao.tokens().getHits()).isEqualTo(hits + 1);
+        
+        AccessToken accessToken = new AccessToken(deviceId, UUID.randomUUID().toString());
+        accessTokenDao.create(accessToken);
+        
+        AccessToken tokenById = accessTokenDao.findById(deviceId);
+        assertThat(tokenById).isEqualTo(accessToken);
+        assertThat(accessTokenDao.findById(deviceId)).isNotSameAs(tokenById);
+        
+        /** The cached token is a copy, so a change is only seen once it is saved */
+        tokenById.setStatus(ItemStatus.EXPIRED);
+        assertThat(accessTokenDao.findById(deviceId).getStatus()).isEqualTo(ItemStatus.ACTIVE);
+        accessTokenDao.save(tokenById);
+        
+        AccessToken expiredToken = accessTokenDao.findById(deviceId);
+        assertThat(expiredToken.getStatus()).isEqualTo(ItemStatus.EXPIRED);
+        
+        accessTokenDao.delete(expiredToken);
+        assertThat(accessTokenDao.findById(deviceId)).isNull();
+    }
+    
+    
+    @Test
+    public void testAccessTokensWrittenByAnotherInstanceAreReloaded() throws Exception {
+        CachingAccessTokenDao firstInstance = new CachingAccessTokenDao(repositoryMapper.accessTokenDao(), 
+                100, Duration.ofMinutes(5));
+        CachingAccessTokenDao secondInstance = new CachingAccessTokenDao(repositoryMapper.accessTokenDao(), 
+                100, Duration.ofMinutes(5));
+        String deviceId = UUID.randomUUID().toString();
+        
+        /** The second instance caches the absence of a token before the first one creates it */
+        assertThat(secondInstance.findById(deviceId)).isNull();
+        
+        AccessToken accessToken = new AccessToken(deviceId, UUID.randomUUID().toString());
+        firstInstance.create(accessToken);
+        assertThat(secondInstance.findById(deviceId)).isNull();
+        assertThat(secondInstance.reloadById(deviceId)).isEqualTo(accessToken);
+        assertThat(secondInstance.findById(deviceId)).isEqualTo(accessToken);
+        
+        /** A renewal on the first instance replaces the token cached by the second one */
+        AccessToken renewedToken = new AccessToken(deviceId, UUID.randomUUID().toString());
+        firstInstance.create(renewedToken);
+        assertThat(secondInstance.findById(deviceId)).isEqualTo(accessToken);
+        assertThat(secondInstance.reloadById(deviceId)).isEqualTo(renewedToken);
+        assertThat(secondInstance.findById(deviceId)).isEqualTo(renewedToken);
+        
+        firstInstance.delete(renewedToken);
+        assertThat(secondInstance.reloadById(deviceId)).isNull();
+    }
+    
+}
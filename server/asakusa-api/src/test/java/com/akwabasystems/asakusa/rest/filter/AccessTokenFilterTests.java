@@ -0,0 +1,110 @@
+package com.akwabasystems.asakusa.rest.filter;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.model.AccessToken;
+import com.akwabasystems.asakusa.model.ItemStatus;
+import com.akwabasystems.asakusa.repository.DaoRegistry;
+import com.akwabasystems.asakusa.repository.RepositoryMapper;
+import com.akwabasystems.asakusa.rest.service.AuthService;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.QueryParameter;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+
+public class AccessTokenFilterTests extends BaseTestSuite {
+
+    @Autowired
+    private AccessTokenFilter accessTokenFilter;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private DaoRegistry daoRegistry;
+
+    @Autowired
+    private RepositoryMapper repositoryMapper;
+
+
+    @Test
+    public void testTokenVerification() {
+        AccessToken accessToken = new AccessToken("client", "A1B2C3D4");
+
+        assertThat(AccessTokenFilter.verifyToken(accessToken, "A1B2C3D4")).isNull();
+        assertThat(AccessTokenFilter.verifyToken(accessToken, "A1B2C3D5")).isEqualTo(ApplicationError.INVALID_ACCESS_TOKEN);
+        assertThat(AccessTokenFilter.verifyToken(null, "A1B2C3D4")).isEqualTo(ApplicationError.INVALID_ACCESS_TOKEN);
+
+        accessToken.setStatus(ItemStatus.EXPIRED);
+        assertThat(AccessTokenFilter.verifyToken(accessToken, "A1B2C3D4")).isEqualTo(ApplicationError.EXPIRED_ACCESS_TOKEN);
+    }
+
+
+    @Test
+    public void testRequestsAreFilteredByAccessToken() throws Exception {
+        String client = UUID.randomUUID().toString();
+
+        /** Requests made with an unknown client or without a token are rejected */
+        assertThat(filter("GET", "/api/v1/users/jsmith", client, "A1B2C3D4").getStatus()).isEqualTo(401);
+        assertThat(filter("GET", "/api/v1/users/jsmith", null, null).getStatus()).isEqualTo(401);
+
+        /** Login and signup requests are not verified, but logout and renewal requests are */
+        assertThat(filter("POST", "/api/v1/auth/login", null, null).getStatus()).isEqualTo(200);
+        assertThat(filter("POST", "/api/v1/users", null, null).getStatus()).isEqualTo(200);
+        assertThat(filter("POST", "/api/v1/auth/logout", null, null).getStatus()).isEqualTo(401);
+        assertThat(filter("POST", "/api/v1/auth/access-tokens", null, null).getStatus()).isEqualTo(401);
+
+        AccessToken accessToken = authService.createAccessToken(client);
+        assertThat(filter("GET", "/api/v1/users/jsmith", client, accessToken.getTokenKey()).getStatus()).isEqualTo(200);
+        assertThat(filter("GET", "/api/v1/users/jsmith", client, "A1B2C3D4").getStatus()).isEqualTo(401);
+
+        AccessToken cachedToken = daoRegistry.accessTokenDao().findById(client);
+        cachedToken.setStatus(ItemStatus.EXPIRED);
+        daoRegistry.accessTokenDao().save(cachedToken);
+
+        MockHttpServletResponse response = filter("GET", "/api/v1/users/jsmith", client, accessToken.getTokenKey());
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentAsString()).contains(ApplicationError.EXPIRED_ACCESS_TOKEN);
+    }
+
+
+    @Test
+    public void testTokensRenewedByAnotherInstanceAreAccepted() throws Exception {
+        String client = UUID.randomUUID().toString();
+        AccessToken accessToken = authService.createAccessToken(client);
+        assertThat(filter("GET", "/api/v1/users/jsmith", client, accessToken.getTokenKey()).getStatus()).isEqualTo(200);
+
+        /** Another instance renews the token, bypassing the cache of this one */
+        AccessToken renewedToken = new AccessToken(client, UUID.randomUUID().toString());
+        repositoryMapper.accessTokenDao().create(renewedToken);
+
+        assertThat(filter("GET", "/api/v1/users/jsmith", client, renewedToken.getTokenKey()).getStatus()).isEqualTo(200);
+        assertThat(filter("GET", "/api/v1/users/jsmith", client, accessToken.getTokenKey()).getStatus()).isEqualTo(401);
+    }
+
+
+    private MockHttpServletResponse filter(String method,
+                                           String uri,
+                                           String client,
+                                           String tokenKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        if (client != null) {
+            request.addHeader(QueryParameter.ACCESS_TOKEN_CLIENT, client);
+        }
+
+        if (tokenKey != null) {
+            request.addHeader(QueryParameter.ACCESS_TOKEN, tokenKey);
+        }
+
+        accessTokenFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+}
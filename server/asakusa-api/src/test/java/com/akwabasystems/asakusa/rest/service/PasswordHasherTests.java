@@ -0,0 +1,54 @@
+package com.akwabasystems.asakusa.rest.service;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import com.akwabasystems.asakusa.rest.utils.ApplicationError;
+import com.akwabasystems.asakusa.rest.utils.ServiceOverloadedException;
+import com.akwabasystems.asakusa.utils.PasswordUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+
+public class PasswordHasherTests extends BaseTestSuite {
+
+    @Test
+    public void testHashAndVerify() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher passwordHasher = new PasswordHasher(registry, 2, 4);
+        
+        String hash = passwordHasher.hash("jsmith01".toCharArray());
+        
+        assertThat(PasswordUtils.matches("jsmith01".toCharArray(), hash)).isTrue();
+        assertThat(passwordHasher.matches("jsmith01".toCharArray(), hash)).isTrue();
+        assertThat(passwordHasher.matches("jsmith02".toCharArray(), hash)).isFalse();
+        
+        assertThat(passwordHasher.getPoolSize()).isEqualTo(2);
+        assertThat(registry.get("asakusa.passwords.queue.time").timer().count()).isEqualTo(3);
+        assertThat(registry.get("asakusa.passwords.work.time").tags("operation", "verify").timer().count())
+                .isEqualTo(2);
+        
+        passwordHasher.stop();
+    }
+    
+    
+    @Test
+    public void testOverloadIsRefused() {
+        PasswordHasher passwordHasher = new PasswordHasher(new SimpleMeterRegistry(), 1, 1);
+        
+        /** The first hash runs, the second one waits and the third one is refused */
+        CompletableFuture<String> running = passwordHasher.hashAsync("jsmith01".toCharArray());
+        CompletableFuture<String> waiting = passwordHasher.hashAsync("jsmith02".toCharArray());
+        
+        assertThatThrownBy(() -> passwordHasher.hash("jsmith03".toCharArray()))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .hasMessage(ApplicationError.SERVICE_OVERLOADED);
+        assertThat(passwordHasher.getRejectedCount()).isEqualTo(1);
+        
+        assertThat(running.join()).isNotEmpty();
+        assertThat(waiting.join()).isNotEmpty();
+        passwordHasher.stop();
+    }
+    
+}
@@ -0,0 +1,49 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+
+public class AccessTokenSignerTests extends BaseTestSuite {
+
+    private final AccessTokenSigner signer = new AccessTokenSigner("secret".getBytes(StandardCharsets.UTF_8));
+
+
+    @Test
+    public void testSignAndVerify() {
+        UUID tokenId = UUID.randomUUID();
+        Instant expiresAt = Instant.ofEpochSecond(1700000000L);
+        String tokenKey = signer.sign(new SignedAccessToken(tokenId, "iPhone.jsmith", expiresAt));
+
+        assertThat(AccessTokenSigner.isSigned(tokenKey)).isTrue();
+        assertThat(AccessTokenSigner.isSigned(UUID.randomUUID().toString())).isFalse();
+
+        SignedAccessToken token = signer.verify(tokenKey);
+        assertThat(token.getTokenId()).isEqualTo(tokenId);
+        assertThat(token.getClient()).isEqualTo("iPhone.jsmith");
+        assertThat(token.getExpiresAt()).isEqualTo(expiresAt);
+        assertThat(token.isExpired(expiresAt.minusSeconds(1))).isFalse();
+        assertThat(token.isExpired(expiresAt)).isTrue();
+    }
+
+
+    @Test
+    public void testTamperedTokensAreRejected() {
+        String tokenKey = signer.sign(new SignedAccessToken(UUID.randomUUID(), "client", Instant.now()));
+        String claims = tokenKey.substring(0, tokenKey.lastIndexOf('.'));
+        String signature = tokenKey.substring(tokenKey.lastIndexOf('.') + 1);
+
+        /** Another client, a forged signature, a truncated token or another key */
+        String otherClaims = signer.sign(new SignedAccessToken(UUID.randomUUID(), "other", Instant.now()));
+        assertThat(signer.verify(otherClaims.substring(0, otherClaims.lastIndexOf('.')) + "." + signature)).isNull();
+        assertThat(signer.verify(claims + "." + signature.substring(1))).isNull();
+        assertThat(signer.verify(claims)).isNull();
+        assertThat(signer.verify("v1.!!.??")).isNull();
+        assertThat(new AccessTokenSigner("other".getBytes(StandardCharsets.UTF_8)).verify(tokenKey)).isNull();
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+
+public class QueryUtilsTests extends BaseTestSuite {
+
+    @Test
+    public void testGetObjectRequired() throws Exception {
+        Map<String,Object> map = new LinkedHashMap<>();
+        map.put("settings", Map.of("theme", "dark", "pageSize", 50));
+        map.put("tags", List.of("backend"));
+        
+        Map<String,Object> settings = QueryUtils.getObjectRequired(map, "settings");
+        assertThat(settings).containsEntry("theme", "dark").containsEntry("pageSize", 50);
+        
+        assertThatThrownBy(() -> QueryUtils.getObjectRequired(map, "tags"))
+            .hasMessage("'tags' must be an object");
+        assertThatThrownBy(() -> QueryUtils.getObjectRequired(map, "locale"))
+            .hasMessage("'locale' is a required field");
+    }
+    
+    
+    @Test
+    public void testGetStringListIfPresent() throws Exception {
+        Map<String,Object> map = new LinkedHashMap<>();
+        map.put("taskIds", List.of("task-1", "task-2"));
+        map.put("mixed", List.of("task-1", 2));
+        map.put("settings", Map.of("theme", "dark"));
+        
+        assertThat(QueryUtils.getStringListIfPresent(map, "taskIds")).containsExactly("task-1", "task-2");
+        assertThat(QueryUtils.getStringListIfPresent(map, "tags")).isNull();
+        
+        assertThatThrownBy(() -> QueryUtils.getStringListIfPresent(map, "mixed"))
+            .hasMessage("'mixed' must be an array of strings");
+        assertThatThrownBy(() -> QueryUtils.getStringListIfPresent(map, "settings"))
+            .hasMessage("'settings' must be an array of strings");
+    }
+    
+}
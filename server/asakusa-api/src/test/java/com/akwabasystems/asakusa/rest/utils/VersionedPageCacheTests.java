@@ -0,0 +1,46 @@
+package com.akwabasystems.asakusa.rest.utils;
+
+import com.akwabasystems.asakusa.BaseTestSuite;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+
+public class VersionedPageCacheTests extends BaseTestSuite {
+
+    @Test
+    public void testPagesAreCachedUntilTheVersionChanges() {
+        VersionedPageCache<String> cache = new VersionedPageCache<>("test", 100, TimeUnit.MINUTES.toNanos(1));
+        UUID teamId = UUID.randomUUID();
+        AtomicInteger reads = new AtomicInteger();
+
+        ResultPage<String> firstPage = cache.get(teamId, 50, null,
+                () -> new ResultPage<>(List.of("Project " + reads.incrementAndGet()), "next"));
+        ResultPage<String> cachedPage = cache.getAsync(teamId, 50, null,
+                () -> CompletableFuture.completedFuture(new ResultPage<>(List.of("Project " + reads.incrementAndGet()), null)))
+                .toCompletableFuture().join();
+
+        assertThat(cachedPage).isSameAs(firstPage);
+        assertThat(reads.get()).isEqualTo(1);
+
+        /** Another page size, cursor or partition is another page */
+        cache.get(teamId, 10, null, () -> new ResultPage<>(List.of("Project " + reads.incrementAndGet()), null));
+        cache.get(teamId, 50, "next", () -> new ResultPage<>(List.of("Project " + reads.incrementAndGet()), null));
+        cache.get(UUID.randomUUID(), 50, null, () -> new ResultPage<>(List.of("Project " + reads.incrementAndGet()), null));
+        assertThat(reads.get()).isEqualTo(4);
+
+        cache.bumpVersion(teamId);
+        assertThat(cache.versionOf(teamId)).isEqualTo(1);
+
+        ResultPage<String> newPage = cache.get(teamId, 50, null,
+                () -> new ResultPage<>(List.of("Project " + reads.incrementAndGet()), null));
+        assertThat(newPage).isNotSameAs(firstPage);
+        assertThat(newPage.getItems()).containsExactly("Project 5");
+        assertThat(cache.pages().getHits()).isEqualTo(1);
+    }
+
+}